@@ -1,13 +1,28 @@
 package jvmram.backend;
 
+import com.google.protobuf.Duration;
 import com.google.protobuf.Timestamp;
+import jvmram.alerts.AlertEvent;
+import jvmram.alerts.AlertRule;
+import jvmram.analysis.ClassGrowth;
+import jvmram.analysis.LeakFinding;
+import jvmram.analysis.TopConsumers;
+import jvmram.controller.BurstReport;
+import jvmram.controller.HeapDumpOptions;
+import jvmram.controller.HeapDumpReport;
+import jvmram.controller.SamplingGovernorReport.Degraded;
 import jvmram.model.graph.GraphKey;
 import jvmram.model.graph.GraphPoint;
 import jvmram.process.JvmProcessInfo;
+import jvmram.stats.LatencySnapshot;
+import jvmram.stats.PollStatsSnapshot;
+import jvmram.stats.SelfStats;
 import jvmram.proto.*;
 import org.jspecify.annotations.Nullable;
 
+import java.time.Instant;
 import java.util.Collection;
+import java.util.List;
 
 import static jvmram.model.metrics.MetricType.*;
 
@@ -32,18 +47,27 @@ class Converter {
     }
 
     static jvmram.proto.GraphPoint convert2Grpc(GraphPoint input) {
-        var moment = input.moment();
         return jvmram.proto.GraphPoint.newBuilder()
                 .setBytes(input.bytes())
-                .setMoment(
-                        Timestamp.newBuilder()
-                                .setSeconds(moment.getEpochSecond())
-                                .setNanos(moment.getNano())
-                                .build()
-                )
+                .setMoment(convert2Grpc(input.moment()))
                 .build();
     }
 
+    static Timestamp convert2Grpc(Instant moment) {
+        return Timestamp.newBuilder()
+                .setSeconds(moment.getEpochSecond())
+                .setNanos(moment.getNano())
+                .build();
+    }
+
+    static Scope convert2Grpc(GraphKey.Scope input) {
+        return switch (input) {
+            case PROCESS -> Scope.SCOPE_PROCESS;
+            case GROUP -> Scope.SCOPE_GROUP;
+            case HOST -> Scope.SCOPE_HOST;
+        };
+    }
+
     static PidList convert2Grpc(Collection<Long> pids) {
         return PidList.newBuilder()
                 .addAllPids(pids.stream().map(Converter::convert2Grpc).toList())
@@ -65,6 +89,49 @@ class Converter {
             case HEAP_COMMITTED -> MetricType.HEAP_COMMITTED;
             case NMT_USED -> MetricType.NMT_USED;
             case NMT_COMMITTED -> MetricType.NMT_COMMITTED;
+            case UNEXPLAINED_RSS -> MetricType.UNEXPLAINED_RSS;
+            case UNEXPLAINED_PSS -> MetricType.UNEXPLAINED_PSS;
+            case CGROUP_CURRENT -> MetricType.CGROUP_CURRENT;
+            case CGROUP_MAX -> MetricType.CGROUP_MAX;
+            case CGROUP_ANON -> MetricType.CGROUP_ANON;
+            case CGROUP_FILE -> MetricType.CGROUP_FILE;
+            case CGROUP_KERNEL -> MetricType.CGROUP_KERNEL;
+            case CGROUP_SOCK -> MetricType.CGROUP_SOCK;
+            case CGROUP_SHMEM -> MetricType.CGROUP_SHMEM;
+            case HOST_MEM_AVAILABLE -> MetricType.HOST_MEM_AVAILABLE;
+            case HOST_CACHED -> MetricType.HOST_CACHED;
+            case HOST_DIRTY -> MetricType.HOST_DIRTY;
+            case HOST_ANON_HUGE_PAGES -> MetricType.HOST_ANON_HUGE_PAGES;
+            case HOST_PSI_SOME_AVG10 -> MetricType.HOST_PSI_SOME_AVG10;
+            case HOST_PSI_FULL_AVG10 -> MetricType.HOST_PSI_FULL_AVG10;
+            case HOST_PSI_SOME_TOTAL -> MetricType.HOST_PSI_SOME_TOTAL;
+            case HOST_PSI_FULL_TOTAL -> MetricType.HOST_PSI_FULL_TOTAL;
+            case RSS_ANON -> MetricType.RSS_ANON;
+            case RSS_FILE -> MetricType.RSS_FILE;
+            case RSS_SHMEM -> MetricType.RSS_SHMEM;
+            case RSS_PEAK -> MetricType.RSS_PEAK;
+            case SWAP -> MetricType.SWAP;
+            case MINOR_FAULT_RATE -> MetricType.MINOR_FAULT_RATE;
+            case MAJOR_FAULT_RATE -> MetricType.MAJOR_FAULT_RATE;
+            case THREADS -> MetricType.THREADS;
+            case JAVA_THREADS -> MetricType.JAVA_THREADS;
+            case DAEMON_THREADS -> MetricType.DAEMON_THREADS;
+            case THREAD_STACKS -> MetricType.THREAD_STACKS;
+            case ALLOCATION_RATE -> MetricType.ALLOCATION_RATE;
+            case GC_TIME_SHARE -> MetricType.GC_TIME_SHARE;
+            case PHYSICAL_MEMORY_USED -> MetricType.PHYSICAL_MEMORY_USED;
+            case NATIVE_MEMORY_TRACKED -> MetricType.NATIVE_MEMORY_TRACKED;
+        };
+    }
+
+    static MetricUnit convert2Grpc(jvmram.model.metrics.MetricUnit input) {
+        return switch (input) {
+            case BYTES -> MetricUnit.UNIT_BYTES;
+            case BYTES_PER_SECOND -> MetricUnit.UNIT_BYTES_PER_SECOND;
+            case COUNT -> MetricUnit.UNIT_COUNT;
+            case PER_SECOND -> MetricUnit.UNIT_PER_SECOND;
+            case HUNDREDTHS_OF_PERCENT -> MetricUnit.UNIT_HUNDREDTHS_OF_PERCENT;
+            case MICROSECONDS -> MetricUnit.UNIT_MICROSECONDS;
         };
     }
 
@@ -79,6 +146,38 @@ class Converter {
             case HEAP_COMMITTED -> HEAP_COMMITTED;
             case NMT_USED -> NMT_USED;
             case NMT_COMMITTED -> NMT_COMMITTED;
+            case UNEXPLAINED_RSS -> UNEXPLAINED_RSS;
+            case UNEXPLAINED_PSS -> UNEXPLAINED_PSS;
+            case CGROUP_CURRENT -> CGROUP_CURRENT;
+            case CGROUP_MAX -> CGROUP_MAX;
+            case CGROUP_ANON -> CGROUP_ANON;
+            case CGROUP_FILE -> CGROUP_FILE;
+            case CGROUP_KERNEL -> CGROUP_KERNEL;
+            case CGROUP_SOCK -> CGROUP_SOCK;
+            case CGROUP_SHMEM -> CGROUP_SHMEM;
+            case HOST_MEM_AVAILABLE -> HOST_MEM_AVAILABLE;
+            case HOST_CACHED -> HOST_CACHED;
+            case HOST_DIRTY -> HOST_DIRTY;
+            case HOST_ANON_HUGE_PAGES -> HOST_ANON_HUGE_PAGES;
+            case HOST_PSI_SOME_AVG10 -> HOST_PSI_SOME_AVG10;
+            case HOST_PSI_FULL_AVG10 -> HOST_PSI_FULL_AVG10;
+            case HOST_PSI_SOME_TOTAL -> HOST_PSI_SOME_TOTAL;
+            case HOST_PSI_FULL_TOTAL -> HOST_PSI_FULL_TOTAL;
+            case RSS_ANON -> RSS_ANON;
+            case RSS_FILE -> RSS_FILE;
+            case RSS_SHMEM -> RSS_SHMEM;
+            case RSS_PEAK -> RSS_PEAK;
+            case SWAP -> SWAP;
+            case MINOR_FAULT_RATE -> MINOR_FAULT_RATE;
+            case MAJOR_FAULT_RATE -> MAJOR_FAULT_RATE;
+            case THREADS -> THREADS;
+            case JAVA_THREADS -> JAVA_THREADS;
+            case DAEMON_THREADS -> DAEMON_THREADS;
+            case THREAD_STACKS -> THREAD_STACKS;
+            case ALLOCATION_RATE -> ALLOCATION_RATE;
+            case GC_TIME_SHARE -> GC_TIME_SHARE;
+            case PHYSICAL_MEMORY_USED -> PHYSICAL_MEMORY_USED;
+            case NATIVE_MEMORY_TRACKED -> NATIVE_MEMORY_TRACKED;
             case UNRECOGNIZED -> null;
         };
     }
@@ -87,6 +186,247 @@ class Converter {
         return pid.getPid();
     }
 
+    static jvmram.proto.BurstReport convert2Grpc(BurstReport input) {
+        return jvmram.proto.BurstReport.newBuilder()
+                .setPid(input.pid())
+                .setState(
+                        switch (input.state()) {
+                            case STARTED -> BurstState.BURST_STARTED;
+                            case FINISHED -> BurstState.BURST_FINISHED;
+                        }
+                )
+                .addAllMetricTypes(input.metricTypes().stream().map(Converter::convert2Grpc).toList())
+                .setInterval(convert2Grpc(input.interval()))
+                .setDuration(convert2Grpc(input.duration()))
+                .setExtraPolls(input.extraPolls())
+                .setExtraPollTime(convert2Grpc(input.extraPollTime()))
+                .build();
+    }
+
+    static jvmram.proto.HeapDumpReport convert2Grpc(HeapDumpReport input) {
+        var builder = jvmram.proto.HeapDumpReport.newBuilder()
+                .setPid(input.pid())
+                .setFileName(input.file().toString())
+                .setState(
+                        switch (input.state()) {
+                            case QUEUED -> HeapDumpState.HEAP_DUMP_QUEUED;
+                            case STARTED -> HeapDumpState.HEAP_DUMP_STARTED;
+                            case IN_PROGRESS -> HeapDumpState.HEAP_DUMP_IN_PROGRESS;
+                            case FINISHED -> HeapDumpState.HEAP_DUMP_FINISHED;
+                            case FAILED -> HeapDumpState.HEAP_DUMP_FAILED;
+                        }
+                )
+                .setBytesWritten(input.bytesWritten())
+                .setElapsed(convert2Grpc(input.elapsed()));
+        if (input.error() != null) {
+            builder.setError(input.error());
+        }
+        return builder.build();
+    }
+
+    static HeapDumpOptions fromGrpc(HeapDumpRequest input) {
+        return new HeapDumpOptions(!input.getAllObjects(), input.getGzipLevel(), input.getParallelThreads());
+    }
+
+    static jvmram.proto.LeakFinding convert2Grpc(LeakFinding input) {
+        var builder = jvmram.proto.LeakFinding.newBuilder()
+                .setPid(input.pid())
+                .setKind(
+                        switch (input.kind()) {
+                            case HEAP_AFTER_GC -> LeakKind.LEAK_HEAP_AFTER_GC;
+                            case NATIVE -> LeakKind.LEAK_NATIVE;
+                        }
+                )
+                .setState(
+                        switch (input.state()) {
+                            case SUSPECTED -> LeakFindingState.LEAK_SUSPECTED;
+                            case CLEARED -> LeakFindingState.LEAK_CLEARED;
+                        }
+                )
+                .setMoment(convert2Grpc(input.moment()))
+                .setCurrentBytes(input.currentBytes())
+                .setBytesPerHour(input.bytesPerHour());
+        var timeToLimit = input.timeToLimit();
+        if (timeToLimit != null) {
+            builder.setTimeToLimit(convert2Grpc(timeToLimit));
+        }
+        return builder.build();
+    }
+
+    static jvmram.proto.ClassGrowth convert2Grpc(ClassGrowth input) {
+        var builder = jvmram.proto.ClassGrowth.newBuilder()
+                .setPid(input.pid())
+                .setMoment(convert2Grpc(input.moment()));
+        var sincePrevious = input.sincePrevious();
+        if (sincePrevious != null) {
+            builder.setSincePrevious(convert2Grpc(sincePrevious));
+        }
+        for (var entry : input.classes()) {
+            builder.addClasses(ClassGrowthEntry.newBuilder()
+                    .setClassName(entry.className())
+                    .setInstances(entry.instances())
+                    .setBytes(entry.bytes())
+                    .setInstancesDelta(entry.instancesDelta())
+                    .setBytesDelta(entry.bytesDelta())
+                    .setEnteredTop(entry.enteredTop()));
+        }
+        return builder.build();
+    }
+
+    static jvmram.proto.TopConsumers convert2Grpc(TopConsumers input) {
+        var builder = jvmram.proto.TopConsumers.newBuilder()
+                .setMoment(convert2Grpc(input.moment()))
+                .setProcessCount(input.processCount())
+                .setSweepDuration(convert2Grpc(input.sweepDuration()))
+                .addAllLeftPids(input.leftPids());
+        for (var entry : input.consumers()) {
+            builder.addConsumers(TopConsumer.newBuilder()
+                    .setPid(entry.pid())
+                    .setName(entry.name())
+                    .setRssBytes(entry.rssBytes())
+                    .setRssDelta(entry.rssDelta())
+                    .setEnteredTop(entry.enteredTop()));
+        }
+        return builder.build();
+    }
+
+    static Duration convert2Grpc(java.time.Duration input) {
+        return Duration.newBuilder()
+                .setSeconds(input.getSeconds())
+                .setNanos(input.getNano())
+                .build();
+    }
+
+    static java.time.Duration fromGrpc(Duration input) {
+        return java.time.Duration.ofSeconds(input.getSeconds(), input.getNanos());
+    }
+
+    static jvmram.proto.AlertRule convert2Grpc(AlertRule input) {
+        var builder = jvmram.proto.AlertRule.newBuilder()
+                .setId(input.id())
+                .setMetricType(convert2Grpc(input.metricType()))
+                .setKind(
+                        switch (input.kind()) {
+                            case ABOVE -> AlertRuleKind.ALERT_ABOVE;
+                            case GROWTH -> AlertRuleKind.ALERT_GROWTH;
+                        }
+                )
+                .setThreshold(input.threshold())
+                .setDuration(convert2Grpc(input.duration()));
+        var pid = input.pid();
+        if (pid != null) {
+            builder.setPid(pid);
+        }
+        var processName = input.processName();
+        if (processName != null) {
+            builder.setProcessName(processName);
+        }
+        var webhookUrl = input.webhookUrl();
+        if (webhookUrl != null) {
+            builder.setWebhookUrl(webhookUrl);
+        }
+        var commandName = input.commandName();
+        if (commandName != null) {
+            builder.setCommandName(commandName);
+        }
+        return builder.build();
+    }
+
+    static @Nullable AlertRule fromGrpc(jvmram.proto.AlertRule input) {
+        var metricType = fromGrpc(input.getMetricType());
+        var kind = switch (input.getKind()) {
+            case ALERT_ABOVE -> AlertRule.Kind.ABOVE;
+            case ALERT_GROWTH -> AlertRule.Kind.GROWTH;
+            case UNRECOGNIZED -> null;
+        };
+        if (input.getId().isEmpty() || metricType == null || kind == null) {
+            return null;
+        }
+        return new AlertRule(
+                input.getId(),
+                input.getPid() == 0 ? null : input.getPid(),
+                emptyToNull(input.getProcessName()),
+                metricType,
+                kind,
+                input.getThreshold(),
+                fromGrpc(input.getDuration()),
+                emptyToNull(input.getWebhookUrl()),
+                emptyToNull(input.getCommandName())
+        );
+    }
+
+    static jvmram.proto.AlertEvent convert2Grpc(AlertEvent input) {
+        return jvmram.proto.AlertEvent.newBuilder()
+                .setRuleId(input.ruleId())
+                .setPid(input.pid())
+                .setMetricType(convert2Grpc(input.metricType()))
+                .setState(
+                        switch (input.state()) {
+                            case FIRED -> AlertState.ALERT_FIRED;
+                            case RESOLVED -> AlertState.ALERT_RESOLVED;
+                        }
+                )
+                .setMoment(convert2Grpc(input.moment()))
+                .setBytes(input.bytes())
+                .build();
+    }
+
+    private static @Nullable String emptyToNull(String input) {
+        return input.isEmpty() ? null : input;
+    }
+
+    static BackendStats convert2Grpc(SelfStats input, List<SubscriberStats> subscribers) {
+        var queues = input.queues();
+        return BackendStats.newBuilder()
+                .addAllSuppliers(input.suppliers().stream().map(Converter::convert2Grpc).toList())
+                .setSchedulerLag(convert2Grpc(input.schedulerLag()))
+                .setTickDuration(convert2Grpc(input.tickDuration()))
+                .setQueueSeries(queues.series())
+                .setQueuePoints(queues.points())
+                .setQueueRetainedBytes(queues.retainedBytes())
+                .addAllSubscribers(subscribers)
+                .setCpuTime(convert2Grpc(input.cpuTime()))
+                .setRssBytes(input.rssBytes())
+                .setHeapUsedBytes(input.heapUsedBytes())
+                .setUptime(convert2Grpc(input.uptime()))
+                .build();
+    }
+
+    static SupplierStats convert2Grpc(PollStatsSnapshot input) {
+        return SupplierStats.newBuilder()
+                .setSupplier(input.supplier())
+                .setFailures(input.failures())
+                .setLatency(convert2Grpc(input.latency()))
+                .setCpuTime(convert2Grpc(java.time.Duration.ofNanos(input.cpuNanos())))
+                .build();
+    }
+
+    static LatencyStats convert2Grpc(LatencySnapshot input) {
+        return LatencyStats.newBuilder()
+                .setCount(input.count())
+                .setMean(convert2Grpc(java.time.Duration.ofNanos(input.meanNanos())))
+                .setP50(convert2Grpc(java.time.Duration.ofNanos(input.p50Nanos())))
+                .setP90(convert2Grpc(java.time.Duration.ofNanos(input.p90Nanos())))
+                .setP99(convert2Grpc(java.time.Duration.ofNanos(input.p99Nanos())))
+                .setMax(convert2Grpc(java.time.Duration.ofNanos(input.maxNanos())))
+                .build();
+    }
+
+    static jvmram.proto.SamplingGovernorReport convert2Grpc(jvmram.controller.SamplingGovernorReport input) {
+        return jvmram.proto.SamplingGovernorReport.newBuilder()
+                .setCpuBudget(input.cpuBudget())
+                .setCpuUsed(input.cpuUsed())
+                .addAllDegraded(input.degraded().stream().map(Converter::convert2Grpc).toList())
+                .build();
+    }
+
+    static DegradedSupplier convert2Grpc(Degraded input) {
+        return DegradedSupplier.newBuilder()
+                .setPid(input.pid())
+                .addAllMetricTypes(input.metricTypes().stream().map(Converter::convert2Grpc).toList())
+                .setIntervalStretch(input.stretch())
+                .build();
+    }
 
     private Converter() {
     }
@@ -1,21 +1,33 @@
 package jvmram.backend;
 
 import com.google.protobuf.Empty;
+import io.grpc.Status;
 import io.grpc.stub.StreamObserver;
+import jvmram.alerts.AlertEngine;
+import jvmram.analysis.ClassHistogramTracker;
+import jvmram.analysis.LeakDetector;
+import jvmram.analysis.TopConsumersTracker;
 import jvmram.conf.Config;
+import jvmram.controller.BurstController;
 import jvmram.controller.GraphController;
+import jvmram.controller.HeapDumpOptions;
+import jvmram.controller.HeapDumpReport;
 import jvmram.controller.JmxService;
 import jvmram.controller.ProcessController;
+import jvmram.controller.SamplingGovernor;
+import jvmram.metrics.MetricsFactory;
 import jvmram.model.graph.GraphKey;
 import jvmram.model.graph.GraphPointQueues;
 import jvmram.model.metrics.MetricType;
 import jvmram.proto.*;
+import jvmram.stats.SelfMonitor;
 import jvmram.visibility.MetricVisibility;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.invoke.MethodHandles;
 import java.util.Arrays;
+import java.util.Objects;
 
 import static java.util.stream.Collectors.groupingBy;
 import static jvmram.backend.Converter.convert2Grpc;
@@ -30,26 +42,55 @@ class JvmRamBackendImpl extends AppBackendGrpc.AppBackendImplBase {
     private final GraphPointQueues queues;
     private final JmxService jmxService;
     private final MetricVisibility metricVisibility;
+    private final BurstController burstController;
+    private final LeakDetector leakDetector;
+    private final AlertEngine alertEngine;
+    private final SelfMonitor selfMonitor;
+    private final SamplingGovernor samplingGovernor;
+    private final ClassHistogramTracker classHistogramTracker;
+    private final TopConsumersTracker topConsumersTracker;
+    private final MetricsFactory metricsFactory;
+
+    private final StreamStats streamStats = new StreamStats();
 
     public JvmRamBackendImpl(
             ProcessController processController,
             GraphController graphController,
             GraphPointQueues queues,
             JmxService jmxService,
-            MetricVisibility metricVisibility
+            MetricVisibility metricVisibility,
+            BurstController burstController,
+            LeakDetector leakDetector,
+            AlertEngine alertEngine,
+            SelfMonitor selfMonitor,
+            SamplingGovernor samplingGovernor,
+            ClassHistogramTracker classHistogramTracker,
+            TopConsumersTracker topConsumersTracker,
+            MetricsFactory metricsFactory
     ) {
         this.processController = processController;
         this.graphController = graphController;
         this.queues = queues;
         this.jmxService = jmxService;
         this.metricVisibility = metricVisibility;
+        this.burstController = burstController;
+        this.leakDetector = leakDetector;
+        this.alertEngine = alertEngine;
+        this.selfMonitor = selfMonitor;
+        this.samplingGovernor = samplingGovernor;
+        this.classHistogramTracker = classHistogramTracker;
+        this.topConsumersTracker = topConsumersTracker;
+        this.metricsFactory = metricsFactory;
     }
 
     @Override
-    public void listenJvmProcessList(Empty request, StreamObserver<JvmProcessListResponse> responseObserver) {
-        processController.addAvailableJvmProcessesListener(procInfos -> {
+    public void listenJvmProcessList(Empty request, StreamObserver<JvmProcessListResponse> observer) {
+        var responseObserver = streamStats.count("ListenJvmProcessList", observer);
+        processController.addJvmProcessListDeltaListener(delta -> {
                     var resp = JvmProcessListResponse.newBuilder()
-                            .addAllInfos(procInfos.stream().map(Converter::convert2Grpc).toList())
+                            .setSnapshot(delta.snapshot())
+                            .addAllInfos(delta.added().stream().map(Converter::convert2Grpc).toList())
+                            .addAllRemovedPids(delta.removed())
                             .build();
                     responseObserver.onNext(resp);
                 }
@@ -57,21 +98,23 @@ class JvmRamBackendImpl extends AppBackendGrpc.AppBackendImplBase {
     }
 
     @Override
-    public void listenGraphQueues(Empty request, StreamObserver<GraphQueues> responseObserver) {
+    public void listenGraphQueues(Empty request, StreamObserver<GraphQueues> observer) {
+        var responseObserver = streamStats.count("ListenGraphQueues", observer);
         graphController.addRenderer(() -> {
             queues.keys()
                     .stream()
-                    .collect(groupingBy(GraphKey::pid))
-                    .forEach((pid, keys) -> {
+                    .collect(groupingBy(GraphKey::scope, groupingBy(GraphKey::pid)))
+                    .forEach((scope, byPid) -> byPid.forEach((pid, keys) -> {
                         var resp = GraphQueues.newBuilder()
                                 .setPid(pid)
+                                .setScope(convert2Grpc(scope))
                                 .addAllQueues(
                                         keys.stream()
                                                 .map(k -> convert2Grpc(k, queues.getPoints(k)))
                                                 .toList()
                                 ).build();
                         responseObserver.onNext(resp);
-                    });
+                    }));
         });
     }
 
@@ -93,9 +136,38 @@ class JvmRamBackendImpl extends AppBackendGrpc.AppBackendImplBase {
 
     @Override
     public void dumpHeap(File request, StreamObserver<Empty> responseObserver) {
+        try {
+            jmxService.createHeapDump(
+                    request.getPid(),
+                    request.getFileName(),
+                    HeapDumpOptions.DEFAULT,
+                    report -> LOG.debug("Heap dump report {}", report)
+            );
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
         fireEmptyResponse(responseObserver);
+    }
 
-        jmxService.createHeapDump(request.getFileName());
+    @Override
+    public void startHeapDump(HeapDumpRequest request, StreamObserver<jvmram.proto.HeapDumpReport> observer) {
+        var responseObserver = streamStats.count("StartHeapDump", observer);
+        try {
+            jmxService.createHeapDump(
+                    request.getPid(),
+                    request.getFileName(),
+                    Converter.fromGrpc(request),
+                    report -> {
+                        responseObserver.onNext(convert2Grpc(report));
+                        if (report.state() == HeapDumpReport.State.FINISHED || report.state() == HeapDumpReport.State.FAILED) {
+                            responseObserver.onCompleted();
+                        }
+                    }
+            );
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+        }
     }
 
     @Override
@@ -128,13 +200,18 @@ class JvmRamBackendImpl extends AppBackendGrpc.AppBackendImplBase {
 
     @Override
     public void getApplicableMetrics(Empty request, StreamObserver<ApplicableMetricsResponse> responseObserver) {
-        var metrics = Arrays.stream(MetricType.values())
+        var response = ApplicableMetricsResponse.newBuilder();
+        Arrays.stream(MetricType.values())
                 .filter(it -> it.isApplicable(Config.os))
-                .map(Converter::convert2Grpc)
-                .toList();
-        var response = ApplicableMetricsResponse.newBuilder().addAllTypes(metrics).build();
+                .forEach(it -> {
+                    response.addTypes(Converter.convert2Grpc(it));
+                    response.addUnits(Converter.convert2Grpc(it.getUnit()));
+                    if (metricVisibility.isVisible(it)) {
+                        response.addVisibleTypes(Converter.convert2Grpc(it));
+                    }
+                });
 
-        responseObserver.onNext(response);
+        responseObserver.onNext(response.build());
         responseObserver.onCompleted();
     }
 
@@ -166,7 +243,117 @@ class JvmRamBackendImpl extends AppBackendGrpc.AppBackendImplBase {
     public void refreshAvailableJvmProcesses(Empty request, StreamObserver<Empty> responseObserver) {
         fireEmptyResponse(responseObserver);
 
-        processController.refreshAvailableJvmProcesses();
+        processController.rescanJvmProcesses();
+    }
+
+    @Override
+    public void startBurst(BurstRequest request, StreamObserver<jvmram.proto.BurstReport> observer) {
+        var responseObserver = streamStats.count("StartBurst", observer);
+        var types = request.getMetricTypesList().stream()
+                .map(Converter::fromGrpc)
+                .filter(Objects::nonNull)
+                .toList();
+        try {
+            burstController.startBurst(
+                    request.getPid(),
+                    types,
+                    Converter.fromGrpc(request.getInterval()),
+                    Converter.fromGrpc(request.getDuration()),
+                    report -> {
+                        responseObserver.onNext(convert2Grpc(report));
+                        if (report.state() == jvmram.controller.BurstReport.State.FINISHED) {
+                            responseObserver.onCompleted();
+                        }
+                    }
+            );
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+        }
+    }
+
+    @Override
+    public void listenLeakFindings(Empty request, StreamObserver<jvmram.proto.LeakFinding> observer) {
+        var responseObserver = streamStats.count("ListenLeakFindings", observer);
+        leakDetector.addFindingsListener(finding -> responseObserver.onNext(convert2Grpc(finding)));
+    }
+
+    @Override
+    public void listenClassGrowth(Pid request, StreamObserver<jvmram.proto.ClassGrowth> observer) {
+        var responseObserver = streamStats.count("ListenClassGrowth", observer);
+        classHistogramTracker.addGrowthListener(
+                request.getPid(),
+                growth -> responseObserver.onNext(convert2Grpc(growth))
+        );
+    }
+
+    @Override
+    public void listenTopConsumers(Empty request, StreamObserver<jvmram.proto.TopConsumers> observer) {
+        var responseObserver = streamStats.count("ListenTopConsumers", observer);
+        topConsumersTracker.addTopListener(top -> responseObserver.onNext(convert2Grpc(top)));
+    }
+
+    @Override
+    public void setJfrIngest(JfrIngestRequest request, StreamObserver<Empty> responseObserver) {
+        fireEmptyResponse(responseObserver);
+
+        if (request.getEnabled()) {
+            metricsFactory.setJfrIngest(request.getPid(), request.getSettingsMap());
+        } else {
+            metricsFactory.setPollIngest(request.getPid());
+        }
+    }
+
+    @Override
+    public void putAlertRule(jvmram.proto.AlertRule request, StreamObserver<Empty> responseObserver) {
+        var rule = Converter.fromGrpc(request);
+        if (rule == null) {
+            LOG.warn("Failed to convert input rule of putAlertRule {}", request);
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription("Malformed alert rule").asRuntimeException());
+            return;
+        }
+        try {
+            alertEngine.putRule(rule);
+        } catch (IllegalArgumentException e) {
+            LOG.warn("Rejected alert rule {}: {}", rule.id(), e.getMessage());
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
+        fireEmptyResponse(responseObserver);
+    }
+
+    @Override
+    public void removeAlertRule(AlertRuleId request, StreamObserver<Empty> responseObserver) {
+        fireEmptyResponse(responseObserver);
+
+        alertEngine.removeRule(request.getId());
+    }
+
+    @Override
+    public void getAlertRules(Empty request, StreamObserver<AlertRuleList> responseObserver) {
+        var response = AlertRuleList.newBuilder()
+                .addAllRules(alertEngine.getRules().stream().map(Converter::convert2Grpc).toList())
+                .build();
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void listenAlerts(Empty request, StreamObserver<jvmram.proto.AlertEvent> observer) {
+        var responseObserver = streamStats.count("ListenAlerts", observer);
+        alertEngine.addEventListener(event -> responseObserver.onNext(convert2Grpc(event)));
+    }
+
+    @Override
+    public void getBackendStats(Empty request, StreamObserver<BackendStats> responseObserver) {
+        var response = convert2Grpc(selfMonitor.snapshot(), streamStats.snapshot());
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void listenSamplingGovernor(Empty request, StreamObserver<jvmram.proto.SamplingGovernorReport> observer) {
+        var responseObserver = streamStats.count("ListenSamplingGovernor", observer);
+        samplingGovernor.addReportListener(report -> responseObserver.onNext(convert2Grpc(report)));
     }
 
     private static void fireEmptyResponse(StreamObserver<Empty> responseObserver) {
@@ -1,10 +1,19 @@
 package jvmram.backend;
 
+import jvmram.alerts.AlertEngine;
+import jvmram.analysis.ClassHistogramTracker;
+import jvmram.analysis.GroupAggregator;
+import jvmram.analysis.LeakDetector;
+import jvmram.analysis.TopConsumersTracker;
 import jvmram.controller.AppScheduler;
+import jvmram.controller.BurstController;
 import jvmram.controller.GraphController;
 import jvmram.controller.JmxService;
 import jvmram.controller.ProcessController;
+import jvmram.controller.SamplingGovernor;
+import jvmram.metrics.MetricsFactory;
 import jvmram.model.graph.GraphPointQueuesWritable;
+import jvmram.stats.SelfMonitor;
 import jvmram.visibility.MetricVisibility;
 
 public class JvmRunCost {
@@ -17,9 +26,32 @@ public class JvmRunCost {
         var graphPointQueues = GraphPointQueuesWritable.getInstance();
         var jmxService = JmxService.getInstance();
         var metricsVisibility = MetricVisibility.getInstance();
+        var burstController = BurstController.getInstance();
+        var leakDetector = LeakDetector.getInstance();
+        graphPointQueues.addListener(leakDetector);
+        var groupAggregator = GroupAggregator.getInstance();
+        graphPointQueues.addListener(groupAggregator);
+        processController.addFollowingGroupsListener(groupAggregator::setGroups);
+        var alertEngine = AlertEngine.getInstance();
+        graphPointQueues.addListener(alertEngine);
+        processController.addAvailableJvmProcessesListener(alertEngine::updateProcessInfos);
 
         backendManager = new JvmRamBackendManager();
-        var backend = new JvmRamBackendImpl(processController, graphController, graphPointQueues, jmxService, metricsVisibility);
+        var backend = new JvmRamBackendImpl(
+                processController,
+                graphController,
+                graphPointQueues,
+                jmxService,
+                metricsVisibility,
+                burstController,
+                leakDetector,
+                alertEngine,
+                SelfMonitor.getInstance(),
+                SamplingGovernor.getInstance(),
+                ClassHistogramTracker.getInstance(),
+                TopConsumersTracker.getInstance(),
+                MetricsFactory.getInstance()
+        );
         backendManager.start(port, backend);
 
         var appScheduler = AppScheduler.getInstance();
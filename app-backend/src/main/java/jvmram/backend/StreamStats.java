@@ -0,0 +1,86 @@
+package jvmram.backend;
+
+import com.google.protobuf.MessageLite;
+import io.grpc.stub.StreamObserver;
+import jvmram.proto.SubscriberStats;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Сколько сообщений и байт отправлено каждому подписчику потоковых RPC.
+ * Подписчик учитывается, пока его поток не завершён или не оборвался.
+ */
+class StreamStats {
+
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final Map<Long, Counting<?>> subscribers = new ConcurrentHashMap<>();
+
+    <T extends MessageLite> StreamObserver<T> count(String rpc, StreamObserver<T> delegate) {
+        var counting = new Counting<>(nextId.getAndIncrement(), rpc, delegate);
+        subscribers.put(counting.id, counting);
+        return counting;
+    }
+
+    List<SubscriberStats> snapshot() {
+        return subscribers.values().stream()
+                .sorted((a, b) -> Long.compare(a.id, b.id))
+                .map(Counting::snapshot)
+                .toList();
+    }
+
+    private final class Counting<T extends MessageLite> implements StreamObserver<T> {
+        private final long id;
+        private final String rpc;
+        private final StreamObserver<T> delegate;
+        private final LongAdder messages = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+
+        private Counting(long id, String rpc, StreamObserver<T> delegate) {
+            this.id = id;
+            this.rpc = rpc;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void onNext(T value) {
+            try {
+                delegate.onNext(value);
+            } catch (RuntimeException e) {
+                // клиент отключился, слушатель будет удалён отправителем
+                close();
+                throw e;
+            }
+            messages.increment();
+            bytes.add(value.getSerializedSize());
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            close();
+            delegate.onError(t);
+        }
+
+        @Override
+        public void onCompleted() {
+            close();
+            delegate.onCompleted();
+        }
+
+        private void close() {
+            subscribers.remove(id);
+        }
+
+        private SubscriberStats snapshot() {
+            return SubscriberStats.newBuilder()
+                    .setId(id)
+                    .setRpc(rpc)
+                    .setMessages(messages.sum())
+                    .setBytes(bytes.sum())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package jvmram.backend;
+
+import jvmram.model.graph.GraphKey;
+import jvmram.model.graph.GraphPoint;
+import jvmram.model.metrics.MetricType;
+import jvmram.proto.GraphQueues;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static jvmram.backend.Converter.convert2Grpc;
+import static jvmram.model.graph.GraphKey.Scope.PROCESS;
+
+/**
+ * Перевод очередей графиков в сообщения gRPC: одна очередь и все очереди процесса с сериализацией,
+ * как при каждой перерисовке в {@code listenGraphQueues}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConverterBenchmark {
+
+    private static final long PID = 10_000;
+
+    @Param({"100", "1000"})
+    public int points;
+
+    private List<GraphKey> keys;
+    private List<List<GraphPoint>> queues;
+
+    @Setup
+    public void setUp() {
+        keys = new ArrayList<>();
+        queues = new ArrayList<>();
+        var start = Instant.parse("2025-01-01T00:00:00Z");
+        for (var type : MetricType.values()) {
+            var queue = new ArrayList<GraphPoint>(points);
+            for (int i = 0; i < points; i++) {
+                queue.add(new GraphPoint(start.plusMillis(100L * i), 100_000_000L + 4096L * i));
+            }
+            keys.add(new GraphKey(type, PID));
+            queues.add(List.copyOf(queue));
+        }
+    }
+
+    @Benchmark
+    public jvmram.proto.GraphQueue convertQueue() {
+        return convert2Grpc(keys.get(0), queues.get(0));
+    }
+
+    @Benchmark
+    public byte[] serializeGraphQueues() {
+        var builder = GraphQueues.newBuilder()
+                .setPid(PID)
+                .setScope(convert2Grpc(PROCESS));
+        for (int i = 0; i < keys.size(); i++) {
+            builder.addQueues(convert2Grpc(keys.get(i), queues.get(i)));
+        }
+        return builder.build().toByteArray();
+    }
+}
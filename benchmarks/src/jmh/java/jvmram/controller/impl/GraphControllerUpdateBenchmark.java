@@ -0,0 +1,222 @@
+package jvmram.controller.impl;
+
+import jvmram.analysis.GroupAggregator;
+import jvmram.controller.ProcessController;
+import jvmram.metrics.MetricsFactory;
+import jvmram.metrics.RamMetric;
+import jvmram.model.graph.GraphPointQueuesWritable;
+import jvmram.model.metrics.MetricType;
+import jvmram.model.metrics.Os;
+import jvmram.process.JvmProcessInfo;
+import jvmram.process.JvmProcessListDelta;
+import jvmram.visibility.MetricVisibility;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Consumer;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+/**
+ * Такт опроса {@link GraphControllerImpl#update()} для N подставных процессов.
+ * Метрики подставные и сразу отдают новое значение, поэтому замер показывает
+ * стоимость самого такта: обход процессов и метрик и запись точек в очереди.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+public class GraphControllerUpdateBenchmark {
+
+    private static final long FIRST_FAKE_PID = 5_000_000;
+
+    @Param({"1", "10", "100", "1000"})
+    public int pids;
+
+    @Param({"false", "true"})
+    public boolean aligned;
+
+    private GraphControllerImpl graphController;
+
+    @Setup
+    public void setUp() {
+        var followed = new long[pids];
+        for (int i = 0; i < pids; i++) {
+            followed[i] = FIRST_FAKE_PID + i;
+        }
+        // по умолчанию часть метрик скрыта, а замер ведётся по всем
+        var visibility = MetricVisibility.getInstance();
+        for (var type : MetricType.values()) {
+            visibility.setVisible(type);
+        }
+        graphController = new GraphControllerImpl(
+                visibility,
+                new FakeMetricsFactory(),
+                new FakeProcessController(followed),
+                pid -> {
+                },
+                GraphPointQueuesWritable.getInstance(),
+                GroupAggregator.getInstance(),
+                aligned
+        );
+    }
+
+    @TearDown
+    public void tearDown() {
+        graphController.close();
+    }
+
+    @Benchmark
+    public void update() {
+        graphController.update();
+    }
+
+    private static final class FakeMetricsFactory implements MetricsFactory {
+        private final Map<Long, Map<MetricType, RamMetric>> metrics = new HashMap<>();
+        private final Map<MetricType, RamMetric> hostMetrics = createHostMetrics();
+
+        @Override
+        public Map<MetricType, RamMetric> getOrCreateMetrics(long pid, Os os) {
+            return metrics.computeIfAbsent(pid, ignored -> {
+                var output = new EnumMap<MetricType, RamMetric>(MetricType.class);
+                for (var type : MetricType.values()) {
+                    if (!type.isHostWide()) {
+                        output.put(type, new FakeMetric());
+                    }
+                }
+                return output;
+            });
+        }
+
+        @Override
+        public Map<MetricType, RamMetric> getOrCreateHostMetrics(Os os) {
+            return hostMetrics;
+        }
+
+        private static Map<MetricType, RamMetric> createHostMetrics() {
+            var output = new EnumMap<MetricType, RamMetric>(MetricType.class);
+            for (var type : MetricType.values()) {
+                if (type.isHostWide()) {
+                    output.put(type, new FakeMetric());
+                }
+            }
+            return output;
+        }
+
+        @Override
+        public void release(long pid) {
+            metrics.remove(pid);
+        }
+
+        @Override
+        public void setJfrIngest(long pid, Map<String, String> settings) {
+        }
+
+        @Override
+        public void setPollIngest(long pid) {
+        }
+
+        @Override
+        public void releaseIdleSuppliers() {
+        }
+    }
+
+    private static final class FakeMetric implements RamMetric {
+        private long epochNanos = 1;
+        private long bytes = 100_000_000;
+
+        @Override
+        public long sample(long tickEpochNanos, boolean aligned) {
+            epochNanos += 100_000_000;
+            bytes += 4096;
+            return bytes;
+        }
+
+        @Override
+        public long sampleEpochNanos() {
+            return epochNanos;
+        }
+
+        @Override
+        public void updatePollInterval(Duration pollInterval) {
+        }
+
+        @Override
+        public Duration getPollInterval() {
+            return Duration.ofMillis(100);
+        }
+
+        @Override
+        public long getPollCount() {
+            return 0;
+        }
+
+        @Override
+        public long getPollNanos() {
+            return 0;
+        }
+    }
+
+    private static final class FakeProcessController implements ProcessController {
+        private final long[] followed;
+
+        private FakeProcessController(long[] followed) {
+            this.followed = followed;
+        }
+
+        @Override
+        public long[] getPidsWithDescendants() {
+            return followed;
+        }
+
+        @Override
+        public Collection<Long> getExplicitlyFollowingPids() {
+            return Arrays.stream(followed).boxed().toList();
+        }
+
+        @Override
+        public void includeChildrenProcesses() {
+        }
+
+        @Override
+        public void excludeChildrenProcesses() {
+        }
+
+        @Override
+        public boolean areChildrenProcessesIncluded() {
+            return false;
+        }
+
+        @Override
+        public void refreshAvailableJvmProcesses() {
+        }
+
+        @Override
+        public void forgetProcess(long pid) {
+        }
+
+        @Override
+        public void rescanJvmProcesses() {
+        }
+
+        @Override
+        public void addAvailableJvmProcessesListener(Consumer<Collection<JvmProcessInfo>> onProcessInfoChanged) {
+        }
+
+        @Override
+        public void addJvmProcessListDeltaListener(Consumer<JvmProcessListDelta> onDelta) {
+        }
+
+        @Override
+        public void setCurrentlySelectedPids(Collection<Long> pids) {
+        }
+
+        @Override
+        public void followAdditionally(Collection<Long> pids) {
+        }
+
+        @Override
+        public void addFollowingGroupsListener(Consumer<Map<Long, Collection<Long>>> onGroupsChanged) {
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package jvmram.model.graph.impl;
+
+import jvmram.model.metrics.MetricType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static jvmram.model.graph.GraphPointQueuesWritable.NOTHING_EVICTED;
+
+/**
+ * Добавление точек в очереди графиков.
+ * Ключи (процесс + метрика) перебираются по кругу; очереди заполняются ещё при подготовке,
+ * поэтому каждое добавление вытесняет самую старую точку, как в установившемся режиме.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GraphPointQueuesBenchmark {
+
+    private static final MetricType[] METRIC_TYPES = MetricType.values();
+    private static final int QUEUE_CAPACITY = 1000;
+
+    @Param({"1", "10", "100", "1000"})
+    public int keys;
+
+    private GraphPointQueuesImpl queues;
+    private long[] pids;
+    private MetricType[] types;
+    private int next;
+    private long epochNanos;
+
+    @Setup
+    public void setUp() {
+        queues = new GraphPointQueuesImpl();
+        pids = new long[keys];
+        types = new MetricType[keys];
+        for (int i = 0; i < keys; i++) {
+            pids[i] = 10_000 + i / METRIC_TYPES.length;
+            types[i] = METRIC_TYPES[i % METRIC_TYPES.length];
+        }
+        for (int round = 0; round < QUEUE_CAPACITY; round++) {
+            for (int i = 0; i < keys; i++) {
+                queues.add(pids[i], types[i], ++epochNanos, round);
+            }
+        }
+    }
+
+    @Benchmark
+    public long add() {
+        var i = next;
+        next = i + 1 == keys ? 0 : i + 1;
+        return queues.add(pids[i], types[i], ++epochNanos, epochNanos & 0xFFFF);
+    }
+
+    /**
+     * Такт опроса целиком: по точке в каждую очередь и выравнивание остальных очередей по вытесненной точке.
+     */
+    @Benchmark
+    public long addAllAndHandleExceed() {
+        var maxEvicted = NOTHING_EVICTED;
+        var moment = ++epochNanos;
+        for (int i = 0; i < keys; i++) {
+            maxEvicted = Math.max(maxEvicted, queues.add(pids[i], types[i], moment, i));
+        }
+        if (maxEvicted != NOTHING_EVICTED) {
+            queues.handleExceed(maxEvicted);
+        }
+        return maxEvicted;
+    }
+}
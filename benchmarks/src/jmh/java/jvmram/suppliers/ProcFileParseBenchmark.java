@@ -0,0 +1,66 @@
+package jvmram.suppliers;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Разбор снимков /proc/[pid]/status и /proc/[pid]/smaps_rollup.
+ * Снимки копируются во временный каталог, чтобы Поставщики читали обычные файлы,
+ * как читают файлы /proc. Работает только в Linux: в других ОС Поставщики не инициализируются.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProcFileParseBenchmark {
+
+    private static final long FAKE_PID = 1;
+
+    private Path fixtures;
+    private MemInfoSupplier memInfoSupplier;
+    private SmapsSupplier smapsSupplier;
+
+    @Setup
+    public void setUp() throws IOException {
+        fixtures = Files.createTempDirectory("jvmram-proc");
+        memInfoSupplier = new MemInfoSupplier(FAKE_PID, copyFixture("status"));
+        smapsSupplier = new SmapsSupplier(FAKE_PID, copyFixture("smaps_rollup"));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        memInfoSupplier.release();
+        smapsSupplier.release();
+        try (var files = Files.list(fixtures)) {
+            for (var file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(fixtures);
+    }
+
+    private Path copyFixture(String name) throws IOException {
+        var target = fixtures.resolve(name);
+        try (InputStream input = ProcFileParseBenchmark.class.getResourceAsStream("/fixtures/proc/" + name)) {
+            Files.copy(Objects.requireNonNull(input, name), target);
+        }
+        return target;
+    }
+
+    @Benchmark
+    public long memInfo() {
+        memInfoSupplier.measureAndStore();
+        return Objects.requireNonNull(memInfoSupplier.getStoredData()).rss();
+    }
+
+    @Benchmark
+    public long smapsRollup() {
+        smapsSupplier.measureAndStore();
+        return Objects.requireNonNull(smapsSupplier.getStoredData()).pss();
+    }
+}
@@ -0,0 +1,229 @@
+package jvmram.fleet;
+
+import com.sun.management.OperatingSystemMXBean;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.stub.StreamObserver;
+import jvmram.backend.JvmRunCost;
+import jvmram.proto.*;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Нагрузочный стенд: бэкенд запускается в этом же процессе против синтетического парка JVM
+ * и наблюдается через gRPC, как его наблюдает UI. Для каждого размера парка измеряются:
+ * <ul>
+ *     <li>сквозная задержка: от записи нового RSS в файл процесса-зонда до получения точки клиентом
+ *     (включает ожидание очередного опроса метрики);</li>
+ *     <li>загрузка ЦПУ и heap процесса стенда, то есть, по сути, бэкенда;</li>
+ *     <li>сколько байт в секунду бэкенд отдаёт в поток графиков.</li>
+ * </ul>
+ * У синтетических процессов нет JMX, поэтому JMX-метрики скрываются: их Поставщики не создаются.
+ * <p>
+ * Запуск: {@code ./gradlew :benchmarks:fleet --args="--pids 10,100,500 --seconds 30 --pattern LEAK"}
+ */
+public class FleetHarness {
+
+    /**
+     * Метрики, которым нужно подключение к JVM: их Поставщик — JmxSupplier (или заменяющий его JfrSupplier),
+     * либо они производные от таких метрик. Новую метрику на JMX-данных нужно добавить и сюда.
+     */
+    private static final List<MetricType> JMX_METRICS = List.of(
+            MetricType.HEAP_USED,
+            MetricType.HEAP_COMMITTED,
+            MetricType.NMT_USED,
+            MetricType.NMT_COMMITTED,
+            MetricType.JAVA_THREADS,
+            MetricType.DAEMON_THREADS,
+            MetricType.ALLOCATION_RATE,
+            MetricType.GC_TIME_SHARE,
+            MetricType.PHYSICAL_MEMORY_USED,
+            MetricType.NATIVE_MEMORY_TRACKED,
+            // производные
+            MetricType.UNEXPLAINED_RSS,
+            MetricType.UNEXPLAINED_PSS,
+            MetricType.THREAD_STACKS
+    );
+
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final Duration PROBE_PERIOD = Duration.ofSeconds(5);
+
+    private final SyntheticFleet fleet;
+    private final Options options;
+
+    private final AtomicLong receivedBytes = new AtomicLong();
+    private final AtomicLong receivedMessages = new AtomicLong();
+    private final Map<Long, Long> pendingProbes = new ConcurrentHashMap<>();
+    private final List<Long> latenciesNanos = Collections.synchronizedList(new ArrayList<>());
+    private volatile long probePid = -1;
+
+    private FleetHarness(SyntheticFleet fleet, Options options) {
+        this.fleet = fleet;
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        var options = Options.parse(args);
+        try (var fleet = new SyntheticFleet(Files.createTempDirectory("jvmram-fleet"))) {
+            // свойства читаются при загрузке Config, то есть до первого обращения к бэкенду
+            System.setProperty("jvmram.proc.root", fleet.procRoot().toString());
+            System.setProperty("jvmram.perfdata.root", fleet.perfDataRoot().toString());
+            new FleetHarness(fleet, options).run();
+        }
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        new JvmRunCost().setup(options.port);
+        ManagedChannel channel = ManagedChannelBuilder.forAddress("localhost", options.port)
+                .usePlaintext()
+                .build();
+        try {
+            var blocking = AppBackendGrpc.newBlockingStub(channel);
+            for (var type : JMX_METRICS) {
+                blocking.setInvisible(SetInvisibleRequest.newBuilder().setMetricType(type).build());
+            }
+            AppBackendGrpc.newStub(channel).listenGraphQueues(com.google.protobuf.Empty.getDefaultInstance(), new Listener());
+
+            probePid = fleet.spawnProbe();
+            System.out.printf("%8s %10s %10s %10s %8s %9s %11s %10s%n",
+                    "pids", "p50 ms", "p99 ms", "max ms", "cpu %", "heap MB", "grpc KB/s", "msgs/s");
+            for (var count : options.pidCounts) {
+                step(blocking, count);
+            }
+        } finally {
+            channel.shutdownNow().awaitTermination(3, TimeUnit.SECONDS);
+        }
+    }
+
+    private void step(AppBackendGrpc.AppBackendBlockingStub blocking, int count) throws Exception {
+        var missing = count - (fleet.pids().size() - 1);
+        if (missing > 0) {
+            fleet.spawn(missing, options.pattern);
+        }
+        var pids = PidList.newBuilder();
+        for (var pid : fleet.pids()) {
+            pids.addPids(Pid.newBuilder().setPid(pid));
+        }
+        blocking.setFollowingPids(pids.build());
+
+        runFor(WARMUP);
+        receivedBytes.set(0);
+        receivedMessages.set(0);
+        latenciesNanos.clear();
+
+        var os = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        var memory = ManagementFactory.getMemoryMXBean();
+        var startCpu = os.getProcessCpuTime();
+        var start = System.nanoTime();
+        var maxHeap = runFor(Duration.ofSeconds(options.seconds));
+        var elapsedNanos = System.nanoTime() - start;
+        var cpuNanos = os.getProcessCpuTime() - startCpu;
+        maxHeap = Math.max(maxHeap, memory.getHeapMemoryUsage().getUsed());
+
+        var latencies = latenciesNanos.stream().sorted().toList();
+        var seconds = elapsedNanos / 1e9;
+        System.out.printf("%8d %10s %10s %10s %8.1f %9.1f %11.1f %10.1f%n",
+                count,
+                percentile(latencies, 0.5),
+                percentile(latencies, 0.99),
+                percentile(latencies, 1),
+                100.0 * cpuNanos / elapsedNanos,
+                maxHeap / 1024.0 / 1024,
+                receivedBytes.get() / 1024.0 / seconds,
+                receivedMessages.get() / seconds);
+    }
+
+    /**
+     * Раз в секунду продвигает парк на шаг, раз в {@link #PROBE_PERIOD} пишет зонду новое значение.
+     *
+     * @return наибольший замеченный размер heap
+     */
+    private long runFor(Duration duration) throws Exception {
+        var memory = ManagementFactory.getMemoryMXBean();
+        var maxHeap = 0L;
+        var deadline = System.nanoTime() + duration.toNanos();
+        var nextProbe = System.nanoTime();
+        var probeSeq = 0L;
+        while (System.nanoTime() < deadline) {
+            fleet.advance();
+            if (System.nanoTime() >= nextProbe) {
+                // значения зонда уникальны и не встречаются у остальных процессов
+                var rssKb = 3 * 1024 * 1024 + ++probeSeq;
+                pendingProbes.put(rssKb * 1024, System.nanoTime());
+                fleet.writeRss(probePid, rssKb);
+                nextProbe += PROBE_PERIOD.toNanos();
+            }
+            maxHeap = Math.max(maxHeap, memory.getHeapMemoryUsage().getUsed());
+            Thread.sleep(1000);
+        }
+        return maxHeap;
+    }
+
+    private static String percentile(List<Long> sorted, double share) {
+        if (sorted.isEmpty()) {
+            return "-";
+        }
+        var index = (int) Math.min(sorted.size() - 1, Math.ceil(share * sorted.size()) - 1);
+        return String.valueOf(TimeUnit.NANOSECONDS.toMillis(sorted.get(Math.max(0, index))));
+    }
+
+    private final class Listener implements StreamObserver<GraphQueues> {
+
+        @Override
+        public void onNext(GraphQueues value) {
+            var now = System.nanoTime();
+            receivedBytes.addAndGet(value.getSerializedSize());
+            receivedMessages.incrementAndGet();
+            if (value.getPid() != probePid || value.getScope() != Scope.SCOPE_PROCESS) {
+                return;
+            }
+            for (var queue : value.getQueuesList()) {
+                if (queue.getMetricType() != MetricType.RSS || queue.getPointsCount() == 0) {
+                    continue;
+                }
+                var last = queue.getPoints(queue.getPointsCount() - 1);
+                var written = pendingProbes.remove(last.getBytes());
+                if (written != null) {
+                    latenciesNanos.add(now - written);
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            System.err.println("Graph stream failed: " + t);
+        }
+
+        @Override
+        public void onCompleted() {
+        }
+    }
+
+    private record Options(int port, List<Integer> pidCounts, long seconds, GrowthPattern pattern) {
+
+        private static Options parse(String[] args) {
+            var port = 53536;
+            List<Integer> pidCounts = List.of(10, 100, 500);
+            long seconds = 30;
+            var pattern = GrowthPattern.SAWTOOTH;
+            for (int i = 0; i + 1 < args.length; i += 2) {
+                var value = args[i + 1];
+                switch (args[i]) {
+                    case "--port" -> port = Integer.parseInt(value);
+                    case "--pids" -> pidCounts = Arrays.stream(value.split(",")).map(Integer::valueOf).toList();
+                    case "--seconds" -> seconds = Long.parseLong(value);
+                    case "--pattern" -> pattern = GrowthPattern.valueOf(value);
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            return new Options(port, pidCounts, seconds, pattern);
+        }
+    }
+}
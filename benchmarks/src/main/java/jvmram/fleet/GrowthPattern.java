@@ -0,0 +1,51 @@
+package jvmram.fleet;
+
+/**
+ * Как меняется память синтетического процесса от шага к шагу.
+ * Значения в килобайтах, как в файлах /proc.
+ */
+public enum GrowthPattern {
+    /**
+     * Память не меняется.
+     */
+    FLAT {
+        @Override
+        long kilobytesAt(long baseKb, long step) {
+            return baseKb;
+        }
+    },
+    /**
+     * Равномерный рост на 0,1% базового значения за шаг.
+     */
+    LINEAR {
+        @Override
+        long kilobytesAt(long baseKb, long step) {
+            return baseKb + baseKb * step / 1000;
+        }
+    },
+    /**
+     * Рост на 1% за шаг и сброс каждые 50 шагов, как heap между сборками мусора.
+     */
+    SAWTOOTH {
+        @Override
+        long kilobytesAt(long baseKb, long step) {
+            return baseKb + baseKb * (step % 50) / 100;
+        }
+    },
+    /**
+     * Пила, чьи минимумы медленно растут: утечка, которую прячут сборки мусора.
+     */
+    LEAK {
+        @Override
+        long kilobytesAt(long baseKb, long step) {
+            return SAWTOOTH.kilobytesAt(baseKb, step) + baseKb * step / 5000;
+        }
+    };
+
+    /**
+     * @param baseKb исходное значение в килобайтах
+     * @param step   номер шага, начиная с 0
+     * @return значение на этом шаге в килобайтах
+     */
+    abstract long kilobytesAt(long baseKb, long step);
+}
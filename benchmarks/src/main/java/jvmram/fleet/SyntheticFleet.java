@@ -0,0 +1,221 @@
+package jvmram.fleet;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Синтетический парк JVM-процессов: каталог, повторяющий /proc/[pid]/status, statm, smaps_rollup, stat, comm и cmdline,
+ * и файлы perf data hsperfdata_[user]/[pid], по которым бэкенд находит JVM.
+ * <p>
+ * Номера процессов начинаются с {@link #FIRST_PID}, что больше предельного pid в Linux,
+ * поэтому синтетические процессы не путаются с настоящими.
+ * <p>
+ * Файлы переписываются на месте без усечения, а числа в них имеют постоянную ширину:
+ * бэкенд держит файлы открытыми и перечитывает их с начала, как настоящие файлы /proc.
+ */
+public class SyntheticFleet implements AutoCloseable {
+
+    public static final long FIRST_PID = 5_000_000;
+
+    private static final String STATUS = """
+            Name:\tjava
+            State:\tS (sleeping)
+            Pid:\t%1$d
+            PPid:\t1
+            VmPeak:\t%2$12d kB
+            VmSize:\t%2$12d kB
+            VmHWM:\t%3$12d kB
+            VmRSS:\t%3$12d kB
+            RssAnon:\t%4$12d kB
+            RssFile:\t%5$12d kB
+            RssShmem:\t           0 kB
+            VmSwap:\t           0 kB
+            Threads:\t42
+            """;
+
+    private static final String STATM = "%1$12d %2$12d %3$12d 1 0 %2$12d 0\n";
+
+    private static final String SMAPS_ROLLUP = """
+            00400000-7fffffffffff ---p 00000000 00:00 0                          [rollup]
+            Rss:            %1$12d kB
+            Pss:            %2$12d kB
+            Shared_Clean:   %3$12d kB
+            Shared_Dirty:   %4$12d kB
+            Private_Clean:  %5$12d kB
+            Private_Dirty:  %6$12d kB
+            Swap:           %4$12d kB
+            """;
+
+    private final Path root;
+    private final Path procRoot;
+    private final Path perfDataDir;
+    private final Map<Long, SyntheticProcess> processes = new TreeMap<>();
+    private long nextPid = FIRST_PID;
+    private long step;
+
+    public SyntheticFleet(Path root) throws IOException {
+        this.root = root;
+        this.procRoot = Files.createDirectories(root.resolve("proc"));
+        this.perfDataDir = Files.createDirectories(root.resolve("perfdata").resolve("hsperfdata_fleet"));
+    }
+
+    /**
+     * @return каталог для системного свойства jvmram.proc.root
+     */
+    public Path procRoot() {
+        return procRoot;
+    }
+
+    /**
+     * @return каталог для системного свойства jvmram.perfdata.root
+     */
+    public Path perfDataRoot() {
+        return perfDataDir.getParent();
+    }
+
+    public synchronized Set<Long> pids() {
+        return Set.copyOf(processes.keySet());
+    }
+
+    /**
+     * Запустить новые синтетические JVM.
+     *
+     * @param count   сколько процессов запустить
+     * @param pattern как будет меняться их память
+     * @return номера запущенных процессов
+     */
+    public synchronized List<Long> spawn(int count, GrowthPattern pattern) throws IOException {
+        var output = new ArrayList<Long>(count);
+        for (int i = 0; i < count; i++) {
+            var pid = nextPid++;
+            // 64 МБ .. 2 ГБ, у каждого процесса своё
+            var baseKb = 64 * 1024 + (pid * 7919) % (2 * 1024 * 1024);
+            var process = new SyntheticProcess(pid, pattern, baseKb, procRoot.resolve(String.valueOf(pid)));
+            process.create(step);
+            // файл perf data появляется последним: по нему бэкенд узнаёт о новой JVM
+            Files.createFile(perfDataDir.resolve(String.valueOf(pid)));
+            processes.put(pid, process);
+            output.add(pid);
+        }
+        return output;
+    }
+
+    /**
+     * Запустить процесс-зонд: его память меняется только через {@link #writeRss}, а не на каждом шаге.
+     *
+     * @return номер процесса-зонда
+     */
+    public synchronized long spawnProbe() throws IOException {
+        var pid = spawn(1, GrowthPattern.FLAT).get(0);
+        processes.get(pid).probe = true;
+        return pid;
+    }
+
+    /**
+     * Завершить синтетический процесс.
+     */
+    public synchronized void exit(long pid) throws IOException {
+        var process = processes.remove(pid);
+        if (process == null) {
+            return;
+        }
+        Files.deleteIfExists(perfDataDir.resolve(String.valueOf(pid)));
+        process.delete();
+    }
+
+    /**
+     * Перейти к следующему шагу: переписать память всех процессов по их шаблонам.
+     */
+    public synchronized void advance() throws IOException {
+        step++;
+        for (var process : processes.values()) {
+            if (process.probe) {
+                continue;
+            }
+            process.write(process.pattern.kilobytesAt(process.baseKb, step));
+        }
+    }
+
+    /**
+     * Записать процессу заданный RSS, чтобы отследить, когда он дойдёт до клиента.
+     */
+    public synchronized void writeRss(long pid, long rssKb) throws IOException {
+        var process = processes.get(pid);
+        if (process != null) {
+            process.write(rssKb);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (var pid : List.copyOf(processes.keySet())) {
+            exit(pid);
+        }
+        try (var paths = Files.walk(root)) {
+            for (var path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static final class SyntheticProcess {
+        private final long pid;
+        private final GrowthPattern pattern;
+        private final long baseKb;
+        private final Path dir;
+        private boolean probe;
+
+        private SyntheticProcess(long pid, GrowthPattern pattern, long baseKb, Path dir) {
+            this.pid = pid;
+            this.pattern = pattern;
+            this.baseKb = baseKb;
+            this.dir = dir;
+        }
+
+        private void create(long step) throws IOException {
+            Files.createDirectories(dir);
+            Files.writeString(dir.resolve("cmdline"), "java\0-Xmx2g\0-jar\0synthetic-" + pid + ".jar\0");
+            Files.writeString(dir.resolve("comm"), "java\n");
+            // starttime (22-е поле) отличает этот процесс от будущего процесса с тем же pid
+            Files.writeString(dir.resolve("stat"),
+                    pid + " (java) S 1 " + pid + " " + pid + " 0 -1 0 0 0 0 0 0 0 0 0 20 0 42 0 " + (1000 + step) + " 0 0\n");
+            write(pattern.kilobytesAt(baseKb, step));
+        }
+
+        private void write(long rssKb) throws IOException {
+            var sharedKb = rssKb / 8;
+            var privateKb = rssKb - sharedKb;
+            overwrite(dir.resolve("status"), STATUS.formatted(pid, rssKb * 2, rssKb, privateKb, sharedKb));
+            // statm считается в страницах по 4 КБ
+            overwrite(dir.resolve("statm"), STATM.formatted(rssKb / 2, rssKb / 4, sharedKb / 4));
+            overwrite(dir.resolve("smaps_rollup"), SMAPS_ROLLUP.formatted(
+                    rssKb, privateKb + sharedKb / 4, sharedKb, 0L, privateKb / 10, privateKb - privateKb / 10));
+        }
+
+        private void delete() throws IOException {
+            try (var files = Files.list(dir)) {
+                for (var file : files.toList()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(dir);
+        }
+
+        private static void overwrite(Path file, String content) throws IOException {
+            var bytes = ByteBuffer.wrap(content.getBytes(StandardCharsets.US_ASCII));
+            try (var channel = FileChannel.open(file, CREATE, WRITE)) {
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes, bytes.position());
+                }
+            }
+        }
+    }
+}
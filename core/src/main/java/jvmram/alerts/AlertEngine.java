@@ -0,0 +1,54 @@
+package jvmram.alerts;
+
+import jvmram.alerts.impl.AlertEngineImpl;
+import jvmram.model.graph.GraphPointListener;
+import jvmram.process.JvmProcessInfo;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Проверяет правила оповещения по мере добавления точек в очереди.
+ * Правила компилируются в автоматы состояний на каждый ряд данных,
+ * поэтому каждая точка стоит O(число правил, подходящих к её ряду).
+ */
+public interface AlertEngine extends GraphPointListener {
+
+    /**
+     * Добавить правило или заменить правило с тем же идентификатором.
+     *
+     * @param rule правило
+     * @throws IllegalArgumentException если команда или webhook правила не разрешены локальной настройкой
+     */
+    void putRule(AlertRule rule);
+
+    /**
+     * Удалить правило.
+     *
+     * @param ruleId идентификатор правила
+     */
+    void removeRule(String ruleId);
+
+    /**
+     * @return действующие правила
+     */
+    Collection<AlertRule> getRules();
+
+    /**
+     * Обновить сведения об именах процессов, по которым подбираются правила.
+     *
+     * @param processInfos доступные Java-процессы
+     */
+    void updateProcessInfos(Collection<JvmProcessInfo> processInfos);
+
+    /**
+     * Подписаться на оповещения.
+     *
+     * @param onEvent получатель оповещений
+     */
+    void addEventListener(Consumer<AlertEvent> onEvent);
+
+    static AlertEngine getInstance() {
+        return AlertEngineImpl.INSTANCE;
+    }
+}
@@ -0,0 +1,29 @@
+package jvmram.alerts;
+
+import jvmram.model.metrics.MetricType;
+
+import java.time.Instant;
+
+/**
+ * Оповещение о срабатывании или снятии правила.
+ *
+ * @param ruleId     какое правило
+ * @param pid        по какому процессу
+ * @param metricType по какой метрике
+ * @param state      правило сработало или снято
+ * @param moment     момент измерения, изменившего состояние правила
+ * @param bytes      значение метрики в этот момент
+ */
+public record AlertEvent(
+        String ruleId,
+        long pid,
+        MetricType metricType,
+        State state,
+        Instant moment,
+        long bytes
+) {
+    public enum State {
+        FIRED,
+        RESOLVED
+    }
+}
@@ -0,0 +1,61 @@
+package jvmram.alerts;
+
+import jvmram.model.metrics.MetricType;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+
+/**
+ * Правило оповещения о потреблении памяти.
+ *
+ * @param id          идентификатор правила; правило с тем же идентификатором заменяет прежнее
+ * @param pid         к какому процессу применяется правило или null, если к любому
+ * @param processName подстрока имени процесса, к которому применяется правило, или null, если к любому
+ * @param metricType  по какой метрике
+ * @param kind        вид условия
+ * @param threshold   для {@link Kind#ABOVE} — порог в байтах, для {@link Kind#GROWTH} — доля роста (0.2 — это 20%)
+ * @param duration    для {@link Kind#ABOVE} — сколько порог должен быть превышен,
+ *                    для {@link Kind#GROWTH} — окно, за которое считается рост
+ * @param webhookUrl  куда отправить POST с оповещением или null
+ * @param commandName имя локальной команды из {@link jvmram.conf.Config#ALERT_COMMANDS_FILE},
+ *                    которую выполнить при оповещении, или null
+ */
+public record AlertRule(
+        String id,
+        @Nullable Long pid,
+        @Nullable String processName,
+        MetricType metricType,
+        Kind kind,
+        double threshold,
+        Duration duration,
+        @Nullable String webhookUrl,
+        @Nullable String commandName
+) {
+    public enum Kind {
+        /**
+         * Значение выше порога дольше заданного времени. Например, "PSS > 2 GiB в течение 60 с".
+         */
+        ABOVE,
+        /**
+         * Рост относительно минимума за окно. Например, "Committed Heap вырос на 20% за 10 минут".
+         */
+        GROWTH
+    }
+
+    /**
+     * Применяется ли правило к процессу.
+     *
+     * @param candidatePid         номер процесса
+     * @param candidateDisplayName имя процесса или null, если оно неизвестно
+     * @return применяется ли правило
+     */
+    public boolean matches(long candidatePid, @Nullable String candidateDisplayName) {
+        if (pid != null && pid != candidatePid) {
+            return false;
+        }
+        if (processName == null || processName.isEmpty()) {
+            return true;
+        }
+        return candidateDisplayName != null && candidateDisplayName.contains(processName);
+    }
+}
@@ -0,0 +1,204 @@
+package jvmram.alerts.impl;
+
+import jvmram.alerts.AlertEngine;
+import jvmram.alerts.AlertEvent;
+import jvmram.alerts.AlertRule;
+import jvmram.model.graph.GraphKey;
+import jvmram.model.metrics.MetricType;
+import jvmram.process.JvmProcessInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.util.*;
+import java.util.function.Consumer;
+
+import static java.util.Collections.synchronizedList;
+import static jvmram.controller.impl.Utils.callActionOrGetRidOfListener;
+import static jvmram.model.graph.GraphKey.Scope.PROCESS;
+import static jvmram.model.util.WallClock.toInstant;
+
+/**
+ * Правила хранятся в индексе "метрика -> правила", а для каждого ряда данных (процесс + метрика)
+ * при первой точке собирается список автоматов только тех правил, что к нему подходят.
+ * Изменение правил или имён процессов пересобирает списки, но автомат неизменённого правила переносится
+ * вместе с состоянием: сработавшее правило не срабатывает повторно, а окна и гистерезис не сбрасываются.
+ * Автомат удалённого, изменённого или больше не подходящего правила снимает сработавшее оповещение.
+ * <p>
+ * Точки приходят из потока опроса метрик, поэтому автоматы не синхронизируются.
+ */
+public class AlertEngineImpl implements AlertEngine {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private final Object rulesLock = new Object();
+    private final Map<String, AlertRule> rules = new LinkedHashMap<>();
+    private volatile Map<MetricType, List<AlertRule>> rulesByMetric = Map.of();
+    private volatile Map<Long, String> displayNames = Map.of();
+
+    /**
+     * Увеличивается при каждом изменении правил или имён процессов.
+     */
+    private volatile long generation;
+    private long compiledGeneration;
+    private final Map<GraphKey, List<RuleStateMachine>> compiled = new HashMap<>();
+
+    private final List<Consumer<AlertEvent>> eventListeners = synchronizedList(new ArrayList<>());
+    private final AlertHooks hooks = new AlertHooks();
+
+    private AlertEngineImpl() {
+    }
+
+    @Override
+    public void putRule(AlertRule rule) {
+        hooks.validate(rule);
+        synchronized (rulesLock) {
+            rules.put(rule.id(), rule);
+            reindex();
+        }
+        LOG.info("Alert rule set: {}", rule);
+    }
+
+    @Override
+    public void removeRule(String ruleId) {
+        synchronized (rulesLock) {
+            if (rules.remove(ruleId) == null) {
+                return;
+            }
+            reindex();
+        }
+        LOG.info("Alert rule {} removed", ruleId);
+    }
+
+    private void reindex() {
+        var index = new EnumMap<MetricType, List<AlertRule>>(MetricType.class);
+        for (var rule : rules.values()) {
+            index.computeIfAbsent(rule.metricType(), t -> new ArrayList<>()).add(rule);
+        }
+        rulesByMetric = index;
+        generation++;
+    }
+
+    @Override
+    public Collection<AlertRule> getRules() {
+        synchronized (rulesLock) {
+            return List.copyOf(rules.values());
+        }
+    }
+
+    @Override
+    public void updateProcessInfos(Collection<JvmProcessInfo> processInfos) {
+        var names = new HashMap<Long, String>();
+        for (var info : processInfos) {
+            names.put(info.pid(), info.displayName());
+        }
+        if (names.equals(displayNames)) {
+            return;
+        }
+        displayNames = names;
+        synchronized (rulesLock) {
+            generation++;
+        }
+    }
+
+    @Override
+    public void addEventListener(Consumer<AlertEvent> onEvent) {
+        eventListeners.add(onEvent);
+    }
+
+    @Override
+    public void onAdded(GraphKey key, long epochNanos, long bytes) {
+        if (key.scope() != PROCESS) {
+            return;
+        }
+        var currentGeneration = generation;
+        if (currentGeneration != compiledGeneration) {
+            compiledGeneration = currentGeneration;
+            recompile();
+        }
+        var machines = compiled.get(key);
+        if (machines == null) {
+            machines = compile(key, List.of());
+            compiled.put(key, machines);
+        }
+        for (int i = 0; i < machines.size(); i++) {
+            var machine = machines.get(i);
+            var state = machine.onPoint(epochNanos, bytes);
+            if (state != null) {
+                var event = new AlertEvent(machine.rule().id(), key.pid(), key.type(), state, toInstant(epochNanos), bytes);
+                fire(event, machine.rule());
+            }
+        }
+    }
+
+    /**
+     * Автоматы завершившегося процесса больше не понадобятся, а сработавшие по нему правила снимаются.
+     */
+    @Override
+    public void onSealed(long pid) {
+        var iterator = compiled.entrySet().iterator();
+        while (iterator.hasNext()) {
+            var entry = iterator.next();
+            if (entry.getKey().pid() != pid) {
+                continue;
+            }
+            iterator.remove();
+            for (var machine : entry.getValue()) {
+                resolve(entry.getKey(), machine);
+            }
+        }
+    }
+
+    private void recompile() {
+        for (var entry : compiled.entrySet()) {
+            entry.setValue(compile(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    /**
+     * @param previous автоматы ряда до изменения правил: автомат того же правила переносится,
+     *                 остальные снимают свои оповещения
+     */
+    private List<RuleStateMachine> compile(GraphKey key, List<RuleStateMachine> previous) {
+        var candidates = rulesByMetric.getOrDefault(key.type(), List.of());
+        var displayName = displayNames.get(key.pid());
+        var output = new ArrayList<RuleStateMachine>();
+        for (var rule : candidates) {
+            if (rule.matches(key.pid(), displayName)) {
+                output.add(find(previous, rule));
+            }
+        }
+        for (var machine : previous) {
+            if (!output.contains(machine)) {
+                resolve(key, machine);
+            }
+        }
+        return output;
+    }
+
+    private static RuleStateMachine find(List<RuleStateMachine> machines, AlertRule rule) {
+        for (var machine : machines) {
+            if (machine.rule().equals(rule)) {
+                return machine;
+            }
+        }
+        return RuleStateMachine.of(rule);
+    }
+
+    private void resolve(GraphKey key, RuleStateMachine machine) {
+        var state = machine.resolve();
+        if (state != null) {
+            var event = new AlertEvent(machine.rule().id(), key.pid(), key.type(), state,
+                    toInstant(machine.lastEpochNanos()), machine.lastBytes());
+            fire(event, machine.rule());
+        }
+    }
+
+    private void fire(AlertEvent event, AlertRule rule) {
+        LOG.info("Alert: {}", event);
+        callActionOrGetRidOfListener(eventListeners, listener -> listener.accept(event));
+        hooks.run(rule, event);
+    }
+
+    public static final AlertEngineImpl INSTANCE = new AlertEngineImpl();
+}
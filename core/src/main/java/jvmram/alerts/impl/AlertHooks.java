@@ -0,0 +1,247 @@
+package jvmram.alerts.impl;
+
+import jvmram.alerts.AlertEvent;
+import jvmram.alerts.AlertRule;
+import jvmram.conf.Config;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static jvmram.conf.Config.ALERT_COMMANDS_FILE;
+import static jvmram.conf.Config.ALERT_WEBHOOK_PREFIXES;
+
+/**
+ * Выполняет webhook и локальные команды правил.
+ * Хуки выполняются в отдельном потоке, чтобы медленный получатель не задерживал опрос метрик.
+ * <p>
+ * Правила приходят по сети, поэтому сами хуки задаются только локально: команда выбирается по имени
+ * из {@link Config#ALERT_COMMANDS_FILE}, а webhook должен начинаться с одного из {@link Config#ALERT_WEBHOOK_PREFIXES}.
+ */
+class AlertHooks {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final Duration HOOK_TIMEOUT = Duration.ofSeconds(30);
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        var thread = new Thread(r, "alert-hooks");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // без перенаправлений: иначе разрешённый адрес мог бы отправить запрос куда угодно
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(HOOK_TIMEOUT)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+
+    private final Map<String, List<String>> commands;
+    private final List<URI> webhookPrefixes;
+
+    AlertHooks() {
+        this(loadCommands(ALERT_COMMANDS_FILE), ALERT_WEBHOOK_PREFIXES);
+    }
+
+    AlertHooks(Map<String, List<String>> commands, List<String> webhookPrefixes) {
+        this.commands = Map.copyOf(commands);
+        this.webhookPrefixes = webhookPrefixes.stream()
+                .map(AlertHooks::webhookPrefix)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Проверить, что хуки правила разрешены локальной настройкой.
+     *
+     * @throws IllegalArgumentException если команда неизвестна или адрес webhook не разрешён
+     */
+    void validate(AlertRule rule) {
+        var webhookUrl = rule.webhookUrl();
+        if (webhookUrl != null && !webhookUrl.isEmpty() && !isAllowedWebhook(webhookUrl)) {
+            throw new IllegalArgumentException("Webhook %s is not allowed by jvmram.alert.webhooks".formatted(webhookUrl));
+        }
+        var commandName = rule.commandName();
+        if (commandName != null && !commandName.isEmpty() && !commands.containsKey(commandName)) {
+            throw new IllegalArgumentException("Command %s is not defined in jvmram.alert.commands".formatted(commandName));
+        }
+    }
+
+    void run(AlertRule rule, AlertEvent event) {
+        var webhookUrl = rule.webhookUrl();
+        if (webhookUrl != null && !webhookUrl.isEmpty()) {
+            if (isAllowedWebhook(webhookUrl)) {
+                executor.execute(() -> postWebhook(webhookUrl, event));
+            } else {
+                LOG.warn("Webhook {} of rule {} is not allowed", webhookUrl, rule.id());
+            }
+        }
+        var commandName = rule.commandName();
+        if (commandName != null && !commandName.isEmpty()) {
+            var command = commands.get(commandName);
+            if (command != null) {
+                executor.execute(() -> runCommand(commandName, command, event));
+            } else {
+                LOG.warn("Command {} of rule {} is not defined", commandName, rule.id());
+            }
+        }
+    }
+
+    /**
+     * Адрес разрешён, если у него та же схема, хост и порт, что у одного из префиксов, а путь начинается с пути префикса.
+     * Сравниваются разобранные адреса, а не строки: иначе префикс http://hooks.local разрешил бы http://hooks.local.evil.
+     */
+    private boolean isAllowedWebhook(String url) {
+        URI uri;
+        try {
+            uri = new URI(url).normalize();
+        } catch (URISyntaxException e) {
+            return false;
+        }
+        if (!isHttp(uri) || uri.getHost() == null || uri.getRawUserInfo() != null) {
+            return false;
+        }
+        var path = uri.getRawPath() == null ? "" : uri.getRawPath();
+        for (var prefix : webhookPrefixes) {
+            if (prefix.getScheme().equalsIgnoreCase(uri.getScheme())
+                    && prefix.getHost().equalsIgnoreCase(uri.getHost())
+                    && port(prefix) == port(uri)
+                    && path.startsWith(prefix.getRawPath())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static @Nullable URI webhookPrefix(String prefix) {
+        try {
+            var uri = new URI(prefix).normalize();
+            if (isHttp(uri) && uri.getHost() != null) {
+                return uri.getRawPath() == null ? uri.resolve("/") : uri;
+            }
+        } catch (URISyntaxException e) {
+            // сообщаем ниже
+        }
+        LOG.warn("Ignoring webhook prefix {}: only http and https URLs are allowed", prefix);
+        return null;
+    }
+
+    private static boolean isHttp(URI uri) {
+        return "http".equalsIgnoreCase(uri.getScheme()) || "https".equalsIgnoreCase(uri.getScheme());
+    }
+
+    private static int port(URI uri) {
+        if (uri.getPort() >= 0) {
+            return uri.getPort();
+        }
+        return "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+    }
+
+    /**
+     * @return команды по именам; пустые, если файл не задан или не читается
+     */
+    private static Map<String, List<String>> loadCommands(@Nullable Path file) {
+        if (file == null) {
+            return Map.of();
+        }
+        var properties = new Properties();
+        try (var reader = Files.newBufferedReader(file, UTF_8)) {
+            properties.load(reader);
+        } catch (Exception e) {
+            LOG.warn("Failed to read alert commands from {}: {}", file, e.getMessage());
+            return Map.of();
+        }
+        var output = new HashMap<String, List<String>>();
+        for (var name : properties.stringPropertyNames()) {
+            try {
+                var command = CommandLine.split(properties.getProperty(name));
+                if (!command.isEmpty()) {
+                    output.put(name, command);
+                }
+            } catch (IllegalArgumentException e) {
+                LOG.warn("Ignoring alert command {}: {}", name, e.getMessage());
+            }
+        }
+        LOG.info("Loaded {} alert commands from {}", output.size(), file);
+        return output;
+    }
+
+    private void postWebhook(String url, AlertEvent event) {
+        try {
+            var request = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(HOOK_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(toJson(event)))
+                    .build();
+            var response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            LOG.debug("Webhook {} answered {} to {}", url, response.statusCode(), event);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            LOG.warn("Failed to post alert to {}: {}", url, e.getMessage());
+        }
+    }
+
+    /**
+     * Команда выполняется без оболочки, подробности оповещения передаются через переменные окружения.
+     */
+    private void runCommand(String name, List<String> command, AlertEvent event) {
+        try {
+            var processBuilder = new ProcessBuilder(command);
+            var env = processBuilder.environment();
+            env.put("JVMRAM_ALERT_RULE", event.ruleId());
+            env.put("JVMRAM_ALERT_PID", Long.toString(event.pid()));
+            env.put("JVMRAM_ALERT_METRIC", event.metricType().name());
+            env.put("JVMRAM_ALERT_STATE", event.state().name());
+            env.put("JVMRAM_ALERT_MOMENT", event.moment().toString());
+            env.put("JVMRAM_ALERT_BYTES", Long.toString(event.bytes()));
+            var process = processBuilder
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .redirectError(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            if (!process.waitFor(HOOK_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                LOG.warn("Alert command {} did not finish in {}, destroying it", name, HOOK_TIMEOUT);
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            LOG.warn("Failed to run alert command {}: {}", name, e.getMessage());
+        }
+    }
+
+    private static String toJson(AlertEvent event) {
+        return """
+                {"ruleId":"%s","pid":%d,"metricType":"%s","state":"%s","moment":"%s","bytes":%d}"""
+                .formatted(
+                        escape(event.ruleId()),
+                        event.pid(),
+                        event.metricType(),
+                        event.state(),
+                        event.moment(),
+                        event.bytes()
+                );
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
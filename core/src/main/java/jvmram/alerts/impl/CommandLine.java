@@ -0,0 +1,67 @@
+package jvmram.alerts.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Разбор командной строки на аргументы без оболочки: аргументы разделяются пробелами,
+ * в одинарных кавычках всё берётся как есть, в двойных кавычках и вне кавычек \ экранирует следующий символ.
+ */
+final class CommandLine {
+
+    /**
+     * @param commandLine командная строка, например {@code notify-send "JVM RAM" 'PSS > 2 GiB'}
+     * @return аргументы; пустой список для пустой строки
+     * @throws IllegalArgumentException если кавычка не закрыта или строка кончается на \
+     */
+    static List<String> split(String commandLine) {
+        var output = new ArrayList<String>();
+        var current = new StringBuilder();
+        var inArgument = false;
+        var quote = '\0';
+        for (var i = 0; i < commandLine.length(); i++) {
+            var c = commandLine.charAt(i);
+            if (quote == '\'') {
+                if (c == '\'') {
+                    quote = '\0';
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '\\' && (quote == '"' || quote == '\0')) {
+                if (++i == commandLine.length()) {
+                    throw new IllegalArgumentException("Dangling escape in command line: " + commandLine);
+                }
+                current.append(commandLine.charAt(i));
+                inArgument = true;
+            } else if (quote == '"') {
+                if (c == '"') {
+                    quote = '\0';
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+                inArgument = true;
+            } else if (Character.isWhitespace(c)) {
+                if (inArgument) {
+                    output.add(current.toString());
+                    current.setLength(0);
+                    inArgument = false;
+                }
+            } else {
+                current.append(c);
+                inArgument = true;
+            }
+        }
+        if (quote != '\0') {
+            throw new IllegalArgumentException("Unclosed quote in command line: " + commandLine);
+        }
+        if (inArgument) {
+            output.add(current.toString());
+        }
+        return output;
+    }
+
+    private CommandLine() {
+    }
+}
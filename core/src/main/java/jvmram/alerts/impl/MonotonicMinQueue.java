@@ -0,0 +1,61 @@
+package jvmram.alerts.impl;
+
+/**
+ * Минимум значений в скользящем по времени окне.
+ * Хранит только те точки, что ещё могут стать минимумом: значения в очереди возрастают от головы к хвосту.
+ * Точки хранятся в кольцевых массивах примитивов, которые растут только при расширении окна.
+ */
+class MonotonicMinQueue {
+
+    private long[] times = new long[16];
+    private long[] values = new long[16];
+    private int head;
+    private int size;
+
+    void add(long time, long value) {
+        while (size > 0 && values[index(size - 1)] >= value) {
+            size--;
+        }
+        if (size == times.length) {
+            grow();
+        }
+        var tail = index(size);
+        times[tail] = time;
+        values[tail] = value;
+        size++;
+    }
+
+    /**
+     * Убрать из окна точки, измеренные раньше указанного момента.
+     * Последняя добавленная точка не убирается никогда.
+     */
+    void evictOlderThan(long time) {
+        while (size > 1 && times[head] < time) {
+            head = index(1);
+            size--;
+        }
+    }
+
+    /**
+     * @return минимум окна либо -1, если окно пусто
+     */
+    long min() {
+        return size == 0 ? -1 : values[head];
+    }
+
+    private int index(int offset) {
+        return (head + offset) % times.length;
+    }
+
+    private void grow() {
+        var newTimes = new long[times.length * 2];
+        var newValues = new long[values.length * 2];
+        for (int i = 0; i < size; i++) {
+            newTimes[i] = times[index(i)];
+            newValues[i] = values[index(i)];
+        }
+        times = newTimes;
+        values = newValues;
+        head = 0;
+    }
+}
@@ -0,0 +1,161 @@
+package jvmram.alerts.impl;
+
+import jvmram.alerts.AlertEvent;
+import jvmram.alerts.AlertRule;
+import org.jspecify.annotations.Nullable;
+
+import static jvmram.alerts.AlertEvent.State.FIRED;
+import static jvmram.alerts.AlertEvent.State.RESOLVED;
+
+/**
+ * Автомат состояния одного правила на одном ряде данных.
+ * Оповещение порождает только смена состояния, поэтому повторных оповещений не бывает.
+ * Правило снимается, лишь когда значение опустится ниже порога с запасом {@link #HYSTERESIS},
+ * чтобы колебания около порога не порождали лавину оповещений.
+ */
+abstract sealed class RuleStateMachine {
+
+    static final double HYSTERESIS = 0.05;
+
+    private final AlertRule rule;
+    private boolean firing;
+    private long lastEpochNanos;
+    private long lastBytes;
+
+    private RuleStateMachine(AlertRule rule) {
+        this.rule = rule;
+    }
+
+    static RuleStateMachine of(AlertRule rule) {
+        return switch (rule.kind()) {
+            case ABOVE -> new Above(rule);
+            case GROWTH -> new Growth(rule);
+        };
+    }
+
+    AlertRule rule() {
+        return rule;
+    }
+
+    /**
+     * @param epochNanos момент очередной точки ряда в наносекундах от эпохи
+     * @param bytes      значение очередной точки ряда
+     * @return новое состояние правила или null, если состояние не изменилось
+     */
+    AlertEvent.@Nullable State onPoint(long epochNanos, long bytes) {
+        lastEpochNanos = epochNanos;
+        lastBytes = bytes;
+        var shouldFire = firing
+                ? !isResolved(epochNanos, bytes)
+                : isFired(epochNanos, bytes);
+        if (shouldFire == firing) {
+            return null;
+        }
+        firing = shouldFire;
+        return firing ? FIRED : RESOLVED;
+    }
+
+    /**
+     * Снять сработавшее правило без новой точки: правило удалено или изменено, либо процесс завершился.
+     *
+     * @return {@link AlertEvent.State#RESOLVED} или null, если правило не сработало
+     */
+    AlertEvent.@Nullable State resolve() {
+        if (!firing) {
+            return null;
+        }
+        firing = false;
+        return RESOLVED;
+    }
+
+    /**
+     * @return момент последней точки ряда в наносекундах от эпохи
+     */
+    long lastEpochNanos() {
+        return lastEpochNanos;
+    }
+
+    /**
+     * @return значение последней точки ряда
+     */
+    long lastBytes() {
+        return lastBytes;
+    }
+
+    protected abstract boolean isFired(long epochNanos, long bytes);
+
+    protected abstract boolean isResolved(long epochNanos, long bytes);
+
+    /**
+     * Значение выше порога дольше {@link AlertRule#duration()}.
+     */
+    static final class Above extends RuleStateMachine {
+        private final double threshold;
+        private final long durationNanos;
+        private static final long NOT_ABOVE = Long.MIN_VALUE;
+
+        private long aboveSince = NOT_ABOVE;
+
+        private Above(AlertRule rule) {
+            super(rule);
+            this.threshold = rule.threshold();
+            this.durationNanos = rule.duration().toNanos();
+        }
+
+        @Override
+        protected boolean isFired(long epochNanos, long bytes) {
+            if (bytes <= threshold) {
+                aboveSince = NOT_ABOVE;
+                return false;
+            }
+            if (aboveSince == NOT_ABOVE) {
+                aboveSince = epochNanos;
+            }
+            return epochNanos - aboveSince >= durationNanos;
+        }
+
+        @Override
+        protected boolean isResolved(long epochNanos, long bytes) {
+            if (bytes <= threshold * (1 - HYSTERESIS)) {
+                aboveSince = NOT_ABOVE;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Рост относительно минимума за окно {@link AlertRule#duration()}.
+     * Минимум окна поддерживается монотонной очередью, поэтому каждая точка стоит O(1) в среднем.
+     */
+    static final class Growth extends RuleStateMachine {
+        private final double ratio;
+        private final long windowNanos;
+        private final MonotonicMinQueue window = new MonotonicMinQueue();
+
+        private Growth(AlertRule rule) {
+            super(rule);
+            this.ratio = rule.threshold();
+            this.windowNanos = rule.duration().toNanos();
+        }
+
+        @Override
+        protected boolean isFired(long epochNanos, long bytes) {
+            return growth(epochNanos, bytes) >= ratio;
+        }
+
+        @Override
+        protected boolean isResolved(long epochNanos, long bytes) {
+            return growth(epochNanos, bytes) < ratio * (1 - HYSTERESIS);
+        }
+
+        private double growth(long epochNanos, long bytes) {
+            window.add(epochNanos, bytes);
+            window.evictOlderThan(epochNanos - windowNanos);
+            var min = window.min();
+            return min <= 0
+                    ? 0
+                    : (double) bytes / min - 1;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package jvmram.analysis;
+
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Разность двух последовательных гистограмм классов процесса.
+ *
+ * @param pid             в каком процессе
+ * @param moment          когда снята последняя гистограмма
+ * @param sincePrevious   сколько прошло с предыдущей гистограммы или null, если это первая
+ * @param classes         классы из верхушки последней гистограммы, от самых быстрорастущих
+ */
+public record ClassGrowth(
+        long pid,
+        Instant moment,
+        @Nullable Duration sincePrevious,
+        List<Entry> classes
+) {
+    /**
+     * @param className      имя класса, как его выводит GC.class_histogram
+     * @param instances      живых экземпляров
+     * @param bytes          занимают байт
+     * @param instancesDelta прирост экземпляров с предыдущей гистограммы
+     * @param bytesDelta     прирост байт с предыдущей гистограммы
+     * @param enteredTop     класса не было в верхушке предыдущей гистограммы: прирост считается от её нижней границы
+     *                       и поэтому занижен
+     */
+    public record Entry(
+            String className,
+            long instances,
+            long bytes,
+            long instancesDelta,
+            long bytesDelta,
+            boolean enteredTop
+    ) {
+    }
+}
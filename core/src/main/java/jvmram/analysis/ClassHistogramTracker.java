@@ -0,0 +1,34 @@
+package jvmram.analysis;
+
+import jvmram.analysis.impl.ClassHistogramTrackerImpl;
+
+import java.util.function.Consumer;
+
+/**
+ * Периодические гистограммы классов (аналог jmap -histo) и их разности.
+ * <p>
+ * Гистограмма вызывает полную сборку мусора в целевой JVM, поэтому снимается только для процессов,
+ * у которых есть подписчики, и не чаще раза в {@link jvmram.conf.Config#CLASS_HISTOGRAM_INTERVAL}.
+ * На каждый процесс хранится не больше {@link jvmram.conf.Config#CLASS_HISTOGRAM_TOP} классов.
+ */
+public interface ClassHistogramTracker {
+
+    /**
+     * Подписаться на рост классов процесса. Первая подписка включает снятие гистограмм,
+     * а когда подписчиков не остаётся, состояние процесса забывается.
+     *
+     * @param pid      какой процесс
+     * @param onGrowth получатель разностей гистограмм
+     */
+    void addGrowthListener(long pid, Consumer<ClassGrowth> onGrowth);
+
+    /**
+     * Снять гистограммы процессов, для которых истёк таймаут. Может занимать секунды на процесс,
+     * поэтому не выполняется в потоке опроса метрик.
+     */
+    void sampleDue();
+
+    static ClassHistogramTracker getInstance() {
+        return ClassHistogramTrackerImpl.INSTANCE;
+    }
+}
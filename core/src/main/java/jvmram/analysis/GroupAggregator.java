@@ -0,0 +1,36 @@
+package jvmram.analysis;
+
+import jvmram.analysis.impl.GroupAggregatorImpl;
+import jvmram.model.graph.GraphPointListener;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Поддерживает суммы метрик по группам процессов: явно отслеживаемый процесс вместе с потомками.
+ * Суммы обновляются инкрементально на каждую точку отдельного процесса без выделения памяти,
+ * а в очереди под ключами с {@link jvmram.model.graph.GraphKey.Scope#GROUP} записываются раз в такт.
+ */
+public interface GroupAggregator extends GraphPointListener {
+
+    /**
+     * Обновить состав групп.
+     *
+     * @param groups соответствие "корневой процесс группы -> все процессы группы, включая корневой"
+     */
+    void setGroups(Map<Long, Collection<Long>> groups);
+
+    /**
+     * Записать по точке в каждую группу, сумма которой изменилась с прошлого вызова.
+     * Вызывается потоком опроса в конце такта, когда точки всех процессов такта уже добавлены.
+     *
+     * @param epochNanos момент точек групп в наносекундах от эпохи
+     * @return самый поздний момент среди вытесненных точек или
+     * {@link jvmram.model.graph.GraphPointQueuesWritable#NOTHING_EVICTED}
+     */
+    long flush(long epochNanos);
+
+    static GroupAggregator getInstance() {
+        return GroupAggregatorImpl.INSTANCE;
+    }
+}
@@ -0,0 +1,25 @@
+package jvmram.analysis;
+
+import jvmram.analysis.impl.LeakDetectorImpl;
+import jvmram.model.graph.GraphPointListener;
+
+import java.util.function.Consumer;
+
+/**
+ * Потоковый анализ измерений на предмет медленных утечек heap и native-памяти.
+ * Получает точки по мере их добавления в очереди и хранит O(1) состояния на каждый ряд данных,
+ * не перечитывая историю.
+ */
+public interface LeakDetector extends GraphPointListener {
+
+    /**
+     * Подписаться на подозрения на утечку и их снятие.
+     *
+     * @param onFinding получатель подозрений
+     */
+    void addFindingsListener(Consumer<LeakFinding> onFinding);
+
+    static LeakDetector getInstance() {
+        return LeakDetectorImpl.INSTANCE;
+    }
+}
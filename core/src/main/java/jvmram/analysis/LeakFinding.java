@@ -0,0 +1,43 @@
+package jvmram.analysis;
+
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Подозрение на утечку памяти в процессе.
+ *
+ * @param pid          в каком процессе
+ * @param kind         какая память утекает
+ * @param state        подозрение возникло или снято
+ * @param moment       момент последнего измерения, по которому сделан вывод
+ * @param currentBytes текущий (сглаженный) объём памяти
+ * @param bytesPerHour оценка скорости роста в байтах в час
+ * @param timeToLimit  оценка времени до исчерпания предела памяти или null, если предел неизвестен
+ */
+public record LeakFinding(
+        long pid,
+        Kind kind,
+        State state,
+        Instant moment,
+        long currentBytes,
+        double bytesPerHour,
+        @Nullable Duration timeToLimit
+) {
+    public enum Kind {
+        /**
+         * Растёт heap, оставшийся после сборки мусора.
+         */
+        HEAP_AFTER_GC,
+        /**
+         * Растёт память процесса за вычетом heap (RSS или Working Set минус Committed Heap).
+         */
+        NATIVE
+    }
+
+    public enum State {
+        SUSPECTED,
+        CLEARED
+    }
+}
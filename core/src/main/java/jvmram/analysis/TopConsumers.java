@@ -0,0 +1,38 @@
+package jvmram.analysis;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Самые крупные по RSS процессы хоста после очередного обхода /proc.
+ *
+ * @param moment        когда закончен обход
+ * @param processCount  сколько процессов с ненулевым RSS найдено при обходе
+ * @param sweepDuration сколько длился обход
+ * @param consumers     не больше {@link jvmram.conf.Config#TOP_CONSUMERS_COUNT} процессов, от самых крупных
+ * @param leftPids      процессы, которые были в предыдущей верхушке, но выпали из неё или завершились
+ */
+public record TopConsumers(
+        Instant moment,
+        int processCount,
+        Duration sweepDuration,
+        List<Entry> consumers,
+        List<Long> leftPids
+) {
+    /**
+     * @param pid        номер процесса
+     * @param name       имя процесса из /proc/[pid]/comm
+     * @param rssBytes   занимает физической памяти
+     * @param rssDelta   прирост с предыдущего обхода; для вошедшего в верхушку — от её прошлой нижней границы
+     * @param enteredTop процесса не было в предыдущей верхушке, поэтому прирост занижен
+     */
+    public record Entry(
+            long pid,
+            String name,
+            long rssBytes,
+            long rssDelta,
+            boolean enteredTop
+    ) {
+    }
+}
@@ -0,0 +1,33 @@
+package jvmram.analysis;
+
+import jvmram.analysis.impl.TopConsumersTrackerImpl;
+
+import java.util.function.Consumer;
+
+/**
+ * Верхушка процессов хоста по RSS (аналог top, отсортированного по памяти).
+ * <p>
+ * Один обход читает только /proc/[pid]/statm каждого процесса и хранит не больше
+ * {@link jvmram.conf.Config#TOP_CONSUMERS_COUNT} процессов, сколько бы их ни было на хосте.
+ * Обход выполняется раз в {@link jvmram.conf.Config#TOP_CONSUMERS_INTERVAL} и только пока есть подписчики
+ * или включено автоматическое слежение за вошедшими в верхушку JVM ({@link jvmram.conf.Config#TOP_CONSUMERS_FOLLOW}).
+ * Работает только в Linux.
+ */
+public interface TopConsumersTracker {
+
+    /**
+     * Подписаться на верхушку процессов. Сразу после подписки получатель получает последнюю верхушку, если она есть.
+     *
+     * @param onTop получатель верхушки после каждого обхода
+     */
+    void addTopListener(Consumer<TopConsumers> onTop);
+
+    /**
+     * Обойти процессы хоста и разослать новую верхушку.
+     */
+    void sweep();
+
+    static TopConsumersTracker getInstance() {
+        return TopConsumersTrackerImpl.INSTANCE;
+    }
+}
@@ -0,0 +1,93 @@
+package jvmram.analysis.impl;
+
+/**
+ * Разбор вывода GC.class_histogram на месте, без разбиения на строки: создаются только имена первых N классов.
+ * <pre>
+ *  num     #instances         #bytes  class name (module)
+ * -------------------------------------------------------
+ *    1:         14457        1402808  [B (java.base@17.0.9)
+ * </pre>
+ * Строки в выводе уже упорядочены по убыванию байт, поэтому разбор останавливается после первых N строк
+ * и остальные классы не разбираются вовсе.
+ */
+class ClassHistogramParser {
+
+    interface RowConsumer {
+        void accept(String className, long instances, long bytes);
+    }
+
+    /**
+     * @param output вывод GC.class_histogram
+     * @param limit  сколько первых строк разобрать
+     * @return сколько строк разобрано
+     */
+    static int parse(String output, int limit, RowConsumer consumer) {
+        var parsed = 0;
+        var lineStart = 0;
+        var length = output.length();
+        while (lineStart < length && parsed < limit) {
+            var lineEnd = output.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = length;
+            }
+            if (parseRow(output, lineStart, lineEnd, consumer)) {
+                parsed++;
+            }
+            lineStart = lineEnd + 1;
+        }
+        return parsed;
+    }
+
+    /**
+     * @return была ли строка строкой гистограммы, а не заголовком или итогом
+     */
+    private static boolean parseRow(String output, int from, int to, RowConsumer consumer) {
+        var position = skipSpaces(output, from, to);
+        var afterNumber = skipDigits(output, position, to);
+        if (afterNumber == position || afterNumber >= to || output.charAt(afterNumber) != ':') {
+            return false;
+        }
+
+        position = skipSpaces(output, afterNumber + 1, to);
+        var afterInstances = skipDigits(output, position, to);
+        if (afterInstances == position) {
+            return false;
+        }
+        var instances = Long.parseLong(output, position, afterInstances, 10);
+
+        position = skipSpaces(output, afterInstances, to);
+        var afterBytes = skipDigits(output, position, to);
+        if (afterBytes == position) {
+            return false;
+        }
+        var bytes = Long.parseLong(output, position, afterBytes, 10);
+
+        var nameStart = skipSpaces(output, afterBytes, to);
+        var nameEnd = nameStart;
+        while (nameEnd < to && output.charAt(nameEnd) != ' ' && output.charAt(nameEnd) != '\r') {
+            nameEnd++;
+        }
+        if (nameEnd == nameStart) {
+            return false;
+        }
+        consumer.accept(output.substring(nameStart, nameEnd), instances, bytes);
+        return true;
+    }
+
+    private static int skipSpaces(String output, int position, int to) {
+        while (position < to && output.charAt(position) == ' ') {
+            position++;
+        }
+        return position;
+    }
+
+    private static int skipDigits(String output, int position, int to) {
+        while (position < to && output.charAt(position) >= '0' && output.charAt(position) <= '9') {
+            position++;
+        }
+        return position;
+    }
+
+    private ClassHistogramParser() {
+    }
+}
@@ -0,0 +1,172 @@
+package jvmram.analysis.impl;
+
+import jvmram.analysis.ClassGrowth;
+import jvmram.analysis.ClassHistogramTracker;
+import jvmram.jmx.JmxBeanFactory;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ObjectName;
+import java.lang.invoke.MethodHandles;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import static java.util.Collections.synchronizedList;
+import static jvmram.conf.Config.CLASS_HISTOGRAM_INTERVAL;
+import static jvmram.conf.Config.CLASS_HISTOGRAM_TOP;
+import static jvmram.controller.impl.Utils.callActionOrGetRidOfListener;
+
+/**
+ * Гистограмма снимается командой GC.class_histogram через DiagnosticCommand MBean
+ * по тому же соединению, что открывается через Attach API для остальных JMX-данных.
+ * От каждой гистограммы остаются только первые N классов: по ним считается разность со следующей.
+ */
+public class ClassHistogramTrackerImpl implements ClassHistogramTracker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final String DIAGNOSTIC_COMMAND_NAME = "com.sun.management:type=DiagnosticCommand";
+    private static final String CLASS_HISTOGRAM_OPERATION = "gcClassHistogram";
+    private static final Object[] NO_ARGUMENTS = {new String[0]};
+    private static final String[] ARGUMENTS_SIGNATURE = {String[].class.getName()};
+
+    private final JmxBeanFactory jmxBeanFactory;
+    private final Duration interval;
+    private final int top;
+
+    private final Map<Long, PidState> states = new ConcurrentHashMap<>();
+
+    private ClassHistogramTrackerImpl() {
+        this(JmxBeanFactory.getInstance(), CLASS_HISTOGRAM_INTERVAL, CLASS_HISTOGRAM_TOP);
+    }
+
+    ClassHistogramTrackerImpl(JmxBeanFactory jmxBeanFactory, Duration interval, int top) {
+        this.jmxBeanFactory = jmxBeanFactory;
+        this.interval = interval;
+        this.top = top;
+    }
+
+    @Override
+    public void addGrowthListener(long pid, Consumer<ClassGrowth> onGrowth) {
+        // Подписка и забывание процесса без подписчиков атомарны относительно друг друга
+        var state = states.compute(pid, (key, existing) -> {
+            if (existing == null) {
+                // подключение занято, пока у процесса есть подписчики
+                jmxBeanFactory.acquire(pid);
+            }
+            var output = existing == null ? new PidState(pid) : existing;
+            output.listeners.add(onGrowth);
+            return output;
+        });
+        var last = state.lastGrowth;
+        if (last != null) {
+            onGrowth.accept(last);
+        }
+    }
+
+    @Override
+    public void sampleDue() {
+        var now = System.nanoTime();
+        for (var state : states.values()) {
+            if (state.lastSampleNanos != 0 && now - state.lastSampleNanos < interval.toNanos()) {
+                continue;
+            }
+            if (jmxBeanFactory.isBusy(state.pid)) {
+                // гистограмма дождалась бы конца дампа heap; снимем её на следующей проверке
+                continue;
+            }
+            state.lastSampleNanos = now;
+            var output = classHistogram(state.pid);
+            if (output == null) {
+                continue;
+            }
+            var growth = state.diff(output);
+            callActionOrGetRidOfListener(state.listeners, listener -> listener.accept(growth));
+            states.computeIfPresent(state.pid, (pid, existing) -> {
+                if (!existing.listeners.isEmpty()) {
+                    return existing;
+                }
+                LOG.debug("Nobody listens to class growth of pid {} anymore", pid);
+                jmxBeanFactory.release(pid);
+                return null;
+            });
+        }
+    }
+
+    private @Nullable String classHistogram(long pid) {
+        var connection = jmxBeanFactory.getConnection(pid);
+        if (connection == null) {
+            return null;
+        }
+        try {
+            var start = System.nanoTime();
+            var output = (String) connection.invoke(
+                    new ObjectName(DIAGNOSTIC_COMMAND_NAME), CLASS_HISTOGRAM_OPERATION, NO_ARGUMENTS, ARGUMENTS_SIGNATURE);
+            LOG.debug("Class histogram of pid {} took {} ms", pid, (System.nanoTime() - start) / 1_000_000);
+            return output;
+        } catch (Exception e) {
+            LOG.info("Failed to get class histogram of pid {}: {}", pid, e.getMessage());
+            return null;
+        }
+    }
+
+    private final class PidState {
+        private final long pid;
+        private final List<Consumer<ClassGrowth>> listeners = synchronizedList(new ArrayList<>());
+
+        private long lastSampleNanos;
+        private volatile @Nullable ClassGrowth lastGrowth;
+
+        /**
+         * Верхушка предыдущей гистограммы: не больше top классов.
+         */
+        private Map<String, ClassGrowth.Entry> previous = Map.of();
+        private long previousThreshold;
+        private @Nullable Instant previousMoment;
+
+        private PidState(long pid) {
+            this.pid = pid;
+        }
+
+        private ClassGrowth diff(String output) {
+            var moment = Instant.now();
+            var current = new HashMap<String, ClassGrowth.Entry>(top * 2);
+            var firstHistogram = previousMoment == null;
+            ClassHistogramParser.parse(output, top, (className, instances, bytes) -> {
+                var before = previous.get(className);
+                ClassGrowth.Entry entry;
+                if (firstHistogram) {
+                    entry = new ClassGrowth.Entry(className, instances, bytes, 0, 0, false);
+                } else if (before != null) {
+                    entry = new ClassGrowth.Entry(className, instances, bytes,
+                            instances - before.instances(), bytes - before.bytes(), false);
+                } else {
+                    // Раньше класс был не больше нижней границы прошлой верхушки, точнее неизвестно
+                    entry = new ClassGrowth.Entry(className, instances, bytes,
+                            0, Math.max(0, bytes - previousThreshold), true);
+                }
+                current.put(className, entry);
+            });
+
+            var sincePrevious = firstHistogram ? null : Duration.between(previousMoment, moment);
+            previous = current;
+            previousThreshold = current.size() < top
+                    ? 0
+                    : current.values().stream().mapToLong(ClassGrowth.Entry::bytes).min().orElse(0);
+            previousMoment = moment;
+
+            var classes = new ArrayList<>(current.values());
+            classes.sort(Comparator.comparingLong(ClassGrowth.Entry::bytesDelta).reversed()
+                    .thenComparing(Comparator.comparingLong(ClassGrowth.Entry::bytes).reversed()));
+            var growth = new ClassGrowth(pid, moment, sincePrevious, List.copyOf(classes));
+            lastGrowth = growth;
+            return growth;
+        }
+    }
+
+    public static final ClassHistogramTrackerImpl INSTANCE = new ClassHistogramTrackerImpl();
+}
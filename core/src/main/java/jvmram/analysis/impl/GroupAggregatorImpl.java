@@ -0,0 +1,186 @@
+package jvmram.analysis.impl;
+
+import jvmram.analysis.GroupAggregator;
+import jvmram.model.graph.GraphKey;
+import jvmram.model.graph.GraphPointQueuesWritable;
+import jvmram.model.metrics.MetricType;
+import jvmram.model.util.LongObjectMap;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.util.*;
+
+import static jvmram.model.graph.GraphKey.Scope.GROUP;
+import static jvmram.model.graph.GraphKey.Scope.PROCESS;
+import static jvmram.model.graph.GraphPointQueuesWritable.NOTHING_EVICTED;
+
+/**
+ * Сумма группы по каждой метрике складывается из последних известных значений её участников:
+ * при поступлении новой точки участника из суммы вычитается его прежний вклад и прибавляется новый.
+ * Участник, покинувший группу, забирает свой вклад; новый участник начинает вносить вклад со своей первой точки.
+ * <p>
+ * Точки участников только обновляют суммы, а в очереди суммы попадают в {@link #flush(long)} один раз за такт,
+ * когда вклады всех участников уже обновлены. Вклады хранятся массивами по отсортированным номерам участников,
+ * поэтому обновление суммы не выделяет память.
+ */
+public class GroupAggregatorImpl implements GroupAggregator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final MetricType[] METRIC_TYPES = MetricType.values();
+
+    private final GraphPointQueuesWritable graphPointQueues = GraphPointQueuesWritable.getInstance();
+
+    /**
+     * Участник -> группы, в которые он входит.
+     */
+    private final LongObjectMap<Group[]> memberToGroups = new LongObjectMap<>();
+
+    private final List<Group> groups = new ArrayList<>();
+
+    private GroupAggregatorImpl() {
+    }
+
+    @Override
+    public synchronized void onAdded(GraphKey key, long epochNanos, long bytes) {
+        if (key.scope() != PROCESS) {
+            return;
+        }
+        var memberGroups = memberToGroups.get(key.pid());
+        if (memberGroups == null) {
+            return;
+        }
+        for (var group : memberGroups) {
+            group.sum(key.type()).update(key.pid(), bytes);
+        }
+    }
+
+    @Override
+    public synchronized long flush(long epochNanos) {
+        var maxEvicted = NOTHING_EVICTED;
+        for (int i = 0; i < groups.size(); i++) {
+            for (var groupSum : groups.get(i).byType) {
+                if (groupSum == null || !groupSum.dirty) {
+                    continue;
+                }
+                groupSum.dirty = false;
+                var evicted = graphPointQueues.add(groupSum.key, epochNanos, groupSum.sum);
+                maxEvicted = Math.max(maxEvicted, evicted);
+            }
+        }
+        return maxEvicted;
+    }
+
+    @Override
+    public synchronized void setGroups(Map<Long, Collection<Long>> newGroups) {
+        var previous = new HashMap<Long, Group>();
+        for (var group : groups) {
+            previous.put(group.root, group);
+        }
+        groups.clear();
+        memberToGroups.removeKeysIf(member -> true);
+
+        var byMember = new HashMap<Long, List<Group>>();
+        newGroups.forEach((root, members) -> {
+            var sortedMembers = members.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+            var group = new Group(root, sortedMembers, previous.get(root));
+            groups.add(group);
+            for (long member : sortedMembers) {
+                byMember.computeIfAbsent(member, ignored -> new ArrayList<>()).add(group);
+            }
+        });
+        byMember.forEach((member, memberGroups) -> memberToGroups.put(member, memberGroups.toArray(new Group[0])));
+        LOG.debug("Aggregating groups {}", newGroups);
+    }
+
+    private static final class Group {
+        private final long root;
+        private final long[] members;
+        private final GroupSum[] byType = new GroupSum[METRIC_TYPES.length];
+
+        /**
+         * @param previous прежний состав этой же группы: суммы переносятся с вкладами оставшихся участников
+         */
+        private Group(long root, long[] members, @Nullable Group previous) {
+            this.root = root;
+            this.members = members;
+            if (previous == null) {
+                return;
+            }
+            for (int i = 0; i < byType.length; i++) {
+                var groupSum = previous.byType[i];
+                if (groupSum != null) {
+                    byType[i] = groupSum.withMembers(members);
+                }
+            }
+        }
+
+        private GroupSum sum(MetricType type) {
+            var output = byType[type.ordinal()];
+            if (output == null) {
+                output = new GroupSum(new GraphKey(type, root, GROUP), members);
+                byType[type.ordinal()] = output;
+            }
+            return output;
+        }
+    }
+
+    private static final class GroupSum {
+        private static final long NO_CONTRIBUTION = -1;
+
+        private final GraphKey key;
+        /**
+         * Номера участников по возрастанию и их вклады на тех же местах.
+         */
+        private final long[] members;
+        private final long[] contributions;
+        private long sum;
+        /**
+         * Сумма изменилась, а в очередь ещё не записана.
+         */
+        private boolean dirty;
+
+        private GroupSum(GraphKey key, long[] members) {
+            this.key = key;
+            this.members = members;
+            this.contributions = new long[members.length];
+            Arrays.fill(contributions, NO_CONTRIBUTION);
+        }
+
+        private void update(long member, long bytes) {
+            var index = Arrays.binarySearch(members, member);
+            if (index < 0) {
+                return;
+            }
+            var previous = contributions[index];
+            contributions[index] = bytes;
+            sum += bytes - Math.max(0, previous);
+            dirty = true;
+        }
+
+        /**
+         * @return сумма с новым составом участников; покинувшие группу забирают свой вклад
+         */
+        private GroupSum withMembers(long[] newMembers) {
+            var output = new GroupSum(key, newMembers);
+            output.dirty = dirty;
+            for (int i = 0; i < members.length; i++) {
+                if (contributions[i] == NO_CONTRIBUTION) {
+                    continue;
+                }
+                var index = Arrays.binarySearch(newMembers, members[i]);
+                if (index < 0) {
+                    output.dirty = true;
+                    continue;
+                }
+                output.contributions[index] = contributions[i];
+                output.sum += contributions[i];
+            }
+            return output;
+        }
+    }
+
+    public static final GroupAggregatorImpl INSTANCE = new GroupAggregatorImpl();
+}
@@ -0,0 +1,225 @@
+package jvmram.analysis.impl;
+
+import com.sun.management.OperatingSystemMXBean;
+import jvmram.analysis.LeakDetector;
+import jvmram.analysis.LeakFinding;
+import jvmram.model.graph.GraphKey;
+import jvmram.model.util.LongObjectMap;
+import jvmram.suppliers.HardwareDataSuppliersFactory;
+import jvmram.suppliers.data.JmxData;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static java.util.Collections.synchronizedList;
+import static jvmram.analysis.LeakFinding.Kind.HEAP_AFTER_GC;
+import static jvmram.analysis.LeakFinding.Kind.NATIVE;
+import static jvmram.analysis.LeakFinding.State.CLEARED;
+import static jvmram.analysis.LeakFinding.State.SUSPECTED;
+import static jvmram.controller.impl.Utils.callActionOrGetRidOfListener;
+import static jvmram.model.graph.GraphKey.Scope.PROCESS;
+import static jvmram.model.metrics.MetricType.HEAP_USED;
+import static jvmram.model.util.WallClock.toInstant;
+
+/**
+ * Анализирует два производных ряда для каждого процесса:
+ * <ul>
+ *     <li>heap после сборки мусора: локальные минимумы Used Heap;</li>
+ *     <li>native-память: RSS (Working Set) минус последнее известное значение Committed Heap.</li>
+ * </ul>
+ * Точки отдельных процессов приходят из потока опроса метрик, поэтому состояние не синхронизируется.
+ */
+public class LeakDetectorImpl implements LeakDetector {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final int WINDOW = 32;
+    private static final double EWMA_ALPHA = 0.2;
+    private static final double MIN_BYTES_PER_HOUR = 1024 * 1024;
+
+    private static final double HEAP_AFTER_GC_TOLERANCE = 0.02;
+    private static final int HEAP_AFTER_GC_MIN_RUN = 5;
+
+    private static final double NATIVE_TOLERANCE = 0.01;
+    private static final int NATIVE_MIN_RUN = 20;
+
+    private static final double SECONDS_IN_HOUR = 3600;
+
+    private final LongObjectMap<PidState> states = new LongObjectMap<>();
+
+    private final List<Consumer<LeakFinding>> findingsListeners = synchronizedList(new ArrayList<>());
+
+    private LeakDetectorImpl() {
+    }
+
+    @Override
+    public void addFindingsListener(Consumer<LeakFinding> onFinding) {
+        findingsListeners.add(onFinding);
+    }
+
+    @Override
+    public void onAdded(GraphKey key, long epochNanos, long bytes) {
+        if (key.scope() != PROCESS) {
+            return;
+        }
+        var pid = key.pid();
+        switch (key.type()) {
+            case HEAP_USED -> state(pid).onHeapUsed(epochNanos, bytes);
+            case HEAP_COMMITTED -> state(pid).lastHeapCommitted = bytes;
+            case RSS, WS -> state(pid).onResident(epochNanos, bytes);
+            default -> {
+                // остальные метрики в поиске утечек не участвуют
+            }
+        }
+    }
+
+    @Override
+    public void onSealed(long pid) {
+        states.remove(pid);
+    }
+
+    private PidState state(long pid) {
+        var state = states.get(pid);
+        if (state == null) {
+            state = new PidState(pid);
+            states.put(pid, state);
+        }
+        return state;
+    }
+
+    private void fire(LeakFinding finding) {
+        LOG.info("Leak finding: {}", finding);
+        callActionOrGetRidOfListener(findingsListeners, listener -> listener.accept(finding));
+    }
+
+    private static double toSeconds(long epochNanos) {
+        return epochNanos / 1e9;
+    }
+
+    private final class PidState {
+        private final long pid;
+
+        private long previousHeapUsed = -1;
+        private long previousHeapMoment;
+        private boolean heapFalling;
+
+        private long lastHeapCommitted = -1;
+        private long lastResident = -1;
+
+        private final Series heapAfterGc = new Series(HEAP_AFTER_GC, HEAP_AFTER_GC_TOLERANCE, HEAP_AFTER_GC_MIN_RUN);
+        private final Series nativeMemory = new Series(NATIVE, NATIVE_TOLERANCE, NATIVE_MIN_RUN);
+
+        private PidState(long pid) {
+            this.pid = pid;
+        }
+
+        /**
+         * Used Heap уменьшается только в результате сборки мусора.
+         * Точка, после которой снижение сменилось ростом, и есть heap после сборки.
+         */
+        private void onHeapUsed(long epochNanos, long value) {
+            if (previousHeapUsed >= 0) {
+                if (value < previousHeapUsed) {
+                    heapFalling = true;
+                } else if (heapFalling) {
+                    heapFalling = false;
+                    heapAfterGc.add(previousHeapMoment, previousHeapUsed);
+                }
+            }
+            previousHeapUsed = value;
+            previousHeapMoment = epochNanos;
+        }
+
+        private void onResident(long epochNanos, long bytes) {
+            lastResident = bytes;
+            if (lastHeapCommitted < 0) {
+                return;
+            }
+            nativeMemory.add(epochNanos, lastResident - lastHeapCommitted);
+        }
+
+        private @Nullable Duration timeToLimit(LeakFinding.Kind kind, double current, double slopePerSecond) {
+            double limit;
+            double used;
+            if (kind == HEAP_AFTER_GC) {
+                limit = heapMax();
+                used = current;
+            } else {
+                limit = physicalMemory();
+                used = lastResident;
+            }
+            if (limit <= 0 || slopePerSecond <= 0) {
+                return null;
+            }
+            return Duration.ofSeconds((long) (Math.max(0, limit - used) / slopePerSecond));
+        }
+
+        /**
+         * Предел heap берётся из последних JMX-данных процесса, которые уже получил опрос метрик:
+         * обращение к JVM отсюда задержало бы поток опроса и могло бы заново подключиться к процессу.
+         */
+        private long heapMax() {
+            var supplier = HardwareDataSuppliersFactory.getInstance().findSupplier(pid, HEAP_USED);
+            return supplier != null && supplier.getStoredData() instanceof JmxData data
+                    ? data.heapMax()
+                    : -1;
+        }
+
+        private long physicalMemory() {
+            var bean = ManagementFactory.getOperatingSystemMXBean();
+            return bean instanceof OperatingSystemMXBean os
+                    ? os.getTotalMemorySize()
+                    : -1;
+        }
+
+        private final class Series {
+            private final LeakFinding.Kind kind;
+            private final int minRun;
+            private final TrendEstimator trend = new TrendEstimator(WINDOW, EWMA_ALPHA);
+            private final MonotonicGrowthDetector growth;
+            private boolean suspected;
+
+            private Series(LeakFinding.Kind kind, double tolerance, int minRun) {
+                this.kind = kind;
+                this.minRun = minRun;
+                this.growth = new MonotonicGrowthDetector(tolerance);
+            }
+
+            private void add(long epochNanos, long bytes) {
+                trend.add(toSeconds(epochNanos), bytes);
+                // Native-память шумит, поэтому монотонность проверяем по сглаженному значению.
+                growth.add(kind == NATIVE ? trend.ewma() : bytes);
+
+                var slope = trend.slopePerSecond();
+                var bytesPerHour = slope * SECONDS_IN_HOUR;
+                var enoughData = kind != NATIVE || trend.isWindowFull();
+
+                if (!suspected && enoughData && growth.growthRun() >= minRun && bytesPerHour >= MIN_BYTES_PER_HOUR) {
+                    suspected = true;
+                    fire(finding(SUSPECTED, epochNanos, bytesPerHour, timeToLimit(kind, trend.ewma(), slope)));
+                } else if (suspected && bytesPerHour < MIN_BYTES_PER_HOUR / 2) {
+                    suspected = false;
+                    fire(finding(CLEARED, epochNanos, bytesPerHour, null));
+                }
+            }
+
+            private LeakFinding finding(
+                    LeakFinding.State state,
+                    long epochNanos,
+                    double bytesPerHour,
+                    @Nullable Duration timeToLimit
+            ) {
+                return new LeakFinding(pid, kind, state, toInstant(epochNanos), (long) trend.ewma(), bytesPerHour, timeToLimit);
+            }
+        }
+    }
+
+    public static final LeakDetectorImpl INSTANCE = new LeakDetectorImpl();
+}
@@ -0,0 +1,41 @@
+package jvmram.analysis.impl;
+
+/**
+ * Считает, сколько точек подряд ряд данных не убывает и при этом всё-таки растёт.
+ * Колебания в пределах допуска не сбрасывают серию, но и не засчитываются как рост.
+ */
+class MonotonicGrowthDetector {
+
+    private final double tolerance;
+
+    private double peak = Double.NaN;
+    private int growthRun;
+
+    /**
+     * @param tolerance допустимое относительное снижение от достигнутого максимума, не прерывающее серию
+     */
+    MonotonicGrowthDetector(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    void add(double value) {
+        if (Double.isNaN(peak)) {
+            peak = value;
+            return;
+        }
+        if (value > peak) {
+            peak = value;
+            growthRun++;
+        } else if (value < peak * (1 - tolerance)) {
+            peak = value;
+            growthRun = 0;
+        }
+    }
+
+    /**
+     * @return сколько раз подряд ряд обновил максимум без существенного снижения
+     */
+    int growthRun() {
+        return growthRun;
+    }
+}
@@ -0,0 +1,375 @@
+package jvmram.analysis.impl;
+
+import com.sun.jna.Native;
+import jvmram.analysis.TopConsumers;
+import jvmram.analysis.TopConsumersTracker;
+import jvmram.controller.ProcessController;
+import jvmram.process.JvmDiscovery;
+import jvmram.process.JvmProcessInfo;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static jvmram.conf.Config.PROC_ROOT;
+import static jvmram.conf.Config.SYNTHETIC_PROC_ROOT;
+import static jvmram.conf.Config.TOP_CONSUMERS_COUNT;
+import static jvmram.conf.Config.TOP_CONSUMERS_FOLLOW;
+import static jvmram.conf.Config.TOP_CONSUMERS_INTERVAL;
+import static jvmram.conf.Config.os;
+import static jvmram.controller.impl.Utils.callActionOrGetRidOfListener;
+import static jvmram.model.metrics.Os.LINUX;
+
+/**
+ * Обход читает из /proc/[pid]/statm только второе поле — число резидентных страниц — в общий буфер
+ * и складывает процессы в ограниченную min-кучу на N мест: процесс меньше её корня отбрасывается сразу.
+ * Поэтому память обхода не зависит от числа процессов на хосте.
+ * <p>
+ * Между обходами хранится только предыдущая верхушка: по ней считаются приросты, вошедшие и выбывшие процессы,
+ * а имена процессов из /proc/[pid]/comm читаются лишь для вошедших в верхушку.
+ * Всё состояние принадлежит потоку, в котором вызывается {@link #sweep()}.
+ */
+public class TopConsumersTrackerImpl implements TopConsumersTracker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    // Синтетический парк пишет statm в страницах по 4 КБ, это же размер страницы, если узнать его не удалось
+    private static final long DEFAULT_PAGE_SIZE = 4096;
+    private static final String UNKNOWN_NAME = "?";
+
+    private interface LibC extends com.sun.jna.Library {
+        LibC INSTANCE = Native.load("c", LibC.class);
+
+        int getpagesize();
+    }
+
+    private final Path procRoot;
+    private final Duration interval;
+    private final int top;
+    private final boolean follow;
+    private final long pageSize;
+
+    private final List<Consumer<TopConsumers>> listeners = new CopyOnWriteArrayList<>();
+    private volatile @Nullable TopConsumers last;
+    private long lastSweepNanos;
+
+    // min-куча текущего обхода: в корне самый маленький из оставленных процессов
+    private final long[] heapPids;
+    private final long[] heapRss;
+    private int heapSize;
+
+    // верхушка предыдущего обхода, от крупных к мелким
+    private long[] previousPids;
+    private long[] previousRss;
+    private String[] previousNames;
+    private int previousSize;
+    private boolean firstSweep = true;
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(128);
+
+    private TopConsumersTrackerImpl() {
+        this(PROC_ROOT, TOP_CONSUMERS_INTERVAL, TOP_CONSUMERS_COUNT, TOP_CONSUMERS_FOLLOW,
+                SYNTHETIC_PROC_ROOT ? DEFAULT_PAGE_SIZE : pageSize());
+    }
+
+    TopConsumersTrackerImpl(Path procRoot, Duration interval, int top, boolean follow, long pageSize) {
+        this.procRoot = procRoot;
+        this.interval = interval;
+        this.top = top;
+        this.follow = follow;
+        this.pageSize = pageSize;
+        this.heapPids = new long[top];
+        this.heapRss = new long[top];
+        this.previousPids = new long[top];
+        this.previousRss = new long[top];
+        this.previousNames = new String[top];
+    }
+
+    @Override
+    public void addTopListener(Consumer<TopConsumers> onTop) {
+        listeners.add(onTop);
+        var output = last;
+        if (output != null) {
+            onTop.accept(output);
+        }
+    }
+
+    @Override
+    public void sweep() {
+        if (os != LINUX || (listeners.isEmpty() && !follow)) {
+            return;
+        }
+        var start = System.nanoTime();
+        if (lastSweepNanos != 0 && start - lastSweepNanos < interval.toNanos()) {
+            return;
+        }
+        lastSweepNanos = start;
+
+        var processCount = collect();
+        if (processCount < 0) {
+            return;
+        }
+        var topConsumers = diff(processCount, Duration.ofNanos(System.nanoTime() - start));
+        LOG.debug("Swept {} processes in {} ms", processCount, topConsumers.sweepDuration().toMillis());
+        last = topConsumers;
+        callActionOrGetRidOfListener(listeners, listener -> listener.accept(topConsumers));
+        if (follow) {
+            followEnteredJvms(topConsumers);
+        }
+    }
+
+    /**
+     * @return сколько процессов с ненулевым RSS найдено или -1, если /proc не читается
+     */
+    private int collect() {
+        heapSize = 0;
+        var processCount = 0;
+        try (var entries = Files.newDirectoryStream(procRoot)) {
+            for (var entry : entries) {
+                var pid = parsePid(entry.getFileName().toString());
+                if (pid < 0) {
+                    continue;
+                }
+                var residentPages = residentPages(entry.resolve("statm"));
+                // у потоков ядра RSS нулевой
+                if (residentPages <= 0) {
+                    continue;
+                }
+                processCount++;
+                offer(pid, residentPages * pageSize);
+            }
+        } catch (Exception e) {
+            LOG.warn("Failed to list processes in {}: {}", procRoot, e.getMessage());
+            return -1;
+        }
+        return processCount;
+    }
+
+    private void offer(long pid, long rss) {
+        if (heapSize < top) {
+            heapPids[heapSize] = pid;
+            heapRss[heapSize] = rss;
+            siftUp(heapSize++);
+        } else if (rss > heapRss[0]) {
+            heapPids[0] = pid;
+            heapRss[0] = rss;
+            siftDown(0, heapSize);
+        }
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            var parent = (index - 1) / 2;
+            if (heapRss[parent] <= heapRss[index]) {
+                return;
+            }
+            swap(parent, index);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index, int size) {
+        while (true) {
+            var smallest = index;
+            var left = 2 * index + 1;
+            var right = left + 1;
+            if (left < size && heapRss[left] < heapRss[smallest]) {
+                smallest = left;
+            }
+            if (right < size && heapRss[right] < heapRss[smallest]) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        var pid = heapPids[i];
+        heapPids[i] = heapPids[j];
+        heapPids[j] = pid;
+        var rss = heapRss[i];
+        heapRss[i] = heapRss[j];
+        heapRss[j] = rss;
+    }
+
+    /**
+     * Разобрать кучу в порядке убывания RSS и сравнить с предыдущей верхушкой.
+     */
+    private TopConsumers diff(int processCount, Duration sweepDuration) {
+        // Сортировка кучей на месте: каждый извлечённый минимум уходит в конец массива
+        var size = heapSize;
+        for (var end = size - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+        var previousThreshold = previousSize < top ? 0 : previousRss[previousSize - 1];
+
+        var consumers = new ArrayList<TopConsumers.Entry>(size);
+        var names = new String[top];
+        for (var i = 0; i < size; i++) {
+            var pid = heapPids[i];
+            var rss = heapRss[i];
+            var before = indexOfPrevious(pid);
+            TopConsumers.Entry entry;
+            if (firstSweep) {
+                names[i] = name(pid);
+                entry = new TopConsumers.Entry(pid, names[i], rss, 0, false);
+            } else if (before >= 0) {
+                names[i] = previousNames[before];
+                entry = new TopConsumers.Entry(pid, names[i], rss, rss - previousRss[before], false);
+            } else {
+                // Раньше процесс был не больше нижней границы прошлой верхушки, точнее неизвестно
+                names[i] = name(pid);
+                entry = new TopConsumers.Entry(pid, names[i], rss, Math.max(0, rss - previousThreshold), true);
+            }
+            consumers.add(entry);
+        }
+
+        var leftPids = new ArrayList<Long>();
+        for (var i = 0; i < previousSize; i++) {
+            if (indexOf(heapPids, size, previousPids[i]) < 0) {
+                leftPids.add(previousPids[i]);
+            }
+        }
+
+        System.arraycopy(heapPids, 0, previousPids, 0, size);
+        System.arraycopy(heapRss, 0, previousRss, 0, size);
+        previousNames = names;
+        previousSize = size;
+        firstSweep = false;
+        return new TopConsumers(Instant.now(), processCount, sweepDuration, List.copyOf(consumers), List.copyOf(leftPids));
+    }
+
+    private int indexOfPrevious(long pid) {
+        return indexOf(previousPids, previousSize, pid);
+    }
+
+    /**
+     * Линейный поиск: верхушка — это десятки процессов.
+     */
+    private static int indexOf(long[] pids, int size, long pid) {
+        for (var i = 0; i < size; i++) {
+            if (pids[i] == pid) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Следить за вошедшими в верхушку JVM, чтобы для них создались и дорогие Поставщики.
+     * Подключаться можно только к JVM: Attach API посылает процессу SIGQUIT, который остальные процессы завершает.
+     * Процесс добавляется только при входе в верхушку, чтобы не мешать снять с него слежение вручную.
+     * На первом обходе в верхушку никто не входит, поэтому выбор пользователя при запуске не меняется.
+     */
+    private void followEnteredJvms(TopConsumers topConsumers) {
+        var entered = new ArrayList<Long>();
+        for (var consumer : topConsumers.consumers()) {
+            if (consumer.enteredTop()) {
+                entered.add(consumer.pid());
+            }
+        }
+        if (entered.isEmpty()) {
+            return;
+        }
+        var jvmPids = JvmDiscovery.getInstance().getJvmProcesses().stream()
+                .map(JvmProcessInfo::pid)
+                .collect(Collectors.toSet());
+        entered.retainAll(jvmPids);
+        if (!entered.isEmpty()) {
+            LOG.info("Following JVMs that entered the top memory consumers: {}", entered);
+            ProcessController.getInstance().followAdditionally(entered);
+        }
+    }
+
+    private long residentPages(Path statm) {
+        buffer.clear();
+        try (var channel = FileChannel.open(statm)) {
+            // statm — одна короткая строка, обычно она читается за раз
+            int read;
+            do {
+                read = channel.read(buffer);
+            } while (read > 0 && buffer.hasRemaining());
+        } catch (Exception e) {
+            // процесс завершился во время обхода
+            return -1;
+        }
+        // Формат: size resident shared text lib data dt
+        var bytes = buffer.array();
+        var limit = buffer.position();
+        var position = skipSpaces(bytes, 0, limit);
+        while (position < limit && bytes[position] != ' ') {
+            position++;
+        }
+        position = skipSpaces(bytes, position, limit);
+        long pages = 0;
+        var digits = 0;
+        while (position < limit && bytes[position] >= '0' && bytes[position] <= '9') {
+            pages = pages * 10 + (bytes[position] - '0');
+            position++;
+            digits++;
+        }
+        return digits > 0 ? pages : -1;
+    }
+
+    private static int skipSpaces(byte[] bytes, int position, int limit) {
+        while (position < limit && bytes[position] == ' ') {
+            position++;
+        }
+        return position;
+    }
+
+    private String name(long pid) {
+        try {
+            return Files.readString(procRoot.resolve(Long.toString(pid)).resolve("comm"), UTF_8).strip();
+        } catch (Exception e) {
+            return UNKNOWN_NAME;
+        }
+    }
+
+    private static long parsePid(String name) {
+        if (name.isEmpty()) {
+            return -1;
+        }
+        long pid = 0;
+        for (var i = 0; i < name.length(); i++) {
+            var c = name.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            pid = pid * 10 + (c - '0');
+        }
+        return pid;
+    }
+
+    private static long pageSize() {
+        if (os != LINUX) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        try {
+            return LibC.INSTANCE.getpagesize();
+        } catch (Throwable e) {
+            LOG.warn("Failed to get the page size, assuming {} bytes: {}", DEFAULT_PAGE_SIZE, e.getMessage());
+            return DEFAULT_PAGE_SIZE;
+        }
+    }
+
+    public static final TopConsumersTrackerImpl INSTANCE = new TopConsumersTrackerImpl();
+}
@@ -0,0 +1,109 @@
+package jvmram.analysis.impl;
+
+/**
+ * Оценка тренда ряда данных за O(1) на точку:
+ * наклон по методу наименьших квадратов в скользящем окне последних точек и EWMA значения.
+ * <p>
+ * Суммы для наклона ведутся относительно начала отсчёта, которое переносится на самую старую точку окна
+ * каждый раз, когда окно обновляется целиком. Так пересчёт сумм стоит O(1) в среднем на точку,
+ * а погрешность double не накапливается.
+ */
+class TrendEstimator {
+
+    private final double ewmaAlpha;
+    private final double[] seconds;
+    private final double[] values;
+
+    private int count;
+    private int next;
+    private int sinceRebase;
+
+    private double originSeconds;
+    private double originValue;
+
+    private double sumT;
+    private double sumV;
+    private double sumTT;
+    private double sumTV;
+
+    private double ewma = Double.NaN;
+
+    TrendEstimator(int window, double ewmaAlpha) {
+        this.ewmaAlpha = ewmaAlpha;
+        this.seconds = new double[window];
+        this.values = new double[window];
+    }
+
+    void add(double second, double value) {
+        ewma = Double.isNaN(ewma)
+                ? value
+                : ewmaAlpha * value + (1 - ewmaAlpha) * ewma;
+
+        if (count == 0) {
+            originSeconds = second;
+            originValue = value;
+        }
+
+        if (count == seconds.length) {
+            accumulate(seconds[next], values[next], -1);
+        } else {
+            count++;
+        }
+        seconds[next] = second;
+        values[next] = value;
+        accumulate(second, value, 1);
+        next = (next + 1) % seconds.length;
+
+        if (++sinceRebase >= seconds.length) {
+            rebase();
+        }
+    }
+
+    private void accumulate(double second, double value, int sign) {
+        var t = second - originSeconds;
+        var v = value - originValue;
+        sumT += sign * t;
+        sumV += sign * v;
+        sumTT += sign * t * t;
+        sumTV += sign * t * v;
+    }
+
+    private void rebase() {
+        sinceRebase = 0;
+        var oldest = count == seconds.length ? next : 0;
+        originSeconds = seconds[oldest];
+        originValue = values[oldest];
+        sumT = 0;
+        sumV = 0;
+        sumTT = 0;
+        sumTV = 0;
+        for (int i = 0; i < count; i++) {
+            accumulate(seconds[i], values[i], 1);
+        }
+    }
+
+    /**
+     * @return заполнено ли окно целиком
+     */
+    boolean isWindowFull() {
+        return count == seconds.length;
+    }
+
+    /**
+     * @return наклон в единицах значения в секунду либо 0, если точек недостаточно
+     */
+    double slopePerSecond() {
+        var denominator = count * sumTT - sumT * sumT;
+        if (count < 2 || denominator <= 0) {
+            return 0;
+        }
+        return (count * sumTV - sumT * sumV) / denominator;
+    }
+
+    /**
+     * @return экспоненциально сглаженное значение либо NaN, если точек не было
+     */
+    double ewma() {
+        return ewma;
+    }
+}
@@ -2,15 +2,19 @@ package jvmram.conf;
 
 import jvmram.model.metrics.MetricType;
 import jvmram.model.metrics.Os;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.invoke.MethodHandles;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.Arrays;
 import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 
+import static java.util.Map.entry;
 import static jvmram.model.metrics.Os.LINUX;
 import static jvmram.model.metrics.Os.WINDOWS;
 
@@ -23,34 +27,154 @@ public final class Config {
     public static final Map<MetricType, Duration> DEV_POLL_INTERVALS = new EnumMap<>(MetricType.class);
     public static final Map<MetricType, Duration> LEAK_HUNT_POLL_INTERVALS = new EnumMap<>(MetricType.class);
 
-    // Настройки отображения метрик по умолчанию
+    // Ограничения ускоренного опроса (burst) одного процесса:
+    // не опрашиваем чаще, чем раз в MIN_BURST_POLL_INTERVAL, чтобы не нагружать целевой процесс,
+    // и не дольше, чем MAX_BURST_DURATION, чтобы забытый burst не работал бесконечно.
+    public static final Duration MIN_BURST_POLL_INTERVAL = Duration.ofMillis(250);
+    public static final Duration MAX_BURST_DURATION = Duration.ofMinutes(15);
+
+    // Поставщик, чьи метрики никто не опрашивает дольше этого времени, освобождается (JMX-соединение разрывается).
+    // Проверка выполняется раз в SUPPLIER_RELEASE_CHECK_DELAY.
+    public static final Duration SUPPLIER_RELEASE_GRACE = Duration.ofSeconds(30);
+    public static final Duration SUPPLIER_RELEASE_CHECK_DELAY = Duration.ofSeconds(10);
+
+    // Бюджет процессорного времени на опросы метрик в долях одного ядра (0.01 — 1% ядра).
+    // Переопределяется системным свойством jvmram.cpu.budget. Соблюдение бюджета проверяется
+    // раз в SAMPLING_GOVERNOR_CHECK_DELAY; таймауты опроса при этом растягиваются не более чем в MAX_POLL_INTERVAL_STRETCH раз.
+    public static final double SAMPLING_CPU_BUDGET;
+    public static final Duration SAMPLING_GOVERNOR_CHECK_DELAY = Duration.ofSeconds(5);
+    public static final int MAX_POLL_INTERVAL_STRETCH = 16;
+
+    // Гистограмма классов вызывает полную сборку мусора в целевой JVM, поэтому снимается только по подписке
+    // и не чаще раза в CLASS_HISTOGRAM_INTERVAL (системное свойство jvmram.histogram.interval, в секундах).
+    // От каждой гистограммы хранятся только CLASS_HISTOGRAM_TOP классов (jvmram.histogram.top).
+    public static final Duration CLASS_HISTOGRAM_INTERVAL =
+            Duration.ofSeconds(Math.max(10, Long.getLong("jvmram.histogram.interval", 300)));
+    public static final int CLASS_HISTOGRAM_TOP = Math.max(1, Integer.getInteger("jvmram.histogram.top", 20));
+    public static final Duration CLASS_HISTOGRAM_CHECK_DELAY = Duration.ofSeconds(5);
+
+    // Данные JMX-метрик можно получать событиями JFR вместо опроса MBean'ов: для всех процессов
+    // системным свойством jvmram.ingest=jfr или для отдельного процесса через MetricsFactory.
+    // Настройки событий по умолчанию — JFR_DEFAULT_SETTINGS, целевая JVM хранит записанное не дольше JFR_STREAM_MAX_AGE.
+    public static final boolean JFR_INGEST_BY_DEFAULT = "jfr".equalsIgnoreCase(System.getProperty("jvmram.ingest", "poll"));
+    public static final Map<String, String> JFR_DEFAULT_SETTINGS = Map.ofEntries(
+            entry("jdk.GCHeapSummary#enabled", "true"),
+            entry("jdk.MetaspaceSummary#enabled", "true"),
+            entry("jdk.GarbageCollection#enabled", "true"),
+            entry("jdk.GarbageCollection#threshold", "0 ms"),
+            entry("jdk.ObjectAllocationSample#enabled", "true"),
+            entry("jdk.ObjectAllocationSample#throttle", "150/s"),
+            entry("jdk.PhysicalMemory#enabled", "true"),
+            entry("jdk.PhysicalMemory#period", "1 s"),
+            entry("jdk.DirectBufferStatistics#enabled", "true"),
+            entry("jdk.DirectBufferStatistics#period", "1 s"),
+            entry("jdk.JavaThreadStatistics#enabled", "true"),
+            entry("jdk.JavaThreadStatistics#period", "1 s"),
+            entry("jdk.NativeMemoryUsageTotal#enabled", "true"),
+            entry("jdk.NativeMemoryUsageTotal#period", "1 s"),
+            entry("jdk.LongFlag#enabled", "true"),
+            entry("jdk.LongFlag#period", "beginChunk")
+    );
+    public static final Duration JFR_STREAM_MAX_AGE = Duration.ofMinutes(1);
+
+    // Дамп heap снимается в отдельном потоке: одновременно не больше одного на процесс
+    // и не больше HEAP_DUMP_MAX_CONCURRENT всего (системное свойство jvmram.heapdump.concurrent), остальные ждут в очереди.
+    // Рост файла дампа сообщается раз в HEAP_DUMP_PROGRESS_DELAY.
+    // Дампы пишутся только внутрь каталога HEAP_DUMP_DIR (системное свойство jvmram.heapdump.dir).
+    public static final int HEAP_DUMP_MAX_CONCURRENT = Math.max(1, Integer.getInteger("jvmram.heapdump.concurrent", 1));
+    public static final Duration HEAP_DUMP_PROGRESS_DELAY = Duration.ofSeconds(1);
+    public static final Path HEAP_DUMP_DIR = Path.of(
+            System.getProperty("jvmram.heapdump.dir", Path.of(System.getProperty("user.home"), "jvmram-heapdumps").toString())
+    ).toAbsolutePath().normalize();
+
+    // Хуки оповещений настраиваются только локально, а не через gRPC: правило лишь ссылается на команду по имени
+    // из файла свойств ALERT_COMMANDS_FILE (системное свойство jvmram.alert.commands, строки вида имя=командная строка),
+    // а webhook разрешён, только если его URL начинается с одного из ALERT_WEBHOOK_PREFIXES
+    // (jvmram.alert.webhooks, через запятую, только http и https). Без настроек хуки выключены.
+    public static final @Nullable Path ALERT_COMMANDS_FILE = pathOrNull(System.getProperty("jvmram.alert.commands"));
+    public static final List<String> ALERT_WEBHOOK_PREFIXES = splitList(System.getProperty("jvmram.alert.webhooks", ""));
+
+    // Выровненные такты (системное свойство jvmram.ticks.aligned=true): метрики опрашиваются по сетке, кратной их таймауту,
+    // процессы такта опрашиваются параллельно в ALIGNED_TICK_THREADS потоках (jvmram.ticks.threads),
+    // метрики одного процесса — последовательно, потому что делят Поставщиков,
+    // а все новые значения процесса записываются одной строкой с моментом такта.
+    // Опросы в основном ждут ОС и JMX, а не процессор, поэтому потоков больше, чем ядер, не вредит.
+    public static final boolean ALIGNED_TICKS = Boolean.getBoolean("jvmram.ticks.aligned");
+    public static final int ALIGNED_TICK_THREADS = Math.max(1, Integer.getInteger("jvmram.ticks.threads", 4));
+
+    // Верхушка процессов хоста по RSS: TOP_CONSUMERS_COUNT процессов (системное свойство jvmram.top.count),
+    // обход /proc не чаще раза в TOP_CONSUMERS_INTERVAL (jvmram.top.interval, в секундах).
+    // С jvmram.top.follow=true за вошедшими в верхушку JVM начинается слежение.
+    public static final int TOP_CONSUMERS_COUNT = Math.max(1, Integer.getInteger("jvmram.top.count", 20));
+    public static final Duration TOP_CONSUMERS_INTERVAL =
+            Duration.ofSeconds(Math.max(1, Long.getLong("jvmram.top.interval", 2)));
+    public static final boolean TOP_CONSUMERS_FOLLOW = Boolean.getBoolean("jvmram.top.follow");
+    public static final Duration TOP_CONSUMERS_CHECK_DELAY = Duration.ofSeconds(1);
+
+    // Настройки отображения метрик по умолчанию: метрики не в байтах скрыты, пока их не включат явно
     public static final Map<MetricType, Boolean> DEFAULT_METRIC_VISIBILITY = new EnumMap<>(MetricType.class);
 
     // Определение платформы
     public static final Os os;
 
+    // Корень файловой системы процессов (/proc) и каталог с каталогами hsperfdata_[user].
+    // Переопределяются системными свойствами jvmram.proc.root и jvmram.perfdata.root,
+    // чтобы запускать бэкенд против синтетического парка процессов.
+    public static final Path PROC_ROOT = Path.of(System.getProperty("jvmram.proc.root", "/proc"));
+    public static final Path PERF_DATA_ROOT;
+    // Корень иерархии cgroup v2. Переопределяется системным свойством jvmram.cgroup.root.
+    public static final Path CGROUP_ROOT = Path.of(System.getProperty("jvmram.cgroup.root", "/sys/fs/cgroup"));
+
+    // Процессы синтетического парка существуют только как каталоги в PROC_ROOT:
+    // ни ProcessHandle, ни Attach API о них не знают. Их завершение проверяется раз в SYNTHETIC_EXIT_CHECK_DELAY.
+    public static final boolean SYNTHETIC_PROC_ROOT = !PROC_ROOT.equals(Path.of("/proc"));
+    public static final Duration SYNTHETIC_EXIT_CHECK_DELAY = Duration.ofSeconds(1);
+
+    // Графики завершившихся процессов показываются ещё SEALED_GRAPHS_RETENTION (jvmram.sealed.retention, в минутах),
+    // но не больше чем для SEALED_GRAPHS_MAX_PIDS процессов (jvmram.sealed.max): дальше самые старые удаляются.
+    public static final Duration SEALED_GRAPHS_RETENTION =
+            Duration.ofMinutes(Math.max(1, Long.getLong("jvmram.sealed.retention", 10)));
+    public static final int SEALED_GRAPHS_MAX_PIDS = Math.max(0, Integer.getInteger("jvmram.sealed.max", 20));
+
     static {
         // Инициализация интервалов опроса
         Arrays.stream(MetricType.values()).forEach(type -> {
 
             int devDurationInSeconds = switch (type) {
-                case RSS, WS, HEAP_USED, HEAP_COMMITTED, NMT_USED, NMT_COMMITTED -> 1;
-                case PSS, USS, PB -> 10;
+                case RSS, WS, HEAP_USED, HEAP_COMMITTED, NMT_USED, NMT_COMMITTED, UNEXPLAINED_RSS,
+                     CGROUP_CURRENT, CGROUP_MAX, CGROUP_ANON, CGROUP_FILE, CGROUP_KERNEL, CGROUP_SOCK, CGROUP_SHMEM,
+                     HOST_MEM_AVAILABLE, HOST_CACHED, HOST_DIRTY, HOST_ANON_HUGE_PAGES,
+                     HOST_PSI_SOME_AVG10, HOST_PSI_FULL_AVG10, HOST_PSI_SOME_TOTAL, HOST_PSI_FULL_TOTAL,
+                     RSS_ANON, RSS_FILE, RSS_SHMEM, RSS_PEAK, SWAP, MINOR_FAULT_RATE, MAJOR_FAULT_RATE,
+                     THREADS, JAVA_THREADS, DAEMON_THREADS, THREAD_STACKS, ALLOCATION_RATE, GC_TIME_SHARE,
+                     PHYSICAL_MEMORY_USED, NATIVE_MEMORY_TRACKED -> 1;
+                case PSS, USS, PB, UNEXPLAINED_PSS -> 10;
             };
             var devDuration = Duration.ofSeconds(devDurationInSeconds);
             DEV_POLL_INTERVALS.put(type, devDuration);
 
             int productionDurationInSeconds = switch (type) {
-                case RSS, WS, HEAP_USED, HEAP_COMMITTED, NMT_USED, NMT_COMMITTED -> 2;
+                case RSS, WS, HEAP_USED, HEAP_COMMITTED, NMT_USED, NMT_COMMITTED, UNEXPLAINED_RSS,
+                     CGROUP_CURRENT, CGROUP_MAX, CGROUP_ANON, CGROUP_FILE, CGROUP_KERNEL, CGROUP_SOCK, CGROUP_SHMEM,
+                     HOST_MEM_AVAILABLE, HOST_CACHED, HOST_DIRTY, HOST_ANON_HUGE_PAGES,
+                     HOST_PSI_SOME_AVG10, HOST_PSI_FULL_AVG10, HOST_PSI_SOME_TOTAL, HOST_PSI_FULL_TOTAL,
+                     RSS_ANON, RSS_FILE, RSS_SHMEM, RSS_PEAK, SWAP, MINOR_FAULT_RATE, MAJOR_FAULT_RATE,
+                     THREADS, JAVA_THREADS, DAEMON_THREADS, THREAD_STACKS, ALLOCATION_RATE, GC_TIME_SHARE,
+                     PHYSICAL_MEMORY_USED, NATIVE_MEMORY_TRACKED -> 2;
                 case PB -> 15;
-                case PSS, USS -> 30;
+                case PSS, USS, UNEXPLAINED_PSS -> 30;
             };
             var productionDuration = Duration.ofSeconds(productionDurationInSeconds);
             PRODUCTION_POLL_INTERVALS.put(type, productionDuration);
 
             int leakHuntDurationInSeconds = switch (type) {
-                case RSS, WS -> 2;
-                case PSS, USS, PB, HEAP_USED, HEAP_COMMITTED, NMT_USED, NMT_COMMITTED -> 5;
+                case RSS, WS, CGROUP_CURRENT, SWAP, MAJOR_FAULT_RATE, THREADS, THREAD_STACKS -> 2;
+                case PSS, USS, PB, HEAP_USED, HEAP_COMMITTED, NMT_USED, NMT_COMMITTED, UNEXPLAINED_RSS, UNEXPLAINED_PSS,
+                     CGROUP_MAX, CGROUP_ANON, CGROUP_FILE, CGROUP_KERNEL, CGROUP_SOCK, CGROUP_SHMEM,
+                     HOST_MEM_AVAILABLE, HOST_CACHED, HOST_DIRTY, HOST_ANON_HUGE_PAGES,
+                     HOST_PSI_SOME_AVG10, HOST_PSI_FULL_AVG10, HOST_PSI_SOME_TOTAL, HOST_PSI_FULL_TOTAL,
+                     RSS_ANON, RSS_FILE, RSS_SHMEM, RSS_PEAK, MINOR_FAULT_RATE, JAVA_THREADS, DAEMON_THREADS,
+                     ALLOCATION_RATE, GC_TIME_SHARE, PHYSICAL_MEMORY_USED, NATIVE_MEMORY_TRACKED -> 5;
             };
             var leakHuntDuration = Duration.ofSeconds(leakHuntDurationInSeconds);
             LEAK_HUNT_POLL_INTERVALS.put(type, leakHuntDuration);
@@ -67,6 +191,38 @@ public final class Config {
         DEFAULT_METRIC_VISIBILITY.put(MetricType.HEAP_COMMITTED, true);
         DEFAULT_METRIC_VISIBILITY.put(MetricType.NMT_USED, true);
         DEFAULT_METRIC_VISIBILITY.put(MetricType.NMT_COMMITTED, true);
+        DEFAULT_METRIC_VISIBILITY.put(MetricType.UNEXPLAINED_RSS, true);
+        DEFAULT_METRIC_VISIBILITY.put(MetricType.UNEXPLAINED_PSS, false);
+        DEFAULT_METRIC_VISIBILITY.put(MetricType.CGROUP_CURRENT, true);
+        DEFAULT_METRIC_VISIBILITY.put(MetricType.CGROUP_MAX, false);
+        DEFAULT_METRIC_VISIBILITY.put(MetricType.CGROUP_ANON, false);
+        DEFAULT_METRIC_VISIBILITY.put(MetricType.CGROUP_FILE, false);
+        DEFAULT_METRIC_VISIBILITY.put(MetricType.CGROUP_KERNEL, false);
+        DEFAULT_METRIC_VISIBILITY.put(MetricType.CGROUP_SOCK, false);
+        DEFAULT_METRIC_VISIBILITY.put(MetricType.CGROUP_SHMEM, false);
+        DEFAULT_METRIC_VISIBILITY.put(MetricType.HOST_MEM_AVAILABLE, true);
+        DEFAULT_METRIC_VISIBILITY.put(MetricType.HOST_CACHED, false);
+        DEFAULT_METRIC_VISIBILITY.put(MetricType.HOST_DIRTY, false);
+        DEFAULT_METRIC_VISIBILITY.put(MetricType.HOST_ANON_HUGE_PAGES, false);
+        DEFAULT_METRIC_VISIBILITY.put(MetricType.HOST_PSI_SOME_AVG10, false);
+        DEFAULT_METRIC_VISIBILITY.put(MetricType.HOST_PSI_FULL_AVG10, false);
+        DEFAULT_METRIC_VISIBILITY.put(MetricType.HOST_PSI_SOME_TOTAL, false);
+        DEFAULT_METRIC_VISIBILITY.put(MetricType.HOST_PSI_FULL_TOTAL, false);
+        DEFAULT_METRIC_VISIBILITY.put(MetricType.RSS_ANON, false);
+        DEFAULT_METRIC_VISIBILITY.put(MetricType.RSS_FILE, false);
+        DEFAULT_METRIC_VISIBILITY.put(MetricType.RSS_SHMEM, false);
+        DEFAULT_METRIC_VISIBILITY.put(MetricType.RSS_PEAK, false);
+        DEFAULT_METRIC_VISIBILITY.put(MetricType.SWAP, true);
+        DEFAULT_METRIC_VISIBILITY.put(MetricType.MINOR_FAULT_RATE, false);
+        DEFAULT_METRIC_VISIBILITY.put(MetricType.MAJOR_FAULT_RATE, false);
+        DEFAULT_METRIC_VISIBILITY.put(MetricType.THREADS, false);
+        DEFAULT_METRIC_VISIBILITY.put(MetricType.JAVA_THREADS, false);
+        DEFAULT_METRIC_VISIBILITY.put(MetricType.DAEMON_THREADS, false);
+        DEFAULT_METRIC_VISIBILITY.put(MetricType.THREAD_STACKS, true);
+        DEFAULT_METRIC_VISIBILITY.put(MetricType.ALLOCATION_RATE, false);
+        DEFAULT_METRIC_VISIBILITY.put(MetricType.GC_TIME_SHARE, false);
+        DEFAULT_METRIC_VISIBILITY.put(MetricType.PHYSICAL_MEMORY_USED, false);
+        DEFAULT_METRIC_VISIBILITY.put(MetricType.NATIVE_MEMORY_TRACKED, false);
 
         // Определение платформы
         var osName = System.getProperty("os.name", "").toLowerCase();
@@ -80,6 +236,40 @@ public final class Config {
             // never reach the next line
             os = null;
         }
+
+        SAMPLING_CPU_BUDGET = parseCpuBudget(System.getProperty("jvmram.cpu.budget", "0.01"));
+
+        var defaultPerfDataRoot = os == LINUX
+                ? "/tmp"
+                : System.getProperty("java.io.tmpdir");
+        PERF_DATA_ROOT = Path.of(System.getProperty("jvmram.perfdata.root", defaultPerfDataRoot));
+        if (SYNTHETIC_PROC_ROOT) {
+            LOG.warn("Using synthetic process root {} with perf data in {}", PROC_ROOT, PERF_DATA_ROOT);
+        }
+    }
+
+    private static @Nullable Path pathOrNull(@Nullable String value) {
+        return value == null || value.isBlank() ? null : Path.of(value.strip());
+    }
+
+    private static List<String> splitList(String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::strip)
+                .filter(item -> !item.isEmpty())
+                .toList();
+    }
+
+    private static double parseCpuBudget(String value) {
+        try {
+            var budget = Double.parseDouble(value);
+            if (budget > 0) {
+                return budget;
+            }
+        } catch (NumberFormatException e) {
+            // сообщаем ниже
+        }
+        LOG.warn("Invalid CPU budget {}, using 0.01 of one core", value);
+        return 0.01;
     }
 
     private Config() {
@@ -2,6 +2,8 @@ package jvmram.controller;
 
 import jvmram.controller.impl.AppSchedulerImpl;
 
+import java.time.Duration;
+
 public interface AppScheduler {
 
     static AppScheduler getInstance() {
@@ -9,4 +11,14 @@ public interface AppScheduler {
     }
 
     void start();
+
+    /**
+     * Однократно выполнить задачу в фоновом потоке приложения после задержки.
+     * Задача выполняется в том же потоке, что и опрос метрик,
+     * поэтому не нуждается в дополнительной синхронизации с ним.
+     *
+     * @param task  что выполнить
+     * @param delay через сколько выполнить
+     */
+    void schedule(Runnable task, Duration delay);
 }
@@ -0,0 +1,36 @@
+package jvmram.controller;
+
+import jvmram.controller.impl.BurstControllerImpl;
+import jvmram.model.metrics.MetricType;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+public interface BurstController {
+
+    /**
+     * Временно ускорить опрос некоторых метрик одного процесса.
+     * Таймаут опроса прочих метрик и прочих процессов не меняется: соседние метрики того же Поставщика
+     * получают данные ускоренных опросов, но отдают точки не чаще своего таймаута.
+     * По истечении срока прежний таймаут восстанавливается автоматически.
+     *
+     * @param pid         какой процесс опрашивать чаще
+     * @param metricTypes какие метрики опрашивать чаще
+     * @param interval    желаемый таймаут опроса; ограничен снизу, чтобы не нагружать целевой процесс
+     * @param duration    сколько длится ускоренный опрос
+     * @param onReport    получатель отчётов о начале и окончании ускоренного опроса
+     * @throws IllegalArgumentException если за процессом не следят: его метрики не опрашиваются
+     */
+    void startBurst(
+            long pid,
+            Collection<MetricType> metricTypes,
+            Duration interval,
+            Duration duration,
+            Consumer<BurstReport> onReport
+    );
+
+    static BurstController getInstance() {
+        return BurstControllerImpl.INSTANCE;
+    }
+}
@@ -0,0 +1,32 @@
+package jvmram.controller;
+
+import jvmram.model.metrics.MetricType;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Отчёт об ускоренном опросе (burst) метрик одного процесса.
+ *
+ * @param pid           какой процесс опрашивается
+ * @param state         стадия ускоренного опроса
+ * @param metricTypes   какие метрики опрашиваются ускоренно
+ * @param interval      фактический (с учётом нижней границы) таймаут опроса
+ * @param duration      фактическая длительность ускоренного опроса
+ * @param extraPolls    сколько опросов сделано сверх обычного расписания (только для {@link State#FINISHED})
+ * @param extraPollTime сколько времени потрачено на эти дополнительные опросы (только для {@link State#FINISHED})
+ */
+public record BurstReport(
+        long pid,
+        State state,
+        Set<MetricType> metricTypes,
+        Duration interval,
+        Duration duration,
+        long extraPolls,
+        Duration extraPollTime
+) {
+    public enum State {
+        STARTED,
+        FINISHED
+    }
+}
@@ -0,0 +1,13 @@
+package jvmram.controller;
+
+/**
+ * Параметры команды GC.heap_dump.
+ *
+ * @param liveOnly        только достижимые объекты (перед дампом выполняется полная сборка мусора)
+ * @param gzipLevel       уровень сжатия от 1 до 9 (JDK 15+) или 0 без сжатия
+ * @param parallelThreads сколько потоков пишут дамп (JDK 18+) или 0, чтобы выбрала JVM
+ */
+public record HeapDumpOptions(boolean liveOnly, int gzipLevel, int parallelThreads) {
+
+    public static final HeapDumpOptions DEFAULT = new HeapDumpOptions(true, 0, 0);
+}
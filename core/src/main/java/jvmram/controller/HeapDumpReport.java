@@ -0,0 +1,33 @@
+package jvmram.controller;
+
+import org.jspecify.annotations.Nullable;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Отчёт о дампе heap одного процесса.
+ *
+ * @param pid          чей дамп
+ * @param file         куда пишется дамп
+ * @param state        стадия дампа
+ * @param bytesWritten размер файла дампа на момент отчёта
+ * @param elapsed      сколько времени прошло с начала записи (для {@link State#QUEUED} — с постановки в очередь)
+ * @param error        причина неудачи (только для {@link State#FAILED})
+ */
+public record HeapDumpReport(
+        long pid,
+        Path file,
+        State state,
+        long bytesWritten,
+        Duration elapsed,
+        @Nullable String error
+) {
+    public enum State {
+        QUEUED,
+        STARTED,
+        IN_PROGRESS,
+        FINISHED,
+        FAILED
+    }
+}
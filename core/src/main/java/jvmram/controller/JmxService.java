@@ -2,6 +2,8 @@ package jvmram.controller;
 
 import jvmram.controller.impl.JmxServiceImpl;
 
+import java.util.function.Consumer;
+
 public interface JmxService {
 
     /**
@@ -11,7 +13,19 @@ public interface JmxService {
      */
     void gc(long pid);
 
-    void createHeapDump(String filepath);
+    /**
+     * Поставить в очередь дамп heap JDK-процесса. Дамп снимается в отдельном потоке и может длиться минутами;
+     * одновременно снимается не больше одного дампа на процесс.
+     *
+     * @param pid      чей дамп снять
+     * @param filepath куда записать дамп: путь внутри каталога {@link jvmram.conf.Config#HEAP_DUMP_DIR},
+     *                 относительный путь считается от него; существующий файл не перезаписывается
+     * @param options  параметры дампа
+     * @param onReport получатель отчётов о ходе дампа; последний отчёт — {@link HeapDumpReport.State#FINISHED}
+     *                 или {@link HeapDumpReport.State#FAILED}
+     * @throws IllegalArgumentException если путь ведёт за пределы каталога дампов
+     */
+    void createHeapDump(long pid, String filepath, HeapDumpOptions options, Consumer<HeapDumpReport> onReport);
 
     static JmxService getInstance() {
         return JmxServiceImpl.INSTANCE;
@@ -2,8 +2,10 @@ package jvmram.controller;
 
 import jvmram.controller.impl.ProcessControllerImpl;
 import jvmram.process.JvmProcessInfo;
+import jvmram.process.JvmProcessListDelta;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.function.Consumer;
 
 public interface ProcessController {
@@ -30,17 +32,62 @@ public interface ProcessController {
     /**
      * Получить список процессов, за которыми поручено следить
      * вместе с их процессами-потомками.
+     * Вызывается на каждом такте опроса, поэтому не блокируется и не выделяет память.
      *
-     * @return список отслеживаемых процессов
+     * @return отслеживаемые процессы; массив общий и не должен изменяться
      */
-    Collection<Long> getPidsWithDescendants();
+    long[] getPidsWithDescendants();
 
     void refreshAvailableJvmProcesses();
 
+    /**
+     * Перестать следить за завершившимся процессом, не дожидаясь обновления списка процессов.
+     *
+     * @param pid номер завершившегося процесса
+     */
+    void forgetProcess(long pid);
+
+    /**
+     * Заново найти все Java-процессы, а не только изменения с прошлого обновления.
+     */
+    void rescanJvmProcesses();
+
+    /**
+     * Подписаться на изменение списка Java-процессов.
+     * Получатель вызывается только при изменениях, но каждый раз получает весь список.
+     *
+     * @param onProcessInfoChanged получатель списка Java-процессов
+     */
     void addAvailableJvmProcessesListener(Consumer<Collection<JvmProcessInfo>> onProcessInfoChanged);
 
+    /**
+     * Подписаться на изменения списка Java-процессов.
+     * Сразу после подписки получатель получает весь список, затем только изменения.
+     *
+     * @param onDelta получатель изменений
+     */
+    void addJvmProcessListDeltaListener(Consumer<JvmProcessListDelta> onDelta);
+
     void setCurrentlySelectedPids(Collection<Long> pids);
 
+    /**
+     * Начать следить за процессами в дополнение к уже отслеживаемым.
+     * Чтение текущего списка и его замена выполняются одним шагом, поэтому одновременный
+     * {@link #setCurrentlySelectedPids(Collection)} не теряется.
+     *
+     * @param pids процессы, за которыми нужно следить; уже отслеживаемые пропускаются
+     */
+    void followAdditionally(Collection<Long> pids);
+
+    /**
+     * Подписаться на изменение групп процессов.
+     * Группа — это явно отслеживаемый процесс вместе с его процессами-потомками.
+     * Пока процессы-потомки не отслеживаются, групп нет.
+     *
+     * @param onGroupsChanged получатель соответствия "корневой процесс группы -> все процессы группы, включая корневой"
+     */
+    void addFollowingGroupsListener(Consumer<Map<Long, Collection<Long>>> onGroupsChanged);
+
     static ProcessController getInstance() {
         return ProcessControllerImpl.INSTANCE;
     }
@@ -0,0 +1,22 @@
+package jvmram.controller;
+
+import jvmram.controller.impl.ProcessLifecycleImpl;
+
+/**
+ * Освобождает всё, что связано с отслеживаемым процессом, сразу после его завершения:
+ * перестаёт следить за процессом, забывает его метрики и Поставщиков, разрывает JMX-соединение
+ * и закрывает его графики.
+ */
+public interface ProcessLifecycle {
+
+    static ProcessLifecycle getInstance() {
+        return ProcessLifecycleImpl.INSTANCE;
+    }
+
+    /**
+     * Начать следить за завершением процесса. Повторные вызовы для того же процесса ничего не стоят.
+     *
+     * @param pid номер процесса
+     */
+    void track(long pid);
+}
@@ -0,0 +1,31 @@
+package jvmram.controller;
+
+import jvmram.controller.impl.SamplingGovernorImpl;
+
+import java.util.function.Consumer;
+
+/**
+ * Держит процессорное время, которое бэкенд тратит на опросы метрик, в пределах бюджета.
+ * При превышении бюджета растягивает таймауты опроса самых дорогих и меньше всего меняющихся рядов,
+ * а когда бюджет снова позволяет — возвращает их.
+ */
+public interface SamplingGovernor {
+
+    /**
+     * Сравнить потраченное с прошлой проверки время с бюджетом и поправить таймауты опроса.
+     * Выполняется в потоке опроса метрик.
+     */
+    void check();
+
+    /**
+     * Подписаться на изменения того, какие ряды опрашиваются реже обычного.
+     * Новый подписчик сразу получает последний отчёт, если проверка уже была.
+     *
+     * @param onReport получатель отчётов
+     */
+    void addReportListener(Consumer<SamplingGovernorReport> onReport);
+
+    static SamplingGovernor getInstance() {
+        return SamplingGovernorImpl.INSTANCE;
+    }
+}
@@ -0,0 +1,28 @@
+package jvmram.controller;
+
+import jvmram.model.metrics.MetricType;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Отчёт о соблюдении бюджета процессорного времени на опросы метрик.
+ *
+ * @param cpuBudget бюджет в долях одного ядра
+ * @param cpuUsed   сколько опросы заняли с прошлой проверки в долях одного ядра
+ * @param degraded  Поставщики, чьи таймауты опроса растянуты; пусто, если разрешение графиков не снижено
+ */
+public record SamplingGovernorReport(double cpuBudget, double cpuUsed, List<Degraded> degraded) {
+
+    public boolean isDegraded() {
+        return !degraded.isEmpty();
+    }
+
+    /**
+     * @param pid         процесс
+     * @param metricTypes метрики, которые получают данные от одного Поставщика
+     * @param stretch     во сколько раз растянут таймаут опроса этих метрик
+     */
+    public record Degraded(long pid, Set<MetricType> metricTypes, int stretch) {
+    }
+}
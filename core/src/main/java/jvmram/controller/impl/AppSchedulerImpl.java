@@ -1,8 +1,13 @@
 package jvmram.controller.impl;
 
+import jvmram.analysis.ClassHistogramTracker;
+import jvmram.analysis.TopConsumersTracker;
 import jvmram.controller.AppScheduler;
 import jvmram.controller.GraphController;
 import jvmram.controller.ProcessController;
+import jvmram.controller.SamplingGovernor;
+import jvmram.metrics.MetricsFactory;
+import jvmram.stats.SelfMonitor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,6 +17,10 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static jvmram.conf.Config.CLASS_HISTOGRAM_CHECK_DELAY;
+import static jvmram.conf.Config.SAMPLING_GOVERNOR_CHECK_DELAY;
+import static jvmram.conf.Config.SUPPLIER_RELEASE_CHECK_DELAY;
+import static jvmram.conf.Config.TOP_CONSUMERS_CHECK_DELAY;
 
 public class AppSchedulerImpl implements AppScheduler {
     private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
@@ -24,19 +33,46 @@ public class AppSchedulerImpl implements AppScheduler {
             runnable -> new Thread(runnable, "app-backend")
     );
 
+    /**
+     * Для задач, которые ждут целевую JVM секундами и не должны задерживать опрос метрик.
+     */
+    private final ScheduledExecutorService slowTasksExecutor = Executors.newSingleThreadScheduledExecutor(
+            runnable -> new Thread(runnable, "app-backend-slow")
+    );
+
     private AppSchedulerImpl() {
     }
 
     @Override
     public void start() {
         var graphController = GraphController.getInstance();
-        scheduleAtRate(graphController::update, UPDATE_UI_DELAY);
+        scheduleAtRate(timed(graphController::update, UPDATE_UI_DELAY), UPDATE_UI_DELAY);
 
         var processController = ProcessController.getInstance();
         scheduleWithDelay(processController::refreshAvailableJvmProcesses, JVM_PROCESSES_LOOKUP_DELAY);
+
+        var metricsFactory = MetricsFactory.getInstance();
+        scheduleWithDelay(metricsFactory::releaseIdleSuppliers, SUPPLIER_RELEASE_CHECK_DELAY);
+
+        var samplingGovernor = SamplingGovernor.getInstance();
+        scheduleWithDelay(samplingGovernor::check, SAMPLING_GOVERNOR_CHECK_DELAY);
+
+        var classHistogramTracker = ClassHistogramTracker.getInstance();
+        slowTasksExecutor.scheduleWithFixedDelay(
+                getWrapped(classHistogramTracker::sampleDue), 0, CLASS_HISTOGRAM_CHECK_DELAY.toMillis(), MILLISECONDS);
+
+        // Обход /proc на хосте с тысячами процессов занимает десятки миллисекунд
+        var topConsumersTracker = TopConsumersTracker.getInstance();
+        slowTasksExecutor.scheduleWithFixedDelay(
+                getWrapped(topConsumersTracker::sweep), 0, TOP_CONSUMERS_CHECK_DELAY.toMillis(), MILLISECONDS);
+    }
+
+    @Override
+    public void schedule(Runnable task, Duration delay) {
+        backgroundTasksExecutor.schedule(getWrapped(task), delay.toMillis(), MILLISECONDS);
     }
 
-    private void scheduleWithDelay(Runnable runnable, @SuppressWarnings("SameParameterValue") Duration delay) {
+    private void scheduleWithDelay(Runnable runnable, Duration delay) {
         Runnable wrapped = getWrapped(runnable);
         backgroundTasksExecutor.scheduleWithFixedDelay(wrapped, 0, delay.toMillis(), MILLISECONDS);
     }
@@ -46,6 +82,31 @@ public class AppSchedulerImpl implements AppScheduler {
         backgroundTasksExecutor.scheduleAtFixedRate(wrapped, 0, delay.toMillis(), MILLISECONDS);
     }
 
+    /**
+     * Такт с фиксированной частотой: учитывает, насколько он запаздывает относительно расписания и сколько длится.
+     */
+    private static Runnable timed(Runnable tick, Duration period) {
+        var selfMonitor = SelfMonitor.getInstance();
+        var periodNanos = period.toNanos();
+        return new Runnable() {
+            private long expectedStart = System.nanoTime();
+
+            @Override
+            public void run() {
+                var start = System.nanoTime();
+                var lag = Math.max(0, start - expectedStart);
+                // При накопившемся отставании ScheduledExecutorService запускает пропущенные такты подряд,
+                // поэтому расписание сдвигаем от фактического начала, если отстали больше чем на период.
+                expectedStart = lag > periodNanos ? start + periodNanos : expectedStart + periodNanos;
+                try {
+                    tick.run();
+                } finally {
+                    selfMonitor.recordTick(lag, System.nanoTime() - start);
+                }
+            }
+        };
+    }
+
     private static Runnable getWrapped(Runnable runnable) {
         return () -> {
             try {
@@ -0,0 +1,166 @@
+package jvmram.controller.impl;
+
+import jvmram.conf.Config;
+import jvmram.controller.AppScheduler;
+import jvmram.controller.BurstController;
+import jvmram.controller.BurstReport;
+import jvmram.controller.ProcessController;
+import jvmram.metrics.MetricsFactory;
+import jvmram.metrics.RamMetric;
+import jvmram.model.graph.GraphKey;
+import jvmram.model.metrics.MetricType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Consumer;
+
+import static jvmram.conf.Config.MAX_BURST_DURATION;
+import static jvmram.conf.Config.MIN_BURST_POLL_INTERVAL;
+import static jvmram.model.graph.Utils.max;
+import static jvmram.model.graph.Utils.min;
+
+/**
+ * Ускоренный опрос — это временно уменьшенный таймаут опроса самих метрик; опрашивает их по-прежнему такт
+ * {@link GraphControllerImpl#update()}, поэтому ускорять можно только метрики отслеживаемых процессов.
+ * Соседние метрики того же Поставщика получают данные ускоренных опросов, но отдают точки по своему таймауту,
+ * поэтому лишние опросы в отчёте — это опросы только ускоренных метрик.
+ */
+public class BurstControllerImpl implements BurstController {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private final MetricsFactory metricsFactory = MetricsFactory.getInstance();
+    private final ProcessController processController = ProcessController.getInstance();
+    private final AppScheduler appScheduler = AppScheduler.getInstance();
+
+    /**
+     * Какой burst сейчас управляет таймаутом опроса метрики.
+     * Более поздний burst перехватывает управление метрикой у более раннего.
+     */
+    private final Map<GraphKey, Burst> owners = new HashMap<>();
+
+    private BurstControllerImpl() {
+    }
+
+    @Override
+    public void startBurst(
+            long pid,
+            Collection<MetricType> metricTypes,
+            Duration interval,
+            Duration duration,
+            Consumer<BurstReport> onReport
+    ) {
+        if (!isFollowed(pid)) {
+            throw new IllegalArgumentException("Process %d is not followed, its metrics are not sampled".formatted(pid));
+        }
+        var effectiveInterval = max(interval, MIN_BURST_POLL_INTERVAL);
+        var effectiveDuration = min(duration, MAX_BURST_DURATION);
+        var metrics = metricsFactory.getOrCreateMetrics(pid, Config.os);
+
+        var burst = new Burst(pid, effectiveInterval, effectiveDuration, onReport);
+        synchronized (owners) {
+            for (var type : metricTypes) {
+                var metric = metrics.get(type);
+                if (metric == null) {
+                    LOG.info("Metric {} is not applicable for pid {}, skipping the burst for it", type, pid);
+                    continue;
+                }
+                var key = new GraphKey(type, pid);
+                var previous = owners.put(key, burst);
+                var baseline = previous == null
+                        ? metric.getPollInterval()
+                        : previous.takeOver(type);
+                burst.add(type, metric, baseline);
+                metric.updatePollInterval(effectiveInterval);
+            }
+        }
+        LOG.info("Started burst for pid {}: {} every {} during {}",
+                pid, burst.metricTypes(), effectiveInterval, effectiveDuration);
+        burst.report(BurstReport.State.STARTED, 0, Duration.ZERO);
+
+        appScheduler.schedule(() -> finish(burst), effectiveDuration);
+    }
+
+    private boolean isFollowed(long pid) {
+        for (long followed : processController.getPidsWithDescendants()) {
+            if (followed == pid) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void finish(Burst burst) {
+        long extraPolls = 0;
+        long extraPollNanos = 0;
+        synchronized (owners) {
+            for (var tracked : burst.tracked.values()) {
+                var metric = tracked.metric;
+                var polls = metric.getPollCount() - tracked.startPollCount;
+                var pollNanos = metric.getPollNanos() - tracked.startPollNanos;
+                var expectedPolls = burst.duration.toNanos() / tracked.baseline.toNanos();
+                var extra = Math.max(0, polls - expectedPolls);
+                extraPolls += extra;
+                if (polls > 0) {
+                    extraPollNanos += pollNanos * extra / polls;
+                }
+
+                var key = new GraphKey(tracked.type, burst.pid);
+                if (owners.get(key) == burst) {
+                    owners.remove(key);
+                    metric.updatePollInterval(tracked.baseline);
+                }
+            }
+        }
+        var extraPollTime = Duration.ofNanos(extraPollNanos);
+        LOG.info("Finished burst for pid {}: {} extra polls took {}", burst.pid, extraPolls, extraPollTime);
+        burst.report(BurstReport.State.FINISHED, extraPolls, extraPollTime);
+    }
+
+    private static final class Burst {
+        private final long pid;
+        private final Duration interval;
+        private final Duration duration;
+        private final Consumer<BurstReport> onReport;
+        private final Map<MetricType, Tracked> tracked = new EnumMap<>(MetricType.class);
+
+        private Burst(long pid, Duration interval, Duration duration, Consumer<BurstReport> onReport) {
+            this.pid = pid;
+            this.interval = interval;
+            this.duration = duration;
+            this.onReport = onReport;
+        }
+
+        private void add(MetricType type, RamMetric metric, Duration baseline) {
+            tracked.put(type, new Tracked(type, metric, baseline, metric.getPollCount(), metric.getPollNanos()));
+        }
+
+        /**
+         * Более поздний burst забирает метрику себе вместе с исходным таймаутом опроса.
+         */
+        private Duration takeOver(MetricType type) {
+            return tracked.get(type).baseline;
+        }
+
+        private Set<MetricType> metricTypes() {
+            return Set.copyOf(tracked.keySet());
+        }
+
+        private void report(BurstReport.State state, long extraPolls, Duration extraPollTime) {
+            var report = new BurstReport(pid, state, metricTypes(), interval, duration, extraPolls, extraPollTime);
+            try {
+                onReport.accept(report);
+            } catch (Exception e) {
+                LOG.warn("Failed to deliver burst report for pid {}", pid, e);
+            }
+        }
+    }
+
+    private record Tracked(MetricType type, RamMetric metric, Duration baseline, long startPollCount, long startPollNanos) {
+    }
+
+    public static final BurstControllerImpl INSTANCE = new BurstControllerImpl();
+}
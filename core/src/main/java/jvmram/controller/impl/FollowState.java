@@ -0,0 +1,180 @@
+package jvmram.controller.impl;
+
+import java.util.*;
+import java.util.function.LongFunction;
+import java.util.stream.LongStream;
+
+/**
+ * Неизменяемый снимок того, за какими процессами следим.
+ * Всё, что нужно читателям, вычисляется один раз при построении снимка,
+ * поэтому чтение не выделяет память. Массивы наружу отдаются как есть и не должны изменяться.
+ */
+final class FollowState {
+
+    private static final long[] NO_PIDS = new long[0];
+
+    static final FollowState EMPTY = new FollowState(false, NO_PIDS, Map.of());
+
+    private final boolean includeChildren;
+
+    /**
+     * Явно отслеживаемые процессы по возрастанию.
+     */
+    private final long[] explicitPids;
+
+    /**
+     * Явно отслеживаемый процесс -> его потомки по возрастанию.
+     */
+    private final Map<Long, long[]> descendants;
+
+    private final long[] pidsWithDescendants;
+    private final List<Long> explicitPidList;
+    private final Map<Long, Collection<Long>> groups;
+
+    private FollowState(boolean includeChildren, long[] explicitPids, Map<Long, long[]> descendants) {
+        this.includeChildren = includeChildren;
+        this.explicitPids = explicitPids;
+        this.descendants = descendants;
+
+        var all = new LinkedHashSet<Long>();
+        var explicitList = new ArrayList<Long>(explicitPids.length);
+        var groupsBuilder = new HashMap<Long, Collection<Long>>();
+        for (long pid : explicitPids) {
+            explicitList.add(pid);
+            all.add(pid);
+            var members = new ArrayList<Long>();
+            members.add(pid);
+            for (long descendant : descendants.getOrDefault(pid, NO_PIDS)) {
+                all.add(descendant);
+                members.add(descendant);
+            }
+            groupsBuilder.put(pid, List.copyOf(members));
+        }
+        this.pidsWithDescendants = all.stream().mapToLong(Long::longValue).toArray();
+        this.explicitPidList = List.copyOf(explicitList);
+        this.groups = includeChildren
+                ? Map.copyOf(groupsBuilder)
+                : Map.of();
+    }
+
+    boolean includeChildren() {
+        return includeChildren;
+    }
+
+    long[] pidsWithDescendants() {
+        return pidsWithDescendants;
+    }
+
+    List<Long> explicitPids() {
+        return explicitPidList;
+    }
+
+    /**
+     * @return корневой процесс группы -> все процессы группы, включая корневой; пусто, если потомки не отслеживаются
+     */
+    Map<Long, Collection<Long>> groups() {
+        return groups;
+    }
+
+    FollowState withIncludeChildren(LongFunction<long[]> descendantsOf) {
+        return new FollowState(true, explicitPids, descendantsOfAll(explicitPids, descendantsOf));
+    }
+
+    FollowState withoutChildren() {
+        return includeChildren
+                ? new FollowState(false, explicitPids, Map.of())
+                : this;
+    }
+
+    FollowState withExplicitPids(Collection<Long> pids, LongFunction<long[]> descendantsOf) {
+        var sorted = pids.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+        var newDescendants = includeChildren
+                ? descendantsOfAll(sorted, descendantsOf)
+                : Map.<Long, long[]>of();
+        return new FollowState(includeChildren, sorted, newDescendants);
+    }
+
+    /**
+     * @param added процессы, которые нужно отслеживать явно вдобавок к текущим
+     * @return новый снимок или этот же, если все процессы уже отслеживаются
+     */
+    FollowState withAdditionalExplicitPids(Collection<Long> added, LongFunction<long[]> descendantsOf) {
+        var newPids = added.stream()
+                .mapToLong(Long::longValue)
+                .filter(pid -> Arrays.binarySearch(explicitPids, pid) < 0)
+                .sorted()
+                .distinct()
+                .toArray();
+        if (newPids.length == 0) {
+            return this;
+        }
+        var merged = LongStream.concat(Arrays.stream(explicitPids), Arrays.stream(newPids)).sorted().toArray();
+        if (!includeChildren) {
+            return new FollowState(false, merged, Map.of());
+        }
+        var newDescendants = new HashMap<>(descendants);
+        newDescendants.putAll(descendantsOfAll(newPids, descendantsOf));
+        return new FollowState(true, merged, Map.copyOf(newDescendants));
+    }
+
+    /**
+     * @param gone процессы, которые больше не нужно отслеживать явно
+     * @return новый снимок или этот же, если ничего не изменилось
+     */
+    FollowState withoutExplicitPids(Set<Long> gone) {
+        if (gone.isEmpty() || Arrays.stream(explicitPids).noneMatch(gone::contains)) {
+            return this;
+        }
+        var kept = Arrays.stream(explicitPids).filter(pid -> !gone.contains(pid)).toArray();
+        var keptDescendants = new HashMap<>(descendants);
+        keptDescendants.keySet().removeAll(gone);
+        return new FollowState(includeChildren, kept, Map.copyOf(keptDescendants));
+    }
+
+    /**
+     * Убрать завершившийся процесс отовсюду: и из явно отслеживаемых, и из потомков.
+     *
+     * @return новый снимок или этот же, если процесс не отслеживался
+     */
+    FollowState withoutPid(long pid) {
+        var output = withoutExplicitPids(Set.of(pid));
+        var changed = output != this;
+        var newDescendants = new HashMap<>(output.descendants);
+        for (var entry : newDescendants.entrySet()) {
+            var current = entry.getValue();
+            if (Arrays.binarySearch(current, pid) >= 0) {
+                entry.setValue(Arrays.stream(current).filter(it -> it != pid).toArray());
+                changed = true;
+            }
+        }
+        return changed
+                ? new FollowState(includeChildren, output.explicitPids, Map.copyOf(newDescendants))
+                : this;
+    }
+
+    /**
+     * @return новый снимок или этот же, если потомки не изменились
+     */
+    FollowState withDescendantsRefreshed(LongFunction<long[]> descendantsOf) {
+        if (!includeChildren) {
+            return this;
+        }
+        var refreshed = descendantsOfAll(explicitPids, descendantsOf);
+        for (long pid : explicitPids) {
+            if (!Arrays.equals(refreshed.get(pid), descendants.get(pid))) {
+                return new FollowState(true, explicitPids, refreshed);
+            }
+        }
+        return this;
+    }
+
+    private static Map<Long, long[]> descendantsOfAll(long[] pids, LongFunction<long[]> descendantsOf) {
+        var output = new HashMap<Long, long[]>();
+        for (long pid : pids) {
+            var pidDescendants = descendantsOf.apply(pid).clone();
+            Arrays.sort(pidDescendants);
+            output.put(pid, pidDescendants);
+        }
+        return Map.copyOf(output);
+    }
+}
@@ -1,88 +1,345 @@
 
 package jvmram.controller.impl;
 
+import jvmram.analysis.GroupAggregator;
 import jvmram.conf.Config;
 import jvmram.controller.GraphController;
 import jvmram.controller.GraphRenderer;
 import jvmram.controller.ProcessController;
-import jvmram.model.graph.GraphPoint;
+import jvmram.controller.ProcessLifecycle;
 import jvmram.metrics.MetricsFactory;
+import jvmram.metrics.RamMetric;
+import jvmram.model.graph.GraphKey;
 import jvmram.model.graph.GraphPointQueues;
 import jvmram.model.graph.GraphPointQueuesWritable;
-import jvmram.visibility.MetricVisibility;
 import jvmram.model.metrics.MetricType;
+import jvmram.model.util.LongObjectMap;
+import jvmram.visibility.MetricVisibility;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
-import java.util.function.Consumer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static java.util.Collections.synchronizedList;
+import static jvmram.conf.Config.ALIGNED_TICKS;
+import static jvmram.conf.Config.ALIGNED_TICK_THREADS;
 import static jvmram.controller.impl.Utils.callActionOrGetRidOfListener;
+import static jvmram.model.graph.GraphKey.HOST_PID;
+import static jvmram.model.graph.GraphKey.Scope.HOST;
+import static jvmram.model.graph.GraphPointQueuesWritable.NOTHING_EVICTED;
+import static jvmram.model.util.WallClock.nowEpochNanos;
 
 public class GraphControllerImpl implements GraphController {
 
     private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
-    private final MetricVisibility metricVisibility = MetricVisibility.getInstance();
-    private final MetricsFactory metricsFactory = MetricsFactory.getInstance();
-    private final ProcessController processController = ProcessController.getInstance();
-    private final GraphPointQueuesWritable graphPointQueues = GraphPointQueuesWritable.getInstance();
+    private final MetricVisibility metricVisibility;
+    private final MetricsFactory metricsFactory;
+    private final ProcessController processController;
+    private final ProcessLifecycle processLifecycle;
+    private final GraphPointQueuesWritable graphPointQueues;
+    private final GroupAggregator groupAggregator;
 
     private final List<GraphRenderer> renderers = synchronizedList(new ArrayList<>());
 
+    private static final MetricType[] METRIC_TYPES = MetricType.values();
+
+    /**
+     * Метрики отслеживаемых процессов, разложенные по порядковому номеру типа метрики;
+     * неприменимые в этой ОС метрики отсутствуют.
+     * Обновляется только из потока планировщика и пересобирается, когда меняется набор отслеживаемых процессов.
+     */
+    private final LongObjectMap<RamMetric[]> metricsByPid = new LongObjectMap<>();
+    private long[] cachedPids = new long[0];
+
+    /**
+     * Только для выровненных тактов: строки значений процессов, заполняемые заново на каждом такте,
+     * и потоки, в которых процессы опрашиваются параллельно.
+     */
+    private final LongObjectMap<long[]> rowsByPid = new LongObjectMap<>();
+    private final @Nullable ExecutorService tickExecutor;
+
+    /**
+     * Метрики хоста, разложенные так же, и ключи их графиков. Создаются при первом такте.
+     */
+    private RamMetric @Nullable [] hostMetrics;
+    private final GraphKey[] hostKeys = new GraphKey[METRIC_TYPES.length];
+
+    /**
+     * Такт опроса не выделяет память: метрики процессов берутся из кэша,
+     * а значения передаются в очереди примитивами.
+     * Выровненный такт выделяет лишь по задаче на процесс: все значения получают момент начала такта,
+     * а новые значения каждого процесса записываются одной строкой.
+     */
     @Override
     public void update() {
         LOG.trace("general update");
-        var followingPids = processController.getPidsWithDescendants();
-        followingPids.forEach(this::update);
-    }
+        var pids = processController.getPidsWithDescendants();
+        if (pids != cachedPids) {
+            pruneMetricsCache(pids);
+        }
+        // один момент на весь такт: по нему Поставщики читают общие данные один раз за такт
+        var tick = nowEpochNanos();
+        var aligned = tickExecutor != null;
 
-    private void update(long pid) {
-        LOG.trace("updating pid {}", pid);
-        var metrics = metricsFactory.getOrCreateMetrics(pid, Config.os);
+        var maxEvicted = NOTHING_EVICTED;
+        var relevantUpdate = false;
 
-        var exceeds = new ArrayList<GraphPoint>();
-        boolean relevantUpdate = false;
-        var effectiveMetrics = Arrays.stream(MetricType.values())
-                .filter(it -> it.isApplicable(Config.os) && metricVisibility.isVisible(it))
-                .toList();
-        LOG.trace("effective metrics: {}", effectiveMetrics);
-        for (var mt : effectiveMetrics) {
-            var ramMetric = metrics.get(mt);
-            var point = ramMetric.getGraphPoint();
-
-            if (point.isRedundant()) {
+        // хост опрашивается один раз за такт, сколько бы процессов ни отслеживалось
+        var host = hostMetrics;
+        if (host == null) {
+            host = collectHostMetrics();
+            hostMetrics = host;
+        }
+        for (var mt : METRIC_TYPES) {
+            var ramMetric = host[mt.ordinal()];
+            if (ramMetric == null || !metricVisibility.isVisible(mt)) {
+                continue;
+            }
+            var value = ramMetric.sample(tick, aligned);
+            if (value < 0) {
                 continue;
             }
-
             relevantUpdate = true;
 
+            var moment = aligned ? tick : ramMetric.sampleEpochNanos();
+            var evicted = graphPointQueues.add(hostKeys[mt.ordinal()], moment, value);
+            maxEvicted = Math.max(maxEvicted, evicted);
+        }
+
+        if (tickExecutor != null && sampleRows(tickExecutor, pids, tick)) {
+            for (long pid : pids) {
+                var row = rowsByPid.get(pid);
+                if (row == null || !hasValues(row)) {
+                    continue;
+                }
+                relevantUpdate = true;
 
-            var exceed = graphPointQueues.add(pid, mt, point);
-            exceeds.addAll(exceed);
+                var evicted = graphPointQueues.addRow(pid, tick, row);
+                maxEvicted = Math.max(maxEvicted, evicted);
+            }
+        } else {
+            for (long pid : pids) {
+                var metrics = metricsOf(pid);
+                for (var mt : METRIC_TYPES) {
+                    var ramMetric = metrics[mt.ordinal()];
+                    if (ramMetric == null || !metricVisibility.isVisible(mt)) {
+                        continue;
+                    }
+                    var bytes = ramMetric.sample(tick, false);
+                    if (bytes < 0) {
+                        continue;
+                    }
+                    relevantUpdate = true;
+
+                    var evicted = graphPointQueues.add(pid, mt, ramMetric.sampleEpochNanos(), bytes);
+                    maxEvicted = Math.max(maxEvicted, evicted);
+                }
+            }
         }
 
-        if (!exceeds.isEmpty()) {
-            graphPointQueues.handleExceed(exceeds);
+        // суммы групп записываются один раз, когда вклады всех процессов такта уже учтены
+        var groupsEvicted = groupAggregator.flush(tick);
+        maxEvicted = Math.max(maxEvicted, groupsEvicted);
+
+        if (maxEvicted != NOTHING_EVICTED) {
+            graphPointQueues.handleExceed(maxEvicted);
         }
 
         if (relevantUpdate) {
-            LOG.trace("Repainting after the relevant update of pid {}", pid);
+            LOG.trace("Repainting after the relevant update");
             callActionOrGetRidOfListener(renderers, GraphRenderer::repaintAsync);
         }
     }
 
+    /**
+     * Опросить процессы выровненного такта параллельно. У каждого процесса свои Поставщики,
+     * поэтому задачи не делят данных; такт ждёт самый медленный процесс, как и при последовательном опросе.
+     * Метрики одного процесса опрашиваются последовательно в одной задаче: несколько метрик читают одного
+     * Поставщика, а производные метрики читают данные, которые только что получили их основные метрики.
+     * Метрики и строки создаются заранее в потоке такта.
+     * <p>
+     * Строка процесса, чья задача упала, заполняется пропусками и в очереди не попадает.
+     *
+     * @return можно ли записывать строки такта; нельзя, если поток такта прервали
+     */
+    private boolean sampleRows(ExecutorService executor, long[] pids, long tick) {
+        if (pids.length == 1) {
+            // отдавать единственный процесс в другой поток незачем
+            var row = rowOf(pids[0]);
+            Arrays.fill(row, -1);
+            sampleRow(metricsOf(pids[0]), row, tick);
+            return true;
+        }
+        var tasks = new ArrayList<Callable<Void>>(pids.length);
+        for (long pid : pids) {
+            var metrics = metricsOf(pid);
+            var row = rowOf(pid);
+            Arrays.fill(row, -1);
+            tasks.add(() -> {
+                sampleRow(metrics, row, tick);
+                return null;
+            });
+        }
+        try {
+            var futures = executor.invokeAll(tasks);
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    futures.get(i).get();
+                } catch (ExecutionException e) {
+                    LOG.warn("Failed to sample pid {} on the aligned tick", pids[i], e.getCause());
+                    Arrays.fill(rowOf(pids[i]), -1);
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // отменённые задачи могут ещё писать в строки: следующий такт возьмёт новые
+            rowsByPid.removeKeysIf(pid -> true);
+            return false;
+        }
+    }
+
+    /**
+     * @param row куда записать новые значения по порядковому номеру типа метрики; заранее заполнена -1
+     */
+    private void sampleRow(RamMetric[] metrics, long[] row, long tick) {
+        for (var mt : METRIC_TYPES) {
+            var ramMetric = metrics[mt.ordinal()];
+            if (ramMetric == null || !metricVisibility.isVisible(mt)) {
+                continue;
+            }
+            row[mt.ordinal()] = Math.max(-1, ramMetric.sample(tick, true));
+        }
+    }
+
+    private static boolean hasValues(long[] row) {
+        for (var value : row) {
+            if (value >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long[] rowOf(long pid) {
+        var row = rowsByPid.get(pid);
+        if (row == null) {
+            row = new long[METRIC_TYPES.length];
+            rowsByPid.put(pid, row);
+        }
+        return row;
+    }
+
+    private RamMetric[] metricsOf(long pid) {
+        var metrics = metricsByPid.get(pid);
+        if (metrics == null) {
+            metrics = collectMetrics(pid);
+            metricsByPid.put(pid, metrics);
+        }
+        return metrics;
+    }
+
+    /**
+     * Первое появление процесса в такте: начинаем следить за его завершением и запоминаем его метрики.
+     */
+    private RamMetric[] collectMetrics(long pid) {
+        LOG.debug("Start sampling pid {}", pid);
+        processLifecycle.track(pid);
+        var metrics = metricsFactory.getOrCreateMetrics(pid, Config.os);
+        var output = new RamMetric[METRIC_TYPES.length];
+        for (var mt : METRIC_TYPES) {
+            if (mt.isApplicable(Config.os) && !mt.isHostWide()) {
+                output[mt.ordinal()] = metrics.get(mt);
+            }
+        }
+        return output;
+    }
+
+    private RamMetric[] collectHostMetrics() {
+        var metrics = metricsFactory.getOrCreateHostMetrics(Config.os);
+        var output = new RamMetric[METRIC_TYPES.length];
+        for (var mt : METRIC_TYPES) {
+            var metric = metrics.get(mt);
+            if (metric != null && mt.isHostWide()) {
+                output[mt.ordinal()] = metric;
+                hostKeys[mt.ordinal()] = new GraphKey(mt, HOST_PID, HOST);
+            }
+        }
+        return output;
+    }
+
+    private void pruneMetricsCache(long[] pids) {
+        var followed = new HashSet<Long>();
+        for (long pid : pids) {
+            followed.add(pid);
+        }
+        metricsByPid.removeKeysIf(pid -> !followed.contains(pid));
+        rowsByPid.removeKeysIf(pid -> !followed.contains(pid));
+        cachedPids = pids;
+    }
+
     @Override
     public void addRenderer(GraphRenderer renderer) {
         this.renderers.add(renderer);
     }
 
     private GraphControllerImpl() {
+        this(
+                MetricVisibility.getInstance(),
+                MetricsFactory.getInstance(),
+                ProcessController.getInstance(),
+                ProcessLifecycle.getInstance(),
+                GraphPointQueuesWritable.getInstance(),
+                GroupAggregator.getInstance(),
+                ALIGNED_TICKS
+        );
+    }
+
+    /**
+     * Для замеров производительности с подставными процессами и метриками.
+     */
+    GraphControllerImpl(
+            MetricVisibility metricVisibility,
+            MetricsFactory metricsFactory,
+            ProcessController processController,
+            ProcessLifecycle processLifecycle,
+            GraphPointQueuesWritable graphPointQueues,
+            GroupAggregator groupAggregator,
+            boolean alignedTicks
+    ) {
+        this.metricVisibility = metricVisibility;
+        this.metricsFactory = metricsFactory;
+        this.processController = processController;
+        this.processLifecycle = processLifecycle;
+        this.graphPointQueues = graphPointQueues;
+        this.groupAggregator = groupAggregator;
+        this.tickExecutor = alignedTicks
+                ? Executors.newFixedThreadPool(ALIGNED_TICK_THREADS, runnable -> {
+                    var thread = new Thread(runnable, "aligned-tick");
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : null;
+    }
+
+    /**
+     * Остановить потоки выровненного такта. Нужно замерам производительности, которые создают экземпляр
+     * на каждый прогон; общий экземпляр живёт, пока живёт приложение.
+     */
+    void close() {
+        if (tickExecutor != null) {
+            tickExecutor.shutdownNow();
+        }
     }
 
     public static final GraphControllerImpl INSTANCE = new GraphControllerImpl();
@@ -1,37 +1,257 @@
 package jvmram.controller.impl;
 
+import com.sun.management.HotSpotDiagnosticMXBean;
+import jvmram.controller.HeapDumpOptions;
+import jvmram.controller.HeapDumpReport;
 import jvmram.controller.JmxService;
 import jvmram.jmx.JmxBeanFactory;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.invoke.MethodHandles;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Consumer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static jvmram.conf.Config.HEAP_DUMP_DIR;
+import static jvmram.conf.Config.HEAP_DUMP_MAX_CONCURRENT;
+import static jvmram.conf.Config.HEAP_DUMP_PROGRESS_DELAY;
+import static jvmram.conf.Config.os;
+import static jvmram.controller.HeapDumpReport.State.FAILED;
+import static jvmram.controller.HeapDumpReport.State.FINISHED;
+import static jvmram.controller.HeapDumpReport.State.IN_PROGRESS;
+import static jvmram.controller.HeapDumpReport.State.QUEUED;
+import static jvmram.controller.HeapDumpReport.State.STARTED;
+import static jvmram.model.metrics.Os.WINDOWS;
 
 public class JmxServiceImpl implements JmxService {
 
     private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+    private static final Path JCMD = Path.of(System.getProperty("java.home"), "bin", os == WINDOWS ? "jcmd.exe" : "jcmd");
+    private static final String HEAP_DUMP_COMMAND = "GC.heap_dump";
+    // так GC.heap_dump начинает ответ об успехе; об ошибке он часто сообщает только текстом
+    private static final String HEAP_DUMP_CREATED = "Heap dump file created";
+    private static final String HOTSPOT_DIAGNOSTIC_NAME = "com.sun.management:type=HotSpotDiagnostic";
+
+    private final JmxBeanFactory jmxBeanFactory = JmxBeanFactory.getInstance();
+
+    /**
+     * Запись дампа занимает поток на всё время дампа (минуты для большого heap), поэтому дампы не снимаются ни в потоке опроса,
+     * ни в потоках gRPC. Размер пула ограничивает число одновременных дампов, остальные ждут в очереди.
+     */
+    private final ExecutorService heapDumpExecutor = Executors.newFixedThreadPool(HEAP_DUMP_MAX_CONCURRENT, runnable -> {
+        var thread = new Thread(runnable, "heap-dump");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ScheduledExecutorService heapDumpProgressExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        var thread = new Thread(runnable, "heap-dump-progress");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // процессы, чей дамп стоит в очереди или снимается
+    private final Set<Long> dumpingPids = ConcurrentHashMap.newKeySet();
+
     private JmxServiceImpl() {
     }
 
     @Override
     public void gc(long pid) {
-        var bean = JmxBeanFactory.getInstance().getMemoryMxBean(pid);
-
-        if (bean == null) {
-            LOG.info("No JMX bean for process {}, the one might be already closed", pid);
-            return;
-        }
+        jmxBeanFactory.acquire(pid);
         try {
+            var bean = jmxBeanFactory.getMemoryMxBean(pid);
+            if (bean == null) {
+                LOG.info("No JMX bean for process {}, the one might be already closed", pid);
+                return;
+            }
             bean.gc();
         } catch (Exception e) {
             LOG.info("Failed to gc pid {}: {}", pid, e.getMessage());
+        } finally {
+            jmxBeanFactory.release(pid);
         }
     }
 
     @Override
-    public void createHeapDump(String filepath) {
-        // todo: implement
+    public void createHeapDump(long pid, String filepath, HeapDumpOptions options, Consumer<HeapDumpReport> onReport) {
+        // Файл пишет целевая JVM, у которой свой рабочий каталог, поэтому ей передаётся абсолютный путь
+        var heapDump = new HeapDump(pid, resolveDumpFile(filepath), options, onReport);
+        if (!dumpingPids.add(pid)) {
+            heapDump.report(FAILED, 0, Duration.ZERO, "Heap dump of pid %d is already in progress".formatted(pid));
+            return;
+        }
+        heapDump.report(QUEUED, 0, Duration.ZERO, null);
+        heapDumpExecutor.execute(heapDump);
+    }
+
+    /**
+     * Путь проверяется по тексту до постановки в очередь, а символьные ссылки — перед самим дампом.
+     */
+    private static Path resolveDumpFile(String filepath) {
+        var file = HEAP_DUMP_DIR.resolve(Path.of(filepath)).normalize();
+        if (!file.startsWith(HEAP_DUMP_DIR) || file.equals(HEAP_DUMP_DIR)) {
+            throw new IllegalArgumentException("Heap dump path %s is outside of %s".formatted(filepath, HEAP_DUMP_DIR));
+        }
+        return file;
+    }
+
+    private final class HeapDump implements Runnable {
+        private final long pid;
+        private final Path file;
+        private final HeapDumpOptions options;
+        private final Consumer<HeapDumpReport> onReport;
+        private final long queuedNanos = System.nanoTime();
+        private volatile long startNanos;
+        // после итогового отчёта запоздавший отчёт о ходе дампа уже не отправляется; защищено this
+        private boolean completed;
+
+        private HeapDump(long pid, Path file, HeapDumpOptions options, Consumer<HeapDumpReport> onReport) {
+            this.pid = pid;
+            this.file = file;
+            this.options = options;
+            this.onReport = onReport;
+        }
+
+        @Override
+        public void run() {
+            startNanos = System.nanoTime();
+            LOG.info("Dumping heap of pid {} to {} after {} ms in queue", pid, file, (startNanos - queuedNanos) / 1_000_000);
+            report(STARTED, 0, Duration.ZERO, null);
+            jmxBeanFactory.setBusy(pid, true);
+            var progress = heapDumpProgressExecutor.scheduleWithFixedDelay(
+                    this::reportProgress,
+                    HEAP_DUMP_PROGRESS_DELAY.toMillis(),
+                    HEAP_DUMP_PROGRESS_DELAY.toMillis(),
+                    MILLISECONDS
+            );
+            String error;
+            try {
+                error = dump();
+            } catch (Exception e) {
+                LOG.debug("Heap dump of pid {} failed", pid, e);
+                error = e.toString();
+            } finally {
+                progress.cancel(false);
+                jmxBeanFactory.setBusy(pid, false);
+                // до итогового отчёта, чтобы получатель мог сразу поставить следующий дамп
+                dumpingPids.remove(pid);
+            }
+            var size = fileSize();
+            if (error == null) {
+                LOG.info("Heap dump of pid {} is {} bytes, took {}", pid, size, elapsed());
+                report(FINISHED, size, elapsed(), null);
+            } else {
+                LOG.warn("Failed to dump heap of pid {}: {}", pid, error);
+                report(FAILED, size, elapsed(), error);
+            }
+        }
+
+        /**
+         * Команда отдаётся утилитой jcmd: через MBean DiagnosticCommand GC.heap_dump недоступен.
+         * Если бэкенд запущен не из JDK (например, из образа jpackage) и jcmd нет, дамп снимается
+         * HotSpotDiagnosticMXBean по JMX-подключению, но уже без сжатия и записи в несколько потоков.
+         *
+         * @return null в случае успеха, иначе описание ошибки
+         */
+        private @Nullable String dump() throws Exception {
+            // подкаталоги не создаются: иначе по ссылке внутри HEAP_DUMP_DIR они появились бы снаружи
+            Files.createDirectories(HEAP_DUMP_DIR);
+            var directory = file.getParent();
+            if (!directory.toRealPath().startsWith(HEAP_DUMP_DIR.toRealPath())) {
+                return "Heap dump directory %s leads outside of %s".formatted(directory, HEAP_DUMP_DIR);
+            }
+            if (!Files.isExecutable(JCMD)) {
+                return dumpOverJmx();
+            }
+            var command = new ArrayList<String>();
+            command.add(JCMD.toString());
+            command.add(Long.toString(pid));
+            command.add(HEAP_DUMP_COMMAND);
+            if (!options.liveOnly()) {
+                command.add("-all");
+            }
+            if (options.gzipLevel() > 0) {
+                command.add("-gz=" + options.gzipLevel());
+            }
+            if (options.parallelThreads() > 0) {
+                command.add("-parallel=" + options.parallelThreads());
+            }
+            command.add(file.toString());
+            var process = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .start();
+            String output;
+            try (var stdout = process.getInputStream()) {
+                output = new String(stdout.readAllBytes(), UTF_8).strip();
+            }
+            var exitCode = process.waitFor();
+            if (exitCode == 0 && output.contains(HEAP_DUMP_CREATED)) {
+                return null;
+            }
+            return output.isEmpty() ? "jcmd exited with code %d".formatted(exitCode) : output;
+        }
+
+        private @Nullable String dumpOverJmx() throws Exception {
+            jmxBeanFactory.acquire(pid);
+            try {
+                var connection = jmxBeanFactory.getConnection(pid);
+                if (connection == null) {
+                    return "No jcmd at %s and no JMX connection to pid %d".formatted(JCMD, pid);
+                }
+                if (options.gzipLevel() > 0 || options.parallelThreads() > 0) {
+                    LOG.info("No jcmd at {}, dumping heap of pid {} over JMX without compression and parallel writing", JCMD, pid);
+                }
+                var bean = ManagementFactory.newPlatformMXBeanProxy(connection, HOTSPOT_DIAGNOSTIC_NAME, HotSpotDiagnosticMXBean.class);
+                bean.dumpHeap(file.toString(), options.liveOnly());
+                return null;
+            } finally {
+                jmxBeanFactory.release(pid);
+            }
+        }
+
+        private void reportProgress() {
+            report(IN_PROGRESS, fileSize(), elapsed(), null);
+        }
+
+        private long fileSize() {
+            try {
+                return Files.size(file);
+            } catch (Exception e) {
+                // файл ещё не создан
+                return 0;
+            }
+        }
+
+        private Duration elapsed() {
+            return Duration.ofNanos(System.nanoTime() - startNanos);
+        }
+
+        private synchronized void report(HeapDumpReport.State state, long bytesWritten, Duration elapsed, @Nullable String error) {
+            if (completed) {
+                return;
+            }
+            completed = state == FINISHED || state == FAILED;
+            var report = new HeapDumpReport(pid, file, state, bytesWritten, elapsed, error);
+            try {
+                onReport.accept(report);
+            } catch (Exception e) {
+                LOG.warn("Failed to deliver heap dump report for pid {}", pid, e);
+            }
+        }
     }
 
     public static final JmxServiceImpl INSTANCE = new JmxServiceImpl();
@@ -1,110 +1,189 @@
 package jvmram.controller.impl;
 
+import jvmram.controller.AppScheduler;
 import jvmram.controller.ProcessController;
-import jvmram.model.util.RwGuarded;
+import jvmram.process.JvmDiscovery;
 import jvmram.process.JvmProcessInfo;
-import jvmram.process.ProcessManager;
+import jvmram.process.JvmProcessListDelta;
+import jvmram.process.ProcessTree;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 
-import static java.util.stream.Collectors.toSet;
 import static jvmram.controller.impl.Utils.callActionOrGetRidOfListener;
 
+/**
+ * Состояние слежения публикуется неизменяемым снимком {@link FollowState} через одну замену ссылки:
+ * читатели никогда не блокируются, а писатели строят новый снимок под общей блокировкой.
+ * <p>
+ * Слушатели вызываются вне всяких блокировок в фоновом потоке приложения,
+ * поэтому получают оповещения по очереди и никогда не получают устаревший снимок после свежего.
+ */
 public class ProcessControllerImpl implements ProcessController {
 
-    private final RwGuarded guarded = RwGuarded.create();
+    private final AtomicReference<FollowState> state = new AtomicReference<>(FollowState.EMPTY);
+    private final Object writeLock = new Object();
 
-    private boolean includeChildrenProcesses = false;
+    private final JvmDiscovery jvmDiscovery = JvmDiscovery.getInstance();
+    private final ProcessTree processTree = ProcessTree.getInstance();
+    private final AppScheduler appScheduler = AppScheduler.getInstance();
 
-    private final Collection<Long> explicitlyFollowingPids = new TreeSet<>();
-    private final Map<Long, Collection<Long>> descendantPids = new HashMap<>();
-
-    private final ProcessManager processManager = ProcessManager.getInstance();
-
-    private final List<Consumer<Collection<JvmProcessInfo>>> onProcessInfoChangedListeners = new ArrayList<>();
+    private final List<Consumer<Collection<JvmProcessInfo>>> onProcessInfoChangedListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<JvmProcessListDelta>> onProcessListDeltaListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<Map<Long, Collection<Long>>>> onGroupsChangedListeners = new CopyOnWriteArrayList<>();
 
     @Override
     public boolean areChildrenProcessesIncluded() {
-        return guarded.read(() -> includeChildrenProcesses);
+        return state.get().includeChildren();
     }
 
     @Override
     public void includeChildrenProcesses() {
-        guarded.write(() ->
-                includeChildrenProcesses = true
-        );
+        if (update(current -> current.withIncludeChildren(this::descendantsOf))) {
+            notifyGroupsChanged();
+        }
     }
 
     @Override
     public void excludeChildrenProcesses() {
-        guarded.write(() ->
-                includeChildrenProcesses = false
-        );
+        if (update(FollowState::withoutChildren)) {
+            notifyGroupsChanged();
+        }
     }
 
     @Override
     public Collection<Long> getExplicitlyFollowingPids() {
-        return guarded.read(() -> explicitlyFollowingPids);
+        return state.get().explicitPids();
     }
 
     @Override
-    public Collection<Long> getPidsWithDescendants() {
-        return guarded.read(() -> {
-                    List<Long> output = new ArrayList<>();
-                    for (long pid : explicitlyFollowingPids) {
-                        output.add(pid);
-                        output.addAll(descendantPids.getOrDefault(pid, List.of()));
-                    }
-                    return output;
-                }
-        );
+    public long[] getPidsWithDescendants() {
+        return state.get().pidsWithDescendants();
     }
 
     @Override
     public void setCurrentlySelectedPids(Collection<Long> pids) {
-        guarded.write(() -> {
-            var pidsGone = new HashSet<>(explicitlyFollowingPids);
-            pidsGone.removeAll(pids);
-            pidsGone.forEach(this::doUnfollowPid);
-            pids.forEach(this::doFollowPid);
-        });
+        if (update(current -> current.withExplicitPids(pids, this::descendantsOf))) {
+            notifyGroupsChanged();
+        }
     }
 
-    private void doUnfollowPid(long pid) {
-        explicitlyFollowingPids.remove(pid);
-        descendantPids.remove(pid);
+    @Override
+    public void followAdditionally(Collection<Long> pids) {
+        if (update(current -> current.withAdditionalExplicitPids(pids, this::descendantsOf))) {
+            notifyGroupsChanged();
+        }
     }
 
-    private void doFollowPid(long pid) {
-        explicitlyFollowingPids.add(pid);
-        if (!includeChildrenProcesses) {
-            return;
+    /**
+     * Построить и опубликовать новый снимок.
+     *
+     * @param change как получить новый снимок из текущего; возвращает текущий, если менять нечего
+     * @return изменился ли снимок
+     */
+    private boolean update(UnaryOperator<FollowState> change) {
+        synchronized (writeLock) {
+            var current = state.get();
+            var next = change.apply(current);
+            state.set(next);
+            return next != current;
         }
-        descendantPids.put(pid, processManager.getProcessDescendantIds(pid));
     }
 
+    private long[] descendantsOf(long pid) {
+        return processTree.getDescendants(pid).stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Получатели всегда получают самый свежий снимок на момент доставки.
+     */
+    private void notifyGroupsChanged() {
+        appScheduler.schedule(
+                () -> {
+                    var groups = state.get().groups();
+                    callActionOrGetRidOfListener(onGroupsChangedListeners, listener -> listener.accept(groups));
+                },
+                Duration.ZERO
+        );
+    }
+
+    /**
+     * Выполняется в фоновом потоке приложения.
+     */
     @Override
     public void refreshAvailableJvmProcesses() {
-        var jvmProcesses = processManager.getJvmProcesses();
-        var actualPids = jvmProcesses.stream().map(JvmProcessInfo::pid).collect(toSet());
-        guarded.write(() -> {
-
-                    var pidsGone = new HashSet<>(explicitlyFollowingPids);
-                    pidsGone.removeAll(actualPids);
-                    pidsGone.forEach(this::doUnfollowPid);
-
-                    callActionOrGetRidOfListener(
-                            onProcessInfoChangedListeners,
-                            listener -> listener.accept(jvmProcesses)
-                    );
-                }
-        );
+        var treeDiff = processTree.refresh();
+        var delta = jvmDiscovery.poll();
+
+        var followingChanged = update(current -> {
+            var next = current.withoutExplicitPids(delta.removed());
+            return treeDiff.isEmpty()
+                    ? next
+                    : next.withDescendantsRefreshed(this::descendantsOf);
+        });
+
+        if (!delta.isEmpty()) {
+            var jvmProcesses = jvmDiscovery.getJvmProcesses();
+            callActionOrGetRidOfListener(onProcessInfoChangedListeners, listener -> listener.accept(jvmProcesses));
+            callActionOrGetRidOfListener(onProcessListDeltaListeners, listener -> listener.accept(delta));
+        }
+        if (followingChanged) {
+            notifyGroupsChanged();
+        }
+    }
+
+    @Override
+    public void forgetProcess(long pid) {
+        if (update(current -> current.withoutPid(pid))) {
+            notifyGroupsChanged();
+        }
+    }
+
+    @Override
+    public void rescanJvmProcesses() {
+        jvmDiscovery.requestReconciliation();
+        appScheduler.schedule(this::refreshAvailableJvmProcesses, Duration.ZERO);
     }
 
+    /**
+     * Подписка выполняется в фоновом потоке приложения, чтобы получатель не пропустил изменения
+     * между текущим списком и первым оповещением.
+     */
     @Override
     public void addAvailableJvmProcessesListener(Consumer<Collection<JvmProcessInfo>> onProcessInfoChanged) {
-        guarded.write(() -> onProcessInfoChangedListeners.add(onProcessInfoChanged));
+        appScheduler.schedule(
+                () -> {
+                    onProcessInfoChanged.accept(jvmDiscovery.getJvmProcesses());
+                    onProcessInfoChangedListeners.add(onProcessInfoChanged);
+                },
+                Duration.ZERO
+        );
+    }
+
+    @Override
+    public void addJvmProcessListDeltaListener(Consumer<JvmProcessListDelta> onDelta) {
+        appScheduler.schedule(
+                () -> {
+                    onDelta.accept(JvmProcessListDelta.snapshotOf(jvmDiscovery.getJvmProcesses()));
+                    onProcessListDeltaListeners.add(onDelta);
+                },
+                Duration.ZERO
+        );
+    }
+
+    @Override
+    public void addFollowingGroupsListener(Consumer<Map<Long, Collection<Long>>> onGroupsChanged) {
+        appScheduler.schedule(
+                () -> {
+                    onGroupsChanged.accept(state.get().groups());
+                    onGroupsChangedListeners.add(onGroupsChanged);
+                },
+                Duration.ZERO
+        );
     }
 
     private ProcessControllerImpl() {
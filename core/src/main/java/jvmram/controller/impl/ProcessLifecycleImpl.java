@@ -0,0 +1,146 @@
+package jvmram.controller.impl;
+
+import jvmram.conf.Config;
+import jvmram.controller.AppScheduler;
+import jvmram.controller.ProcessController;
+import jvmram.controller.ProcessLifecycle;
+import jvmram.jmx.JmxBeanFactory;
+import jvmram.metrics.MetricsFactory;
+import jvmram.model.graph.GraphPointQueuesWritable;
+import jvmram.process.ProcessManager;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static jvmram.conf.Config.SEALED_GRAPHS_MAX_PIDS;
+import static jvmram.conf.Config.SEALED_GRAPHS_RETENTION;
+import static jvmram.model.util.WallClock.nowEpochNanos;
+
+/**
+ * О завершении процесса сообщает {@link ProcessHandle#onExit()}, а освобождение ресурсов
+ * выполняется в потоке опроса метрик, чтобы не гоняться с ним.
+ * Момент старта процесса, запомненный при регистрации, защищает от ошибки,
+ * когда номер завершившегося процесса уже достался новому процессу.
+ * <p>
+ * Процессы синтетического корня /proc не видны {@link ProcessHandle}, поэтому их существование проверяется периодически.
+ * <p>
+ * Графики завершившегося процесса закрываются и удаляются через {@link jvmram.conf.Config#SEALED_GRAPHS_RETENTION}
+ * либо раньше, если закрытых процессов больше {@link jvmram.conf.Config#SEALED_GRAPHS_MAX_PIDS}.
+ */
+public class ProcessLifecycleImpl implements ProcessLifecycle {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private final ProcessController processController = ProcessController.getInstance();
+    private final MetricsFactory metricsFactory = MetricsFactory.getInstance();
+    private final JmxBeanFactory jmxBeanFactory = JmxBeanFactory.getInstance();
+    private final GraphPointQueuesWritable graphPointQueues = GraphPointQueuesWritable.getInstance();
+    private final AppScheduler appScheduler = AppScheduler.getInstance();
+    private final ProcessManager processManager = ProcessManager.getInstance();
+
+    private final Map<Long, Tracked> tracked = new ConcurrentHashMap<>();
+
+    private ProcessLifecycleImpl() {
+    }
+
+    @Override
+    public void track(long pid) {
+        if (tracked.containsKey(pid)) {
+            return;
+        }
+        if (Config.SYNTHETIC_PROC_ROOT) {
+            trackSynthetic(pid);
+            return;
+        }
+        var handle = ProcessHandle.of(pid).orElse(null);
+        var startInstant = handle == null
+                ? null
+                : handle.info().startInstant().orElse(null);
+        var entry = new Tracked(pid, startInstant);
+        if (tracked.putIfAbsent(pid, entry) != null) {
+            return;
+        }
+        graphPointQueues.reopen(pid);
+        if (handle == null) {
+            LOG.info("Process {} is already gone", pid);
+            appScheduler.schedule(() -> teardown(entry, System.nanoTime()), Duration.ZERO);
+            return;
+        }
+        watchExit(entry, handle);
+    }
+
+    private void trackSynthetic(long pid) {
+        var entry = new Tracked(pid, null);
+        if (tracked.putIfAbsent(pid, entry) != null) {
+            return;
+        }
+        graphPointQueues.reopen(pid);
+        watchSyntheticExit(entry);
+    }
+
+    private void watchSyntheticExit(Tracked entry) {
+        appScheduler.schedule(() -> {
+            if (tracked.get(entry.pid) != entry) {
+                return;
+            }
+            if (processManager.isAlive(entry.pid)) {
+                watchSyntheticExit(entry);
+            } else {
+                teardown(entry, System.nanoTime());
+            }
+        }, Config.SYNTHETIC_EXIT_CHECK_DELAY);
+    }
+
+    private void watchExit(Tracked entry, ProcessHandle handle) {
+        handle.onExit().thenRun(() -> {
+            var exitNanos = System.nanoTime();
+            appScheduler.schedule(() -> teardown(entry, exitNanos), Duration.ZERO);
+        });
+    }
+
+    /**
+     * Выполняется в потоке опроса метрик.
+     */
+    private void teardown(Tracked entry, long exitNanos) {
+        var pid = entry.pid;
+        if (tracked.get(pid) != entry) {
+            return;
+        }
+        var sameProcess = ProcessHandle.of(pid)
+                .filter(ProcessHandle::isAlive)
+                .filter(handle -> Objects.equals(handle.info().startInstant().orElse(null), entry.startInstant));
+        if (sameProcess.isPresent()) {
+            LOG.debug("Process {} is still alive, keep watching it", pid);
+            watchExit(entry, sameProcess.get());
+            return;
+        }
+        tracked.remove(pid);
+
+        processController.forgetProcess(pid);
+        metricsFactory.release(pid);
+        jmxBeanFactory.disconnect(pid);
+        graphPointQueues.seal(pid);
+        evictSealedGraphs();
+        // если больше никто не завершится, графики всё равно удалятся по истечении срока
+        appScheduler.schedule(this::evictSealedGraphs, SEALED_GRAPHS_RETENTION);
+
+        LOG.info("Released resources of exited process {} in {} ms",
+                pid, Duration.ofNanos(System.nanoTime() - exitNanos).toMillis());
+    }
+
+    private void evictSealedGraphs() {
+        graphPointQueues.evictSealed(nowEpochNanos() - SEALED_GRAPHS_RETENTION.toNanos(), SEALED_GRAPHS_MAX_PIDS);
+    }
+
+    private record Tracked(long pid, @Nullable Instant startInstant) {
+    }
+
+    public static final ProcessLifecycleImpl INSTANCE = new ProcessLifecycleImpl();
+}
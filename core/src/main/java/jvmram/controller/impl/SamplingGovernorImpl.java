@@ -0,0 +1,247 @@
+package jvmram.controller.impl;
+
+import jvmram.conf.Config;
+import jvmram.controller.ProcessController;
+import jvmram.controller.SamplingGovernor;
+import jvmram.controller.SamplingGovernorReport;
+import jvmram.model.graph.GraphKey;
+import jvmram.model.graph.GraphPointQueues;
+import jvmram.model.graph.GraphPointQueuesWritable;
+import jvmram.model.metrics.MetricType;
+import jvmram.model.util.WallClock;
+import jvmram.suppliers.HardwareDataSupplier;
+import jvmram.suppliers.HardwareDataSuppliersFactory;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Consumer;
+
+import static java.util.Collections.synchronizedList;
+import static jvmram.conf.Config.MAX_POLL_INTERVAL_STRETCH;
+import static jvmram.conf.Config.SAMPLING_CPU_BUDGET;
+import static jvmram.controller.impl.Utils.callActionOrGetRidOfListener;
+
+/**
+ * Стоимость опросов учитывается по Поставщикам: метрики одного Поставщика опрашиваются вместе,
+ * поэтому и растягивать их таймауты имеет смысл только вместе.
+ * <p>
+ * Поставщики упорядочиваются по отношению стоимости к изменчивости их рядов за последнюю минуту.
+ * При превышении бюджета таймауты растягиваются вдвое, начиная с самых дорогих и неизменных,
+ * пока прогноз не уложится в бюджет с запасом. Обратно таймауты сжимаются, только когда потрачено
+ * меньше половины бюджета, чтобы таймауты не качались на каждой проверке.
+ */
+public class SamplingGovernorImpl implements SamplingGovernor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final MetricType[] METRIC_TYPES = MetricType.values();
+
+    private static final double TIGHTEN_TARGET = 0.9;
+    private static final double RELAX_THRESHOLD = 0.5;
+    private static final Duration CHANGE_WINDOW = Duration.ofMinutes(1);
+    /**
+     * Чтобы неизменный ряд не получал бесконечный приоритет и дорогие ряды растягивались раньше дешёвых.
+     */
+    private static final double MIN_CHANGE = 1e-4;
+
+    private final ProcessController processController;
+    private final HardwareDataSuppliersFactory suppliersFactory;
+    private final GraphPointQueues graphPointQueues;
+    private final double cpuBudget;
+
+    private final List<Consumer<SamplingGovernorReport>> reportListeners = synchronizedList(new ArrayList<>());
+
+    /**
+     * Процессорное время Поставщиков на прошлой проверке.
+     * Пересобирается на каждой проверке, поэтому освобождённые Поставщики в ней не задерживаются.
+     */
+    private Map<HardwareDataSupplier<?>, Long> lastCpuNanos = new IdentityHashMap<>();
+    private long lastCheckNanos = System.nanoTime();
+    private volatile @Nullable SamplingGovernorReport lastReport;
+
+    private SamplingGovernorImpl() {
+        this(
+                ProcessController.getInstance(),
+                HardwareDataSuppliersFactory.getInstance(),
+                GraphPointQueuesWritable.getInstance(),
+                SAMPLING_CPU_BUDGET
+        );
+    }
+
+    SamplingGovernorImpl(
+            ProcessController processController,
+            HardwareDataSuppliersFactory suppliersFactory,
+            GraphPointQueues graphPointQueues,
+            double cpuBudget
+    ) {
+        this.processController = processController;
+        this.suppliersFactory = suppliersFactory;
+        this.graphPointQueues = graphPointQueues;
+        this.cpuBudget = cpuBudget;
+    }
+
+    @Override
+    public void check() {
+        var now = System.nanoTime();
+        var elapsed = now - lastCheckNanos;
+        if (elapsed <= 0) {
+            return;
+        }
+        lastCheckNanos = now;
+
+        var candidates = collectCandidates(elapsed);
+        var cpuUsed = 0.0;
+        for (var candidate : candidates) {
+            cpuUsed += candidate.cpuShare;
+        }
+
+        if (cpuUsed > cpuBudget) {
+            tighten(candidates, cpuUsed);
+        } else if (cpuUsed < cpuBudget * RELAX_THRESHOLD) {
+            relax(candidates, cpuUsed);
+        }
+        report(candidates, cpuUsed);
+    }
+
+    private List<Candidate> collectCandidates(long elapsedNanos) {
+        var bySupplier = new IdentityHashMap<HardwareDataSupplier<?>, Candidate>();
+        for (long pid : processController.getPidsWithDescendants()) {
+            for (var type : METRIC_TYPES) {
+                if (!type.isApplicable(Config.os)) {
+                    continue;
+                }
+                var supplier = suppliersFactory.findSupplier(pid, type);
+                if (supplier == null) {
+                    continue;
+                }
+                bySupplier.computeIfAbsent(supplier, s -> new Candidate(pid, s)).metricTypes.add(type);
+            }
+        }
+
+        var currentCpuNanos = new IdentityHashMap<HardwareDataSupplier<?>, Long>();
+        var changeSince = WallClock.nowEpochNanos() - CHANGE_WINDOW.toNanos();
+        for (var candidate : bySupplier.values()) {
+            var cpuNanos = candidate.supplier.pollCpuNanos();
+            currentCpuNanos.put(candidate.supplier, cpuNanos);
+            var spent = cpuNanos - lastCpuNanos.getOrDefault(candidate.supplier, 0L);
+            candidate.cpuShare = (double) spent / elapsedNanos;
+            candidate.change = relativeChange(candidate, changeSince);
+        }
+        lastCpuNanos = currentCpuNanos;
+        return new ArrayList<>(bySupplier.values());
+    }
+
+    /**
+     * @return наибольший среди рядов Поставщика размах значений относительно максимума
+     */
+    private double relativeChange(Candidate candidate, long sinceEpochNanos) {
+        var output = 0.0;
+        for (var type : candidate.metricTypes) {
+            var range = graphPointQueues.range(new GraphKey(type, candidate.pid), sinceEpochNanos);
+            if (range.max() > 0) {
+                output = Math.max(output, (double) (range.max() - range.min()) / range.max());
+            }
+        }
+        return output;
+    }
+
+    private void tighten(List<Candidate> candidates, double cpuUsed) {
+        candidates.sort(Comparator.comparingDouble(Candidate::score).reversed());
+        var projected = cpuUsed;
+        for (var candidate : candidates) {
+            if (projected <= cpuBudget * TIGHTEN_TARGET) {
+                break;
+            }
+            var stretch = candidate.supplier.intervalStretch();
+            if (stretch >= MAX_POLL_INTERVAL_STRETCH || candidate.cpuShare <= 0) {
+                continue;
+            }
+            var newStretch = Math.min(MAX_POLL_INTERVAL_STRETCH, stretch * 2);
+            candidate.supplier.setIntervalStretch(newStretch);
+            projected -= candidate.cpuShare * (1 - (double) stretch / newStretch);
+            LOG.debug("Stretching poll intervals of pid {} {} to x{}", candidate.pid, candidate.metricTypes, newStretch);
+        }
+    }
+
+    private void relax(List<Candidate> candidates, double cpuUsed) {
+        candidates.sort(Comparator.comparingDouble(Candidate::score));
+        var projected = cpuUsed;
+        for (var candidate : candidates) {
+            var stretch = candidate.supplier.intervalStretch();
+            if (stretch <= 1) {
+                continue;
+            }
+            var newStretch = stretch / 2;
+            var added = candidate.cpuShare * ((double) stretch / newStretch - 1);
+            if (projected + added >= cpuBudget * RELAX_THRESHOLD) {
+                break;
+            }
+            candidate.supplier.setIntervalStretch(newStretch);
+            projected += added;
+            LOG.debug("Relaxing poll intervals of pid {} {} to x{}", candidate.pid, candidate.metricTypes, newStretch);
+        }
+    }
+
+    private void report(List<Candidate> candidates, double cpuUsed) {
+        var degraded = candidates.stream()
+                .filter(candidate -> candidate.supplier.intervalStretch() > 1)
+                .sorted(Comparator.comparingLong((Candidate candidate) -> candidate.pid)
+                        .thenComparing(candidate -> candidate.metricTypes.iterator().next()))
+                .map(candidate -> new SamplingGovernorReport.Degraded(
+                        candidate.pid,
+                        Set.copyOf(candidate.metricTypes),
+                        candidate.supplier.intervalStretch()
+                ))
+                .toList();
+
+        var previous = lastReport;
+        var report = new SamplingGovernorReport(cpuBudget, cpuUsed, degraded);
+        lastReport = report;
+        if (previous != null && previous.degraded().equals(degraded)) {
+            return;
+        }
+
+        if (report.isDegraded()) {
+            LOG.warn("Sampling uses {} of one core with budget {}: resolution degraded for {} suppliers",
+                    cpuUsed, cpuBudget, degraded.size());
+        } else if (previous != null && previous.isDegraded()) {
+            LOG.info("Sampling resolution restored, {} of one core used with budget {}", cpuUsed, cpuBudget);
+        }
+        callActionOrGetRidOfListener(reportListeners, listener -> listener.accept(report));
+    }
+
+    @Override
+    public void addReportListener(Consumer<SamplingGovernorReport> onReport) {
+        reportListeners.add(onReport);
+        var report = lastReport;
+        if (report != null) {
+            onReport.accept(report);
+        }
+    }
+
+    private static final class Candidate {
+        private final long pid;
+        private final HardwareDataSupplier<?> supplier;
+        private final EnumSet<MetricType> metricTypes = EnumSet.noneOf(MetricType.class);
+        private double cpuShare;
+        private double change;
+
+        private Candidate(long pid, HardwareDataSupplier<?> supplier) {
+            this.pid = pid;
+            this.supplier = supplier;
+        }
+
+        /**
+         * Чем дороже опрос и чем меньше меняются ряды, тем меньше теряется от растяжения таймаута.
+         */
+        private double score() {
+            return cpuShare / (change + MIN_CHANGE);
+        }
+    }
+
+    public static final SamplingGovernorImpl INSTANCE = new SamplingGovernorImpl();
+}
@@ -2,8 +2,15 @@ package jvmram.jmx;
 
 import org.jspecify.annotations.Nullable;
 
+import javax.management.MBeanServerConnection;
+import java.lang.management.BufferPoolMXBean;
 import java.lang.management.MemoryMXBean;
 
+/**
+ * JMX-подключение к процессу одно на всех: его делят Поставщики метрик, гистограммы классов, дампы heap и стримы JFR.
+ * Поэтому каждый пользователь сначала занимает подключение через {@link #acquire(long)}, а закончив, отпускает
+ * через {@link #release(long)}: подключение закрывается, когда его отпустил последний пользователь.
+ */
 public interface JmxBeanFactory {
 
     /**
@@ -16,7 +23,55 @@ public interface JmxBeanFactory {
     MemoryMXBean getMemoryMxBean(long pid);
 
     /**
-     * Разрываем JMX-соединение с процессом
+     * Возвращаем JMX handle для получения данных о памяти, занятой direct-буферами JVM-процесса.
+     *
+     * @param pid процесса
+     * @return данные о direct-буферах или null в случае ошибки получения данных
+     */
+    @Nullable
+    BufferPoolMXBean getDirectBufferPoolMxBean(long pid);
+
+    /**
+     * Возвращаем соединение с MBean-сервером JVM-процесса, чтобы читать несколько атрибутов за один запрос.
+     *
+     * @param pid процесса
+     * @return соединение или null в случае ошибки подключения
+     */
+    @Nullable
+    MBeanServerConnection getConnection(long pid);
+
+    /**
+     * Отмечаем, что процесс занят долгой операцией (например, снимает дамп heap) и стоит в safepoint:
+     * запросы к нему повисли бы до её окончания, поэтому опрос его метрик пропускается.
+     *
+     * @param pid  процесса
+     * @param busy занят ли процесс
+     */
+    void setBusy(long pid, boolean busy);
+
+    /**
+     * @param pid процесса
+     * @return занят ли процесс долгой операцией
+     */
+    boolean isBusy(long pid);
+
+    /**
+     * Занимаем JMX-подключение к процессу: пока оно занято, оно не закрывается.
+     * Само подключение открывается лениво, при первом запросе бина или соединения.
+     *
+     * @param pid процесса
+     */
+    void acquire(long pid);
+
+    /**
+     * Отпускаем JMX-подключение, занятое через {@link #acquire(long)}; последний пользователь его закрывает.
+     *
+     * @param pid процесса
+     */
+    void release(long pid);
+
+    /**
+     * Разрываем JMX-соединение с процессом независимо от пользователей: процесс завершился
      *
      * @param pid процесса
      */
@@ -5,21 +5,30 @@ import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.management.MBeanServerConnection;
 import javax.management.remote.JMXConnector;
 import javax.management.remote.JMXConnectorFactory;
 import javax.management.remote.JMXServiceURL;
 import java.lang.invoke.MethodHandles;
+import java.lang.management.BufferPoolMXBean;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 class JmxBeanFactoryImpl implements JmxBeanFactory {
 
     private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+    private static final String DIRECT_BUFFER_POOL_NAME = "java.nio:type=BufferPool,name=direct";
+
     private final Map<Long, MemoryMXBean> memoryMxBeans = new ConcurrentHashMap<>();
+    private final Map<Long, BufferPoolMXBean> directBufferPoolMxBeans = new ConcurrentHashMap<>();
     private final Map<Long, JMXConnector> jmxConnectors = new ConcurrentHashMap<>();
+    private final Set<Long> busyPids = ConcurrentHashMap.newKeySet();
+    // число пользователей подключения; подключение закрывается внутри compute, поэтому не гоняется с acquire
+    private final Map<Long, Integer> users = new ConcurrentHashMap<>();
 
     private JmxBeanFactoryImpl() {
     }
@@ -30,60 +39,156 @@ class JmxBeanFactoryImpl implements JmxBeanFactory {
         if (memoryMxBeans.containsKey(pid)) {
             return memoryMxBeans.get(pid);
         }
-        
+
+        var jmxConnector = getJmxConnector(pid);
+        if (jmxConnector == null) {
+            return null;
+        }
+
+        try {
+            // Получаем MemoryMXBean через MBeanServerConnection
+            var memoryMxBean = ManagementFactory.newPlatformMXBeanProxy(
+                jmxConnector.getMBeanServerConnection(),
+                ManagementFactory.MEMORY_MXBEAN_NAME,
+                MemoryMXBean.class
+            );
+            memoryMxBeans.put(pid, memoryMxBean);
+            return memoryMxBean;
+        } catch (Exception e) {
+            LOG.warn("Failed to obtain memory JMX bean for pid {}", pid, e);
+            return null;
+        }
+    }
+
+    @Override
+    public @Nullable BufferPoolMXBean getDirectBufferPoolMxBean(long pid) {
+        if (directBufferPoolMxBeans.containsKey(pid)) {
+            return directBufferPoolMxBeans.get(pid);
+        }
+
+        var jmxConnector = getJmxConnector(pid);
+        if (jmxConnector == null) {
+            return null;
+        }
+
+        try {
+            var bufferPoolMxBean = ManagementFactory.newPlatformMXBeanProxy(
+                jmxConnector.getMBeanServerConnection(),
+                DIRECT_BUFFER_POOL_NAME,
+                BufferPoolMXBean.class
+            );
+            directBufferPoolMxBeans.put(pid, bufferPoolMxBean);
+            return bufferPoolMxBean;
+        } catch (Exception e) {
+            LOG.warn("Failed to obtain direct buffer pool JMX bean for pid {}", pid, e);
+            return null;
+        }
+    }
+
+    @Override
+    public @Nullable MBeanServerConnection getConnection(long pid) {
+        var jmxConnector = getJmxConnector(pid);
+        if (jmxConnector == null) {
+            return null;
+        }
+
+        try {
+            return jmxConnector.getMBeanServerConnection();
+        } catch (Exception e) {
+            LOG.warn("Failed to obtain MBean server connection for pid {}", pid, e);
+            return null;
+        }
+    }
+
+    private @Nullable JMXConnector getJmxConnector(long pid) {
+        // Возвращаем кэшированный коннектор, если он есть
+        var cached = jmxConnectors.get(pid);
+        if (cached != null) {
+            return cached;
+        }
+
         try {
             // Подключаемся к целевой JVM
             var vm = VirtualMachine.attach(String.valueOf(pid));
-            
+
             try {
                 // Получаем свойства агента
                 var agentProperties = vm.getAgentProperties();
                 var connectorAddress = agentProperties.getProperty(
                     "com.sun.management.jmxremote.localConnectorAddress");
-                
+
                 // Если JMX агент не запущен, запускаем его
                 if (connectorAddress == null) {
                     vm.startLocalManagementAgent();
                     agentProperties = vm.getAgentProperties();
                     connectorAddress = agentProperties.getProperty("com.sun.management.jmxremote.localConnectorAddress");
                 }
-                
+
                 if (connectorAddress == null) {
                     LOG.warn("Failed to resolve connector address for pid {}", pid);
                     return null;
                 }
-                
+
                 // Подключаемся к JMX коннектору
                 var serviceUrl = new JMXServiceURL(connectorAddress);
                 var jmxConnector = JMXConnectorFactory.connect(serviceUrl, null);
-                var mbsc = jmxConnector.getMBeanServerConnection();
-                
-                // Получаем MemoryMXBean через MBeanServerConnection
-                var memoryMxBean = ManagementFactory.newPlatformMXBeanProxy(
-                    mbsc,
-                    "java.lang:type=Memory",
-                    MemoryMXBean.class
-                );
-                
-                // Кэшируем bean и коннектор
-                memoryMxBeans.put(pid, memoryMxBean);
+
+                // Кэшируем коннектор
                 jmxConnectors.put(pid, jmxConnector);
-                
-                return memoryMxBean;
-                
+
+                return jmxConnector;
+
             } finally {
                 // Отключаемся от виртуальной машины (но оставляем JMX коннектор открытым)
                 vm.detach();
             }
-            
+
         } catch (Exception e) {
             LOG.warn("Failed to obtain JMX data for pid {}", pid, e);
             return null;
         }
     }
 
+    @Override
+    public void setBusy(long pid, boolean busy) {
+        if (busy) {
+            busyPids.add(pid);
+        } else {
+            busyPids.remove(pid);
+        }
+    }
+
+    @Override
+    public boolean isBusy(long pid) {
+        return busyPids.contains(pid);
+    }
+
+    @Override
+    public void acquire(long pid) {
+        users.merge(pid, 1, Integer::sum);
+    }
+
+    @Override
+    public void release(long pid) {
+        users.compute(pid, (key, count) -> {
+            if (count != null && count > 1) {
+                return count - 1;
+            }
+            LOG.debug("Last user released JMX connection to pid {}", pid);
+            close(pid);
+            return null;
+        });
+    }
+
     @Override
     public void disconnect(long pid) {
+        users.compute(pid, (key, count) -> {
+            close(pid);
+            return null;
+        });
+    }
+
+    private void close(long pid) {
         var jmxConnector = jmxConnectors.remove(pid);
         if (jmxConnector != null) {
             try {
@@ -92,8 +197,9 @@ class JmxBeanFactoryImpl implements JmxBeanFactory {
                 // Игнорируем ошибки закрытия
             }
         }
-        
+
         memoryMxBeans.remove(pid);
+        directBufferPoolMxBeans.remove(pid);
     }
 
     static final JmxBeanFactoryImpl INSTANCE = new JmxBeanFactoryImpl();
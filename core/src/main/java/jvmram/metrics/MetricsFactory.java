@@ -9,6 +9,44 @@ import java.util.Map;
 public interface MetricsFactory {
     Map<MetricType, RamMetric> getOrCreateMetrics(long pid, Os os);
 
+    /**
+     * Метрики хоста, для которых {@link MetricType#isHostWide()}. Создаются один раз.
+     *
+     * @param os операционная система
+     * @return метрики хоста; пусто, если в этой ОС их нет
+     */
+    Map<MetricType, RamMetric> getOrCreateHostMetrics(Os os);
+
+    /**
+     * Забыть метрики процесса вместе с их Поставщиками.
+     *
+     * @param pid номер завершившегося процесса
+     */
+    void release(long pid);
+
+    /**
+     * Получать JMX-метрики процесса событиями JFR, которые целевая JVM присылает сама, а не опросом MBean'ов.
+     * Метрики процесса остаются прежними, меняется лишь источник их данных.
+     *
+     * @param pid      номер процесса
+     * @param settings настройки событий JFR в формате .jfc поверх настроек по умолчанию,
+     *                 например "jdk.PhysicalMemory#period" → "5 s"
+     */
+    void setJfrIngest(long pid, Map<String, String> settings);
+
+    /**
+     * Вернуть процессу опрос MBean'ов.
+     *
+     * @param pid номер процесса
+     */
+    void setPollIngest(long pid);
+
+    /**
+     * Освободить Поставщиков, чьи метрики давно никто не опрашивает,
+     * например, потому что метрики скрыты. JMX-соединения при этом разрываются.
+     */
+    void releaseIdleSuppliers();
+
     static MetricsFactory getInstance() {
         return MetricsFactoryImpl.INSTANCE;
     }
@@ -1,17 +1,48 @@
 package jvmram.metrics;
 
-import jvmram.model.graph.GraphPoint;
-
 import java.time.Duration;
 
+import static jvmram.model.util.WallClock.nowEpochNanos;
+
 public interface RamMetric {
 
     /**
-     * Получить значение метрики в байтах
+     * Данных нет: Поставщик не смог их получить.
+     */
+    long NO_DATA = -1;
+
+    /**
+     * Данные не изменились с прошлого вызова {@link #sample()}.
+     */
+    long SAME_DATA = -2;
+
+    /**
+     * Получить значение метрики в байтах.
+     * Момент измерения после этого доступен через {@link #sampleEpochNanos()}.
      *
      * @return либо неотрицательное значение в байтах, либо специальные константы (выше).
      */
-    GraphPoint getGraphPoint();
+    default long sample() {
+        return sample(nowEpochNanos(), false);
+    }
+
+    /**
+     * Получить значение метрики на такте. На выровненном такте таймаут опроса отсчитывается не от прошлого опроса,
+     * а по сетке моментов, кратных таймауту: метрики с одинаковым таймаутом опрашиваются на одном и том же такте.
+     * Момент такта одинаков для всех метрик такта, по нему Поставщики узнают, что их общие данные уже прочитаны.
+     *
+     * @param tickEpochNanos момент начала такта в наносекундах от эпохи
+     * @param aligned        выровнен ли такт
+     * @return либо неотрицательное значение в байтах, либо специальные константы (выше).
+     */
+    long sample(long tickEpochNanos, boolean aligned);
+
+    /**
+     * Момент измерения значения, которое последним отдал {@link #sample()}.
+     *
+     * @return наносекунды от эпохи.
+     */
+    long sampleEpochNanos();
 
     /**
      * Обновить таймаут опроса.
@@ -19,4 +50,25 @@ public interface RamMetric {
      * @param pollInterval - новый таймаут опроса.
      */
     void updatePollInterval(Duration pollInterval);
+
+    /**
+     * Текущий таймаут опроса.
+     *
+     * @return таймаут опроса.
+     */
+    Duration getPollInterval();
+
+    /**
+     * Сколько раз метрика инициировала опрос Поставщика данных.
+     *
+     * @return число опросов с момента создания метрики.
+     */
+    long getPollCount();
+
+    /**
+     * Сколько времени заняли инициированные метрикой опросы Поставщика данных.
+     *
+     * @return суммарное время опросов в наносекундах с момента создания метрики.
+     */
+    long getPollNanos();
 }
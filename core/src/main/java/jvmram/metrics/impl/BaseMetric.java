@@ -1,63 +1,200 @@
 package jvmram.metrics.impl;
 
 import jvmram.metrics.RamMetric;
-import jvmram.model.graph.GraphPoint;
+import jvmram.model.metrics.MetricType;
 import jvmram.suppliers.HardwareDataSupplier;
+import jvmram.suppliers.HardwareDataSuppliersFactory;
 import jvmram.suppliers.data.HardwareData;
+import org.jspecify.annotations.Nullable;
 
 import java.time.Duration;
-import java.time.Instant;
-import java.util.Objects;
-import java.util.function.Function;
+import java.util.function.ToLongFunction;
 
-import static jvmram.model.graph.GraphPoint.NO_DATA;
-import static jvmram.model.graph.GraphPoint.SAME_DATA;
+import static jvmram.model.util.WallClock.nowEpochNanos;
+import static jvmram.suppliers.HardwareDataSupplier.NEVER_POLLED;
 
+/**
+ * Метрика получает Поставщика у фабрики только при первом опросе и заново, если Поставщик был освобождён.
+ * Поэтому метрики, которые никто не опрашивает (например, скрытые), не создают Поставщиков
+ * и не подключаются к JVM.
+ */
 class BaseMetric<T extends HardwareData> implements RamMetric {
-    private final HardwareDataSupplier<T> supplier;
-    private final Function<T, Long> converter;
+    private final HardwareDataSuppliersFactory suppliersFactory;
+    private final long pid;
+    private final MetricType supplierType;
+    private volatile @Nullable HardwareDataSupplier<T> supplier;
+    private final ToLongFunction<T> converter;
     private volatile Duration pollInterval;
-    private volatile Instant metricsLastPoll;
+    private volatile long pollIntervalNanos;
+    private final long defaultPollIntervalNanos;
+    private volatile long metricsLastPoll = NEVER_POLLED;
+    /**
+     * Момент опроса Поставщика, данные которого метрика приняла: см. {@link #pollIfDue(long, boolean)}.
+     */
+    private volatile long acceptedPoll = NEVER_POLLED;
+    private volatile long pollCount;
+    private volatile long pollNanos;
 
-    BaseMetric(HardwareDataSupplier<T> supplier, Duration pollInterval, Function<T, Long> converter) {
-        this.supplier = supplier;
-        this.pollInterval = pollInterval;
+    /**
+     * @param suppliersFactory откуда брать Поставщика
+     * @param pid              номер процесса
+     * @param supplierType     по какому типу метрики выбирать Поставщика
+     * @param pollInterval     таймаут опроса
+     * @param converter        как получить байты из данных Поставщика
+     */
+    BaseMetric(
+            HardwareDataSuppliersFactory suppliersFactory,
+            long pid,
+            MetricType supplierType,
+            Duration pollInterval,
+            ToLongFunction<T> converter
+    ) {
+        this.suppliersFactory = suppliersFactory;
+        this.pid = pid;
+        this.supplierType = supplierType;
         this.converter = converter;
+        this.defaultPollIntervalNanos = pollInterval.toNanos();
+        updatePollInterval(pollInterval);
     }
 
     @Override
-    public GraphPoint getGraphPoint() {
-        var supplierLastPoll = supplier.lastPollInstant();
+    public long sample(long tickEpochNanos, boolean aligned) {
+        pollIfDue(tickEpochNanos, aligned);
+        // Поставщик событий может быть опрошен, но нового события не получить: момент данных тогда прежний.
+        // Так же прежним остаётся момент, если Поставщика опросила соседняя метрика, а свой таймаут ещё не истёк
+        if (metricsLastPoll != NEVER_POLLED && metricsLastPoll == acceptedPoll) {
+            return SAME_DATA;
+        }
+        return convertStoredSupplierData();
+    }
 
-        if (supplierLastPoll != null) {
-            var nextPoll = supplierLastPoll.plus(pollInterval);
-            if (nextPoll.isAfter(Instant.now())) {
-                return Objects.equals(metricsLastPoll, supplierLastPoll)
-                        ? SAME_DATA
-                        : convertStoredSupplierData();
-            }
+    @Override
+    public long sampleEpochNanos() {
+        return metricsLastPoll;
+    }
+
+    private HardwareDataSupplier<T> activeSupplier() {
+        var current = supplier;
+        if (current == null || current.isReleased()) {
+            current = suppliersFactory.getOrCreateSupplier(pid, supplierType);
+            supplier = current;
         }
+        return current;
+    }
 
-        supplier.measureAndStore();
-        return convertStoredSupplierData();
+    /**
+     * Опросить Поставщика, если таймаут опроса истёк.
+     * Таймаут растягивается, если Поставщику назначено растяжение ради экономии процессора,
+     * но только не во время ускоренного опроса: его включают явно ради точности.
+     * Не меняет того, какие данные метрика уже отдала через {@link #sample()}.
+     * <p>
+     * Данные, которые получил опрос соседней метрики того же Поставщика, метрика принимает
+     * не чаще своего таймаута: ускоренный опрос одной метрики не ускоряет соседние.
+     *
+     * @param tickEpochNanos момент начала такта
+     * @param aligned        выровнен ли такт
+     * @return был ли опрос
+     */
+    boolean pollIfDue(long tickEpochNanos, boolean aligned) {
+        var supplier = activeSupplier();
+        supplier.markDemand();
+        var interval = interval(supplier);
+        var supplierLastPoll = supplier.lastPollEpochNanos();
+        var due = supplierLastPoll == NEVER_POLLED || isDue(supplierLastPoll, interval, tickEpochNanos, aligned);
+        if (due) {
+            var start = System.nanoTime();
+            supplier.measureAndStore(tickEpochNanos);
+            pollNanos += System.nanoTime() - start;
+            pollCount++;
+        }
+        if (due || acceptedPoll == NEVER_POLLED || isDue(acceptedPoll, interval, tickEpochNanos, aligned)) {
+            acceptedPoll = supplier.lastPollEpochNanos();
+        }
+        return due;
+    }
+
+    private long interval(HardwareDataSupplier<T> supplier) {
+        var interval = pollIntervalNanos;
+        if (interval >= defaultPollIntervalNanos) {
+            interval *= supplier.intervalStretch();
+        }
+        return interval;
+    }
+
+    /**
+     * Без выравнивания таймаут отсчитывается от прошлого опроса. С выравниванием опрос нужен,
+     * если с прошлого опроса такт перешёл в следующий интервал сетки, отсчитанной от эпохи.
+     */
+    private static boolean isDue(long lastPollEpochNanos, long interval, long tickEpochNanos, boolean aligned) {
+        if (!aligned) {
+            return lastPollEpochNanos + interval <= nowEpochNanos();
+        }
+        return Math.floorDiv(lastPollEpochNanos, interval) < Math.floorDiv(tickEpochNanos, interval);
+    }
+
+    /**
+     * Последнее известное значение метрики без учёта того, отдавалось ли оно уже.
+     *
+     * @return неотрицательное значение в байтах или -1, если данных нет.
+     */
+    long lastValue() {
+        var supplier = this.supplier;
+        if (supplier == null) {
+            return -1;
+        }
+        var data = supplier.getStoredData();
+        if (data == null) {
+            return -1;
+        }
+        return converter.applyAsLong(data);
+    }
+
+    /**
+     * Последние данные Поставщика целиком, когда метрике нужно несколько полей одного опроса.
+     *
+     * @return данные или null, если Поставщик ещё не опрашивался
+     */
+    @Nullable T lastData() {
+        var supplier = this.supplier;
+        return supplier == null ? null : supplier.getStoredData();
+    }
+
+    /**
+     * @return момент опроса Поставщика, данные которого метрика приняла последними, в наносекундах от эпохи
+     * или {@link HardwareDataSupplier#NEVER_POLLED}, если опроса ещё не было.
+     */
+    long lastPollEpochNanos() {
+        return acceptedPoll;
     }
 
-    private GraphPoint convertStoredSupplierData() {
+    private long convertStoredSupplierData() {
+        var supplier = activeSupplier();
         var data = supplier.getStoredData();
         if (data == null) {
             return NO_DATA;
         }
-        metricsLastPoll = supplier.lastPollInstant();
-        Long bytes = converter.apply(data);
-        if (bytes == null) {
-            throw new IllegalStateException("Null bytes conversion not allowed");
-        }
-        return new GraphPoint(metricsLastPoll, bytes);
+        metricsLastPoll = acceptedPoll;
+        return converter.applyAsLong(data);
     }
 
     @Override
     public void updatePollInterval(Duration pollInterval) {
         this.pollInterval = pollInterval;
+        this.pollIntervalNanos = pollInterval.toNanos();
     }
 
+    @Override
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    @Override
+    public long getPollCount() {
+        return pollCount;
+    }
+
+    @Override
+    public long getPollNanos() {
+        return pollNanos;
+    }
 }
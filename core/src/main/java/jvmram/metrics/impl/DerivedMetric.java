@@ -0,0 +1,101 @@
+package jvmram.metrics.impl;
+
+import jvmram.metrics.RamMetric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.time.Duration;
+import java.util.List;
+
+import static jvmram.model.graph.Utils.min;
+import static jvmram.suppliers.HardwareDataSupplier.NEVER_POLLED;
+
+/**
+ * Метрика, вычисляемая в бэкенде как разность: уменьшаемое минус сумма вычитаемых.
+ * <p>
+ * Входные метрики опрашиваются по своим таймаутам, а их значения выравниваются
+ * по последнему известному наблюдению (LOCF): на каждом такте берётся последнее значение каждой входной метрики.
+ * Новая точка появляется, как только обновилась хотя бы одна входная метрика,
+ * и получает момент самого свежего из входных измерений.
+ * Отрицательная разность (например, закоммиченный, но ещё не тронутый heap) приводится к нулю.
+ */
+class DerivedMetric implements RamMetric {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private final BaseMetric<?> minuend;
+    private final List<BaseMetric<?>> subtrahends;
+
+    private volatile long lastDerived = NEVER_POLLED;
+
+    DerivedMetric(BaseMetric<?> minuend, List<BaseMetric<?>> subtrahends) {
+        this.minuend = minuend;
+        this.subtrahends = subtrahends;
+    }
+
+    @Override
+    public long sample(long tickEpochNanos, boolean aligned) {
+        minuend.pollIfDue(tickEpochNanos, aligned);
+        for (int i = 0; i < subtrahends.size(); i++) {
+            subtrahends.get(i).pollIfDue(tickEpochNanos, aligned);
+        }
+
+        var moment = minuend.lastPollEpochNanos();
+        var bytes = minuend.lastValue();
+        if (moment == NEVER_POLLED || bytes < 0) {
+            return NO_DATA;
+        }
+        for (int i = 0; i < subtrahends.size(); i++) {
+            var subtrahend = subtrahends.get(i);
+            var subtrahendMoment = subtrahend.lastPollEpochNanos();
+            var subtrahendBytes = subtrahend.lastValue();
+            if (subtrahendMoment == NEVER_POLLED || subtrahendBytes < 0) {
+                return NO_DATA;
+            }
+            moment = Math.max(moment, subtrahendMoment);
+            bytes -= subtrahendBytes;
+        }
+
+        if (moment == lastDerived) {
+            return SAME_DATA;
+        }
+        lastDerived = moment;
+        return Math.max(0, bytes);
+    }
+
+    @Override
+    public long sampleEpochNanos() {
+        return lastDerived;
+    }
+
+    /**
+     * Производная метрика не имеет собственного таймаута опроса: она следует за входными метриками.
+     */
+    @Override
+    public void updatePollInterval(Duration pollInterval) {
+        LOG.debug("Derived metric follows poll intervals of its inputs, ignoring {}", pollInterval);
+    }
+
+    @Override
+    public Duration getPollInterval() {
+        var output = minuend.getPollInterval();
+        for (var subtrahend : subtrahends) {
+            output = min(output, subtrahend.getPollInterval());
+        }
+        return output;
+    }
+
+    /**
+     * Опросы инициируются входными метриками и учитываются ими.
+     */
+    @Override
+    public long getPollCount() {
+        return 0;
+    }
+
+    @Override
+    public long getPollNanos() {
+        return 0;
+    }
+}
@@ -4,24 +4,35 @@ import jvmram.metrics.MetricsFactory;
 import jvmram.metrics.RamMetric;
 import jvmram.model.metrics.MetricType;
 import jvmram.model.metrics.Os;
-import jvmram.suppliers.HardwareDataSupplier;
 import jvmram.suppliers.HardwareDataSuppliersFactory;
 import jvmram.suppliers.data.*;
+import org.jspecify.annotations.Nullable;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Function;
+import java.util.function.ToLongFunction;
 
 import static jvmram.conf.Config.DEV_POLL_INTERVALS;
+import static jvmram.conf.Config.SUPPLIER_RELEASE_GRACE;
+import static java.util.Map.entry;
+import static jvmram.model.graph.GraphKey.HOST_PID;
 import static jvmram.model.metrics.MetricType.*;
 
 public class MetricsFactoryImpl implements MetricsFactory {
 
+    /**
+     * Миллисекунды сборок в секунду переводятся в сотые доли процента: 1 мс/с = 0,1% = 10.
+     */
+    private static final double GC_TIME_SHARE_SCALE = 10;
+
     private final Map<Long, Map<MetricType, RamMetric>> metrics = new ConcurrentHashMap<>();
 
     private final HardwareDataSuppliersFactory suppliersFactory = HardwareDataSuppliersFactory.getInstance();
 
+    private volatile @Nullable Map<MetricType, RamMetric> hostMetrics;
+
     private MetricsFactoryImpl() {
     }
 
@@ -30,32 +41,120 @@ public class MetricsFactoryImpl implements MetricsFactory {
         return metrics.computeIfAbsent(pid, ignored -> createMetricMap(pid, os));
     }
 
+    @Override
+    public Map<MetricType, RamMetric> getOrCreateHostMetrics(Os os) {
+        var output = hostMetrics;
+        if (output == null) {
+            synchronized (this) {
+                output = hostMetrics;
+                if (output == null) {
+                    output = createHostMetricMap(os);
+                    hostMetrics = output;
+                }
+            }
+        }
+        return output;
+    }
+
+    @Override
+    public void releaseIdleSuppliers() {
+        suppliersFactory.releaseIdle(SUPPLIER_RELEASE_GRACE);
+    }
+
+    @Override
+    public void setJfrIngest(long pid, Map<String, String> settings) {
+        suppliersFactory.setJfrIngest(pid, settings);
+    }
+
+    @Override
+    public void setPollIngest(long pid) {
+        suppliersFactory.setJfrIngest(pid, null);
+    }
+
+    @Override
+    public void release(long pid) {
+        metrics.remove(pid);
+        suppliersFactory.release(pid);
+    }
+
     private Map<MetricType, RamMetric> createMetricMap(long pid, Os os) {
+        var heapCommitted = createMetrics(pid, HEAP_COMMITTED, JmxData::heapCommitted);
+        var nmtCommitted = createMetrics(pid, NMT_COMMITTED, JmxData::nmtCommitted);
+        var javaThreads = createMetrics(pid, JAVA_THREADS, JmxData::javaThreads);
+        var common = Map.<MetricType, RamMetric>of(
+                HEAP_USED, createMetrics(pid, HEAP_USED, JmxData::heapUsed),
+                HEAP_COMMITTED, heapCommitted,
+                NMT_USED, createMetrics(pid, NMT_USED, JmxData::nmtUsed),
+                NMT_COMMITTED, nmtCommitted,
+                JAVA_THREADS, javaThreads,
+                DAEMON_THREADS, createMetrics(pid, DAEMON_THREADS, JmxData::daemonThreads),
+                ALLOCATION_RATE, new RateMetric(createMetrics(pid, ALLOCATION_RATE, JmxData::allocatedBytes)),
+                GC_TIME_SHARE, new RateMetric(createMetrics(pid, GC_TIME_SHARE, JmxData::gcTimeMillis), GC_TIME_SHARE_SCALE),
+                // без событий JFR данных нет
+                PHYSICAL_MEMORY_USED, createMetrics(pid, PHYSICAL_MEMORY_USED, JmxData::physicalUsed),
+                NATIVE_MEMORY_TRACKED, createMetrics(pid, NATIVE_MEMORY_TRACKED, JmxData::nativeMemoryTracked)
+        );
         var osSpecific = switch (os) {
-            case LINUX -> Map.of(
-                    RSS, createMetrics(pid, RSS, MemInfoData::rss),
-                    PSS, createMetrics(pid, PSS, SmapsData::pss),
-                    USS, createMetrics(pid, USS, SmapsData::uss)
-            );
-            case WINDOWS -> Map.of(
+            case LINUX -> {
+                var rss = createMetrics(pid, RSS, MemInfoData::rss);
+                var threads = createMetrics(pid, THREADS, MemInfoData::threads);
+                var pss = createMetrics(pid, PSS, SmapsData::pss);
+                // Direct-буферы не выводятся отдельным графиком, но опрашиваются тем же Поставщиком JMX
+                var directUsed = createMetrics(pid, HEAP_COMMITTED, JmxData::directUsed);
+                var admittedByJvm = List.<BaseMetric<?>>of(heapCommitted, nmtCommitted, directUsed);
+                yield Map.<MetricType, RamMetric>ofEntries(
+                        entry(RSS, rss),
+                        entry(PSS, pss),
+                        entry(USS, createMetrics(pid, USS, SmapsData::uss)),
+                        entry(UNEXPLAINED_RSS, new DerivedMetric(rss, admittedByJvm)),
+                        entry(UNEXPLAINED_PSS, new DerivedMetric(pss, admittedByJvm)),
+                        entry(CGROUP_CURRENT, createMetrics(pid, CGROUP_CURRENT, CgroupData::current)),
+                        entry(CGROUP_MAX, createMetrics(pid, CGROUP_MAX, CgroupData::max)),
+                        entry(CGROUP_ANON, createMetrics(pid, CGROUP_ANON, CgroupData::anon)),
+                        entry(CGROUP_FILE, createMetrics(pid, CGROUP_FILE, CgroupData::file)),
+                        entry(CGROUP_KERNEL, createMetrics(pid, CGROUP_KERNEL, CgroupData::kernel)),
+                        entry(CGROUP_SOCK, createMetrics(pid, CGROUP_SOCK, CgroupData::sock)),
+                        entry(CGROUP_SHMEM, createMetrics(pid, CGROUP_SHMEM, CgroupData::shmem)),
+                        entry(RSS_ANON, createMetrics(pid, RSS_ANON, MemInfoData::rssAnon)),
+                        entry(RSS_FILE, createMetrics(pid, RSS_FILE, MemInfoData::rssFile)),
+                        entry(RSS_SHMEM, createMetrics(pid, RSS_SHMEM, MemInfoData::rssShmem)),
+                        entry(RSS_PEAK, createMetrics(pid, RSS_PEAK, MemInfoData::peakRss)),
+                        entry(SWAP, createMetrics(pid, SWAP, MemInfoData::swap)),
+                        entry(MINOR_FAULT_RATE, new RateMetric(createMetrics(pid, MINOR_FAULT_RATE, StatData::minorFaults))),
+                        entry(MAJOR_FAULT_RATE, new RateMetric(createMetrics(pid, MAJOR_FAULT_RATE, StatData::majorFaults))),
+                        entry(THREADS, threads),
+                        entry(THREAD_STACKS, new ThreadStacksMetric(javaThreads, threads))
+                );
+            }
+            case WINDOWS -> Map.<MetricType, RamMetric>of(
                     PB, createMetrics(pid, PB, WinData::pb),
-                    WS, createMetrics(pid, WS, WinData::ws)
+                    WS, createMetrics(pid, WS, WinData::ws),
+                    THREAD_STACKS, new ThreadStacksMetric(javaThreads, null)
             );
         };
-        var common = Map.of(
-                HEAP_USED, createMetrics(pid, HEAP_USED, JmxData::heapUsed),
-                HEAP_COMMITTED, createMetrics(pid, HEAP_COMMITTED, JmxData::heapCommitted),
-                NMT_USED, createMetrics(pid, NMT_USED, JmxData::nmtUsed),
-                NMT_COMMITTED, createMetrics(pid, NMT_COMMITTED, JmxData::nmtCommitted)
-        );
         var output = new HashMap<>(osSpecific);
         output.putAll(common);
         return output;
     }
 
-    private <T extends HardwareData> RamMetric createMetrics(long pid, MetricType type, Function<T, Long> converter) {
-        HardwareDataSupplier<T> supplier = suppliersFactory.getOrCreateSupplier(pid, type);
-        return new BaseMetric<>(supplier, DEV_POLL_INTERVALS.get(type), converter);
+    private Map<MetricType, RamMetric> createHostMetricMap(Os os) {
+        return switch (os) {
+            case LINUX -> Map.of(
+                    HOST_MEM_AVAILABLE, createMetrics(HOST_PID, HOST_MEM_AVAILABLE, HostMemInfoData::available),
+                    HOST_CACHED, createMetrics(HOST_PID, HOST_CACHED, HostMemInfoData::cached),
+                    HOST_DIRTY, createMetrics(HOST_PID, HOST_DIRTY, HostMemInfoData::dirty),
+                    HOST_ANON_HUGE_PAGES, createMetrics(HOST_PID, HOST_ANON_HUGE_PAGES, HostMemInfoData::anonHugePages),
+                    HOST_PSI_SOME_AVG10, createMetrics(HOST_PID, HOST_PSI_SOME_AVG10, PressureData::someAvg10),
+                    HOST_PSI_FULL_AVG10, createMetrics(HOST_PID, HOST_PSI_FULL_AVG10, PressureData::fullAvg10),
+                    HOST_PSI_SOME_TOTAL, createMetrics(HOST_PID, HOST_PSI_SOME_TOTAL, PressureData::someTotal),
+                    HOST_PSI_FULL_TOTAL, createMetrics(HOST_PID, HOST_PSI_FULL_TOTAL, PressureData::fullTotal)
+            );
+            case WINDOWS -> Map.of();
+        };
+    }
+
+    private <T extends HardwareData> BaseMetric<T> createMetrics(long pid, MetricType type, ToLongFunction<T> converter) {
+        return new BaseMetric<>(suppliersFactory, pid, type, DEV_POLL_INTERVALS.get(type), converter);
     }
 
     public static final MetricsFactoryImpl INSTANCE = new MetricsFactoryImpl();
@@ -0,0 +1,86 @@
+package jvmram.metrics.impl;
+
+import jvmram.metrics.RamMetric;
+
+import java.time.Duration;
+
+import static jvmram.suppliers.HardwareDataSupplier.NEVER_POLLED;
+
+/**
+ * Скорость роста накопительного счётчика в единицах в секунду, вычисляемая в бэкенде.
+ * Масштаб переводит скорость в нужные единицы, например, миллисекунды сборок в секунду в долю времени.
+ * <p>
+ * Счётчик опрашивается по своему таймауту, а скорость считается между двумя последними опросами
+ * и получает момент последнего из них. Первый опрос и уменьшение счётчика (например, процесс перезапущен
+ * с тем же номером) точки не дают: скорость по ним не определена.
+ */
+class RateMetric implements RamMetric {
+
+    private static final long NANOS_IN_SECOND = 1_000_000_000L;
+
+    private final BaseMetric<?> counter;
+    private final double scale;
+
+    private long previousValue = -1;
+    private long previousMoment = NEVER_POLLED;
+    private volatile long lastRate = NEVER_POLLED;
+
+    RateMetric(BaseMetric<?> counter) {
+        this(counter, 1);
+    }
+
+    RateMetric(BaseMetric<?> counter, double scale) {
+        this.counter = counter;
+        this.scale = scale;
+    }
+
+    @Override
+    public long sample(long tickEpochNanos, boolean aligned) {
+        counter.pollIfDue(tickEpochNanos, aligned);
+
+        var moment = counter.lastPollEpochNanos();
+        var value = counter.lastValue();
+        if (moment == NEVER_POLLED || value < 0) {
+            return NO_DATA;
+        }
+        if (moment == previousMoment) {
+            return SAME_DATA;
+        }
+
+        var increase = value - previousValue;
+        var elapsed = moment - previousMoment;
+        var firstSample = previousMoment == NEVER_POLLED;
+        previousValue = value;
+        previousMoment = moment;
+        if (firstSample || increase < 0 || elapsed <= 0) {
+            return NO_DATA;
+        }
+        lastRate = moment;
+        return (long) ((double) increase * NANOS_IN_SECOND * scale / elapsed);
+    }
+
+    @Override
+    public long sampleEpochNanos() {
+        return lastRate;
+    }
+
+    @Override
+    public void updatePollInterval(Duration pollInterval) {
+        counter.updatePollInterval(pollInterval);
+    }
+
+    @Override
+    public Duration getPollInterval() {
+        return counter.getPollInterval();
+    }
+
+    @Override
+    public long getPollCount() {
+        return counter.getPollCount();
+    }
+
+    @Override
+    public long getPollNanos() {
+        return counter.getPollNanos();
+    }
+}
@@ -0,0 +1,109 @@
+package jvmram.metrics.impl;
+
+import jvmram.metrics.RamMetric;
+import jvmram.suppliers.data.JmxData;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.time.Duration;
+
+import static jvmram.model.graph.Utils.min;
+import static jvmram.suppliers.HardwareDataSupplier.NEVER_POLLED;
+
+/**
+ * Оценка памяти под стеки потоков, вычисляемая в бэкенде:
+ * Java-потоки умножаются на размер стека Java-потока, а потоки ОС сверх них (сборщик мусора, компиляторы)
+ * на размер стека служебного потока JVM. Без числа потоков ОС (например, в Windows) учитываются только Java-потоки.
+ * <p>
+ * Значения выравниваются так же, как в {@link DerivedMetric}: по последнему известному наблюдению каждой входной метрики.
+ */
+class ThreadStacksMetric implements RamMetric {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private final BaseMetric<JmxData> javaThreads;
+    private final @Nullable BaseMetric<?> osThreads;
+
+    private volatile long lastDerived = NEVER_POLLED;
+
+    /**
+     * @param javaThreads число Java-потоков; размеры стеков берутся из тех же данных Поставщика JMX
+     * @param osThreads   число потоков ОС или null, если его нет
+     */
+    ThreadStacksMetric(BaseMetric<JmxData> javaThreads, @Nullable BaseMetric<?> osThreads) {
+        this.javaThreads = javaThreads;
+        this.osThreads = osThreads;
+    }
+
+    @Override
+    public long sample(long tickEpochNanos, boolean aligned) {
+        // Размеры стеков приходят от того же Поставщика, что и число Java-потоков
+        javaThreads.pollIfDue(tickEpochNanos, aligned);
+        if (osThreads != null) {
+            osThreads.pollIfDue(tickEpochNanos, aligned);
+        }
+
+        var moment = javaThreads.lastPollEpochNanos();
+        var data = javaThreads.lastData();
+        if (moment == NEVER_POLLED || data == null) {
+            return NO_DATA;
+        }
+        var threads = data.javaThreads();
+        var stackSize = data.javaThreadStackSize();
+        if (threads < 0 || stackSize < 0) {
+            return NO_DATA;
+        }
+        var bytes = threads * stackSize;
+
+        if (osThreads != null) {
+            var osMoment = osThreads.lastPollEpochNanos();
+            var allThreads = osThreads.lastValue();
+            var vmStackSize = data.vmThreadStackSize();
+            if (osMoment != NEVER_POLLED && allThreads >= 0 && vmStackSize >= 0) {
+                moment = Math.max(moment, osMoment);
+                bytes += Math.max(0, allThreads - threads) * vmStackSize;
+            }
+        }
+
+        if (moment == lastDerived) {
+            return SAME_DATA;
+        }
+        lastDerived = moment;
+        return bytes;
+    }
+
+    @Override
+    public long sampleEpochNanos() {
+        return lastDerived;
+    }
+
+    /**
+     * Производная метрика не имеет собственного таймаута опроса: она следует за входными метриками.
+     */
+    @Override
+    public void updatePollInterval(Duration pollInterval) {
+        LOG.debug("Thread stacks metric follows poll intervals of its inputs, ignoring {}", pollInterval);
+    }
+
+    @Override
+    public Duration getPollInterval() {
+        return osThreads == null
+                ? javaThreads.getPollInterval()
+                : min(javaThreads.getPollInterval(), osThreads.getPollInterval());
+    }
+
+    /**
+     * Опросы инициируются входными метриками и учитываются ими.
+     */
+    @Override
+    public long getPollCount() {
+        return 0;
+    }
+
+    @Override
+    public long getPollNanos() {
+        return 0;
+    }
+}
@@ -0,0 +1,35 @@
+package jvmram.process;
+
+import jvmram.process.iml.JvmDiscoveryImpl;
+
+import java.util.Collection;
+
+/**
+ * Обнаружение запущенных Java-процессов по событиям файловой системы.
+ * Каждая JVM с включёнными perf data создаёт файл hsperfdata_[user]/[pid] во временном каталоге,
+ * поэтому появление и исчезновение JVM видно по созданию и удалению этих файлов.
+ * Редкая полная сверка через Attach API подбирает то, что события пропустили.
+ */
+public interface JvmDiscovery {
+
+    static JvmDiscovery getInstance() {
+        return JvmDiscoveryImpl.INSTANCE;
+    }
+
+    /**
+     * Обработать накопившиеся события и, если пора, выполнить полную сверку.
+     *
+     * @return изменения с прошлого вызова
+     */
+    JvmProcessListDelta poll();
+
+    /**
+     * Выполнить полную сверку при следующем {@link #poll()}.
+     */
+    void requestReconciliation();
+
+    /**
+     * @return известные на данный момент Java-процессы
+     */
+    Collection<JvmProcessInfo> getJvmProcesses();
+}
@@ -0,0 +1,25 @@
+package jvmram.process;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Изменение списка доступных Java-процессов.
+ *
+ * @param snapshot true, если {@code added} — это весь список, а не только появившиеся процессы
+ * @param added    появившиеся процессы и процессы с изменившимся именем либо весь список для {@code snapshot}
+ * @param removed  исчезнувшие процессы
+ */
+public record JvmProcessListDelta(boolean snapshot, List<JvmProcessInfo> added, Set<Long> removed) {
+
+    public static final JvmProcessListDelta EMPTY = new JvmProcessListDelta(false, List.of(), Set.of());
+
+    public static JvmProcessListDelta snapshotOf(Collection<JvmProcessInfo> processes) {
+        return new JvmProcessListDelta(true, List.copyOf(processes), Set.of());
+    }
+
+    public boolean isEmpty() {
+        return !snapshot && added.isEmpty() && removed.isEmpty();
+    }
+}
@@ -21,9 +21,18 @@ public interface ProcessManager {
     /**
      * Отдаёт список идентификаторов потомков процесса (дочерних процессов, внучатых процессов и так далее).
      * Список не включает в себя родительский pid.
+     * Берётся из {@link ProcessTree} по последнему обновлению индекса.
      *
      * @param pid - родительский PID, относительно которого строится список потомков
      * @return список потомков.
      */
     List<Long> getProcessDescendantIds(long pid);
+
+    /**
+     * Жив ли процесс. Для синтетического корня /proc процесс жив, пока существует его каталог.
+     *
+     * @param pid номер процесса
+     * @return жив ли процесс
+     */
+    boolean isAlive(long pid);
 }
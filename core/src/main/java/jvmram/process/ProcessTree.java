@@ -0,0 +1,33 @@
+package jvmram.process;
+
+import jvmram.process.iml.ProcessTreeImpl;
+
+import java.util.List;
+
+/**
+ * Индекс дерева всех процессов системы: родитель -> дочерние процессы.
+ * Обновляется одним проходом по таблице процессов за цикл,
+ * поэтому потомки любого числа корневых процессов получаются без повторного обхода таблицы.
+ */
+public interface ProcessTree {
+
+    static ProcessTree getInstance() {
+        return ProcessTreeImpl.INSTANCE;
+    }
+
+    /**
+     * Перечитать таблицу процессов.
+     *
+     * @return изменения с прошлого обновления
+     */
+    ProcessTreeDiff refresh();
+
+    /**
+     * Отдаёт потомков процесса (дочерние процессы, внучатые процессы и так далее) по последнему обновлению индекса.
+     * Список не включает в себя сам процесс.
+     *
+     * @param pid родительский PID
+     * @return список потомков
+     */
+    List<Long> getDescendants(long pid);
+}
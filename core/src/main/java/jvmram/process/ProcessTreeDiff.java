@@ -0,0 +1,19 @@
+package jvmram.process;
+
+import java.util.Set;
+
+/**
+ * Изменения дерева процессов между двумя обновлениями индекса.
+ *
+ * @param appeared    процессы, которых раньше не было (включая процессы с переиспользованным pid)
+ * @param disappeared процессы, которые завершились
+ * @param reparented  процессы, у которых сменился родитель (например, осиротевшие и усыновлённые init)
+ */
+public record ProcessTreeDiff(Set<Long> appeared, Set<Long> disappeared, Set<Long> reparented) {
+
+    public static final ProcessTreeDiff EMPTY = new ProcessTreeDiff(Set.of(), Set.of(), Set.of());
+
+    public boolean isEmpty() {
+        return appeared.isEmpty() && disappeared.isEmpty() && reparented.isEmpty();
+    }
+}
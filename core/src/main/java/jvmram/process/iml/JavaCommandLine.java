@@ -0,0 +1,64 @@
+package jvmram.process.iml;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Восстанавливает displayName Java-процесса по его командной строке так же,
+ * как его показывает Attach API: главный класс, jar или модуль вместе с аргументами приложения.
+ */
+class JavaCommandLine {
+
+    private static final Set<String> OPTIONS_WITH_VALUE = Set.of(
+            "-cp",
+            "-classpath",
+            "--class-path",
+            "-p",
+            "--module-path",
+            "--upgrade-module-path",
+            "--add-modules",
+            "--add-opens",
+            "--add-exports",
+            "--add-reads",
+            "--patch-module",
+            "--limit-modules",
+            "--enable-native-access"
+    );
+
+    private static final String MODULE_PREFIX = "--module=";
+
+    /**
+     * @param args командная строка, начиная с исполняемого файла
+     * @return displayName либо пустая строка, если главный класс не найден
+     */
+    static String displayName(List<String> args) {
+        for (int i = 1; i < args.size(); i++) {
+            var arg = args.get(i);
+            if (arg.equals("-jar") || arg.equals("-m") || arg.equals("--module")) {
+                return join(args, i + 1);
+            }
+            if (arg.startsWith(MODULE_PREFIX)) {
+                var rest = join(args, i + 1);
+                var module = arg.substring(MODULE_PREFIX.length());
+                return rest.isEmpty() ? module : module + " " + rest;
+            }
+            if (OPTIONS_WITH_VALUE.contains(arg)) {
+                i++;
+                continue;
+            }
+            if (!arg.startsWith("-")) {
+                return join(args, i);
+            }
+        }
+        return "";
+    }
+
+    private static String join(List<String> args, int from) {
+        return from >= args.size()
+                ? ""
+                : String.join(" ", args.subList(from, args.size()));
+    }
+
+    private JavaCommandLine() {
+    }
+}
@@ -0,0 +1,269 @@
+package jvmram.process.iml;
+
+import jvmram.conf.Config;
+import jvmram.process.JvmDiscovery;
+import jvmram.process.JvmProcessInfo;
+import jvmram.process.JvmProcessListDelta;
+import jvmram.process.ProcessManager;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.*;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+import static jvmram.model.metrics.Os.LINUX;
+
+/**
+ * Следит за временным каталогом (новые каталоги hsperfdata_[user]) и за самими каталогами hsperfdata_[user]
+ * (появление и удаление файлов [pid]). Если WatchService недоступен, сверка выполняется при каждом опросе.
+ */
+public class JvmDiscoveryImpl implements JvmDiscovery {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final String HSPERFDATA_PREFIX = "hsperfdata_";
+
+    private static final Duration RECONCILIATION_PERIOD = Duration.ofSeconds(30);
+
+    private final ProcessManager processManager = ProcessManager.getInstance();
+
+    private final Path tmpDir = Config.PERF_DATA_ROOT;
+
+    private @Nullable WatchService watchService;
+    private boolean watchFailed;
+    private final Map<WatchKey, Path> watchedDirs = new HashMap<>();
+
+    private final Map<Long, JvmProcessInfo> known = new TreeMap<>();
+    private boolean changed;
+
+    private boolean reconciliationRequested = true;
+    private long lastReconciliationNanos;
+
+    private JvmDiscoveryImpl() {
+    }
+
+    @Override
+    public synchronized JvmProcessListDelta poll() {
+        var before = Map.copyOf(known);
+        changed = false;
+
+        ensureWatching();
+        if (watchService != null) {
+            drainEvents(watchService);
+        }
+        var sinceReconciliation = System.nanoTime() - lastReconciliationNanos;
+        if (reconciliationRequested || watchService == null || sinceReconciliation >= RECONCILIATION_PERIOD.toNanos()) {
+            reconcile();
+        }
+
+        return changed
+                ? diff(before, known)
+                : JvmProcessListDelta.EMPTY;
+    }
+
+    @Override
+    public synchronized void requestReconciliation() {
+        reconciliationRequested = true;
+    }
+
+    @Override
+    public synchronized Collection<JvmProcessInfo> getJvmProcesses() {
+        return List.copyOf(known.values());
+    }
+
+    private void ensureWatching() {
+        if (watchService != null || watchFailed) {
+            return;
+        }
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            watchedDirs.put(tmpDir.register(watchService, ENTRY_CREATE), tmpDir);
+            try (var dirs = Files.newDirectoryStream(tmpDir, HSPERFDATA_PREFIX + "*")) {
+                for (var dir : dirs) {
+                    watchHsperfdataDir(dir);
+                }
+            }
+            LOG.info("Watching {} for JVM processes", tmpDir);
+        } catch (IOException e) {
+            LOG.warn("Failed to watch {} for JVM processes, falling back to periodic lookup", tmpDir, e);
+            watchFailed = true;
+            closeWatchService();
+        }
+    }
+
+    private void watchHsperfdataDir(Path dir) {
+        if (!Files.isDirectory(dir) || watchedDirs.containsValue(dir)) {
+            return;
+        }
+        try {
+            watchedDirs.put(dir.register(Objects.requireNonNull(watchService), ENTRY_CREATE, ENTRY_DELETE), dir);
+            // Файлы, созданные до регистрации, событий уже не породят
+            try (var files = Files.newDirectoryStream(dir)) {
+                for (var file : files) {
+                    onPerfDataCreated(file.getFileName().toString());
+                }
+            }
+        } catch (IOException e) {
+            // чужие каталоги hsperfdata обычно недоступны, их процессы найдёт сверка
+            LOG.debug("Failed to watch {}: {}", dir, e.getMessage());
+        }
+    }
+
+    private void drainEvents(WatchService watchService) {
+        WatchKey key;
+        while ((key = watchService.poll()) != null) {
+            var dir = watchedDirs.get(key);
+            for (var event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW) {
+                    reconciliationRequested = true;
+                    continue;
+                }
+                if (dir == null) {
+                    continue;
+                }
+                var name = ((Path) event.context()).getFileName().toString();
+                if (dir.equals(tmpDir)) {
+                    if (name.startsWith(HSPERFDATA_PREFIX)) {
+                        watchHsperfdataDir(dir.resolve(name));
+                    }
+                } else if (event.kind() == ENTRY_CREATE) {
+                    onPerfDataCreated(name);
+                } else if (event.kind() == ENTRY_DELETE) {
+                    onPerfDataDeleted(name);
+                }
+            }
+            if (!key.reset()) {
+                watchedDirs.remove(key);
+            }
+        }
+    }
+
+    private void onPerfDataCreated(String fileName) {
+        var pid = parsePid(fileName);
+        if (pid < 0 || known.containsKey(pid)) {
+            return;
+        }
+        if (!processManager.isAlive(pid)) {
+            return;
+        }
+        known.put(pid, new JvmProcessInfo(pid, displayName(pid)));
+        changed = true;
+    }
+
+    private void onPerfDataDeleted(String fileName) {
+        var pid = parsePid(fileName);
+        if (pid >= 0 && known.remove(pid) != null) {
+            changed = true;
+        }
+    }
+
+    /**
+     * Полная сверка через Attach API. Имена процессов из Attach API считаются точными.
+     * Синтетические процессы Attach API не видит, их сверка идёт по файлам perf data.
+     */
+    private void reconcile() {
+        reconciliationRequested = false;
+        lastReconciliationNanos = System.nanoTime();
+        var actual = new TreeMap<Long, JvmProcessInfo>();
+        var processes = Config.SYNTHETIC_PROC_ROOT
+                ? listPerfDataProcesses()
+                : processManager.getJvmProcesses();
+        for (var info : processes) {
+            actual.put(info.pid(), info);
+        }
+        if (!actual.equals(known)) {
+            known.clear();
+            known.putAll(actual);
+            changed = true;
+        }
+    }
+
+    private List<JvmProcessInfo> listPerfDataProcesses() {
+        var output = new ArrayList<JvmProcessInfo>();
+        try (var dirs = Files.newDirectoryStream(tmpDir, HSPERFDATA_PREFIX + "*")) {
+            for (var dir : dirs) {
+                try (var files = Files.newDirectoryStream(dir)) {
+                    for (var file : files) {
+                        var pid = parsePid(file.getFileName().toString());
+                        if (pid >= 0 && processManager.isAlive(pid)) {
+                            output.add(new JvmProcessInfo(pid, displayName(pid)));
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to list perf data in {}", tmpDir, e);
+        }
+        return output;
+    }
+
+    private String displayName(long pid) {
+        List<String> args = List.of();
+        if (Config.os == LINUX) {
+            try {
+                var cmdline = Files.readString(Config.PROC_ROOT.resolve(String.valueOf(pid)).resolve("cmdline"));
+                args = List.of(cmdline.split("\0"));
+            } catch (IOException e) {
+                LOG.debug("Failed to read command line of pid {}: {}", pid, e.getMessage());
+            }
+        } else {
+            var info = ProcessHandle.of(pid).map(ProcessHandle::info);
+            var command = info.flatMap(ProcessHandle.Info::command).orElse("");
+            var arguments = info.flatMap(ProcessHandle.Info::arguments).orElse(new String[0]);
+            var output = new ArrayList<String>();
+            output.add(command);
+            output.addAll(List.of(arguments));
+            args = output;
+        }
+        var displayName = JavaCommandLine.displayName(args);
+        return displayName.isEmpty()
+                ? String.valueOf(pid)
+                : displayName;
+    }
+
+    private static JvmProcessListDelta diff(Map<Long, JvmProcessInfo> before, Map<Long, JvmProcessInfo> after) {
+        List<JvmProcessInfo> added = new ArrayList<>();
+        Set<Long> removed = new TreeSet<>();
+        after.forEach((pid, info) -> {
+            if (!info.equals(before.get(pid))) {
+                added.add(info);
+            }
+        });
+        before.forEach((pid, info) -> {
+            if (!after.containsKey(pid)) {
+                removed.add(pid);
+            }
+        });
+        return added.isEmpty() && removed.isEmpty()
+                ? JvmProcessListDelta.EMPTY
+                : new JvmProcessListDelta(false, added, removed);
+    }
+
+    private void closeWatchService() {
+        if (watchService == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            LOG.debug("Failed to close watch service", e);
+        }
+        watchService = null;
+        watchedDirs.clear();
+    }
+
+    private static long parsePid(String fileName) {
+        try {
+            return Long.parseLong(fileName);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public static final JvmDiscoveryImpl INSTANCE = new JvmDiscoveryImpl();
+}
@@ -1,10 +1,12 @@
 package jvmram.process.iml;
 
 import com.sun.tools.attach.VirtualMachine;
+import jvmram.conf.Config;
 import jvmram.process.JvmProcessInfo;
 import jvmram.process.ProcessManager;
+import jvmram.process.ProcessTree;
 
-import java.util.ArrayList;
+import java.nio.file.Files;
 import java.util.List;
 
 public class ProcessManagerImpl implements ProcessManager {
@@ -25,14 +27,17 @@ public class ProcessManagerImpl implements ProcessManager {
 
     @Override
     public List<Long> getProcessDescendantIds(long pid) {
-        List<Long> output = new ArrayList<>();
-        var processHandle = ProcessHandle.of(pid);
-        processHandle.ifPresent(ph ->
-                ph.descendants()
-                        .map(ProcessHandle::pid)
-                        .forEach(output::add)
-        );
-        return output;
+        return ProcessTree.getInstance().getDescendants(pid);
+    }
+
+    @Override
+    public boolean isAlive(long pid) {
+        if (Config.SYNTHETIC_PROC_ROOT) {
+            return Files.isDirectory(Config.PROC_ROOT.resolve(String.valueOf(pid)));
+        }
+        return ProcessHandle.of(pid)
+                .map(ProcessHandle::isAlive)
+                .orElse(false);
     }
 
     public static final ProcessManager INSTANCE = new ProcessManagerImpl();
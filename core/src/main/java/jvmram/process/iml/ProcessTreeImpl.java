@@ -0,0 +1,179 @@
+package jvmram.process.iml;
+
+import jvmram.conf.Config;
+import jvmram.process.ProcessTree;
+import jvmram.process.ProcessTreeDiff;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.*;
+
+import static jvmram.model.metrics.Os.LINUX;
+
+/**
+ * В Linux дерево строится по /proc/[pid]/stat: из него берутся PPid и starttime.
+ * Пара (pid, starttime) отличает новый процесс от завершившегося процесса с тем же pid.
+ * В остальных ОС используется {@link ProcessHandle#allProcesses()}.
+ */
+public class ProcessTreeImpl implements ProcessTree {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final Path PROC = Config.PROC_ROOT;
+
+    private static final int PPID_FIELD = 4;
+    private static final int STARTTIME_FIELD = 22;
+
+    private final Object lock = new Object();
+
+    /**
+     * pid -> родительский pid
+     */
+    private Map<Long, Long> parents = Map.of();
+
+    /**
+     * pid -> момент старта процесса в единицах, принятых в ОС
+     */
+    private Map<Long, Long> startTimes = Map.of();
+
+    private Map<Long, List<Long>> children = Map.of();
+
+    private ProcessTreeImpl() {
+    }
+
+    @Override
+    public ProcessTreeDiff refresh() {
+        var newParents = new HashMap<Long, Long>();
+        var newStartTimes = new HashMap<Long, Long>();
+        if (Config.os == LINUX) {
+            sweepProc(newParents, newStartTimes);
+        } else {
+            sweepProcessHandles(newParents, newStartTimes);
+        }
+
+        var newChildren = new HashMap<Long, List<Long>>();
+        newParents.forEach((pid, ppid) -> newChildren.computeIfAbsent(ppid, p -> new ArrayList<>()).add(pid));
+
+        synchronized (lock) {
+            var diff = diff(newParents, newStartTimes);
+            parents = newParents;
+            startTimes = newStartTimes;
+            children = newChildren;
+            return diff;
+        }
+    }
+
+    /**
+     * Вызывать только под блокировкой.
+     */
+    private ProcessTreeDiff diff(Map<Long, Long> newParents, Map<Long, Long> newStartTimes) {
+        Set<Long> appeared = new HashSet<>();
+        Set<Long> reparented = new HashSet<>();
+        newStartTimes.forEach((pid, startTime) -> {
+            var oldStartTime = startTimes.get(pid);
+            if (!startTime.equals(oldStartTime)) {
+                appeared.add(pid);
+            } else if (!Objects.equals(newParents.get(pid), parents.get(pid))) {
+                reparented.add(pid);
+            }
+        });
+        Set<Long> disappeared = new HashSet<>();
+        startTimes.forEach((pid, startTime) -> {
+            if (!startTime.equals(newStartTimes.get(pid))) {
+                disappeared.add(pid);
+            }
+        });
+        return appeared.isEmpty() && disappeared.isEmpty() && reparented.isEmpty()
+                ? ProcessTreeDiff.EMPTY
+                : new ProcessTreeDiff(appeared, disappeared, reparented);
+    }
+
+    private void sweepProc(Map<Long, Long> parents, Map<Long, Long> startTimes) {
+        try (var entries = Files.newDirectoryStream(PROC)) {
+            for (var entry : entries) {
+                var name = entry.getFileName().toString();
+                if (!isNumeric(name)) {
+                    continue;
+                }
+                readStat(Long.parseLong(name), entry.resolve("stat"), parents, startTimes);
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to list {}", PROC, e);
+        }
+    }
+
+    private void readStat(long pid, Path statPath, Map<Long, Long> parents, Map<Long, Long> startTimes) {
+        String stat;
+        try {
+            stat = Files.readString(statPath);
+        } catch (IOException e) {
+            // процесс завершился во время обхода
+            return;
+        }
+        // Имя процесса в скобках может содержать пробелы и скобки, поэтому поля отсчитываются от последней ')'
+        var fieldStart = stat.lastIndexOf(')') + 2;
+        if (fieldStart < 2) {
+            LOG.debug("Unexpected format of {}", statPath);
+            return;
+        }
+        var ppid = -1L;
+        var field = 3;
+        var position = fieldStart;
+        while (position < stat.length() && field <= STARTTIME_FIELD) {
+            var end = stat.indexOf(' ', position);
+            if (end < 0) {
+                end = stat.length();
+            }
+            if (field == PPID_FIELD) {
+                ppid = Long.parseLong(stat, position, end, 10);
+            } else if (field == STARTTIME_FIELD) {
+                parents.put(pid, ppid);
+                startTimes.put(pid, Long.parseLong(stat, position, end, 10));
+                return;
+            }
+            field++;
+            position = end + 1;
+        }
+        LOG.debug("Unexpected format of {}", statPath);
+    }
+
+    private void sweepProcessHandles(Map<Long, Long> parents, Map<Long, Long> startTimes) {
+        ProcessHandle.allProcesses().forEach(ph -> {
+            startTimes.put(ph.pid(), ph.info().startInstant().map(Instant::toEpochMilli).orElse(-1L));
+            ph.parent().ifPresent(parent -> parents.put(ph.pid(), parent.pid()));
+        });
+    }
+
+    @Override
+    public List<Long> getDescendants(long pid) {
+        synchronized (lock) {
+            List<Long> output = new ArrayList<>();
+            Deque<Long> toVisit = new ArrayDeque<>(children.getOrDefault(pid, List.of()));
+            while (!toVisit.isEmpty()) {
+                var child = toVisit.poll();
+                output.add(child);
+                toVisit.addAll(children.getOrDefault(child, List.of()));
+            }
+            return output;
+        }
+    }
+
+    private static boolean isNumeric(String name) {
+        if (name.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (!Character.isDigit(name.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static final ProcessTreeImpl INSTANCE = new ProcessTreeImpl();
+}
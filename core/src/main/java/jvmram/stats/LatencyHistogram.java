@@ -0,0 +1,101 @@
+package jvmram.stats;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Гистограмма длительностей с логарифмическими корзинами, как в HdrHistogram:
+ * каждая степень двойки делится на {@link #SUB_BUCKETS} равных корзин, поэтому относительная погрешность
+ * значения не превышает 1/{@link #SUB_BUCKETS} во всём диапазоне long.
+ * <p>
+ * Корзины — полосатые счётчики {@link LongAdder}: запись стоит единицы наносекунд,
+ * не выделяет память и не блокирует другие потоки.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @param nanos длительность; отрицательные значения считаются нулём
+     */
+    public void record(long nanos) {
+        var value = Math.max(0, nanos);
+        counts[index(value)].increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Снимок не атомарен относительно параллельных записей, но каждая запись в него либо попадает, либо нет.
+     */
+    public LatencySnapshot snapshot() {
+        var snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts[i].sum();
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return LatencySnapshot.EMPTY;
+        }
+        var maxValue = max.get();
+        return new LatencySnapshot(
+                count,
+                sum.sum() / count,
+                percentile(snapshot, count, 0.5, maxValue),
+                percentile(snapshot, count, 0.9, maxValue),
+                percentile(snapshot, count, 0.99, maxValue),
+                maxValue
+        );
+    }
+
+    private static long percentile(long[] snapshot, long count, double share, long maxValue) {
+        var rank = (long) Math.ceil(share * count);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    private static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        var exponent = 63 - Long.numberOfLeadingZeros(value);
+        var subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @return наибольшее значение, попадающее в корзину
+     */
+    private static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        var exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        var subBucket = index % SUB_BUCKETS;
+        var shift = exponent - SUB_BUCKET_BITS;
+        var next = (long) (SUB_BUCKETS + subBucket + 1) << shift;
+        // верхняя корзина упирается в Long.MAX_VALUE
+        return next <= 0
+                ? Long.MAX_VALUE
+                : next - 1;
+    }
+}
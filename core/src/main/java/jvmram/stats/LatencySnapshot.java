@@ -0,0 +1,9 @@
+package jvmram.stats;
+
+/**
+ * Снимок {@link LatencyHistogram}. Перцентили — верхние границы корзин, то есть оценки сверху.
+ */
+public record LatencySnapshot(long count, long meanNanos, long p50Nanos, long p90Nanos, long p99Nanos, long maxNanos) {
+
+    public static final LatencySnapshot EMPTY = new LatencySnapshot(0, 0, 0, 0, 0, 0);
+}
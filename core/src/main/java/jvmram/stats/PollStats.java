@@ -0,0 +1,35 @@
+package jvmram.stats;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счётчики опросов одного вида Поставщиков данных, общие для всех его экземпляров.
+ */
+public final class PollStats {
+
+    private final String supplier;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder cpuNanos = new LongAdder();
+
+    public PollStats(String supplier) {
+        this.supplier = supplier;
+    }
+
+    /**
+     * @param nanos    сколько длился опрос
+     * @param cpuNanos сколько процессорного времени потока занял опрос
+     * @param success  удалось ли получить данные
+     */
+    public void recordPoll(long nanos, long cpuNanos, boolean success) {
+        latency.record(nanos);
+        this.cpuNanos.add(cpuNanos);
+        if (!success) {
+            failures.increment();
+        }
+    }
+
+    public PollStatsSnapshot snapshot() {
+        return new PollStatsSnapshot(supplier, failures.sum(), cpuNanos.sum(), latency.snapshot());
+    }
+}
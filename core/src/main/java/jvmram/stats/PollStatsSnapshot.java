@@ -0,0 +1,10 @@
+package jvmram.stats;
+
+/**
+ * @param supplier вид Поставщика данных
+ * @param failures сколько опросов не дали данных
+ * @param cpuNanos сколько процессорного времени потоков опроса заняли все опросы
+ * @param latency  длительности всех опросов; число опросов — {@link LatencySnapshot#count()}
+ */
+public record PollStatsSnapshot(String supplier, long failures, long cpuNanos, LatencySnapshot latency) {
+}
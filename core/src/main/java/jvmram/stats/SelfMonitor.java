@@ -0,0 +1,32 @@
+package jvmram.stats;
+
+import jvmram.stats.impl.SelfMonitorImpl;
+
+/**
+ * Самонаблюдение бэкенда: сколько стоят опросы и такты, сколько памяти держат графики.
+ * Те же данные периодически пишутся событиями JFR категории JvmRamCost.
+ */
+public interface SelfMonitor {
+
+    /**
+     * Счётчики опросов вида Поставщиков данных. Запрашиваются один раз при создании Поставщика.
+     *
+     * @param supplier вид Поставщика
+     * @return общие для вида счётчики
+     */
+    PollStats pollStats(String supplier);
+
+    /**
+     * Учесть такт опроса метрик.
+     *
+     * @param lagNanos      насколько такт начался позже расписания
+     * @param durationNanos сколько длился такт
+     */
+    void recordTick(long lagNanos, long durationNanos);
+
+    SelfStats snapshot();
+
+    static SelfMonitor getInstance() {
+        return SelfMonitorImpl.INSTANCE;
+    }
+}
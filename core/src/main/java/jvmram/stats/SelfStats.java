@@ -0,0 +1,30 @@
+package jvmram.stats;
+
+import jvmram.model.graph.GraphPointQueuesStats;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Во что обходится сам монитор.
+ *
+ * @param suppliers     опросы по видам Поставщиков данных
+ * @param schedulerLag  насколько такты опроса запаздывают относительно расписания
+ * @param tickDuration  сколько длятся такты опроса
+ * @param queues        сколько данных держат очереди графиков
+ * @param cpuTime       процессорное время бэкенда с момента запуска
+ * @param rssBytes      RSS (Working Set в Windows) бэкенда или -1, если не удалось узнать
+ * @param heapUsedBytes занятый heap бэкенда
+ * @param uptime        время работы бэкенда
+ */
+public record SelfStats(
+        List<PollStatsSnapshot> suppliers,
+        LatencySnapshot schedulerLag,
+        LatencySnapshot tickDuration,
+        GraphPointQueuesStats queues,
+        Duration cpuTime,
+        long rssBytes,
+        long heapUsedBytes,
+        Duration uptime
+) {
+}
@@ -0,0 +1,51 @@
+package jvmram.stats.impl;
+
+import jdk.jfr.*;
+import jvmram.stats.SelfStats;
+
+@Name("jvmram.BackendStats")
+@Label("Backend Statistics")
+@Description("Во что обходится сам монитор")
+@Category("JvmRamCost")
+@Period("5 s")
+@StackTrace(false)
+class BackendStatsEvent extends Event {
+
+    @Label("Scheduler Lag P99")
+    @Timespan
+    long schedulerLagP99;
+
+    @Label("Tick Duration P99")
+    @Timespan
+    long tickDurationP99;
+
+    @Label("Queues")
+    int queues;
+
+    @Label("Queued Points")
+    long queuedPoints;
+
+    @Label("Queues Retained Memory")
+    @DataAmount
+    long queuesRetainedBytes;
+
+    @Label("CPU Time")
+    @Timespan
+    long cpuTime;
+
+    @Label("RSS")
+    @DataAmount
+    long rss;
+
+    static void emit(SelfStats stats) {
+        var event = new BackendStatsEvent();
+        event.schedulerLagP99 = stats.schedulerLag().p99Nanos();
+        event.tickDurationP99 = stats.tickDuration().p99Nanos();
+        event.queues = stats.queues().series();
+        event.queuedPoints = stats.queues().points();
+        event.queuesRetainedBytes = stats.queues().retainedBytes();
+        event.cpuTime = stats.cpuTime().toNanos();
+        event.rss = stats.rssBytes();
+        event.commit();
+    }
+}
@@ -0,0 +1,27 @@
+package jvmram.stats.impl;
+
+import jdk.jfr.*;
+
+@Name("jvmram.SamplingTick")
+@Label("Sampling Tick")
+@Description("Такт опроса метрик всех отслеживаемых процессов")
+@Category("JvmRamCost")
+@StackTrace(false)
+class SamplingTickEvent extends Event {
+
+    @Label("Lag")
+    @Description("Насколько такт начался позже расписания")
+    @Timespan
+    long lag;
+
+    @Label("Tick Duration")
+    @Timespan
+    long tickDuration;
+
+    static void emit(long lagNanos, long durationNanos) {
+        var event = new SamplingTickEvent();
+        event.lag = lagNanos;
+        event.tickDuration = durationNanos;
+        event.commit();
+    }
+}
@@ -0,0 +1,109 @@
+package jvmram.stats.impl;
+
+import com.sun.management.OperatingSystemMXBean;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jvmram.model.graph.GraphPointQueuesWritable;
+import jvmram.stats.LatencyHistogram;
+import jvmram.stats.PollStats;
+import jvmram.stats.SelfMonitor;
+import jvmram.stats.SelfStats;
+import jvmram.suppliers.HardwareDataSupplier;
+import jvmram.suppliers.HardwareDataSuppliersFactory;
+import jvmram.suppliers.data.HardwareData;
+import jvmram.suppliers.data.MemInfoData;
+import jvmram.suppliers.data.WinData;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Счётчики пишутся из потоков опроса и читаются по запросу или по расписанию JFR,
+ * поэтому они полосатые и не блокируют друг друга.
+ */
+public class SelfMonitorImpl implements SelfMonitor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private final Map<String, PollStats> pollStats = new ConcurrentHashMap<>();
+    private final LatencyHistogram schedulerLag = new LatencyHistogram();
+    private final LatencyHistogram tickDuration = new LatencyHistogram();
+
+    private final @Nullable EventType tickEventType;
+
+    private @Nullable HardwareDataSupplier<? extends HardwareData> ownMemorySupplier;
+
+    private SelfMonitorImpl() {
+        tickEventType = registerJfrEvents();
+    }
+
+    private @Nullable EventType registerJfrEvents() {
+        try {
+            FlightRecorder.addPeriodicEvent(BackendStatsEvent.class, () -> BackendStatsEvent.emit(snapshot()));
+            FlightRecorder.addPeriodicEvent(SupplierPollStatsEvent.class, () -> SupplierPollStatsEvent.emit(snapshot()));
+            return EventType.getEventType(SamplingTickEvent.class);
+        } catch (RuntimeException | LinkageError e) {
+            LOG.warn("JFR events are not available: {}", e.toString());
+            return null;
+        }
+    }
+
+    @Override
+    public PollStats pollStats(String supplier) {
+        return pollStats.computeIfAbsent(supplier, PollStats::new);
+    }
+
+    @Override
+    public void recordTick(long lagNanos, long durationNanos) {
+        schedulerLag.record(lagNanos);
+        tickDuration.record(durationNanos);
+        if (tickEventType != null && tickEventType.isEnabled()) {
+            SamplingTickEvent.emit(lagNanos, durationNanos);
+        }
+    }
+
+    @Override
+    public SelfStats snapshot() {
+        var suppliers = pollStats.values().stream()
+                .map(PollStats::snapshot)
+                .sorted(Comparator.comparing(s -> s.supplier()))
+                .toList();
+        var cpuTime = ManagementFactory.getOperatingSystemMXBean() instanceof OperatingSystemMXBean os
+                ? Duration.ofNanos(Math.max(0, os.getProcessCpuTime()))
+                : Duration.ZERO;
+        return new SelfStats(
+                suppliers,
+                schedulerLag.snapshot(),
+                tickDuration.snapshot(),
+                GraphPointQueuesWritable.getInstance().stats(),
+                cpuTime,
+                ownRssBytes(),
+                ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(),
+                Duration.ofMillis(ManagementFactory.getRuntimeMXBean().getUptime())
+        );
+    }
+
+    private synchronized long ownRssBytes() {
+        if (ownMemorySupplier == null) {
+            ownMemorySupplier = HardwareDataSuppliersFactory.getInstance().createOwnMemorySupplier();
+        }
+        ownMemorySupplier.measureAndStore();
+        var data = ownMemorySupplier.getStoredData();
+        if (data instanceof MemInfoData memInfo) {
+            return memInfo.rss();
+        }
+        if (data instanceof WinData win) {
+            return win.ws();
+        }
+        return -1;
+    }
+
+    public static final SelfMonitorImpl INSTANCE = new SelfMonitorImpl();
+}
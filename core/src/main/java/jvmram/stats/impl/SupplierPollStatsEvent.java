@@ -0,0 +1,53 @@
+package jvmram.stats.impl;
+
+import jdk.jfr.*;
+import jvmram.stats.SelfStats;
+
+@Name("jvmram.SupplierPollStats")
+@Label("Supplier Poll Statistics")
+@Description("Накопленная статистика опросов вида Поставщиков данных")
+@Category("JvmRamCost")
+@Period("5 s")
+@StackTrace(false)
+class SupplierPollStatsEvent extends Event {
+
+    @Label("Supplier")
+    String supplier;
+
+    @Label("Polls")
+    long polls;
+
+    @Label("Failures")
+    long failures;
+
+    @Label("CPU Time")
+    @Timespan
+    long cpuTime;
+
+    @Label("Mean")
+    @Timespan
+    long mean;
+
+    @Label("P99")
+    @Timespan
+    long p99;
+
+    @Label("Max")
+    @Timespan
+    long max;
+
+    static void emit(SelfStats stats) {
+        for (var supplierStats : stats.suppliers()) {
+            var latency = supplierStats.latency();
+            var event = new SupplierPollStatsEvent();
+            event.supplier = supplierStats.supplier();
+            event.polls = latency.count();
+            event.failures = supplierStats.failures();
+            event.cpuTime = supplierStats.cpuNanos();
+            event.mean = latency.meanNanos();
+            event.p99 = latency.p99Nanos();
+            event.max = latency.maxNanos();
+            event.commit();
+        }
+    }
+}
@@ -1,39 +1,65 @@
 package jvmram.suppliers;
 
+import jvmram.stats.PollStats;
+import jvmram.stats.SelfMonitor;
 import jvmram.suppliers.data.HardwareData;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.invoke.MethodHandles;
-import java.time.Instant;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static jvmram.model.util.WallClock.nowEpochNanos;
 
 abstract class AbstractDataSupplier<T extends HardwareData> implements HardwareDataSupplier<T> {
     private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean THREAD_CPU_TIME = THREADS.isCurrentThreadCpuTimeSupported();
+
     final long pid;
+    private final PollStats pollStats = SelfMonitor.getInstance().pollStats(getClass().getSimpleName());
 
     private boolean initialized;
-    private Instant lastPollInstant;
-    private T stored;
+    private long lastPollEpochNanos = NEVER_POLLED;
+    private long tickEpochNanos = NEVER_POLLED;
+    private volatile long pollCpuNanos;
+    private volatile int intervalStretch = 1;
+    private @Nullable T stored;
+
+    private volatile long lastDemandNanos = System.nanoTime();
+    private final AtomicBoolean released = new AtomicBoolean();
 
     AbstractDataSupplier(long pid) {
         this.pid = pid;
     }
 
     @Override
-    public void measureAndStore() {
-        if (!initialized) {
+    public void measureAndStore(long tickEpochNanos) {
+        if (!initialized || released.get()) {
             return;
         }
 
-        lastPollInstant = Instant.now();
+        this.tickEpochNanos = tickEpochNanos;
+        lastPollEpochNanos = nowEpochNanos();
 
+        var start = System.nanoTime();
+        var cpuStart = currentThreadCpuNanos();
         try {
             stored = doGetData();
         } catch (Exception e) {
             LOG.error("Error getting data for pid {}", pid);
             stored = null;
         }
+        var cpuNanos = currentThreadCpuNanos() - cpuStart;
+        pollCpuNanos += cpuNanos;
+        pollStats.recordPoll(System.nanoTime() - start, cpuNanos, stored != null);
+    }
+
+    private static long currentThreadCpuNanos() {
+        return THREAD_CPU_TIME ? THREADS.getCurrentThreadCpuTime() : 0;
     }
 
     @Override
@@ -44,9 +70,60 @@ abstract class AbstractDataSupplier<T extends HardwareData> implements HardwareD
         return stored;
     }
 
-        @Override
-    public @Nullable Instant lastPollInstant() {
-        return lastPollInstant;
+    @Override
+    public long lastPollEpochNanos() {
+        return lastPollEpochNanos;
+    }
+
+    @Override
+    public long pollCpuNanos() {
+        return pollCpuNanos;
+    }
+
+    @Override
+    public int intervalStretch() {
+        return intervalStretch;
+    }
+
+    @Override
+    public void setIntervalStretch(int stretch) {
+        intervalStretch = Math.max(1, stretch);
+    }
+
+    @Override
+    public void markDemand() {
+        lastDemandNanos = System.nanoTime();
+    }
+
+    @Override
+    public boolean isReleased() {
+        return released.get();
+    }
+
+    /**
+     * @param graceNanos сколько наносекунд Поставщик может быть не нужен
+     * @return давно ли Поставщик никому не нужен
+     */
+    boolean isIdle(long graceNanos) {
+        return System.nanoTime() - lastDemandNanos > graceNanos;
+    }
+
+    /**
+     * Освободить Поставщика и связанные с ним ресурсы.
+     */
+    void release() {
+        // ресурсы вроде общего JMX-подключения отпускаются ровно один раз
+        if (!released.compareAndSet(false, true)) {
+            return;
+        }
+        stored = null;
+        releaseResources();
+    }
+
+    /**
+     * Метод для переопределения в потомках, которые держат внешние ресурсы.
+     */
+    void releaseResources() {
     }
 
     /**
@@ -57,5 +134,21 @@ abstract class AbstractDataSupplier<T extends HardwareData> implements HardwareD
         this.initialized = true;
     }
 
-    abstract T doGetData();
+    boolean isInitialized() {
+        return initialized;
+    }
+
+    /**
+     * @return момент начала такта, на котором идёт текущий опрос
+     */
+    long tickEpochNanos() {
+        return tickEpochNanos;
+    }
+
+    /**
+     * Измерить данные.
+     *
+     * @return объект данных Поставщика, заполненный заново, либо null, если измерить не удалось
+     */
+    abstract @Nullable T doGetData();
 }
@@ -5,20 +5,27 @@ import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
+/**
+ * Файл открывается один раз и перечитывается при каждом опросе через {@link ReusableFileReader}.
+ * Строки разбираются прямо в буфере, без создания строк, поэтому опрос не выделяет память.
+ */
 abstract class AbstractFileReaderSupplier<T extends HardwareData> extends AbstractDataSupplier<T> {
     private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
     private final Path filePath;
+    private final ReusableFileReader reader;
+    private final LineParser lineParser = this::parseLine;
 
     AbstractFileReaderSupplier(long pid, Path filePath) {
         super(pid);
         this.filePath = filePath;
+        this.reader = new ReusableFileReader(filePath);
     }
 
     @Override
@@ -32,23 +39,16 @@ abstract class AbstractFileReaderSupplier<T extends HardwareData> extends Abstra
 
     @Override
     @Nullable T doGetData() {
-        startFileParse();
-        try (var fr = new FileReader(filePath.toFile()); var br = new BufferedReader(fr)) {
-            while (true) {
-                var line = br.readLine();
-                if (line == null) {
-                    // EOF
-                    break;
-                }
-                var proceed = parseLine(line);
-                if ( !proceed) {
-                    break;
-                }
-            }
+        int length;
+        try {
+            length = reader.read();
         } catch (IOException e) {
             LOG.info("Exception reading RAM data from {}. The process {} is probably already closed.", filePath, pid);
             return null;
         }
+
+        startFileParse();
+        forEachLine(reader.bytes(), length, lineParser);
         var parsed = parsedData();
         if (parsed == null) {
             LOG.info("Unable to extract complete RAM data from {}. The process {} was probably closed on the way.", filePath, pid);
@@ -56,18 +56,25 @@ abstract class AbstractFileReaderSupplier<T extends HardwareData> extends Abstra
         return parsed;
     }
 
+    @Override
+    void releaseResources() {
+        reader.close();
+    }
+
     /**
      * Метод для инициализации внутренней структуры Поставщика.
      */
     abstract void startFileParse();
 
     /**
-     * Извлекает данные из текстовой строки и пополняет знание о возвращаемом значении.
+     * Извлекает данные из строки файла и пополняет знание о возвращаемом значении.
      *
-     * @param input -- строка данных для исследования
+     * @param line буфер с содержимым файла
+     * @param from начало строки
+     * @param to   конец строки (не включительно, без перевода строки)
      * @return надо ли продолжать читать файл.
      */
-    abstract boolean parseLine(String input);
+    abstract boolean parseLine(byte[] line, int from, int to);
 
     /**
      * Отдаёт распознанное значение.
@@ -76,29 +83,100 @@ abstract class AbstractFileReaderSupplier<T extends HardwareData> extends Abstra
      */
     abstract @Nullable T parsedData();
 
+    /**
+     * Разбор строки файла.
+     */
+    @FunctionalInterface
+    interface LineParser {
+        /**
+         * @param line буфер с содержимым файла
+         * @param from начало строки
+         * @param to   конец строки (не включительно, без перевода строки)
+         * @return надо ли продолжать читать файл.
+         */
+        boolean parseLine(byte[] line, int from, int to);
+    }
+
+    /**
+     * Метод для использования в потомках и соседях.
+     * Передаёт строки буфера разборщику, пока тот просит продолжать.
+     */
+    static void forEachLine(byte[] bytes, int length, LineParser parser) {
+        var lineStart = 0;
+        while (lineStart < length) {
+            var lineEnd = lineStart;
+            while (lineEnd < length && bytes[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            if (!parser.parseLine(bytes, lineStart, lineEnd)) {
+                return;
+            }
+            lineStart = lineEnd + 1;
+        }
+    }
+
     /**
      * Метод для использования в потомках.
-     * Возвращает строковое значение в строке после префикса, ограниченное пробелом.
-     *
-     * @param line - входная строка
-     * @param prefix - префикс или первое значение, которое нужно выкинуть.
-     * @return - второе после префикса значение
+     * Подготавливает префикс строки для {@link #startsWith}.
      */
-    String secondItem(String line, String prefix) {
-        line = line.substring(prefix.length() + 1);
-        line = line.trim();
-        int next_space = line.indexOf(" ");
-        return line.substring(0, next_space);
+    static byte[] prefix(String prefix) {
+        return prefix.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Метод для использования в потомках.
+     * Начинается ли строка с префикса.
+     */
+    static boolean startsWith(byte[] line, int from, int to, byte[] prefix) {
+        if (to - from < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (line[from + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
      * Метод для использования в потомках.
-     * Конвертирует килобайты в байты.
+     * Возвращает первое число после префикса, переведённое из килобайт в байты.
      *
-     * @param inputInKilobytes - килобайты на входе.
-     * @return - байты на выходе
+     * @param line   буфер с содержимым файла
+     * @param from   начало строки
+     * @param to     конец строки
+     * @param prefix префикс или первое значение, которое нужно выкинуть.
+     * @return байты либо -1, если числа после префикса нет
      */
-    long kilobytesToBytes(String inputInKilobytes) {
-        return Long.parseLong(inputInKilobytes) * 1024;
+    static long kilobytesAfterPrefix(byte[] line, int from, int to, byte[] prefix) {
+        var kilobytes = numberAfterPrefix(line, from, to, prefix);
+        return kilobytes < 0 ? -1 : kilobytes * 1024;
+    }
+
+    /**
+     * Метод для использования в потомках и соседях.
+     * Возвращает первое неотрицательное целое после префикса как есть.
+     *
+     * @param line   буфер с содержимым файла
+     * @param from   начало строки
+     * @param to     конец строки
+     * @param prefix префикс или первое значение, которое нужно выкинуть.
+     * @return число либо -1, если числа после префикса нет
+     */
+    static long numberAfterPrefix(byte[] line, int from, int to, byte[] prefix) {
+        var position = from + prefix.length;
+        while (position < to && (line[position] == ' ' || line[position] == '\t')) {
+            position++;
+        }
+        if (position >= to || line[position] < '0' || line[position] > '9') {
+            return -1;
+        }
+        long number = 0;
+        while (position < to && line[position] >= '0' && line[position] <= '9') {
+            number = number * 10 + (line[position] - '0');
+            position++;
+        }
+        return number;
     }
 }
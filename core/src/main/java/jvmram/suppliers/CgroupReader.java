@@ -0,0 +1,184 @@
+package jvmram.suppliers;
+
+import jvmram.suppliers.data.CgroupData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.file.Path;
+
+import static jvmram.suppliers.AbstractFileReaderSupplier.forEachLine;
+import static jvmram.suppliers.AbstractFileReaderSupplier.numberAfterPrefix;
+import static jvmram.suppliers.AbstractFileReaderSupplier.prefix;
+import static jvmram.suppliers.AbstractFileReaderSupplier.startsWith;
+
+/**
+ * Файлы учёта памяти одной cgroup v2, общие для всех её процессов.
+ * Поставщики процессов одной cgroup опрашиваются в одном такте, поэтому файлы читаются один раз за такт,
+ * а результат раздаётся всем.
+ */
+final class CgroupReader {
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final byte[] NO_PREFIX = new byte[0];
+    private static final byte[] UNLIMITED = prefix("max");
+
+    private static final byte[] ANON = prefix("anon ");
+    private static final byte[] FILE = prefix("file ");
+    private static final byte[] KERNEL = prefix("kernel ");
+    private static final byte[] KERNEL_STACK = prefix("kernel_stack ");
+    private static final byte[] PAGE_TABLES = prefix("pagetables ");
+    private static final byte[] PERCPU = prefix("percpu ");
+    private static final byte[] SLAB = prefix("slab ");
+    private static final byte[] SOCK = prefix("sock ");
+    private static final byte[] SHMEM = prefix("shmem ");
+
+    private static final byte[] HIGH = prefix("high ");
+    private static final byte[] MAX = prefix("max ");
+    private static final byte[] OOM = prefix("oom ");
+    private static final byte[] OOM_KILL = prefix("oom_kill ");
+
+    private final Path directory;
+    private final ReusableFileReader currentFile;
+    private final ReusableFileReader maxFile;
+    private final ReusableFileReader statFile;
+    private final ReusableFileReader eventsFile;
+
+    private final AbstractFileReaderSupplier.LineParser statParser = this::parseStatLine;
+    private final AbstractFileReaderSupplier.LineParser eventsParser = this::parseEventsLine;
+
+    /**
+     * Сколько Поставщиков пользуются файлами. Меняется только под блокировкой {@link CgroupReaders}.
+     */
+    int users;
+
+    private boolean everRead;
+    private boolean lastReadOk;
+    private boolean eventsRead;
+    private long lastReadTick;
+
+    private long current;
+    private long max;
+    private long anon;
+    private long file;
+    private long kernel;
+    private long kernelParts;
+    private long sock;
+    private long shmem;
+    private long highEvents;
+    private long maxEvents;
+    private long oomEvents;
+    private long oomKillEvents;
+
+    CgroupReader(Path directory) {
+        this.directory = directory;
+        this.currentFile = new ReusableFileReader(directory.resolve("memory.current"), 64);
+        this.maxFile = new ReusableFileReader(directory.resolve("memory.max"), 64);
+        this.statFile = new ReusableFileReader(directory.resolve("memory.stat"));
+        this.eventsFile = new ReusableFileReader(directory.resolve("memory.events"), 256);
+    }
+
+    Path directory() {
+        return directory;
+    }
+
+    /**
+     * Заполнить данные Поставщика, перечитав файлы cgroup, если их ещё не прочитали в этом такте.
+     *
+     * @param tickEpochNanos момент начала такта, на котором опрашивается Поставщик
+     * @return удалось ли прочитать файлы
+     */
+    synchronized boolean copyTo(CgroupData data, long tickEpochNanos) {
+        if (!everRead || tickEpochNanos != lastReadTick) {
+            everRead = true;
+            lastReadTick = tickEpochNanos;
+            lastReadOk = readAll();
+        }
+        if (!lastReadOk) {
+            return false;
+        }
+        data.setMemory(current, max);
+        data.setStat(anon, file, kernel, sock, shmem);
+        data.setEvents(highEvents, maxEvents, oomEvents, oomKillEvents);
+        return true;
+    }
+
+    private boolean readAll() {
+        // первое чтение только запоминает, сколько раз OOM killer срабатывал до начала наблюдения
+        var previousOomKills = eventsRead ? oomKillEvents : Long.MAX_VALUE;
+        try {
+            var length = currentFile.read();
+            current = numberAfterPrefix(currentFile.bytes(), 0, length, NO_PREFIX);
+
+            length = maxFile.read();
+            max = startsWith(maxFile.bytes(), 0, length, UNLIMITED)
+                    ? -1
+                    : numberAfterPrefix(maxFile.bytes(), 0, length, NO_PREFIX);
+
+            anon = file = kernel = sock = shmem = -1;
+            kernelParts = 0;
+            length = statFile.read();
+            forEachLine(statFile.bytes(), length, statParser);
+            if (kernel < 0) {
+                // до Linux 5.18 в memory.stat нет общего счётчика памяти ядра
+                kernel = kernelParts;
+            }
+
+            length = eventsFile.read();
+            forEachLine(eventsFile.bytes(), length, eventsParser);
+            eventsRead = true;
+        } catch (IOException e) {
+            LOG.info("Exception reading memory accounting of cgroup {}. The cgroup is probably already removed.", directory);
+            return false;
+        }
+
+        if (oomKillEvents > previousOomKills) {
+            LOG.warn("OOM killer fired in cgroup {}: {} kills in total", directory, oomKillEvents);
+        }
+        return current >= 0 && anon >= 0 && file >= 0;
+    }
+
+    private boolean parseStatLine(byte[] line, int from, int to) {
+        if (startsWith(line, from, to, ANON)) {
+            anon = numberAfterPrefix(line, from, to, ANON);
+        } else if (startsWith(line, from, to, FILE)) {
+            file = numberAfterPrefix(line, from, to, FILE);
+        } else if (startsWith(line, from, to, KERNEL)) {
+            kernel = numberAfterPrefix(line, from, to, KERNEL);
+        } else if (startsWith(line, from, to, KERNEL_STACK)) {
+            kernelParts += Math.max(0, numberAfterPrefix(line, from, to, KERNEL_STACK));
+        } else if (startsWith(line, from, to, PAGE_TABLES)) {
+            kernelParts += Math.max(0, numberAfterPrefix(line, from, to, PAGE_TABLES));
+        } else if (startsWith(line, from, to, PERCPU)) {
+            kernelParts += Math.max(0, numberAfterPrefix(line, from, to, PERCPU));
+        } else if (startsWith(line, from, to, SLAB)) {
+            kernelParts += Math.max(0, numberAfterPrefix(line, from, to, SLAB));
+        } else if (startsWith(line, from, to, SOCK)) {
+            sock = numberAfterPrefix(line, from, to, SOCK);
+        } else if (startsWith(line, from, to, SHMEM)) {
+            shmem = numberAfterPrefix(line, from, to, SHMEM);
+        }
+        return true;
+    }
+
+    private boolean parseEventsLine(byte[] line, int from, int to) {
+        if (startsWith(line, from, to, HIGH)) {
+            highEvents = numberAfterPrefix(line, from, to, HIGH);
+        } else if (startsWith(line, from, to, MAX)) {
+            maxEvents = numberAfterPrefix(line, from, to, MAX);
+        } else if (startsWith(line, from, to, OOM)) {
+            oomEvents = numberAfterPrefix(line, from, to, OOM);
+        } else if (startsWith(line, from, to, OOM_KILL)) {
+            oomKillEvents = numberAfterPrefix(line, from, to, OOM_KILL);
+        }
+        return true;
+    }
+
+    synchronized void close() {
+        currentFile.close();
+        maxFile.close();
+        statFile.close();
+        eventsFile.close();
+    }
+}
@@ -0,0 +1,33 @@
+package jvmram.suppliers;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Раздаёт Поставщикам общие {@link CgroupReader} по каталогу cgroup
+ * и закрывает файлы, когда последний Поставщик cgroup освобождён.
+ */
+final class CgroupReaders {
+
+    private final Map<Path, CgroupReader> readers = new HashMap<>();
+
+    private CgroupReaders() {
+    }
+
+    synchronized CgroupReader acquire(Path directory) {
+        var reader = readers.computeIfAbsent(directory, CgroupReader::new);
+        reader.users++;
+        return reader;
+    }
+
+    synchronized void release(CgroupReader reader) {
+        if (--reader.users > 0) {
+            return;
+        }
+        readers.remove(reader.directory());
+        reader.close();
+    }
+
+    static final CgroupReaders INSTANCE = new CgroupReaders();
+}
@@ -0,0 +1,86 @@
+package jvmram.suppliers;
+
+import jvmram.conf.Config;
+import jvmram.suppliers.data.CgroupData;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static jvmram.model.metrics.Os.LINUX;
+
+/**
+ * Учёт памяти cgroup v2, в которой работает процесс.
+ * Cgroup определяется один раз по /proc/[pid]/cgroup; файлы cgroup читаются через общий для её процессов {@link CgroupReader}.
+ */
+class CgroupSupplier extends AbstractDataSupplier<CgroupData> {
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final String UNIFIED_HIERARCHY_PREFIX = "0::";
+
+    private final CgroupData data = new CgroupData();
+    private @Nullable CgroupReader reader;
+
+    CgroupSupplier(long pid) {
+        super(pid);
+        if (Config.os != LINUX) {
+            LOG.error("The supplier is intended for use in Linux OS only");
+            return;
+        }
+        var directory = resolveCgroup(pid);
+        if (directory != null) {
+            reader = CgroupReaders.INSTANCE.acquire(directory);
+            setInitialized();
+        }
+    }
+
+    private static @Nullable Path resolveCgroup(long pid) {
+        var cgroupFile = Config.PROC_ROOT.resolve(String.valueOf(pid)).resolve("cgroup");
+        String relative = null;
+        try {
+            for (var line : Files.readAllLines(cgroupFile)) {
+                if (line.startsWith(UNIFIED_HIERARCHY_PREFIX)) {
+                    relative = line.substring(UNIFIED_HIERARCHY_PREFIX.length());
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            LOG.info("Failed to read {}. The process {} is probably already closed.", cgroupFile, pid);
+            return null;
+        }
+        if (relative == null) {
+            LOG.info("The process {} is not in a cgroup v2 hierarchy", pid);
+            return null;
+        }
+
+        var directory = Config.CGROUP_ROOT.resolve(relative.startsWith("/") ? relative.substring(1) : relative);
+        if (!Files.exists(directory.resolve("memory.current"))) {
+            // корневая cgroup и cgroup без контроллера памяти не ведут учёт
+            LOG.info("No memory accounting in cgroup {} of the process {}", directory, pid);
+            return null;
+        }
+        return directory;
+    }
+
+    @Override
+    @Nullable CgroupData doGetData() {
+        var current = reader;
+        if (current == null || !current.copyTo(data, tickEpochNanos())) {
+            return null;
+        }
+        return data;
+    }
+
+    @Override
+    void releaseResources() {
+        var current = reader;
+        reader = null;
+        if (current != null) {
+            CgroupReaders.INSTANCE.release(current);
+        }
+    }
+}
@@ -3,7 +3,7 @@ package jvmram.suppliers;
 import jvmram.suppliers.data.HardwareData;
 import org.jspecify.annotations.Nullable;
 
-import java.time.Instant;
+import static jvmram.model.util.WallClock.nowEpochNanos;
 
 /**
  * Измеряет и хранит последнее измерение данных о потреблении RAM в том или ином аспекте от ОС.
@@ -13,22 +13,76 @@ import java.time.Instant;
  */
 public interface HardwareDataSupplier<T extends HardwareData> {
 
+    /**
+     * Значение {@link #lastPollEpochNanos()}, если запросов к ОС ещё не было.
+     */
+    long NEVER_POLLED = -1;
+
     /**
      * Получить запомненное значение.
+     * Поставщик перезаписывает один и тот же объект данных при каждом опросе,
+     * поэтому его нельзя хранить между опросами.
      *
      * @return возвращает ненулевые данные в случае штатной работы, либо null, если что-то пошло не так.
      */
     @Nullable T getStoredData();
 
     /**
-     * Измерить и запомнить данные о потреблении RAM.
+     * Измерить и запомнить данные о потреблении RAM вне такта опроса.
+     */
+    default void measureAndStore() {
+        measureAndStore(nowEpochNanos());
+    }
+
+    /**
+     * Измерить и запомнить данные о потреблении RAM на такте опроса.
+     * Данные, общие для нескольких Поставщиков, читаются один раз за такт.
+     *
+     * @param tickEpochNanos момент начала такта в наносекундах от эпохи
      */
-    void measureAndStore();
+    void measureAndStore(long tickEpochNanos);
 
     /**
      * Получить момент последнего запроса данных от ОС.
      *
-     * @return момент последнего запроса данных от ОС или null, если такого запроса пока не было.
+     * @return момент последнего запроса данных от ОС в наносекундах от эпохи
+     * или {@link #NEVER_POLLED}, если такого запроса пока не было.
+     */
+    long lastPollEpochNanos();
+
+    /**
+     * Сколько процессорного времени потока опроса заняли опросы этого Поставщика.
+     *
+     * @return наносекунды процессорного времени с момента создания Поставщика
+     * либо 0, если ОС не отдаёт процессорное время потока
+     */
+    long pollCpuNanos();
+
+    /**
+     * Во сколько раз растянуты таймауты опроса метрик этого Поставщика ради экономии процессора.
+     *
+     * @return множитель не меньше 1
+     */
+    int intervalStretch();
+
+    /**
+     * Растянуть таймауты опроса метрик этого Поставщика.
+     *
+     * @param stretch множитель; значения меньше 1 считаются равными 1
+     */
+    void setIntervalStretch(int stretch);
+
+    /**
+     * Отметить, что данные Поставщика кому-то нужны.
+     * Поставщик, которого долго никто не отмечал, освобождается фабрикой.
+     */
+    void markDemand();
+
+    /**
+     * Освобождён ли Поставщик. Освобождённый Поставщик больше не измеряет данные,
+     * и вместо него нужно получить новый у фабрики.
+     *
+     * @return освобождён ли Поставщик
      */
-    @Nullable Instant lastPollInstant();
+    boolean isReleased();
 }
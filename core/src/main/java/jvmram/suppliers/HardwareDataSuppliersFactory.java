@@ -2,10 +2,55 @@ package jvmram.suppliers;
 
 import jvmram.model.metrics.MetricType;
 import jvmram.suppliers.data.HardwareData;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Map;
 
 public interface HardwareDataSuppliersFactory {
     <T extends HardwareData> HardwareDataSupplier<T> getOrCreateSupplier(long pid, MetricType metricType);
 
+    /**
+     * Найти уже созданного Поставщика, не создавая нового.
+     *
+     * @param pid        номер процесса
+     * @param metricType тип метрики, которой нужен Поставщик
+     * @return Поставщик либо null, если его ещё не создали, уже освободили или метрика производная
+     */
+    @Nullable HardwareDataSupplier<? extends HardwareData> findSupplier(long pid, MetricType metricType);
+
+    /**
+     * Забыть Поставщиков процесса.
+     *
+     * @param pid номер завершившегося процесса
+     */
+    void release(long pid);
+
+    /**
+     * Освободить Поставщиков, которые никому не нужны дольше указанного времени.
+     *
+     * @param grace сколько Поставщик может быть не нужен
+     */
+    void releaseIdle(Duration grace);
+
+    /**
+     * Выбрать, как получать JMX-данные процесса: событиями JFR или опросом MBean'ов.
+     * Уже созданный Поставщик JMX-данных освобождается, метрики получат нового при следующем опросе.
+     *
+     * @param pid      номер процесса
+     * @param settings настройки событий JFR поверх {@link jvmram.conf.Config#JFR_DEFAULT_SETTINGS}
+     *                 либо null, чтобы опрашивать MBean'ы
+     */
+    void setJfrIngest(long pid, @Nullable Map<String, String> settings);
+
+    /**
+     * Создать Поставщика RSS (Working Set в Windows) самого бэкенда.
+     * Такой Поставщик фабрика не запоминает и не освобождает.
+     *
+     * @return Поставщик данных о памяти бэкенда
+     */
+    HardwareDataSupplier<? extends HardwareData> createOwnMemorySupplier();
+
     static HardwareDataSuppliersFactory getInstance() {
         return HardwareDataSuppliersFactoryImpl.INSTANCE;
     }
@@ -1,48 +1,182 @@
 package jvmram.suppliers;
 
+import jvmram.conf.Config;
 import jvmram.model.metrics.MetricType;
 import jvmram.suppliers.data.HardwareData;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.lang.invoke.MethodHandles;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+import static jvmram.conf.Config.JFR_DEFAULT_SETTINGS;
+import static jvmram.conf.Config.JFR_INGEST_BY_DEFAULT;
+import static jvmram.model.metrics.Os.LINUX;
+
+/**
+ * Поставщики создаются лениво, при первом опросе метрики, которой они нужны,
+ * и освобождаются, когда их метрики долго никто не опрашивает.
+ */
 class HardwareDataSuppliersFactoryImpl implements HardwareDataSuppliersFactory {
 
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
     private HardwareDataSuppliersFactoryImpl() {
     }
 
     private final Map<Long, Map<Class<? extends AbstractDataSupplier<?>>, AbstractDataSupplier<?>>> suppliers = new ConcurrentHashMap<>();
+    // Процессы, для которых способ получения JMX-данных выбран явно, а не по Config.JFR_INGEST_BY_DEFAULT
+    private final Map<Long, Map<String, String>> jfrSettings = new ConcurrentHashMap<>();
+    private final Set<Long> polledPids = ConcurrentHashMap.newKeySet();
 
     @SuppressWarnings("unchecked")
     @Override
     public <T extends HardwareData> HardwareDataSupplier<T> getOrCreateSupplier(long pid, MetricType metricType) {
         return (AbstractDataSupplier<T>) suppliers.computeIfAbsent(
                 pid,
-                ignored -> new HashMap<>()
+                ignored -> new ConcurrentHashMap<>()
         ).computeIfAbsent(
                 supplierClass(metricType),
                 ignored2 -> doCreateSupplier(pid, metricType)
         );
     }
 
+    @Override
+    public @Nullable HardwareDataSupplier<? extends HardwareData> findSupplier(long pid, MetricType metricType) {
+        var bySupplierClass = suppliers.get(pid);
+        if (bySupplierClass == null) {
+            return null;
+        }
+        return switch (metricType) {
+            case UNEXPLAINED_RSS, UNEXPLAINED_PSS, THREAD_STACKS -> null;
+            case RSS, PSS, USS, WS, PB, HEAP_USED, HEAP_COMMITTED, NMT_USED, NMT_COMMITTED,
+                 CGROUP_CURRENT, CGROUP_MAX, CGROUP_ANON, CGROUP_FILE, CGROUP_KERNEL, CGROUP_SOCK, CGROUP_SHMEM,
+                 HOST_MEM_AVAILABLE, HOST_CACHED, HOST_DIRTY, HOST_ANON_HUGE_PAGES,
+                 HOST_PSI_SOME_AVG10, HOST_PSI_FULL_AVG10, HOST_PSI_SOME_TOTAL, HOST_PSI_FULL_TOTAL,
+                 RSS_ANON, RSS_FILE, RSS_SHMEM, RSS_PEAK, SWAP, MINOR_FAULT_RATE, MAJOR_FAULT_RATE,
+                 THREADS, JAVA_THREADS, DAEMON_THREADS, ALLOCATION_RATE, GC_TIME_SHARE,
+                 PHYSICAL_MEMORY_USED, NATIVE_MEMORY_TRACKED -> bySupplierClass.get(supplierClass(metricType));
+        };
+    }
+
+    @Override
+    public void setJfrIngest(long pid, @Nullable Map<String, String> settings) {
+        if (settings == null) {
+            jfrSettings.remove(pid);
+            polledPids.add(pid);
+        } else {
+            polledPids.remove(pid);
+            var merged = new HashMap<>(JFR_DEFAULT_SETTINGS);
+            merged.putAll(settings);
+            jfrSettings.put(pid, Map.copyOf(merged));
+        }
+        var bySupplierClass = suppliers.get(pid);
+        var previous = bySupplierClass == null ? null : bySupplierClass.remove(JmxSupplier.class);
+        if (previous != null) {
+            LOG.info("Switching pid {} to {} ingestion", pid, settings == null ? "polling" : "JFR");
+            previous.release();
+        }
+    }
+
+    @Override
+    public void release(long pid) {
+        jfrSettings.remove(pid);
+        polledPids.remove(pid);
+        var released = suppliers.remove(pid);
+        if (released != null) {
+            released.values().forEach(AbstractDataSupplier::release);
+        }
+    }
+
+    @Override
+    public void releaseIdle(Duration grace) {
+        var graceNanos = grace.toNanos();
+        for (var pidEntry : suppliers.entrySet()) {
+            var bySupplierClass = pidEntry.getValue();
+            bySupplierClass.values().removeIf(supplier -> {
+                if (!supplier.isIdle(graceNanos)) {
+                    return false;
+                }
+                LOG.debug("Releasing idle {} of pid {}", supplier.getClass().getSimpleName(), pidEntry.getKey());
+                supplier.release();
+                return true;
+            });
+        }
+        suppliers.values().removeIf(Map::isEmpty);
+    }
+
+    /**
+     * Бэкенд читает настоящий /proc/self, даже если процессы берутся из синтетического корня.
+     */
+    @Override
+    public HardwareDataSupplier<? extends HardwareData> createOwnMemorySupplier() {
+        var pid = ProcessHandle.current().pid();
+        return Config.os == LINUX
+                ? new MemInfoSupplier(pid, Path.of("/proc/self/status"))
+                : new WinSupplier(pid);
+    }
+
     private Class<? extends AbstractDataSupplier<?>> supplierClass(MetricType type) {
         return switch (type) {
-            case RSS -> MemInfoSupplier.class;
+            case RSS, RSS_ANON, RSS_FILE, RSS_SHMEM, RSS_PEAK, SWAP, THREADS -> MemInfoSupplier.class;
+            case MINOR_FAULT_RATE, MAJOR_FAULT_RATE -> StatSupplier.class;
             case PSS, USS -> SmapsSupplier.class;
             case WS, PB -> WinSupplier.class;
-            case HEAP_COMMITTED, HEAP_USED, NMT_USED, NMT_COMMITTED -> JmxSupplier.class;
+            // JfrSupplier занимает место JmxSupplier: метрики не знают, каким способом получены данные
+            case HEAP_COMMITTED, HEAP_USED, NMT_USED, NMT_COMMITTED, JAVA_THREADS, DAEMON_THREADS, ALLOCATION_RATE,
+                 GC_TIME_SHARE, PHYSICAL_MEMORY_USED, NATIVE_MEMORY_TRACKED -> JmxSupplier.class;
+            case CGROUP_CURRENT, CGROUP_MAX, CGROUP_ANON, CGROUP_FILE, CGROUP_KERNEL, CGROUP_SOCK, CGROUP_SHMEM ->
+                    CgroupSupplier.class;
+            case HOST_MEM_AVAILABLE, HOST_CACHED, HOST_DIRTY, HOST_ANON_HUGE_PAGES -> HostMemInfoSupplier.class;
+            case HOST_PSI_SOME_AVG10, HOST_PSI_FULL_AVG10, HOST_PSI_SOME_TOTAL, HOST_PSI_FULL_TOTAL -> PressureSupplier.class;
+            case UNEXPLAINED_RSS, UNEXPLAINED_PSS, THREAD_STACKS -> throw derivedHasNoSupplier(type);
         };
     }
 
     private AbstractDataSupplier<?> doCreateSupplier(long pid, MetricType type) {
         return switch (type) {
-            case RSS -> new MemInfoSupplier(pid);
+            case RSS, RSS_ANON, RSS_FILE, RSS_SHMEM, RSS_PEAK, SWAP, THREADS -> new MemInfoSupplier(pid);
+            case MINOR_FAULT_RATE, MAJOR_FAULT_RATE -> new StatSupplier(pid);
             case PSS, USS -> new SmapsSupplier(pid);
             case WS, PB -> new WinSupplier(pid);
-            case HEAP_COMMITTED, HEAP_USED, NMT_USED, NMT_COMMITTED -> new JmxSupplier(pid);
+            case HEAP_COMMITTED, HEAP_USED, NMT_USED, NMT_COMMITTED, JAVA_THREADS, DAEMON_THREADS, ALLOCATION_RATE,
+                 GC_TIME_SHARE, PHYSICAL_MEMORY_USED, NATIVE_MEMORY_TRACKED -> createJmxDataSupplier(pid);
+            case CGROUP_CURRENT, CGROUP_MAX, CGROUP_ANON, CGROUP_FILE, CGROUP_KERNEL, CGROUP_SOCK, CGROUP_SHMEM ->
+                    new CgroupSupplier(pid);
+            // метрики хоста запрашиваются под номером GraphKey.HOST_PID
+            case HOST_MEM_AVAILABLE, HOST_CACHED, HOST_DIRTY, HOST_ANON_HUGE_PAGES -> new HostMemInfoSupplier();
+            case HOST_PSI_SOME_AVG10, HOST_PSI_FULL_AVG10, HOST_PSI_SOME_TOTAL, HOST_PSI_FULL_TOTAL -> new PressureSupplier();
+            case UNEXPLAINED_RSS, UNEXPLAINED_PSS, THREAD_STACKS -> throw derivedHasNoSupplier(type);
         };
     }
 
+    /**
+     * JVM, которая не умеет отдавать события JFR через JMX (до JDK 16), опрашивается как обычно.
+     */
+    private AbstractDataSupplier<?> createJmxDataSupplier(long pid) {
+        var settings = polledPids.contains(pid)
+                ? null
+                : jfrSettings.getOrDefault(pid, JFR_INGEST_BY_DEFAULT ? JFR_DEFAULT_SETTINGS : null);
+        if (settings != null) {
+            var jfrSupplier = new JfrSupplier(pid, settings);
+            if (jfrSupplier.isInitialized()) {
+                return jfrSupplier;
+            }
+            LOG.info("Falling back to polling JMX of pid {}", pid);
+            jfrSupplier.release();
+        }
+        return new JmxSupplier(pid);
+    }
+
+    private static IllegalArgumentException derivedHasNoSupplier(MetricType type) {
+        return new IllegalArgumentException("Derived metric %s has no supplier of its own".formatted(type));
+    }
+
     static final HardwareDataSuppliersFactoryImpl INSTANCE = new HardwareDataSuppliersFactoryImpl();
 }
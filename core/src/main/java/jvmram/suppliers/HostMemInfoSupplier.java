@@ -0,0 +1,74 @@
+package jvmram.suppliers;
+
+import jvmram.conf.Config;
+import jvmram.suppliers.data.HostMemInfoData;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+
+import static jvmram.model.graph.GraphKey.HOST_PID;
+import static jvmram.model.metrics.Os.LINUX;
+
+/**
+ * Сводка памяти хоста из /proc/meminfo.
+ */
+class HostMemInfoSupplier extends AbstractFileReaderSupplier<HostMemInfoData> {
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final byte[] MEM_AVAILABLE_PREFIX = prefix("MemAvailable:");
+    private static final byte[] CACHED_PREFIX = prefix("Cached:");
+    private static final byte[] DIRTY_PREFIX = prefix("Dirty:");
+    private static final byte[] ANON_HUGE_PAGES_PREFIX = prefix("AnonHugePages:");
+
+    HostMemInfoSupplier() {
+        super(HOST_PID, Config.PROC_ROOT.resolve("meminfo"));
+        if (Config.os != LINUX) {
+            LOG.error("The supplier is intended for use in Linux OS only");
+        } else {
+            setInitialized();
+        }
+    }
+
+    private final HostMemInfoData data = new HostMemInfoData();
+    private long available = -1;
+    private long cached = -1;
+    private long dirty = -1;
+    private long anonHugePages = -1;
+
+    @Override
+    void startFileParse() {
+        available = -1;
+        cached = -1;
+        dirty = -1;
+        anonHugePages = -1;
+    }
+
+    @Override
+    boolean parseLine(byte[] line, int from, int to) {
+        if (startsWith(line, from, to, MEM_AVAILABLE_PREFIX)) {
+            available = kilobytesAfterPrefix(line, from, to, MEM_AVAILABLE_PREFIX);
+        } else if (startsWith(line, from, to, CACHED_PREFIX)) {
+            cached = kilobytesAfterPrefix(line, from, to, CACHED_PREFIX);
+        } else if (startsWith(line, from, to, DIRTY_PREFIX)) {
+            dirty = kilobytesAfterPrefix(line, from, to, DIRTY_PREFIX);
+        } else if (startsWith(line, from, to, ANON_HUGE_PAGES_PREFIX)) {
+            anonHugePages = kilobytesAfterPrefix(line, from, to, ANON_HUGE_PAGES_PREFIX);
+        }
+        return available < 0 || cached < 0 || dirty < 0 || anonHugePages < 0;
+    }
+
+    /**
+     * AnonHugePages бывает только в ядрах с прозрачными huge pages; без них это не повод терять остальные значения.
+     */
+    @Override
+    @Nullable
+    HostMemInfoData parsedData() {
+        if (available < 0 || cached < 0 || dirty < 0) {
+            return null;
+        }
+        data.set(available, cached, dirty, anonHugePages);
+        return data;
+    }
+}
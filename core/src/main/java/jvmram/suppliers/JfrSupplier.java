@@ -0,0 +1,207 @@
+package jvmram.suppliers;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.management.jfr.RemoteRecordingStream;
+import jvmram.jmx.JmxBeanFactory;
+import jvmram.suppliers.data.JmxData;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.util.Map;
+
+import static jvmram.conf.Config.JFR_STREAM_MAX_AGE;
+import static jvmram.model.util.WallClock.toEpochNanos;
+
+/**
+ * Вместо опроса MBean'ов получает данные событиями JFR, которые целевая JVM сама присылает
+ * через то же JMX-подключение. Занимает место {@link JmxSupplier} и заполняет те же {@link JmxData}:
+ * <ul>
+ *     <li>heap — из jdk.GCHeapSummary до и после каждой сборки;</li>
+ *     <li>non-heap — из jdk.MetaspaceSummary, то есть без code cache;</li>
+ *     <li>direct-буферы, потоки и физическая память — из периодических событий;</li>
+ *     <li>выделенная память — сумма весов jdk.ObjectAllocationSample (оценка, а не точный счётчик);</li>
+ *     <li>время сборок — сумма пауз из jdk.GarbageCollection.</li>
+ * </ul>
+ * Моментом данных считается время последнего события, а не опроса: точка на графике появляется,
+ * только когда пришло новое событие.
+ */
+class JfrSupplier extends AbstractDataSupplier<JmxData> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+
+    private final JmxBeanFactory jmxBeanFactory = JmxBeanFactory.getInstance();
+    private final @Nullable RemoteRecordingStream stream;
+    private final JmxData data = new JmxData();
+
+    // Пишутся потоком JFR-стрима, читаются при опросе; защищены this
+    private long heapUsed = -1;
+    private long heapCommitted = -1;
+    private long heapMax = -1;
+    private long metaspaceUsed = -1;
+    private long metaspaceCommitted = -1;
+    private long directUsed = -1;
+    private long javaThreads = -1;
+    private long daemonThreads = -1;
+    private long javaThreadStackSize = -1;
+    private long vmThreadStackSize = -1;
+    private long allocatedBytes;
+    private long gcTimeNanos;
+    private long physicalUsed = -1;
+    private long nativeMemoryTracked = -1;
+    private volatile long lastEventEpochNanos = NEVER_POLLED;
+
+    /**
+     * @param settings настройки событий JFR в формате .jfc: "jdk.PhysicalMemory#period" → "1 s"
+     */
+    JfrSupplier(long pid, Map<String, String> settings) {
+        super(pid);
+        jmxBeanFactory.acquire(pid);
+        this.stream = openStream(settings);
+        if (stream != null) {
+            setInitialized();
+        }
+    }
+
+    private @Nullable RemoteRecordingStream openStream(Map<String, String> settings) {
+        var connection = jmxBeanFactory.getConnection(pid);
+        if (connection == null) {
+            LOG.warn("No JMX connection, failed to stream JFR events of pid {}.", pid);
+            return null;
+        }
+        RemoteRecordingStream output = null;
+        try {
+            output = new RemoteRecordingStream(connection);
+            output.setSettings(settings);
+            output.setMaxAge(JFR_STREAM_MAX_AGE);
+            output.onEvent("jdk.GCHeapSummary", this::onHeapSummary);
+            output.onEvent("jdk.MetaspaceSummary", this::onMetaspaceSummary);
+            output.onEvent("jdk.DirectBufferStatistics", this::onDirectBufferStatistics);
+            output.onEvent("jdk.JavaThreadStatistics", this::onJavaThreadStatistics);
+            output.onEvent("jdk.LongFlag", this::onLongFlag);
+            output.onEvent("jdk.ObjectAllocationSample", this::onAllocationSample);
+            output.onEvent("jdk.GarbageCollection", this::onGarbageCollection);
+            output.onEvent("jdk.PhysicalMemory", this::onPhysicalMemory);
+            output.onEvent("jdk.NativeMemoryUsageTotal", this::onNativeMemoryUsageTotal);
+            output.onError(e -> LOG.debug("JFR stream of pid {} failed: {}", pid, e.getMessage()));
+            output.startAsync();
+            LOG.info("Streaming JFR events of pid {}", pid);
+            return output;
+        } catch (Exception e) {
+            // JVM до 16 версии не умеет отдавать события через JMX
+            LOG.warn("Failed to stream JFR events of pid {}: {}", pid, e.getMessage());
+            if (output != null) {
+                output.close();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Стрим живёт на JMX-подключении, поэтому Поставщик занимает его, как и {@link JmxSupplier},
+     * чьё место он занимает, и отпускает вместе со стримом.
+     */
+    @Override
+    void releaseResources() {
+        LOG.debug("Closing JFR stream of pid {}", pid);
+        if (stream != null) {
+            stream.close();
+        }
+        jmxBeanFactory.release(pid);
+    }
+
+    /**
+     * Опрос не обращается к целевой JVM, поэтому копия данных снимается при каждом чтении.
+     */
+    @Override
+    public synchronized @Nullable JmxData getStoredData() {
+        if (stream == null || isReleased() || lastEventEpochNanos == NEVER_POLLED) {
+            return null;
+        }
+        return doGetData();
+    }
+
+    @Override
+    public long lastPollEpochNanos() {
+        return lastEventEpochNanos;
+    }
+
+    @Override
+    synchronized JmxData doGetData() {
+        data.set(heapUsed, heapCommitted, metaspaceUsed, metaspaceCommitted, directUsed);
+        data.setHeapMax(heapMax);
+        data.setThreads(javaThreads, daemonThreads, javaThreadStackSize, vmThreadStackSize);
+        data.setAllocatedBytes(allocatedBytes);
+        data.setGcTimeMillis(gcTimeNanos / 1_000_000);
+        data.setJfrOnly(physicalUsed, nativeMemoryTracked);
+        return data;
+    }
+
+    private synchronized void onHeapSummary(RecordedEvent event) {
+        heapUsed = event.getLong("heapUsed");
+        heapCommitted = event.getLong("heapSpace.committedSize");
+        heapMax = event.getLong("heapSpace.reservedSize");
+        received(event);
+    }
+
+    private synchronized void onMetaspaceSummary(RecordedEvent event) {
+        metaspaceUsed = event.getLong("metaspace.used");
+        metaspaceCommitted = event.getLong("metaspace.committed");
+        received(event);
+    }
+
+    private synchronized void onDirectBufferStatistics(RecordedEvent event) {
+        directUsed = Math.max(0, event.getLong("memoryUsed"));
+        received(event);
+    }
+
+    private synchronized void onJavaThreadStatistics(RecordedEvent event) {
+        javaThreads = event.getLong("activeCount");
+        daemonThreads = event.getLong("daemonCount");
+        received(event);
+    }
+
+    /**
+     * Флаги типа intx приходят событиями jdk.LongFlag в начале каждого чанка записи.
+     * Значение 0 означает размер стека по умолчанию ОС, см. {@link JmxData#stackSizeBytes(long)}.
+     */
+    private synchronized void onLongFlag(RecordedEvent event) {
+        var kilobytes = event.getLong("value");
+        switch (event.getString("name")) {
+            case "ThreadStackSize" -> javaThreadStackSize = JmxData.stackSizeBytes(kilobytes);
+            case "VMThreadStackSize" -> vmThreadStackSize = JmxData.stackSizeBytes(kilobytes);
+            default -> {
+                // остальные флаги не нужны
+            }
+        }
+    }
+
+    private synchronized void onAllocationSample(RecordedEvent event) {
+        allocatedBytes += event.getLong("weight");
+        received(event);
+    }
+
+    private synchronized void onGarbageCollection(RecordedEvent event) {
+        gcTimeNanos += event.getDuration("sumOfPauses").toNanos();
+        received(event);
+    }
+
+    private synchronized void onPhysicalMemory(RecordedEvent event) {
+        physicalUsed = event.getLong("usedSize");
+        received(event);
+    }
+
+    /**
+     * Событие есть с JDK 20 и только при включённом -XX:NativeMemoryTracking.
+     */
+    private synchronized void onNativeMemoryUsageTotal(RecordedEvent event) {
+        nativeMemoryTracked = event.getLong("committed");
+        received(event);
+    }
+
+    private void received(RecordedEvent event) {
+        lastEventEpochNanos = Math.max(lastEventEpochNanos, toEpochNanos(event.getEndTime()));
+    }
+}
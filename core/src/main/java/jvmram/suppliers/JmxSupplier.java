@@ -1,24 +1,69 @@
 package jvmram.suppliers;
 
+import com.sun.management.HotSpotDiagnosticMXBean;
 import jvmram.jmx.JmxBeanFactory;
 import jvmram.suppliers.data.JmxData;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.management.MBeanServerConnection;
+import javax.management.ObjectName;
 import java.lang.invoke.MethodHandles;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
 import java.lang.management.MemoryUsage;
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
 
 class JmxSupplier extends AbstractDataSupplier<JmxData> {
 
     private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+    private static final ObjectName THREADING = objectName(ManagementFactory.THREAD_MXBEAN_NAME);
+    private static final String THREAD_COUNT = "ThreadCount";
+    private static final String DAEMON_THREAD_COUNT = "DaemonThreadCount";
+    // Атрибут com.sun.management.ThreadMXBean, начиная с JDK 14; в более старых JVM его просто не будет в ответе
+    private static final String TOTAL_THREAD_ALLOCATED_BYTES = "TotalThreadAllocatedBytes";
+    private static final String ALL_THREAD_IDS = "AllThreadIds";
+    private static final String[] THREADING_ATTRIBUTES = {THREAD_COUNT, DAEMON_THREAD_COUNT, TOTAL_THREAD_ALLOCATED_BYTES};
+    private static final String[] THREADING_ATTRIBUTES_PER_THREAD = {THREAD_COUNT, DAEMON_THREAD_COUNT, ALL_THREAD_IDS};
+    private static final String THREAD_ALLOCATED_BYTES = "getThreadAllocatedBytes";
+    private static final String[] THREAD_ALLOCATED_BYTES_SIGNATURE = {long[].class.getName()};
+    private static final ObjectName GARBAGE_COLLECTORS = objectName(ManagementFactory.GARBAGE_COLLECTOR_MXBEAN_DOMAIN_TYPE + ",*");
+    private static final String COLLECTION_TIME = "CollectionTime";
+    private static final String HOTSPOT_DIAGNOSTIC_NAME = "com.sun.management:type=HotSpotDiagnostic";
+
+    private final JmxBeanFactory jmxBeanFactory = JmxBeanFactory.getInstance();
     private final MemoryMXBean memoryMxBean;
+    private final @Nullable BufferPoolMXBean directBufferPoolMxBean;
+    private final @Nullable MBeanServerConnection connection;
+    private final long javaThreadStackSize;
+    private final long vmThreadStackSize;
+    private final ObjectName[] garbageCollectors;
+    private final ThreadAllocationCounter threadAllocationCounter = new ThreadAllocationCounter();
+    private boolean totalAllocatedBytesMissing;
+    private final JmxData data = new JmxData();
     
     JmxSupplier(long pid) {
         super(pid);
-        this.memoryMxBean = JmxBeanFactory.getInstance().getMemoryMxBean(pid);
+        // подключение общее, поэтому Поставщик занимает его и отпускает в releaseResources
+        jmxBeanFactory.acquire(pid);
+        this.memoryMxBean = jmxBeanFactory.getMemoryMxBean(pid);
+        this.directBufferPoolMxBean = this.memoryMxBean == null
+                ? null
+                : jmxBeanFactory.getDirectBufferPoolMxBean(pid);
+        this.connection = this.memoryMxBean == null
+                ? null
+                : jmxBeanFactory.getConnection(pid);
+        // Размеры стеков не меняются за время жизни JVM, поэтому читаются один раз
+        var hotSpotDiagnostic = hotSpotDiagnostic(pid, connection);
+        this.javaThreadStackSize = stackSize(hotSpotDiagnostic, "ThreadStackSize", -1);
+        this.vmThreadStackSize = stackSize(hotSpotDiagnostic, "VMThreadStackSize", javaThreadStackSize);
+        // Набор сборщиков определяется при старте JVM и потом не меняется
+        this.garbageCollectors = garbageCollectors(pid, connection);
         if (this.memoryMxBean != null) {
             setInitialized();
         } else {
@@ -26,22 +71,39 @@ class JmxSupplier extends AbstractDataSupplier<JmxData> {
         }
     }
     
+    /**
+     * Поставщик создаётся лишь при первом опросе видимой JMX-метрики,
+     * поэтому и подключение к JVM существует, только пока оно кому-то нужно.
+     */
+    @Override
+    void releaseResources() {
+        LOG.debug("Releasing JMX connection to idle pid {}", pid);
+        jmxBeanFactory.release(pid);
+    }
+
     @Override
     @Nullable JmxData doGetData() {
         if (memoryMxBean == null) {
             return null;
         }
+        if (jmxBeanFactory.isBusy(pid)) {
+            // Пока JVM снимает дамп heap, запрос повис бы до его окончания вместе с потоком опроса
+            return null;
+        }
         
         long heapUsed = 0;
         long heapCommitted = 0;
+        long heapMax = -1;
         long nmtUsed = 0;
         long nmtCommitted = 0;
+        long directUsed = 0;
 
         // Получаем информацию о heap памяти
         MemoryUsage heapMemoryUsage = memoryMxBean.getHeapMemoryUsage();
         if (heapMemoryUsage != null) {
             heapUsed = heapMemoryUsage.getUsed();
             heapCommitted = heapMemoryUsage.getCommitted();
+            heapMax = heapMemoryUsage.getMax();
         }
         
         // Получаем информацию о non-heap памяти (NMT)
@@ -50,7 +112,153 @@ class JmxSupplier extends AbstractDataSupplier<JmxData> {
             nmtUsed = nonHeapMemoryUsage.getUsed();
             nmtCommitted = nonHeapMemoryUsage.getCommitted();
         }
+
+        // Получаем информацию о памяти direct-буферов
+        if (directBufferPoolMxBean != null) {
+            directUsed = Math.max(0, directBufferPoolMxBean.getMemoryUsed());
+        }
         
-        return new JmxData(heapUsed, heapCommitted, nmtUsed, nmtCommitted);
+        data.set(heapUsed, heapCommitted, nmtUsed, nmtCommitted, directUsed);
+        data.setHeapMax(heapMax);
+        readThreads();
+        readGcTime();
+        return data;
+    }
+
+    /**
+     * Счётчики потоков и выделенная память читаются одним запросом к MBean-серверу.
+     * Если целевая JVM не знает общего счётчика выделенной памяти, в том же запросе приходят номера потоков,
+     * а выделенная ими память читается вторым запросом.
+     * Ошибка здесь не должна лишать данных о памяти, поэтому лишь сбрасывает счётчики.
+     */
+    private void readThreads() {
+        long javaThreads = -1;
+        long daemonThreads = -1;
+        long allocatedBytes = -1;
+        long[] threadIds = null;
+        if (connection != null) {
+            try {
+                var attributes = totalAllocatedBytesMissing ? THREADING_ATTRIBUTES_PER_THREAD : THREADING_ATTRIBUTES;
+                var totalAllocatedBytesFound = false;
+                for (var attribute : connection.getAttributes(THREADING, attributes).asList()) {
+                    switch (attribute.getName()) {
+                        case THREAD_COUNT -> javaThreads = ((Number) attribute.getValue()).longValue();
+                        case DAEMON_THREAD_COUNT -> daemonThreads = ((Number) attribute.getValue()).longValue();
+                        case TOTAL_THREAD_ALLOCATED_BYTES -> {
+                            // -1, если подсчёт выделенной памяти выключен в целевой JVM
+                            allocatedBytes = ((Number) attribute.getValue()).longValue();
+                            totalAllocatedBytesFound = true;
+                        }
+                        case ALL_THREAD_IDS -> threadIds = (long[]) attribute.getValue();
+                        default -> {
+                            // других атрибутов не запрашивали
+                        }
+                    }
+                }
+                if (!totalAllocatedBytesMissing && !totalAllocatedBytesFound && javaThreads >= 0) {
+                    LOG.debug("No {} in pid {}, summing allocations per thread", TOTAL_THREAD_ALLOCATED_BYTES, pid);
+                    totalAllocatedBytesMissing = true;
+                }
+                if (threadIds != null) {
+                    allocatedBytes = perThreadAllocatedBytes(threadIds);
+                }
+            } catch (Exception e) {
+                LOG.debug("Failed to read thread counts of pid {}: {}", pid, e.getMessage());
+            }
+        }
+        data.setThreads(javaThreads, daemonThreads, javaThreadStackSize, vmThreadStackSize);
+        data.setAllocatedBytes(allocatedBytes);
+    }
+
+    private long perThreadAllocatedBytes(long[] threadIds) throws Exception {
+        Arrays.sort(threadIds);
+        var bytes = (long[]) requireNonNull(connection).invoke(
+                THREADING, THREAD_ALLOCATED_BYTES, new Object[]{threadIds}, THREAD_ALLOCATED_BYTES_SIGNATURE);
+        if (bytes.length != threadIds.length || allNegative(bytes)) {
+            // подсчёт выделенной памяти выключен в целевой JVM
+            return -1;
+        }
+        return threadAllocationCounter.update(threadIds, bytes);
+    }
+
+    /**
+     * Суммарное время сборок всех сборщиков: по одному запросу на сборщик, обычно их два.
+     */
+    private void readGcTime() {
+        long gcTimeMillis = -1;
+        if (connection != null && garbageCollectors.length > 0) {
+            try {
+                gcTimeMillis = 0;
+                for (var collector : garbageCollectors) {
+                    var collectionTime = ((Number) connection.getAttribute(collector, COLLECTION_TIME)).longValue();
+                    if (collectionTime < 0) {
+                        gcTimeMillis = -1;
+                        break;
+                    }
+                    gcTimeMillis += collectionTime;
+                }
+            } catch (Exception e) {
+                LOG.debug("Failed to read GC time of pid {}: {}", pid, e.getMessage());
+                gcTimeMillis = -1;
+            }
+        }
+        data.setGcTimeMillis(gcTimeMillis);
+    }
+
+    private static ObjectName[] garbageCollectors(long pid, @Nullable MBeanServerConnection connection) {
+        if (connection == null) {
+            return new ObjectName[0];
+        }
+        try {
+            return connection.queryNames(GARBAGE_COLLECTORS, null).toArray(new ObjectName[0]);
+        } catch (Exception e) {
+            LOG.info("Failed to list garbage collectors of pid {}: {}", pid, e.getMessage());
+            return new ObjectName[0];
+        }
+    }
+
+    private static boolean allNegative(long[] values) {
+        for (var value : values) {
+            if (value >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static @Nullable HotSpotDiagnosticMXBean hotSpotDiagnostic(long pid, @Nullable MBeanServerConnection connection) {
+        if (connection == null) {
+            return null;
+        }
+        try {
+            return ManagementFactory.newPlatformMXBeanProxy(connection, HOTSPOT_DIAGNOSTIC_NAME, HotSpotDiagnosticMXBean.class);
+        } catch (Exception e) {
+            LOG.info("No HotSpot diagnostic bean for pid {}: {}", pid, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @param fallback размер, если флаг не читается
+     * @return размер стека в байтах
+     */
+    private static long stackSize(@Nullable HotSpotDiagnosticMXBean bean, String flag, long fallback) {
+        if (bean == null) {
+            return fallback;
+        }
+        try {
+            return JmxData.stackSizeBytes(Long.parseLong(bean.getVMOption(flag).getValue()));
+        } catch (Exception e) {
+            LOG.debug("Failed to read {}: {}", flag, e.getMessage());
+            return fallback;
+        }
+    }
+
+    private static ObjectName objectName(String name) {
+        try {
+            return new ObjectName(name);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
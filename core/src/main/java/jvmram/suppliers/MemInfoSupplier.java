@@ -14,13 +14,23 @@ import static jvmram.model.metrics.Os.LINUX;
 class MemInfoSupplier extends AbstractFileReaderSupplier<MemInfoData> {
     private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
-    private static final String VM_RSS_PREFIX = "VmRSS:";
+    private static final byte[] VM_RSS_PREFIX = prefix("VmRSS:");
+    private static final byte[] RSS_ANON_PREFIX = prefix("RssAnon:");
+    private static final byte[] RSS_FILE_PREFIX = prefix("RssFile:");
+    private static final byte[] RSS_SHMEM_PREFIX = prefix("RssShmem:");
+    private static final byte[] VM_HWM_PREFIX = prefix("VmHWM:");
+    private static final byte[] VM_SWAP_PREFIX = prefix("VmSwap:");
+    private static final byte[] THREADS_PREFIX = prefix("Threads:");
 
     MemInfoSupplier(long pid) {
-        super(
-                pid,
-                Path.of("/proc", String.valueOf(pid), "status")
-                );
+        this(pid, Config.PROC_ROOT.resolve(String.valueOf(pid)).resolve("status"));
+    }
+
+    /**
+     * @param statusPath откуда читать статус процесса, например, снимок файла для замеров производительности
+     */
+    MemInfoSupplier(long pid, Path statusPath) {
+        super(pid, statusPath);
         if (Config.os != LINUX) {
             LOG.error("The supplier is intended for use in Linux OS only");
         } else {
@@ -28,29 +38,57 @@ class MemInfoSupplier extends AbstractFileReaderSupplier<MemInfoData> {
         }
     }
 
+    private final MemInfoData data = new MemInfoData();
     private long rssInBytes = -1;
+    private long rssAnon = -1;
+    private long rssFile = -1;
+    private long rssShmem = -1;
+    private long peakRss = -1;
+    private long swap = -1;
+    private long threads = -1;
 
     @Override
     void startFileParse() {
         rssInBytes = -1;
+        rssAnon = -1;
+        rssFile = -1;
+        rssShmem = -1;
+        peakRss = -1;
+        swap = -1;
+        threads = -1;
     }
 
+    /**
+     * Все поля берутся за один проход; Threads идёт последним из нужных, после него файл не дочитывается.
+     */
     @Override
-    boolean parseLine(String line) {
-        if (!line.startsWith(VM_RSS_PREFIX)) {
-            return true;
+    boolean parseLine(byte[] line, int from, int to) {
+        if (startsWith(line, from, to, VM_RSS_PREFIX)) {
+            rssInBytes = kilobytesAfterPrefix(line, from, to, VM_RSS_PREFIX);
+        } else if (startsWith(line, from, to, RSS_ANON_PREFIX)) {
+            rssAnon = kilobytesAfterPrefix(line, from, to, RSS_ANON_PREFIX);
+        } else if (startsWith(line, from, to, RSS_FILE_PREFIX)) {
+            rssFile = kilobytesAfterPrefix(line, from, to, RSS_FILE_PREFIX);
+        } else if (startsWith(line, from, to, RSS_SHMEM_PREFIX)) {
+            rssShmem = kilobytesAfterPrefix(line, from, to, RSS_SHMEM_PREFIX);
+        } else if (startsWith(line, from, to, VM_HWM_PREFIX)) {
+            peakRss = kilobytesAfterPrefix(line, from, to, VM_HWM_PREFIX);
+        } else if (startsWith(line, from, to, VM_SWAP_PREFIX)) {
+            swap = kilobytesAfterPrefix(line, from, to, VM_SWAP_PREFIX);
+        } else if (startsWith(line, from, to, THREADS_PREFIX)) {
+            threads = numberAfterPrefix(line, from, to, THREADS_PREFIX);
+            return false;
         }
-
-        var kb = secondItem(line, VM_RSS_PREFIX);
-        rssInBytes = kilobytesToBytes(kb);
-        return false;
+        return true;
     }
 
     @Override
     @Nullable
     MemInfoData parsedData() {
-        return rssInBytes < 0
-                ? null
-                : new MemInfoData(rssInBytes);
+        if (rssInBytes < 0) {
+            return null;
+        }
+        data.set(rssInBytes, rssAnon, rssFile, rssShmem, peakRss, swap, threads);
+        return data;
     }
 }
@@ -0,0 +1,121 @@
+package jvmram.suppliers;
+
+import jvmram.conf.Config;
+import jvmram.suppliers.data.PressureData;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+
+import static jvmram.model.graph.GraphKey.HOST_PID;
+import static jvmram.model.metrics.Os.LINUX;
+
+/**
+ * Давление на память хоста из /proc/pressure/memory. Файла нет, если ядро собрано без PSI или PSI выключен.
+ * <pre>
+ * some avg10=0.00 avg60=0.00 avg300=0.00 total=0
+ * full avg10=0.00 avg60=0.00 avg300=0.00 total=0
+ * </pre>
+ */
+class PressureSupplier extends AbstractFileReaderSupplier<PressureData> {
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final byte[] SOME_PREFIX = prefix("some ");
+    private static final byte[] FULL_PREFIX = prefix("full ");
+    private static final byte[] AVG10 = prefix("avg10=");
+    private static final byte[] TOTAL = prefix("total=");
+    private static final byte[] NO_PREFIX = new byte[0];
+
+    PressureSupplier() {
+        super(HOST_PID, Config.PROC_ROOT.resolve("pressure").resolve("memory"));
+        if (Config.os != LINUX) {
+            LOG.error("The supplier is intended for use in Linux OS only");
+        } else {
+            setInitialized();
+        }
+    }
+
+    private final PressureData data = new PressureData();
+    private long someAvg10 = -1;
+    private long fullAvg10 = -1;
+    private long someTotal = -1;
+    private long fullTotal = -1;
+
+    @Override
+    void startFileParse() {
+        someAvg10 = -1;
+        fullAvg10 = -1;
+        someTotal = -1;
+        fullTotal = -1;
+    }
+
+    @Override
+    boolean parseLine(byte[] line, int from, int to) {
+        if (startsWith(line, from, to, SOME_PREFIX)) {
+            someAvg10 = hundredthsAfter(line, from, to, AVG10);
+            someTotal = numberAfter(line, from, to, TOTAL);
+        } else if (startsWith(line, from, to, FULL_PREFIX)) {
+            fullAvg10 = hundredthsAfter(line, from, to, AVG10);
+            fullTotal = numberAfter(line, from, to, TOTAL);
+        }
+        return true;
+    }
+
+    @Override
+    @Nullable
+    PressureData parsedData() {
+        if (someAvg10 < 0 || someTotal < 0) {
+            return null;
+        }
+        // до Linux 5.13 строки full для памяти может не быть
+        data.set(someAvg10, Math.max(0, fullAvg10), someTotal, Math.max(0, fullTotal));
+        return data;
+    }
+
+    /**
+     * @return позиция сразу после поля в строке либо -1, если поля нет
+     */
+    private static int indexAfter(byte[] line, int from, int to, byte[] field) {
+        for (int i = from; i <= to - field.length; i++) {
+            if (startsWith(line, i, to, field)) {
+                return i + field.length;
+            }
+        }
+        return -1;
+    }
+
+    private static long numberAfter(byte[] line, int from, int to, byte[] field) {
+        var position = indexAfter(line, from, to, field);
+        return position < 0 ? -1 : numberAfterPrefix(line, position, to, NO_PREFIX);
+    }
+
+    /**
+     * Число вида 12.34 в сотых долях.
+     */
+    private static long hundredthsAfter(byte[] line, int from, int to, byte[] field) {
+        var position = indexAfter(line, from, to, field);
+        if (position < 0 || position >= to || line[position] < '0' || line[position] > '9') {
+            return -1;
+        }
+        long whole = 0;
+        while (position < to && line[position] >= '0' && line[position] <= '9') {
+            whole = whole * 10 + (line[position] - '0');
+            position++;
+        }
+        long fraction = 0;
+        var fractionDigits = 0;
+        if (position < to && line[position] == '.') {
+            position++;
+            while (position < to && fractionDigits < 2 && line[position] >= '0' && line[position] <= '9') {
+                fraction = fraction * 10 + (line[position] - '0');
+                fractionDigits++;
+                position++;
+            }
+        }
+        for (; fractionDigits < 2; fractionDigits++) {
+            fraction *= 10;
+        }
+        return whole * 100 + fraction;
+    }
+}
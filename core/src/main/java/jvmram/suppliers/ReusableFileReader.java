@@ -0,0 +1,100 @@
+package jvmram.suppliers;
+
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Файл открывается один раз и перечитывается с начала при каждом чтении в один и тот же буфер:
+ * файлы /proc и cgroupfs формируются заново при чтении с нулевого смещения.
+ * Буфер растёт, только если файл в него не поместился.
+ */
+final class ReusableFileReader {
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+
+    private final Path path;
+    private @Nullable FileChannel channel;
+    private byte[] bytes;
+    private ByteBuffer buffer;
+
+    ReusableFileReader(Path path) {
+        this(path, INITIAL_BUFFER_SIZE);
+    }
+
+    /**
+     * @param bufferSize начальный размер буфера; для файлов из одной строки хватит нескольких десятков байт
+     */
+    ReusableFileReader(Path path, int bufferSize) {
+        this.path = path;
+        this.bytes = new byte[bufferSize];
+        this.buffer = ByteBuffer.wrap(bytes);
+    }
+
+    /**
+     * Перечитать файл. При ошибке канал закрывается, и следующее чтение откроет файл заново.
+     *
+     * @return сколько байт файла прочитано в {@link #bytes()}
+     */
+    int read() throws IOException {
+        try {
+            return doRead();
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private int doRead() throws IOException {
+        var current = channel;
+        if (current == null) {
+            current = FileChannel.open(path, READ);
+            channel = current;
+        }
+        buffer.clear();
+        while (true) {
+            var read = current.read(buffer, buffer.position());
+            if (read < 0) {
+                return buffer.position();
+            }
+            if (!buffer.hasRemaining()) {
+                // файл не поместился: расширяем буфер раз и навсегда и перечитываем с начала
+                bytes = new byte[bytes.length * 2];
+                buffer = ByteBuffer.wrap(bytes);
+            }
+        }
+    }
+
+    /**
+     * @return буфер с содержимым файла после последнего {@link #read()}; меняется, если буфер пришлось расширить
+     */
+    byte[] bytes() {
+        return bytes;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    void close() {
+        var current = channel;
+        channel = null;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.close();
+        } catch (IOException e) {
+            LOG.debug("Failed to close {}", path, e);
+        }
+    }
+}
@@ -15,10 +15,14 @@ class SmapsSupplier extends AbstractFileReaderSupplier<SmapsData> {
     private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
     SmapsSupplier(long pid) {
-        super(
-                pid,
-                Path.of("/proc", String.valueOf(pid), "smaps_rollup")
-                );
+        this(pid, Config.PROC_ROOT.resolve(String.valueOf(pid)).resolve("smaps_rollup"));
+    }
+
+    /**
+     * @param smapsRollupPath откуда читать сводку отображений памяти, например, снимок файла для замеров производительности
+     */
+    SmapsSupplier(long pid, Path smapsRollupPath) {
+        super(pid, smapsRollupPath);
         if (Config.os != LINUX) {
             LOG.error("The supplier is intended for use in Linux OS only");
         } else {
@@ -26,6 +30,7 @@ class SmapsSupplier extends AbstractFileReaderSupplier<SmapsData> {
         }
     }
 
+    private final SmapsData data = new SmapsData();
     private long pss = -1;
     private long uss = -1;
 
@@ -35,31 +40,29 @@ class SmapsSupplier extends AbstractFileReaderSupplier<SmapsData> {
         uss = -1;
     }
 
-    private static final String PSS_PREFIX = "Pss:";
-    private static final String PRIVATE_CLEAN_PREFIX = "Private_Clean:";
-    private static final String PRIVATE_DIRTY_PREFIX = "Private_Dirty:";
+    private static final byte[] PSS_PREFIX = prefix("Pss:");
+    private static final byte[] PRIVATE_CLEAN_PREFIX = prefix("Private_Clean:");
+    private static final byte[] PRIVATE_DIRTY_PREFIX = prefix("Private_Dirty:");
 
     @Override
-    boolean parseLine(String line) {
-        if (line.startsWith(PSS_PREFIX)) {
-            pss += parseToBytes(line, PSS_PREFIX);
-        } else if (line.startsWith(PRIVATE_CLEAN_PREFIX)) {
-            uss += parseToBytes(line, PRIVATE_CLEAN_PREFIX);
-        } else if (line.startsWith(PRIVATE_DIRTY_PREFIX)) {
-            uss += parseToBytes(line, PRIVATE_DIRTY_PREFIX);
+    boolean parseLine(byte[] line, int from, int to) {
+        if (startsWith(line, from, to, PSS_PREFIX)) {
+            pss += Math.max(0, kilobytesAfterPrefix(line, from, to, PSS_PREFIX));
+        } else if (startsWith(line, from, to, PRIVATE_CLEAN_PREFIX)) {
+            uss += Math.max(0, kilobytesAfterPrefix(line, from, to, PRIVATE_CLEAN_PREFIX));
+        } else if (startsWith(line, from, to, PRIVATE_DIRTY_PREFIX)) {
+            uss += Math.max(0, kilobytesAfterPrefix(line, from, to, PRIVATE_DIRTY_PREFIX));
         }
         return true;
     }
 
-    private long parseToBytes(String input, String prefix) {
-        return kilobytesToBytes(secondItem(input, prefix));
-    }
-
     @Override
     @Nullable
     SmapsData parsedData() {
-        return pss < 0 || uss < 0
-                ? null
-                : new SmapsData(pss + 1, uss + 1);
+        if (pss < 0 || uss < 0) {
+            return null;
+        }
+        data.set(pss + 1, uss + 1);
+        return data;
     }
 }
@@ -0,0 +1,96 @@
+package jvmram.suppliers;
+
+import jvmram.conf.Config;
+import jvmram.suppliers.data.StatData;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.nio.file.Path;
+
+import static jvmram.model.metrics.Os.LINUX;
+
+/**
+ * Счётчики страничных отказов из /proc/[pid]/stat: minflt (10-е поле) и majflt (12-е поле).
+ */
+class StatSupplier extends AbstractFileReaderSupplier<StatData> {
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final int MINFLT_FIELD = 10;
+    private static final int MAJFLT_FIELD = 12;
+
+    StatSupplier(long pid) {
+        this(pid, Config.PROC_ROOT.resolve(String.valueOf(pid)).resolve("stat"));
+    }
+
+    /**
+     * @param statPath откуда читать состояние процесса, например, снимок файла для замеров производительности
+     */
+    StatSupplier(long pid, Path statPath) {
+        super(pid, statPath);
+        if (Config.os != LINUX) {
+            LOG.error("The supplier is intended for use in Linux OS only");
+        } else {
+            setInitialized();
+        }
+    }
+
+    private final StatData data = new StatData();
+    private long minorFaults = -1;
+    private long majorFaults = -1;
+
+    @Override
+    void startFileParse() {
+        minorFaults = -1;
+        majorFaults = -1;
+    }
+
+    @Override
+    boolean parseLine(byte[] line, int from, int to) {
+        // Имя процесса в скобках может содержать пробелы и скобки, поэтому поля отсчитываются от последней ')'
+        var position = to - 1;
+        while (position >= from && line[position] != ')') {
+            position--;
+        }
+        if (position < from) {
+            return false;
+        }
+        position += 2;
+        var field = 3;
+        while (position < to && field <= MAJFLT_FIELD) {
+            if (field == MINFLT_FIELD) {
+                minorFaults = numberAt(line, position, to);
+            } else if (field == MAJFLT_FIELD) {
+                majorFaults = numberAt(line, position, to);
+            }
+            while (position < to && line[position] != ' ') {
+                position++;
+            }
+            position++;
+            field++;
+        }
+        return false;
+    }
+
+    private static long numberAt(byte[] line, int position, int to) {
+        long number = 0;
+        var digits = 0;
+        while (position < to && line[position] >= '0' && line[position] <= '9') {
+            number = number * 10 + (line[position] - '0');
+            position++;
+            digits++;
+        }
+        return digits == 0 ? -1 : number;
+    }
+
+    @Override
+    @Nullable
+    StatData parsedData() {
+        if (minorFaults < 0 || majorFaults < 0) {
+            return null;
+        }
+        data.set(minorFaults, majorFaults);
+        return data;
+    }
+}
@@ -0,0 +1,54 @@
+package jvmram.suppliers;
+
+/**
+ * Накопительный счётчик выделенной памяти из счётчиков отдельных потоков
+ * для JVM без атрибута TotalThreadAllocatedBytes (до JDK 14).
+ * <p>
+ * Сумма по живым потокам уменьшается, когда поток завершается, поэтому последнее известное значение
+ * завершившегося потока переносится в неубывающий остаток. Потоки, родившиеся и завершившиеся между опросами,
+ * не учитываются вовсе: счётчик получается оценкой снизу.
+ */
+class ThreadAllocationCounter {
+
+    private static final long[] NO_THREADS = new long[0];
+
+    private long[] lastIds = NO_THREADS;
+    private long[] lastBytes = NO_THREADS;
+    private long retiredBytes;
+
+    /**
+     * @param ids   номера живых потоков по возрастанию
+     * @param bytes выделенная потоками память в том же порядке; -1 для потоков, завершившихся до запроса
+     * @return неубывающая оценка памяти, выделенной всеми потоками с запуска JVM
+     */
+    long update(long[] ids, long[] bytes) {
+        // Оба массива отсортированы по номеру потока: ушедшие потоки находятся за один проход слиянием
+        var i = 0;
+        var j = 0;
+        while (i < lastIds.length) {
+            if (j >= ids.length || lastIds[i] < ids[j]) {
+                retiredBytes += lastBytes[i];
+                i++;
+            } else if (lastIds[i] == ids[j]) {
+                if (bytes[j] < 0) {
+                    bytes[j] = lastBytes[i];
+                }
+                i++;
+                j++;
+            } else {
+                j++;
+            }
+        }
+
+        long live = 0;
+        for (var k = 0; k < bytes.length; k++) {
+            if (bytes[k] < 0) {
+                bytes[k] = 0;
+            }
+            live += bytes[k];
+        }
+        lastIds = ids;
+        lastBytes = bytes;
+        return retiredBytes + live;
+    }
+}
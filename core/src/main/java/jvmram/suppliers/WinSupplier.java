@@ -23,11 +23,18 @@ class WinSupplier extends AbstractDataSupplier<WinData> {
         boolean GetProcessMemoryInfo(WinNT.HANDLE hProcess, ProcessMemoryCountersEx2 ppsmemCounters, int cb);
     }
 
+    /**
+     * Структура переиспользуется между опросами: её размер не меняется.
+     */
+    private final ProcessMemoryCountersEx2 pmc = new ProcessMemoryCountersEx2();
+    private final WinData data = new WinData();
+
     WinSupplier(long pid) {
         super(pid);
         if (Config.os != WINDOWS) {
             LOG.error("The supplier is intended for use in Windows OS only");
         } else {
+            pmc.cb = new WinDef.DWORD(pmc.size());
             setInitialized();
         }
     }
@@ -44,15 +51,13 @@ class WinSupplier extends AbstractDataSupplier<WinData> {
             return null;
         }
         try {
-            var pmc = new ProcessMemoryCountersEx2();
-            int size = pmc.size();
-            pmc.cb = new WinDef.DWORD(size);
-            boolean success = Psapi.INSTANCE.GetProcessMemoryInfo(hProcess, pmc, size);
+            boolean success = Psapi.INSTANCE.GetProcessMemoryInfo(hProcess, pmc, pmc.size());
             if (success) {
-                return new WinData(
+                data.set(
                         pmc.WorkingSetSize.longValue(),
                         pmc.PrivateUsage.longValue()
                 );
+                return data;
             } else {
                 LOG.warn("Failed to get process memory info for pid {}", pid);
                 return null;
@@ -0,0 +1,92 @@
+package jvmram.suppliers.data;
+
+/**
+ * Учёт памяти cgroup v2. Байты — из memory.current, memory.max и memory.stat,
+ * счётчики событий — из memory.events.
+ */
+public final class CgroupData implements HardwareData {
+    private long current;
+    private long max;
+    private long anon;
+    private long file;
+    private long kernel;
+    private long sock;
+    private long shmem;
+    private long highEvents;
+    private long maxEvents;
+    private long oomEvents;
+    private long oomKillEvents;
+
+    public void setMemory(long current, long max) {
+        this.current = current;
+        this.max = max;
+    }
+
+    public void setStat(long anon, long file, long kernel, long sock, long shmem) {
+        this.anon = anon;
+        this.file = file;
+        this.kernel = kernel;
+        this.sock = sock;
+        this.shmem = shmem;
+    }
+
+    public void setEvents(long highEvents, long maxEvents, long oomEvents, long oomKillEvents) {
+        this.highEvents = highEvents;
+        this.maxEvents = maxEvents;
+        this.oomEvents = oomEvents;
+        this.oomKillEvents = oomKillEvents;
+    }
+
+    public long current() {
+        return current;
+    }
+
+    /**
+     * @return ограничение в байтах либо -1, если cgroup не ограничена
+     */
+    public long max() {
+        return max;
+    }
+
+    public long anon() {
+        return anon;
+    }
+
+    public long file() {
+        return file;
+    }
+
+    public long kernel() {
+        return kernel;
+    }
+
+    public long sock() {
+        return sock;
+    }
+
+    public long shmem() {
+        return shmem;
+    }
+
+    /**
+     * @return сколько раз память cgroup превышала memory.high и её принудительно освобождали
+     */
+    public long highEvents() {
+        return highEvents;
+    }
+
+    /**
+     * @return сколько раз память cgroup упиралась в memory.max
+     */
+    public long maxEvents() {
+        return maxEvents;
+    }
+
+    public long oomEvents() {
+        return oomEvents;
+    }
+
+    public long oomKillEvents() {
+        return oomKillEvents;
+    }
+}
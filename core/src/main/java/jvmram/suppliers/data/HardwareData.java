@@ -3,6 +3,10 @@ package jvmram.suppliers.data;
 /**
  * Данные потребления памяти из разных источников
  * на уровне ОС или JDK-фреймворка.
+ * <p>
+ * Каждый Поставщик держит один изменяемый экземпляр данных и перезаписывает его при каждом опросе,
+ * поэтому опрос не выделяет память на результат.
  */
-public sealed interface HardwareData permits JmxData, MemInfoData, WinData, PwsData, SmapsData {
+public sealed interface HardwareData permits JmxData, MemInfoData, WinData, PwsData, SmapsData, CgroupData,
+        HostMemInfoData, PressureData, StatData {
 }
@@ -0,0 +1,31 @@
+package jvmram.suppliers.data;
+
+public final class HostMemInfoData implements HardwareData {
+    private long available;
+    private long cached;
+    private long dirty;
+    private long anonHugePages;
+
+    public void set(long available, long cached, long dirty, long anonHugePages) {
+        this.available = available;
+        this.cached = cached;
+        this.dirty = dirty;
+        this.anonHugePages = anonHugePages;
+    }
+
+    public long available() {
+        return available;
+    }
+
+    public long cached() {
+        return cached;
+    }
+
+    public long dirty() {
+        return dirty;
+    }
+
+    public long anonHugePages() {
+        return anonHugePages;
+    }
+}
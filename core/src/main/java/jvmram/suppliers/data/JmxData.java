@@ -1,5 +1,151 @@
 package jvmram.suppliers.data;
 
-public record JmxData(long heapUsed, long heapCommitted, long nmtUsed, long nmtCommitted) implements HardwareData {
-}
+public final class JmxData implements HardwareData {
+    /**
+     * Размер стека потока, когда флаг равен 0, то есть оставлен на усмотрение ОС.
+     * Так бывает в Windows: стек берётся из заголовка java.exe, а он у сборок JDK равен 1 MiB.
+     */
+    private static final long OS_DEFAULT_STACK_SIZE = 1024 * 1024;
+    private static final long KILOBYTE = 1024;
+
+    private long heapUsed;
+    private long heapCommitted;
+    private long heapMax = -1;
+    private long nmtUsed;
+    private long nmtCommitted;
+    private long directUsed;
+    private long javaThreads = -1;
+    private long daemonThreads = -1;
+    private long javaThreadStackSize = -1;
+    private long vmThreadStackSize = -1;
+    private long allocatedBytes = -1;
+    private long gcTimeMillis = -1;
+    private long physicalUsed = -1;
+    private long nativeMemoryTracked = -1;
+
+    public void set(long heapUsed, long heapCommitted, long nmtUsed, long nmtCommitted, long directUsed) {
+        this.heapUsed = heapUsed;
+        this.heapCommitted = heapCommitted;
+        this.nmtUsed = nmtUsed;
+        this.nmtCommitted = nmtCommitted;
+        this.directUsed = directUsed;
+    }
+
+    public void setThreads(long javaThreads, long daemonThreads, long javaThreadStackSize, long vmThreadStackSize) {
+        this.javaThreads = javaThreads;
+        this.daemonThreads = daemonThreads;
+        this.javaThreadStackSize = javaThreadStackSize;
+        this.vmThreadStackSize = vmThreadStackSize;
+    }
+
+    public void setHeapMax(long heapMax) {
+        this.heapMax = heapMax;
+    }
+
+    public void setAllocatedBytes(long allocatedBytes) {
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public void setGcTimeMillis(long gcTimeMillis) {
+        this.gcTimeMillis = gcTimeMillis;
+    }
+
+    /**
+     * Эти значения приходят только событиями JFR, опрос MBean'ов их не заполняет.
+     */
+    public void setJfrOnly(long physicalUsed, long nativeMemoryTracked) {
+        this.physicalUsed = physicalUsed;
+        this.nativeMemoryTracked = nativeMemoryTracked;
+    }
+
+    public long heapUsed() {
+        return heapUsed;
+    }
+
+    public long heapCommitted() {
+        return heapCommitted;
+    }
+
+    /**
+     * @return предел heap (-Xmx) в байтах или -1, если он не задан или неизвестен
+     */
+    public long heapMax() {
+        return heapMax;
+    }
+
+    public long nmtUsed() {
+        return nmtUsed;
+    }
 
+    public long nmtCommitted() {
+        return nmtCommitted;
+    }
+
+    public long directUsed() {
+        return directUsed;
+    }
+
+    /**
+     * @return живые потоки по ThreadMXBean или -1, если их не удалось прочитать
+     */
+    public long javaThreads() {
+        return javaThreads;
+    }
+
+    public long daemonThreads() {
+        return daemonThreads;
+    }
+
+    /**
+     * @param kilobytes значение флага ThreadStackSize или VMThreadStackSize
+     * @return размер стека в байтах или -1, если значение некорректно
+     */
+    public static long stackSizeBytes(long kilobytes) {
+        if (kilobytes < 0) {
+            return -1;
+        }
+        return kilobytes == 0 ? OS_DEFAULT_STACK_SIZE : kilobytes * KILOBYTE;
+    }
+
+    /**
+     * @return размер стека Java-потока (-Xss) в байтах
+     */
+    public long javaThreadStackSize() {
+        return javaThreadStackSize;
+    }
+
+    /**
+     * @return размер стека служебного потока JVM (сборщик мусора, компилятор) в байтах
+     */
+    public long vmThreadStackSize() {
+        return vmThreadStackSize;
+    }
+
+    /**
+     * @return байты, выделенные всеми потоками с запуска JVM, включая завершившиеся потоки
+     */
+    public long allocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * @return суммарное время сборок мусора с запуска JVM в миллисекундах
+     */
+    public long gcTimeMillis() {
+        return gcTimeMillis;
+    }
+
+    /**
+     * @return занятая физическая память хоста (или контейнера) с точки зрения JVM либо -1
+     */
+    public long physicalUsed() {
+        return physicalUsed;
+    }
+
+    /**
+     * @return вся память, учтённая Native Memory Tracking (включая heap), либо -1, если NMT выключен
+     */
+    public long nativeMemoryTracked() {
+        return nativeMemoryTracked;
+    }
+}
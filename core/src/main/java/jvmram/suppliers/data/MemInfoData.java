@@ -1,5 +1,61 @@
 package jvmram.suppliers.data;
 
-public record MemInfoData(long rss) implements HardwareData {
-}
+/**
+ * Сводка памяти процесса из /proc/[pid]/status. Значение -1 означает, что поля нет в этом ядре.
+ */
+public final class MemInfoData implements HardwareData {
+    private long rss;
+    private long rssAnon;
+    private long rssFile;
+    private long rssShmem;
+    private long peakRss;
+    private long swap;
+    private long threads;
+
+    public void set(long rss, long rssAnon, long rssFile, long rssShmem, long peakRss, long swap, long threads) {
+        this.rss = rss;
+        this.rssAnon = rssAnon;
+        this.rssFile = rssFile;
+        this.rssShmem = rssShmem;
+        this.peakRss = peakRss;
+        this.swap = swap;
+        this.threads = threads;
+    }
+
+    public long rss() {
+        return rss;
+    }
+
+    public long rssAnon() {
+        return rssAnon;
+    }
+
+    public long rssFile() {
+        return rssFile;
+    }
 
+    public long rssShmem() {
+        return rssShmem;
+    }
+
+    /**
+     * @return VmHWM — наибольший RSS за время жизни процесса
+     */
+    public long peakRss() {
+        return peakRss;
+    }
+
+    /**
+     * @return VmSwap — сколько анонимной памяти процесса вытеснено в swap
+     */
+    public long swap() {
+        return swap;
+    }
+
+    /**
+     * @return все потоки процесса, включая служебные потоки JVM, которых не видно через JMX
+     */
+    public long threads() {
+        return threads;
+    }
+}
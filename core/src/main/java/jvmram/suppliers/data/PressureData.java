@@ -0,0 +1,34 @@
+package jvmram.suppliers.data;
+
+/**
+ * Давление на память (PSI). Средние — в сотых долях процента, накопленное время — в микросекундах.
+ */
+public final class PressureData implements HardwareData {
+    private long someAvg10;
+    private long fullAvg10;
+    private long someTotal;
+    private long fullTotal;
+
+    public void set(long someAvg10, long fullAvg10, long someTotal, long fullTotal) {
+        this.someAvg10 = someAvg10;
+        this.fullAvg10 = fullAvg10;
+        this.someTotal = someTotal;
+        this.fullTotal = fullTotal;
+    }
+
+    public long someAvg10() {
+        return someAvg10;
+    }
+
+    public long fullAvg10() {
+        return fullAvg10;
+    }
+
+    public long someTotal() {
+        return someTotal;
+    }
+
+    public long fullTotal() {
+        return fullTotal;
+    }
+}
@@ -1,5 +1,13 @@
 package jvmram.suppliers.data;
 
-public record PwsData(long pws) implements HardwareData {
-}
+public final class PwsData implements HardwareData {
+    private long pws;
+
+    public void set(long pws) {
+        this.pws = pws;
+    }
 
+    public long pws() {
+        return pws;
+    }
+}
@@ -1,5 +1,19 @@
 package jvmram.suppliers.data;
 
-public record SmapsData(long pss, long uss) implements HardwareData {
-}
+public final class SmapsData implements HardwareData {
+    private long pss;
+    private long uss;
+
+    public void set(long pss, long uss) {
+        this.pss = pss;
+        this.uss = uss;
+    }
 
+    public long pss() {
+        return pss;
+    }
+
+    public long uss() {
+        return uss;
+    }
+}
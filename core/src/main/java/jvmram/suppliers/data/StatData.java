@@ -0,0 +1,28 @@
+package jvmram.suppliers.data;
+
+/**
+ * Счётчики страничных отказов процесса из /proc/[pid]/stat с момента его запуска.
+ */
+public final class StatData implements HardwareData {
+    private long minorFaults;
+    private long majorFaults;
+
+    public void set(long minorFaults, long majorFaults) {
+        this.minorFaults = minorFaults;
+        this.majorFaults = majorFaults;
+    }
+
+    /**
+     * @return отказы, обслуженные без чтения с диска (первое касание, страница уже в page cache)
+     */
+    public long minorFaults() {
+        return minorFaults;
+    }
+
+    /**
+     * @return отказы, потребовавшие чтения с диска: подкачка из swap или чтение файла
+     */
+    public long majorFaults() {
+        return majorFaults;
+    }
+}
@@ -1,5 +1,19 @@
 package jvmram.suppliers.data;
 
-public record WinData(long ws, long pb) implements HardwareData {
-}
+public final class WinData implements HardwareData {
+    private long ws;
+    private long pb;
+
+    public void set(long ws, long pb) {
+        this.ws = ws;
+        this.pb = pb;
+    }
 
+    public long ws() {
+        return ws;
+    }
+
+    public long pb() {
+        return pb;
+    }
+}
@@ -1,5 +1,6 @@
 package jvmram.visibility.impl;
 
+import jvmram.conf.Config;
 import jvmram.visibility.MetricVisibility;
 import jvmram.model.metrics.MetricType;
 import org.slf4j.Logger;
@@ -17,6 +18,11 @@ public class MetricVisibilityImpl implements MetricVisibility {
     private final Set<MetricType> invisibles = Collections.synchronizedSet(EnumSet.noneOf(MetricType.class));
 
     private MetricVisibilityImpl() {
+        Config.DEFAULT_METRIC_VISIBILITY.forEach((type, visible) -> {
+            if (!visible) {
+                invisibles.add(type);
+            }
+        });
     }
 
     @Override
@@ -2,14 +2,21 @@ module jvmram.core {
     requires com.sun.jna;
     requires com.sun.jna.platform;
     requires java.management;
+    requires java.net.http;
+    requires jdk.management;
     requires jdk.attach;
+    requires jdk.jfr;
+    requires jdk.management.jfr;
     requires static org.jspecify;
     requires org.slf4j;
     requires jvmram.model;
 
+    exports jvmram.alerts;
+    exports jvmram.analysis;
     exports jvmram.conf;
     exports jvmram.metrics;
     exports jvmram.controller;
     exports jvmram.process;
+    exports jvmram.stats;
     exports jvmram.visibility;
 }
\ No newline at end of file
@@ -2,5 +2,36 @@ package jvmram.model.graph;
 
 import jvmram.model.metrics.MetricType;
 
-public record GraphKey(MetricType type, long pid) {
+/**
+ * Ключ-указатель на график.
+ *
+ * @param type  тип памяти
+ * @param pid   номер процесса; для группы процессов — номер корневого процесса группы; для хоста — {@link #HOST_PID}
+ * @param scope к чему относится график: к отдельному процессу, к группе процессов или ко всему хосту
+ */
+public record GraphKey(MetricType type, long pid, Scope scope) {
+
+    /**
+     * Номер, под которым хранятся графики хоста. Процесса с таким номером в пространстве пользователя не бывает.
+     */
+    public static final long HOST_PID = 0;
+
+    public GraphKey(MetricType type, long pid) {
+        this(type, pid, Scope.PROCESS);
+    }
+
+    public enum Scope {
+        /**
+         * Отдельный процесс.
+         */
+        PROCESS,
+        /**
+         * Сумма по явно отслеживаемому процессу и всем его процессам-потомкам.
+         */
+        GROUP,
+        /**
+         * Хост целиком: давление на память и сводка /proc/meminfo.
+         */
+        HOST
+    }
 }
@@ -0,0 +1,28 @@
+package jvmram.model.graph;
+
+/**
+ * Получатель точек измерения по мере их добавления в очереди.
+ * Вызывается синхронно в потоке, который добавляет точку,
+ * поэтому обработка должна быть быстрой и не должна блокироваться.
+ */
+@FunctionalInterface
+public interface GraphPointListener {
+
+    /**
+     * Точка добавлена в очередь.
+     *
+     * @param key        ключ-указатель на график; один и тот же объект для всех точек графика
+     * @param epochNanos момент измерения в наносекундах от эпохи
+     * @param bytes      количество потребляемых байт
+     */
+    void onAdded(GraphKey key, long epochNanos, long bytes);
+
+    /**
+     * Процесс завершился, и точек по нему больше не будет.
+     * Получатель может освободить состояние, накопленное по процессу.
+     *
+     * @param pid номер завершившегося процесса
+     */
+    default void onSealed(long pid) {
+    }
+}
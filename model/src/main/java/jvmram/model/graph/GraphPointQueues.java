@@ -12,10 +12,26 @@ public interface GraphPointQueues {
     Collection<GraphKey> keys();
 
     /**
-     * Отдаёт очередь (график) данных для определённого типа памяти и нужного PID.
+     * Отдаёт копию очереди (графика) данных для определённого типа памяти и нужного PID.
      *
      * @param key ключ-указатель на график
-     * @return очередь
+     * @return точки очереди от старых к новым; пустой список, если такой очереди нет
      */
     Collection<GraphPoint> getPoints(GraphKey key);
+
+    /**
+     * Размах значений графика без копирования его точек.
+     *
+     * @param key              ключ-указатель на график
+     * @param sinceEpochNanos  точки до этого момента (в наносекундах от эпохи) не учитываются
+     * @return границы значений; {@link GraphValueRange#EMPTY}, если подходящих точек нет
+     */
+    GraphValueRange range(GraphKey key, long sinceEpochNanos);
+
+    /**
+     * Сколько данных держат очереди.
+     *
+     * @return размеры очередей на текущий момент
+     */
+    GraphPointQueuesStats stats();
 }
@@ -0,0 +1,12 @@
+package jvmram.model.graph;
+
+/**
+ * Сколько данных держат очереди графиков.
+ *
+ * @param series        число очередей (графиков)
+ * @param points        число точек во всех очередях
+ * @param retainedBytes оценка занятой очередями памяти в байтах: буферы очередей выделяются сразу целиком,
+ *                      а буферы значений столбцов кадра растут по мере заполнения
+ */
+public record GraphPointQueuesStats(int series, long points, long retainedBytes) {
+}
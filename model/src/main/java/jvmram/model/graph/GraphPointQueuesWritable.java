@@ -3,24 +3,86 @@ package jvmram.model.graph;
 import jvmram.model.graph.impl.GraphPointQueuesImpl;
 import jvmram.model.metrics.MetricType;
 
-import javax.swing.*;
-import java.time.Instant;
-import java.util.Collection;
-import java.util.List;
-import java.util.NoSuchElementException;
-
 public interface GraphPointQueuesWritable extends GraphPointQueues {
 
+    /**
+     * Значение {@link #add}, означающее, что ни одна точка не вытеснена.
+     */
+    long NOTHING_EVICTED = Long.MIN_VALUE;
+
     /**
      * Добавить точку измерения потребления определённого типа памяти для определённого PID в свою очередь.
+     * Если очередь уже существует, добавление не выделяет память.
+     *
+     * @param pid        к какому процессу относится измерение
+     * @param metricType тип памяти
+     * @param epochNanos момент измерения в наносекундах от эпохи
+     * @param bytes      количество потребляемых байт
+     * @return момент точки, вытесненной из очереди из-за ограничения её размера, или {@link #NOTHING_EVICTED}
+     */
+    long add(long pid, MetricType metricType, long epochNanos, long bytes);
+
+    /**
+     * Добавить точку измерения в очередь (график) по её ключу.
+     *
+     * @param key        ключ-указатель на график
+     * @param epochNanos момент измерения в наносекундах от эпохи
+     * @param bytes      количество потребляемых байт
+     * @return момент точки, вытесненной из очереди из-за ограничения её размера, или {@link #NOTHING_EVICTED}
+     */
+    long add(GraphKey key, long epochNanos, long bytes);
+
+    /**
+     * Добавить строку измерений процесса на выровненном такте: все значения строки получают один момент.
+     * Строки процесса хранятся кадром из столбцов — одного столбца моментов и столбца значений на каждый тип памяти,
+     * поэтому момент хранится один раз на строку, а не на каждую точку. Пропуск в столбце места под значение не занимает.
+     * Если кадр процесса уже существует, добавление выделяет память, только пока буфер значений столбца растёт.
+     *
+     * @param pid          к какому процессу относятся измерения
+     * @param epochNanos   момент такта в наносекундах от эпохи
+     * @param bytesByType  количество потребляемых байт по порядковому номеру типа памяти;
+     *                     отрицательное значение означает, что на этом такте нового измерения нет
+     * @return момент строки, вытесненной из кадра из-за ограничения его размера, или {@link #NOTHING_EVICTED}
+     */
+    long addRow(long pid, long epochNanos, long[] bytesByType);
+
+    /**
+     * Выровнять начало остальных очередей по вытесненной точке.
      *
-     * @param pid        - к какому процессу относится измерение
-     * @param metricType - тип памяти
-     * @param graphPoint - числовое значение (время / количество потребляемых байт)
+     * @param evictedEpochNanos самый поздний момент среди вытесненных точек
      */
-    List<GraphPoint> add(long pid, MetricType metricType, GraphPoint graphPoint);
+    void handleExceed(long evictedEpochNanos);
 
-    void handleExceed(Collection<GraphPoint> exceeds);
+    /**
+     * Закрыть графики завершившегося процесса: накопленные точки остаются, новые не принимаются.
+     *
+     * @param pid номер завершившегося процесса
+     */
+    void seal(long pid);
+
+    /**
+     * Снова принимать точки процесса, например, если его номер достался новому процессу.
+     *
+     * @param pid номер процесса
+     */
+    void reopen(long pid);
+
+    /**
+     * Удалить графики закрытых процессов: закрытых раньше указанного момента
+     * и самых давно закрытых сверх указанного числа. Слушатели об этом не узнают:
+     * состояние процесса они отпустили ещё в {@link GraphPointListener#onSealed(long)}.
+     *
+     * @param sealedBeforeEpochNanos графики, закрытые раньше этого момента (в наносекундах от эпохи), удаляются
+     * @param keepAtMost             сколько закрытых процессов можно хранить
+     */
+    void evictSealed(long sealedBeforeEpochNanos, int keepAtMost);
+
+    /**
+     * Подписаться на добавление точек измерения.
+     *
+     * @param listener получатель добавленных точек
+     */
+    void addListener(GraphPointListener listener);
 
     static GraphPointQueuesWritable getInstance() {
         return GraphPointQueuesImpl.INSTANCE;
@@ -0,0 +1,13 @@
+package jvmram.model.graph;
+
+/**
+ * Наименьшее и наибольшее значения графика на отрезке времени.
+ *
+ * @param points число точек на отрезке; 0, если точек нет и границы не заданы
+ * @param min    наименьшее значение
+ * @param max    наибольшее значение
+ */
+public record GraphValueRange(int points, long min, long max) {
+
+    public static final GraphValueRange EMPTY = new GraphValueRange(0, 0, 0);
+}
@@ -2,78 +2,630 @@ package jvmram.model.graph.impl;
 
 import jvmram.model.graph.GraphKey;
 import jvmram.model.graph.GraphPoint;
+import jvmram.model.graph.GraphPointListener;
+import jvmram.model.graph.GraphPointQueuesStats;
 import jvmram.model.graph.GraphPointQueuesWritable;
+import jvmram.model.graph.GraphValueRange;
 import jvmram.model.metrics.MetricType;
+import jvmram.model.util.LongObjectMap;
+import jvmram.model.util.WallClock;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.invoke.MethodHandles;
-import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Очереди хранятся кольцевыми буферами примитивов, а очереди процессов дополнительно проиндексированы
+ * по pid и типу метрики, поэтому добавление точки в существующую очередь не выделяет память.
+ * Точки в виде {@link GraphPoint} создаются только при чтении.
+ * <p>
+ * Строки выровненных тактов хранятся кадром процесса: один буфер моментов на все его графики
+ * и по столбцу значений на тип памяти. Пропуск в столбце (нового измерения на такте не было) стоит один бит.
+ * <p>
+ * Общая блокировка защищает только словари очередей и держится на время поиска очереди.
+ * Точки каждой очереди и кадра защищены блокировкой самой очереди, поэтому чтение одного графика
+ * не задерживает запись в другой. Вытеснение лишь сдвигает общую границу, а отрезают
+ * свои старые точки сами очереди при следующем обращении к ним.
+ */
 public class GraphPointQueuesImpl implements GraphPointQueuesWritable {
 
     private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
     private static final int SIZE_LIMIT = 1_000;
 
-    private final Map<GraphKey, Deque<GraphPoint>> data = new ConcurrentHashMap<>();
+    private static final MetricType[] METRIC_TYPES = MetricType.values();
 
-    private GraphPointQueuesImpl() {
+    private final Object lock = new Object();
+
+    private final Map<GraphKey, Series> byKey = new HashMap<>();
+    private final List<Series> allSeries = new ArrayList<>();
+    private final Map<GraphKey, Frame> framesByKey = new HashMap<>();
+    private final List<Frame> allFrames = new ArrayList<>();
+    private final LongObjectMap<ProcessSeries> byPid = new LongObjectMap<>();
+
+    /**
+     * Точки раньше этого момента отрезаются у всех очередей. Только растёт.
+     */
+    private final AtomicLong trimBeforeEpochNanos = new AtomicLong(NOTHING_EVICTED);
+
+    private volatile GraphPointListener[] listeners = new GraphPointListener[0];
+
+    /**
+     * Отдельные экземпляры нужны только для замеров производительности.
+     */
+    GraphPointQueuesImpl() {
+    }
+
+    @Override
+    public long add(long pid, MetricType metricType, long epochNanos, long bytes) {
+        checkBytes(bytes, pid, metricType);
+        Series series;
+        synchronized (lock) {
+            var processSeries = processSeries(pid);
+            if (processSeries.sealed) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Ignoring {} bytes of sealed pid {}", bytes, pid);
+                }
+                return NOTHING_EVICTED;
+            }
+            series = processSeries.byType[metricType.ordinal()];
+            if (series == null) {
+                series = createSeries(new GraphKey(metricType, pid));
+                processSeries.byType[metricType.ordinal()] = series;
+            }
+        }
+        var evicted = series.offer(trimBeforeEpochNanos.get(), epochNanos, bytes);
+        notifyListeners(series.key, epochNanos, bytes);
+        return evicted;
     }
 
     @Override
-    public List<GraphPoint> add(long pid, MetricType metricType, GraphPoint graphPoint) {
+    public long add(GraphKey key, long epochNanos, long bytes) {
+        if (key.scope() == GraphKey.Scope.PROCESS) {
+            return add(key.pid(), key.type(), epochNanos, bytes);
+        }
+        checkBytes(bytes, key.pid(), key.type());
+        Series series;
+        synchronized (lock) {
+            series = byKey.get(key);
+            if (series == null) {
+                series = createSeries(key);
+            }
+        }
+        var evicted = series.offer(trimBeforeEpochNanos.get(), epochNanos, bytes);
+        notifyListeners(series.key, epochNanos, bytes);
+        return evicted;
+    }
+
+    @Override
+    public long addRow(long pid, long epochNanos, long[] bytesByType) {
+        Frame frame;
+        synchronized (lock) {
+            var processSeries = processSeries(pid);
+            if (processSeries.sealed) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Ignoring a row of sealed pid {}", pid);
+                }
+                return NOTHING_EVICTED;
+            }
+            frame = processSeries.frame;
+            if (frame == null) {
+                LOG.debug("creating frame for pid {}", pid);
+                frame = new Frame();
+                processSeries.frame = frame;
+                allFrames.add(frame);
+            }
+            for (int i = 0; i < bytesByType.length; i++) {
+                if (bytesByType[i] >= 0 && frame.keys[i] == null) {
+                    var key = new GraphKey(METRIC_TYPES[i], pid);
+                    frame.addColumn(i, key);
+                    framesByKey.put(key, frame);
+                }
+            }
+        }
+        var evicted = frame.offer(trimBeforeEpochNanos.get(), epochNanos, bytesByType);
+        for (int i = 0; i < bytesByType.length; i++) {
+            if (bytesByType[i] >= 0) {
+                notifyListeners(frame.keys[i], epochNanos, bytesByType[i]);
+            }
+        }
+        return evicted;
+    }
 
-        var bytes = graphPoint.bytes();
+    private static void checkBytes(long bytes, long pid, MetricType metricType) {
         if (bytes < 0) {
-            throw new IllegalArgumentException("Bytes in GraphPoint must be positive: %s".formatted(graphPoint));
+            throw new IllegalArgumentException(
+                    "Bytes in GraphPoint must be positive: %d of %s for pid %d".formatted(bytes, metricType, pid)
+            );
         }
+    }
 
-        var key = new GraphKey(metricType, pid);
-        var deque = data.computeIfAbsent(key, ignored -> {
-            LOG.debug("creating entry for a {}", key);
-            return new LinkedBlockingDeque<>();
-        });
-        var exceed = new ArrayList<GraphPoint>();
-        while (deque.size() >= SIZE_LIMIT) {
-            exceed.add(deque.pollFirst());
+    /**
+     * Вызывать только под блокировкой.
+     */
+    private ProcessSeries processSeries(long pid) {
+        var output = byPid.get(pid);
+        if (output == null) {
+            output = new ProcessSeries(pid);
+            byPid.put(pid, output);
+        }
+        return output;
+    }
+
+    /**
+     * Вызывать только под блокировкой.
+     */
+    private Series createSeries(GraphKey key) {
+        LOG.debug("creating entry for a {}", key);
+        var output = new Series(key);
+        byKey.put(key, output);
+        allSeries.add(output);
+        return output;
+    }
+
+    private void notifyListeners(GraphKey key, long epochNanos, long bytes) {
+        var current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            try {
+                current[i].onAdded(key, epochNanos, bytes);
+            } catch (Exception e) {
+                LOG.warn("Listener failed to handle {} bytes of {}", bytes, key, e);
+            }
         }
-        deque.offer(graphPoint);
-        return exceed.isEmpty()
-                ? List.of()
-                : exceed;
     }
 
     @Override
-    public void handleExceed(Collection<GraphPoint> exceeds) {
-        if (exceeds.isEmpty()) {
-            return;
+    public void seal(long pid) {
+        synchronized (lock) {
+            var processSeries = processSeries(pid);
+            if (processSeries.sealed) {
+                return;
+            }
+            processSeries.sealed = true;
+            processSeries.sealedEpochNanos = WallClock.nowEpochNanos();
+        }
+        LOG.debug("Sealing graphs of pid {}", pid);
+        for (var listener : listeners) {
+            try {
+                listener.onSealed(pid);
+            } catch (Exception e) {
+                LOG.warn("Listener failed to handle sealing of pid {}", pid, e);
+            }
         }
-        var maxExceedInstant = exceeds.stream()
-                .map(GraphPoint::moment)
-                .max(Instant::compareTo)
-                .orElse(Instant.MIN);
-        data.values().forEach(deque -> trim(deque, maxExceedInstant));
     }
 
-    private static void trim(Deque<GraphPoint> deque, Instant maxExceed) {
-        var point = deque.peekFirst();
-        if (point != null && point.moment().isBefore(maxExceed)) {
-            deque.pollFirst();
+    @Override
+    public void reopen(long pid) {
+        synchronized (lock) {
+            var processSeries = byPid.get(pid);
+            if (processSeries == null || !processSeries.sealed) {
+                return;
+            }
+            processSeries.sealed = false;
         }
+        LOG.debug("Reopening graphs of pid {}", pid);
+    }
+
+    @Override
+    public void evictSealed(long sealedBeforeEpochNanos, int keepAtMost) {
+        synchronized (lock) {
+            var kept = new ArrayList<ProcessSeries>();
+            byPid.removeKeysIf(pid -> {
+                var processSeries = byPid.get(pid);
+                if (processSeries == null || !processSeries.sealed) {
+                    return false;
+                }
+                if (processSeries.sealedEpochNanos >= sealedBeforeEpochNanos) {
+                    kept.add(processSeries);
+                    return false;
+                }
+                forget(processSeries);
+                return true;
+            });
+            if (kept.size() <= keepAtMost) {
+                return;
+            }
+            kept.sort(Comparator.comparingLong(processSeries -> processSeries.sealedEpochNanos));
+            for (var processSeries : kept.subList(0, kept.size() - keepAtMost)) {
+                byPid.remove(processSeries.pid);
+                forget(processSeries);
+            }
+        }
+    }
+
+    /**
+     * Вызывать только под блокировкой. Запись процесса в {@link #byPid} удаляет вызывающий.
+     */
+    private void forget(ProcessSeries processSeries) {
+        LOG.debug("Evicting graphs of sealed pid {}", processSeries.pid);
+        for (var series : processSeries.byType) {
+            if (series != null) {
+                byKey.remove(series.key);
+                allSeries.remove(series);
+            }
+        }
+        var frame = processSeries.frame;
+        if (frame != null) {
+            for (var key : frame.keys) {
+                if (key != null) {
+                    framesByKey.remove(key);
+                }
+            }
+            allFrames.remove(frame);
+        }
+    }
+
+    @Override
+    public synchronized void addListener(GraphPointListener listener) {
+        var current = listeners;
+        var updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        listeners = updated;
+    }
+
+    @Override
+    public void handleExceed(long evictedEpochNanos) {
+        if (evictedEpochNanos == NOTHING_EVICTED) {
+            return;
+        }
+        trimBeforeEpochNanos.accumulateAndGet(evictedEpochNanos, Math::max);
     }
 
     @Override
     public Collection<GraphKey> keys() {
-        return data.keySet();
+        synchronized (lock) {
+            var output = new ArrayList<GraphKey>(byKey.size() + framesByKey.size());
+            output.addAll(byKey.keySet());
+            output.addAll(framesByKey.keySet());
+            return output;
+        }
     }
 
     @Override
     public Collection<GraphPoint> getPoints(GraphKey key) {
-        return data.get(key);
+        Series series;
+        Frame frame;
+        synchronized (lock) {
+            series = byKey.get(key);
+            frame = framesByKey.get(key);
+        }
+        var trimBefore = trimBeforeEpochNanos.get();
+        if (series != null) {
+            return series.toPoints(trimBefore);
+        }
+        return frame == null
+                ? List.of()
+                : frame.toPoints(trimBefore, key.type().ordinal());
+    }
+
+    @Override
+    public GraphValueRange range(GraphKey key, long sinceEpochNanos) {
+        Series series;
+        Frame frame;
+        synchronized (lock) {
+            series = byKey.get(key);
+            frame = framesByKey.get(key);
+        }
+        var trimBefore = trimBeforeEpochNanos.get();
+        if (series != null) {
+            return series.range(trimBefore, sinceEpochNanos);
+        }
+        return frame == null
+                ? GraphValueRange.EMPTY
+                : frame.range(trimBefore, key.type().ordinal(), sinceEpochNanos);
+    }
+
+    @Override
+    public GraphPointQueuesStats stats() {
+        var trimBefore = trimBeforeEpochNanos.get();
+        synchronized (lock) {
+            long points = 0;
+            for (int i = 0; i < allSeries.size(); i++) {
+                points += allSeries.get(i).size(trimBefore);
+            }
+            var series = allSeries.size();
+            var retainedBytes = series * Series.RETAINED_BYTES;
+            for (int i = 0; i < allFrames.size(); i++) {
+                var frame = allFrames.get(i);
+                series += frame.columnCount();
+                points += frame.points(trimBefore);
+                retainedBytes += frame.retainedBytes();
+            }
+            return new GraphPointQueuesStats(series, points, retainedBytes);
+        }
+    }
+
+    private static final class ProcessSeries {
+        private final long pid;
+        private final Series[] byType = new Series[METRIC_TYPES.length];
+        private @Nullable Frame frame;
+        private boolean sealed;
+        private long sealedEpochNanos;
+
+        private ProcessSeries(long pid) {
+            this.pid = pid;
+        }
+    }
+
+    /**
+     * Кольцевой буфер точек одного графика. Точки защищены блокировкой самого буфера;
+     * каждое обращение сначала отрезает точки раньше общей границы.
+     */
+    private static final class Series {
+        /**
+         * Два массива long по {@link #SIZE_LIMIT} элементов с заголовками плюс сам объект и его ключ.
+         */
+        private static final long RETAINED_BYTES = 2 * (16 + 8L * SIZE_LIMIT) + 32 + 32;
+
+        private final GraphKey key;
+        private final long[] moments = new long[SIZE_LIMIT];
+        private final long[] bytes = new long[SIZE_LIMIT];
+        private int head;
+        private int size;
+
+        private Series(GraphKey key) {
+            this.key = key;
+        }
+
+        private synchronized long offer(long trimBefore, long epochNanos, long value) {
+            trim(trimBefore);
+            var evicted = NOTHING_EVICTED;
+            if (size == SIZE_LIMIT) {
+                evicted = moments[head];
+                head = (head + 1) % SIZE_LIMIT;
+                size--;
+            }
+            var tail = (head + size) % SIZE_LIMIT;
+            moments[tail] = epochNanos;
+            bytes[tail] = value;
+            size++;
+            return evicted;
+        }
+
+        private void trim(long trimBefore) {
+            while (size > 0 && moments[head] < trimBefore) {
+                head = (head + 1) % SIZE_LIMIT;
+                size--;
+            }
+        }
+
+        private synchronized int size(long trimBefore) {
+            trim(trimBefore);
+            return size;
+        }
+
+        private synchronized List<GraphPoint> toPoints(long trimBefore) {
+            trim(trimBefore);
+            var output = new ArrayList<GraphPoint>(size);
+            for (int i = 0; i < size; i++) {
+                var index = (head + i) % SIZE_LIMIT;
+                output.add(new GraphPoint(WallClock.toInstant(moments[index]), bytes[index]));
+            }
+            return output;
+        }
+
+        /**
+         * Обходит буфер с конца: моменты в нём возрастают, поэтому обход обрывается на первой ранней точке.
+         */
+        private synchronized GraphValueRange range(long trimBefore, long sinceEpochNanos) {
+            trim(trimBefore);
+            var points = 0;
+            var min = Long.MAX_VALUE;
+            var max = Long.MIN_VALUE;
+            for (int i = size - 1; i >= 0; i--) {
+                var index = (head + i) % SIZE_LIMIT;
+                if (moments[index] < sinceEpochNanos) {
+                    break;
+                }
+                points++;
+                min = Math.min(min, bytes[index]);
+                max = Math.max(max, bytes[index]);
+            }
+            return points == 0 ? GraphValueRange.EMPTY : new GraphValueRange(points, min, max);
+        }
+    }
+
+    /**
+     * Кольцевой буфер строк выровненных тактов одного процесса: столбец моментов и столбцы значений по типам памяти.
+     * Столбец появляется при первом значении своего типа. Метрики с длинным таймаутом дают значение не на каждом
+     * такте, поэтому пропуски не занимают ячеек: столбец хранит только свои значения и по биту на строку.
+     * Строки защищены блокировкой самого кадра, как и точки {@link Series}.
+     */
+    private static final class Frame {
+        /**
+         * Буфер моментов с заголовком и массивы столбцов и ключей.
+         */
+        private static final long RETAINED_BYTES = 16 + 8L * SIZE_LIMIT + 2 * (16 + 4L * METRIC_TYPES.length) + 32;
+
+        private final GraphKey[] keys = new GraphKey[METRIC_TYPES.length];
+        private final Column[] columns = new Column[METRIC_TYPES.length];
+        private final long[] moments = new long[SIZE_LIMIT];
+        private int columnCount;
+        private int head;
+        private int size;
+
+        private synchronized void addColumn(int type, GraphKey key) {
+            keys[type] = key;
+            columns[type] = new Column();
+            columnCount++;
+        }
+
+        private synchronized long offer(long trimBefore, long epochNanos, long[] row) {
+            trim(trimBefore);
+            var evicted = NOTHING_EVICTED;
+            if (size == SIZE_LIMIT) {
+                evicted = moments[head];
+                dropHead();
+            }
+            var tail = (head + size) % SIZE_LIMIT;
+            moments[tail] = epochNanos;
+            for (int i = 0; i < columns.length; i++) {
+                var column = columns[i];
+                if (column != null) {
+                    column.offer(tail, i < row.length ? row[i] : Column.NO_VALUE);
+                }
+            }
+            size++;
+            return evicted;
+        }
+
+        private void trim(long trimBefore) {
+            while (size > 0 && moments[head] < trimBefore) {
+                dropHead();
+            }
+        }
+
+        private synchronized int columnCount() {
+            return columnCount;
+        }
+
+        private void dropHead() {
+            for (var column : columns) {
+                if (column != null) {
+                    column.dropRow(head);
+                }
+            }
+            head = (head + 1) % SIZE_LIMIT;
+            size--;
+        }
+
+        private synchronized List<GraphPoint> toPoints(long trimBefore, int type) {
+            trim(trimBefore);
+            var column = columns[type];
+            if (column == null) {
+                return List.of();
+            }
+            var output = new ArrayList<GraphPoint>(column.size);
+            var valueIndex = column.head;
+            for (int i = 0; i < size; i++) {
+                var index = (head + i) % SIZE_LIMIT;
+                if (column.isPresent(index)) {
+                    output.add(new GraphPoint(WallClock.toInstant(moments[index]), column.valueAt(valueIndex++)));
+                }
+            }
+            return output;
+        }
+
+        /**
+         * Обходит строки с конца: моменты в кадре возрастают, поэтому обход обрывается на первой ранней строке.
+         */
+        private synchronized GraphValueRange range(long trimBefore, int type, long sinceEpochNanos) {
+            trim(trimBefore);
+            var column = columns[type];
+            if (column == null) {
+                return GraphValueRange.EMPTY;
+            }
+            var points = 0;
+            var min = Long.MAX_VALUE;
+            var max = Long.MIN_VALUE;
+            var valueIndex = column.head + column.size - 1;
+            for (int i = size - 1; i >= 0; i--) {
+                var index = (head + i) % SIZE_LIMIT;
+                if (moments[index] < sinceEpochNanos) {
+                    break;
+                }
+                if (!column.isPresent(index)) {
+                    continue;
+                }
+                var value = column.valueAt(valueIndex--);
+                points++;
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            return points == 0 ? GraphValueRange.EMPTY : new GraphValueRange(points, min, max);
+        }
+
+        private synchronized long points(long trimBefore) {
+            trim(trimBefore);
+            long output = 0;
+            for (var column : columns) {
+                if (column != null) {
+                    output += column.size;
+                }
+            }
+            return output;
+        }
+
+        private synchronized long retainedBytes() {
+            var output = RETAINED_BYTES;
+            for (var column : columns) {
+                if (column != null) {
+                    output += column.retainedBytes();
+                }
+            }
+            return output;
+        }
+    }
+
+    /**
+     * Столбец кадра: биты присутствия значения по номерам строк кадра и кольцевой буфер самих значений.
+     * Значения идут в порядке строк, поэтому вытеснение строки с битом снимает первое значение.
+     * Буфер значений растёт удвоением до {@link #SIZE_LIMIT}: редкий столбец не держит ячеек под пропуски.
+     */
+    private static final class Column {
+        private static final long NO_VALUE = -1;
+        private static final int INITIAL_CAPACITY = 16;
+        /**
+         * Биты присутствия и объект столбца с ключом графика; буфер значений считается по его размеру.
+         */
+        private static final long RETAINED_BYTES = 16 + 8L * ((SIZE_LIMIT + 63) / 64) + 16 + 32 + 32;
+
+        private final long[] present = new long[(SIZE_LIMIT + 63) / 64];
+        private long[] values = new long[INITIAL_CAPACITY];
+        private int head;
+        private int size;
+
+        /**
+         * @param row   номер строки в буфере кадра; её бит уже снят при вытеснении прежней строки
+         * @param value значение или отрицательное число, если на этой строке значения нет
+         */
+        private void offer(int row, long value) {
+            if (value < 0) {
+                return;
+            }
+            present[row >>> 6] |= 1L << row;
+            if (size == values.length) {
+                grow();
+            }
+            values[(head + size) % values.length] = value;
+            size++;
+        }
+
+        private void dropRow(int row) {
+            if (!isPresent(row)) {
+                return;
+            }
+            present[row >>> 6] &= ~(1L << row);
+            head = (head + 1) % values.length;
+            size--;
+        }
+
+        private boolean isPresent(int row) {
+            return (present[row >>> 6] & (1L << row)) != 0;
+        }
+
+        /**
+         * @param index номер значения от начала буфера без учёта кольца
+         */
+        private long valueAt(int index) {
+            return values[index % values.length];
+        }
+
+        private void grow() {
+            var grown = new long[Math.min(SIZE_LIMIT, values.length * 2)];
+            for (int i = 0; i < size; i++) {
+                grown[i] = values[(head + i) % values.length];
+            }
+            values = grown;
+            head = 0;
+        }
+
+        private long retainedBytes() {
+            return RETAINED_BYTES + 8L * values.length;
+        }
     }
 
     public static final GraphPointQueuesImpl INSTANCE = new GraphPointQueuesImpl();
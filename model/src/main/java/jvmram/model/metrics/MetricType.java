@@ -2,6 +2,12 @@ package jvmram.model.metrics;
 
 import java.util.EnumSet;
 
+import static jvmram.model.metrics.MetricUnit.BYTES;
+import static jvmram.model.metrics.MetricUnit.BYTES_PER_SECOND;
+import static jvmram.model.metrics.MetricUnit.COUNT;
+import static jvmram.model.metrics.MetricUnit.HUNDREDTHS_OF_PERCENT;
+import static jvmram.model.metrics.MetricUnit.MICROSECONDS;
+import static jvmram.model.metrics.MetricUnit.PER_SECOND;
 import static jvmram.model.metrics.Os.LINUX;
 import static jvmram.model.metrics.Os.WINDOWS;
 
@@ -14,14 +20,122 @@ public enum MetricType {
     HEAP_USED(EnumSet.allOf(Os.class), "Heap Used"),
     HEAP_COMMITTED(EnumSet.allOf(Os.class), "Heap Committed"),
     NMT_USED(EnumSet.allOf(Os.class), "Native Memory Used"),
-    NMT_COMMITTED(EnumSet.allOf(Os.class), "Native Memory Committed");
+    NMT_COMMITTED(EnumSet.allOf(Os.class), "Native Memory Committed"),
+    /**
+     * RSS за вычетом всего, что JVM признаёт своим: Committed Heap, Committed Non-Heap и direct-буферов.
+     */
+    UNEXPLAINED_RSS(EnumSet.of(LINUX), "Unexplained RSS"),
+    /**
+     * PSS за вычетом всего, что JVM признаёт своим: Committed Heap, Committed Non-Heap и direct-буферов.
+     */
+    UNEXPLAINED_PSS(EnumSet.of(LINUX), "Unexplained PSS"),
+    /**
+     * memory.current cgroup v2, в которой работает процесс: именно по нему приходит OOM killer контейнера.
+     * Включает page cache и память ядра, поэтому обычно больше RSS. Общее для всех процессов cgroup.
+     */
+    CGROUP_CURRENT(EnumSet.of(LINUX), "Cgroup Memory Current"),
+    /**
+     * memory.max cgroup процесса; для cgroup без ограничения данных нет.
+     */
+    CGROUP_MAX(EnumSet.of(LINUX), "Cgroup Memory Max"),
+    CGROUP_ANON(EnumSet.of(LINUX), "Cgroup Anonymous"),
+    CGROUP_FILE(EnumSet.of(LINUX), "Cgroup Page Cache"),
+    CGROUP_KERNEL(EnumSet.of(LINUX), "Cgroup Kernel"),
+    CGROUP_SOCK(EnumSet.of(LINUX), "Cgroup Socket Buffers"),
+    CGROUP_SHMEM(EnumSet.of(LINUX), "Cgroup Shared Memory"),
+    /**
+     * Метрики хоста из /proc/meminfo, в байтах.
+     */
+    HOST_MEM_AVAILABLE(EnumSet.of(LINUX), "Host Available", true),
+    HOST_CACHED(EnumSet.of(LINUX), "Host Page Cache", true),
+    HOST_DIRTY(EnumSet.of(LINUX), "Host Dirty", true),
+    HOST_ANON_HUGE_PAGES(EnumSet.of(LINUX), "Host Anonymous Huge Pages", true),
+    /**
+     * Давление на память хоста (PSI) из /proc/pressure/memory: доля времени за последние 10 секунд,
+     * когда хотя бы одна (some) или все (full) задачи ждали памяти. Не байты, а сотые доли процента.
+     */
+    HOST_PSI_SOME_AVG10(EnumSet.of(LINUX), "Host Memory Pressure (some)", true, HUNDREDTHS_OF_PERCENT),
+    HOST_PSI_FULL_AVG10(EnumSet.of(LINUX), "Host Memory Pressure (full)", true, HUNDREDTHS_OF_PERCENT),
+    /**
+     * Накопленное время ожидания памяти из /proc/pressure/memory. Не байты, а микросекунды.
+     */
+    HOST_PSI_SOME_TOTAL(EnumSet.of(LINUX), "Host Memory Stall Total (some)", true, MICROSECONDS),
+    HOST_PSI_FULL_TOTAL(EnumSet.of(LINUX), "Host Memory Stall Total (full)", true, MICROSECONDS),
+    /**
+     * Состав RSS из /proc/[pid]/status: анонимная память, отображённые файлы и разделяемая память.
+     */
+    RSS_ANON(EnumSet.of(LINUX), "RSS Anonymous"),
+    RSS_FILE(EnumSet.of(LINUX), "RSS File-backed"),
+    RSS_SHMEM(EnumSet.of(LINUX), "RSS Shared Memory"),
+    /**
+     * VmHWM: наибольший RSS за время жизни процесса.
+     */
+    RSS_PEAK(EnumSet.of(LINUX), "Peak RSS"),
+    /**
+     * VmSwap: память процесса, вытесненная в swap. Растёт раньше, чем процесс заметно тормозит.
+     */
+    SWAP(EnumSet.of(LINUX), "Swap"),
+    /**
+     * Страничные отказы из /proc/[pid]/stat. Не байты, а отказы в секунду.
+     * Мажорные отказы требуют чтения с диска: их рост означает, что процессу не хватает памяти.
+     */
+    MINOR_FAULT_RATE(EnumSet.of(LINUX), "Minor Page Faults per Second", PER_SECOND),
+    MAJOR_FAULT_RATE(EnumSet.of(LINUX), "Major Page Faults per Second", PER_SECOND),
+    /**
+     * Все потоки процесса из /proc/[pid]/status, включая сборщик мусора и компиляторы. Не байты, а штуки.
+     */
+    THREADS(EnumSet.of(LINUX), "Threads", COUNT),
+    /**
+     * Живые и daemon-потоки по ThreadMXBean. Не байты, а штуки.
+     */
+    JAVA_THREADS(EnumSet.allOf(Os.class), "Java Threads", COUNT),
+    DAEMON_THREADS(EnumSet.allOf(Os.class), "Daemon Threads", COUNT),
+    /**
+     * Оценка сверху памяти под стеки потоков: Java-потоки по ThreadStackSize, остальные по VMThreadStackSize.
+     * Ядро выделяет страницы стека по мере касания, поэтому в RSS попадает меньше.
+     */
+    THREAD_STACKS(EnumSet.allOf(Os.class), "Thread Stacks (estimate)"),
+    /**
+     * Скорость выделения памяти в heap всеми потоками, в байтах в секунду.
+     */
+    ALLOCATION_RATE(EnumSet.allOf(Os.class), "Allocation Rate", BYTES_PER_SECOND),
+    /**
+     * Доля времени между опросами, ушедшая на сборки мусора. Не байты, а сотые доли процента.
+     */
+    GC_TIME_SHARE(EnumSet.allOf(Os.class), "GC Time Share", HUNDREDTHS_OF_PERCENT),
+    /**
+     * Занятая физическая память хоста или контейнера, как её видит сама JVM (jdk.PhysicalMemory).
+     * Приходит только событиями JFR.
+     */
+    PHYSICAL_MEMORY_USED(EnumSet.allOf(Os.class), "Physical Memory Used (JVM view)"),
+    /**
+     * Вся память, учтённая Native Memory Tracking, включая heap (jdk.NativeMemoryUsageTotal).
+     * Приходит только событиями JFR от JDK 20+ с включённым -XX:NativeMemoryTracking.
+     */
+    NATIVE_MEMORY_TRACKED(EnumSet.allOf(Os.class), "Native Memory Tracked");
     
     private final EnumSet<Os> applicable;
     private final String displayName;
+    private final boolean hostWide;
+    private final MetricUnit unit;
 
     MetricType(EnumSet<Os> applicable, String displayName) {
+        this(applicable, displayName, false, BYTES);
+    }
+
+    MetricType(EnumSet<Os> applicable, String displayName, MetricUnit unit) {
+        this(applicable, displayName, false, unit);
+    }
+
+    MetricType(EnumSet<Os> applicable, String displayName, boolean hostWide) {
+        this(applicable, displayName, hostWide, BYTES);
+    }
+
+    MetricType(EnumSet<Os> applicable, String displayName, boolean hostWide, MetricUnit unit) {
         this.applicable = applicable;
         this.displayName = displayName;
+        this.hostWide = hostWide;
+        this.unit = unit;
     }
 
     public boolean isApplicable(Os input) {
@@ -31,4 +145,18 @@ public enum MetricType {
     public String getDisplayName() {
         return displayName;
     }
+
+    /**
+     * @return относится ли метрика ко всему хосту, а не к отдельному процессу
+     */
+    public boolean isHostWide() {
+        return hostWide;
+    }
+
+    /**
+     * @return в чём измеряются значения метрики; несмотря на имя поля bytes в точках, не все метрики в байтах
+     */
+    public MetricUnit getUnit() {
+        return unit;
+    }
 }
@@ -0,0 +1,22 @@
+package jvmram.model.metrics;
+
+/**
+ * В чём измеряются значения метрики. Значения всех метрик передаются целыми числами.
+ */
+public enum MetricUnit {
+    BYTES,
+    BYTES_PER_SECOND,
+    /**
+     * Штуки, например потоки.
+     */
+    COUNT,
+    /**
+     * События в секунду, например страничные отказы.
+     */
+    PER_SECOND,
+    /**
+     * Сотые доли процента: 10000 — это 100%.
+     */
+    HUNDREDTHS_OF_PERCENT,
+    MICROSECONDS
+}
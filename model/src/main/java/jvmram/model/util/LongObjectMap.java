@@ -0,0 +1,130 @@
+package jvmram.model.util;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.function.LongPredicate;
+
+/**
+ * Словарь с ключами long без упаковки ключей: открытая адресация с линейным пробированием.
+ * Чтение и замена значения по существующему ключу не выделяют память.
+ * Не потокобезопасен.
+ *
+ * @param <V> тип значений
+ */
+public final class LongObjectMap<V> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys = new long[MIN_CAPACITY];
+    private @Nullable Object[] values = new Object[MIN_CAPACITY];
+    private boolean[] used = new boolean[MIN_CAPACITY];
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public @Nullable V get(long key) {
+        var index = find(key);
+        return index < 0
+                ? null
+                : (V) values[index];
+    }
+
+    public void put(long key, V value) {
+        var index = find(key);
+        if (index >= 0) {
+            values[index] = value;
+            return;
+        }
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        insert(key, value);
+        size++;
+    }
+
+    @SuppressWarnings("unchecked")
+    public @Nullable V remove(long key) {
+        var index = find(key);
+        if (index < 0) {
+            return null;
+        }
+        var removed = (V) values[index];
+        used[index] = false;
+        values[index] = null;
+        size--;
+        // перекладываем хвост кластера, чтобы пробирование не обрывалось на дыре
+        var next = (index + 1) & (keys.length - 1);
+        while (used[next]) {
+            var movedKey = keys[next];
+            var movedValue = values[next];
+            used[next] = false;
+            values[next] = null;
+            insert(movedKey, movedValue);
+            next = (next + 1) & (keys.length - 1);
+        }
+        return removed;
+    }
+
+    /**
+     * Удалить записи, ключи которых удовлетворяют условию.
+     *
+     * @param condition условие удаления
+     */
+    public void removeKeysIf(LongPredicate condition) {
+        var toRemove = new long[size];
+        var count = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i] && condition.test(keys[i])) {
+                toRemove[count++] = keys[i];
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            remove(toRemove[i]);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int find(long key) {
+        var mask = keys.length - 1;
+        var index = hash(key) & mask;
+        while (used[index]) {
+            if (keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void insert(long key, @Nullable Object value) {
+        var mask = keys.length - 1;
+        var index = hash(key) & mask;
+        while (used[index]) {
+            index = (index + 1) & mask;
+        }
+        used[index] = true;
+        keys[index] = key;
+        values[index] = value;
+    }
+
+    private void resize(int capacity) {
+        var oldKeys = keys;
+        var oldValues = values;
+        var oldUsed = used;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        used = new boolean[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                insert(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        var h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,38 @@
+package jvmram.model.util;
+
+import java.time.Instant;
+
+/**
+ * Монотонные метки времени в наносекундах от эпохи.
+ * Настенные часы читаются один раз при загрузке класса, дальше время отсчитывается по {@link System#nanoTime()}:
+ * получение метки не выделяет память, а перевод системных часов не ломает порядок точек.
+ */
+public final class WallClock {
+
+    private static final long ANCHOR_EPOCH_NANOS;
+    private static final long ANCHOR_NANO_TIME;
+
+    static {
+        var now = Instant.now();
+        ANCHOR_NANO_TIME = System.nanoTime();
+        ANCHOR_EPOCH_NANOS = toEpochNanos(now);
+    }
+
+    /**
+     * @return текущий момент в наносекундах от эпохи
+     */
+    public static long nowEpochNanos() {
+        return ANCHOR_EPOCH_NANOS + (System.nanoTime() - ANCHOR_NANO_TIME);
+    }
+
+    public static long toEpochNanos(Instant moment) {
+        return moment.getEpochSecond() * 1_000_000_000L + moment.getNano();
+    }
+
+    public static Instant toInstant(long epochNanos) {
+        return Instant.ofEpochSecond(0, epochNanos);
+    }
+
+    private WallClock() {
+    }
+}
@@ -1,6 +1,7 @@
 module jvmram.model {
     requires org.slf4j;
     requires java.desktop;
+    requires static org.jspecify;
 
     exports jvmram.model.metrics;
     exports jvmram.model.graph;
@@ -1,3 +1,4 @@
+use std::collections::BTreeMap;
 use std::sync::Arc;
 use tauri::{http::Uri, State};
 use tokio::sync::OnceCell;
@@ -109,6 +110,9 @@ fn create_grpc_client() -> AppBackendClient<Channel> {
 struct AppState {
     client: OnceCell<AppBackendClient<Channel>>,
     backend_process: std::sync::Mutex<Option<std::process::Child>>,
+    // Бэкенд присылает весь список только первым сообщением потока, и фронтенд может его пропустить,
+    // поэтому список JVM собирается здесь и переотправляется по запросу
+    jvm_processes: std::sync::Mutex<BTreeMap<i64, Jmvram::ProcInfo>>,
 }
 
 impl AppState {
@@ -116,6 +120,7 @@ impl AppState {
         Self {
             client: OnceCell::new(),
             backend_process: std::sync::Mutex::new(None),
+            jvm_processes: std::sync::Mutex::new(BTreeMap::new()),
         }
     }
 
@@ -274,11 +279,38 @@ async fn try_listen_jvm_processes(
     let mut stream = response.into_inner();
     
     while let Some(response) = stream.message().await? {
+        // Отправка под блокировкой: изменения не обгонят снимок из request_jvm_processes_snapshot
+        let mut processes = state.jvm_processes.lock().unwrap();
+        if response.snapshot {
+            processes.clear();
+        }
+        for pid in &response.removed_pids {
+            processes.remove(pid);
+        }
+        for info in &response.infos {
+            processes.insert(info.pid, info.clone());
+        }
         app.emit("available-jvm-processes-updated", &response).unwrap();
     }
     Ok(())
 }
 
+/// Переотправить весь известный список JVM событием available-jvm-processes-updated.
+/// Фронтенд вызывает это после подписки, чтобы не зависеть от того, успел ли он к первому сообщению потока.
+#[tauri::command]
+fn request_jvm_processes_snapshot(
+    app: AppHandle,
+    state: State<'_, Arc<AppState>>,
+) {
+    let processes = state.jvm_processes.lock().unwrap();
+    let response = Jmvram::JvmProcessListResponse {
+        infos: processes.values().cloned().collect(),
+        snapshot: true,
+        removed_pids: Vec::new(),
+    };
+    app.emit("available-jvm-processes-updated", &response).unwrap();
+}
+
 async fn listen_graph_queues(
     app: AppHandle,
     state: Arc<AppState>,
@@ -359,6 +391,7 @@ pub fn run() {
             set_invisible,
             set_following_pids,
             trigger_gc,
+            request_jvm_processes_snapshot,
         ])
         .on_window_event(|_window, event| {
             if let tauri::WindowEvent::CloseRequested { .. } = event {
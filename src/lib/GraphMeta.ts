@@ -15,4 +15,36 @@ export const graphMetaMap: Record<MetricType, GraphMeta> = {
   [MetricType.HEAP_COMMITTED]: { color_light: "cyan", color_dark: "cyan" },
   [MetricType.NMT_USED]: { color_light: "rgb(128, 0, 255)", color_dark: "rgb(128, 0, 255)" },
   [MetricType.NMT_COMMITTED]: { color_light: "rgb(32, 42, 69)", color_dark: "rgb(0, 155, 255)" },
+  [MetricType.UNEXPLAINED_RSS]: { color_light: "rgb(200, 100, 0)", color_dark: "rgb(255, 150, 50)" },
+  [MetricType.UNEXPLAINED_PSS]: { color_light: "rgb(120, 80, 0)", color_dark: "rgb(220, 180, 60)" },
+  [MetricType.CGROUP_CURRENT]: { color_light: "rgb(200, 0, 100)", color_dark: "rgb(255, 60, 150)" },
+  [MetricType.CGROUP_MAX]: { color_light: "rgb(90, 90, 90)", color_dark: "rgb(200, 200, 200)" },
+  [MetricType.CGROUP_ANON]: { color_light: "rgb(150, 0, 0)", color_dark: "rgb(255, 120, 120)" },
+  [MetricType.CGROUP_FILE]: { color_light: "rgb(0, 120, 120)", color_dark: "rgb(80, 220, 220)" },
+  [MetricType.CGROUP_KERNEL]: { color_light: "rgb(100, 60, 150)", color_dark: "rgb(180, 140, 255)" },
+  [MetricType.CGROUP_SOCK]: { color_light: "rgb(0, 100, 0)", color_dark: "rgb(120, 220, 120)" },
+  [MetricType.CGROUP_SHMEM]: { color_light: "rgb(150, 120, 0)", color_dark: "rgb(240, 210, 80)" },
+  [MetricType.HOST_MEM_AVAILABLE]: { color_light: "rgb(0, 130, 0)", color_dark: "rgb(90, 230, 90)" },
+  [MetricType.HOST_CACHED]: { color_light: "rgb(0, 90, 160)", color_dark: "rgb(100, 180, 255)" },
+  [MetricType.HOST_DIRTY]: { color_light: "rgb(160, 90, 0)", color_dark: "rgb(255, 180, 90)" },
+  [MetricType.HOST_ANON_HUGE_PAGES]: { color_light: "rgb(110, 0, 110)", color_dark: "rgb(220, 120, 220)" },
+  [MetricType.HOST_PSI_SOME_AVG10]: { color_light: "rgb(200, 0, 0)", color_dark: "rgb(255, 90, 90)" },
+  [MetricType.HOST_PSI_FULL_AVG10]: { color_light: "rgb(120, 0, 0)", color_dark: "rgb(255, 40, 40)" },
+  [MetricType.HOST_PSI_SOME_TOTAL]: { color_light: "rgb(160, 60, 60)", color_dark: "rgb(240, 140, 140)" },
+  [MetricType.HOST_PSI_FULL_TOTAL]: { color_light: "rgb(100, 30, 30)", color_dark: "rgb(220, 100, 100)" },
+  [MetricType.RSS_ANON]: { color_light: "rgb(170, 40, 0)", color_dark: "rgb(255, 140, 100)" },
+  [MetricType.RSS_FILE]: { color_light: "rgb(0, 110, 90)", color_dark: "rgb(90, 210, 180)" },
+  [MetricType.RSS_SHMEM]: { color_light: "rgb(130, 110, 0)", color_dark: "rgb(230, 210, 90)" },
+  [MetricType.RSS_PEAK]: { color_light: "rgb(60, 60, 160)", color_dark: "rgb(150, 150, 255)" },
+  [MetricType.SWAP]: { color_light: "rgb(180, 0, 140)", color_dark: "rgb(255, 110, 220)" },
+  [MetricType.MINOR_FAULT_RATE]: { color_light: "rgb(80, 80, 0)", color_dark: "rgb(200, 200, 110)" },
+  [MetricType.MAJOR_FAULT_RATE]: { color_light: "rgb(140, 0, 40)", color_dark: "rgb(255, 80, 130)" },
+  [MetricType.THREADS]: { color_light: "rgb(70, 70, 70)", color_dark: "rgb(190, 190, 190)" },
+  [MetricType.JAVA_THREADS]: { color_light: "rgb(0, 80, 140)", color_dark: "rgb(110, 170, 240)" },
+  [MetricType.DAEMON_THREADS]: { color_light: "rgb(90, 130, 170)", color_dark: "rgb(160, 200, 240)" },
+  [MetricType.THREAD_STACKS]: { color_light: "rgb(190, 100, 0)", color_dark: "rgb(255, 170, 60)" },
+  [MetricType.ALLOCATION_RATE]: { color_light: "rgb(0, 140, 60)", color_dark: "rgb(100, 240, 150)" },
+  [MetricType.GC_TIME_SHARE]: { color_light: "rgb(150, 50, 100)", color_dark: "rgb(240, 130, 190)" },
+  [MetricType.PHYSICAL_MEMORY_USED]: { color_light: "rgb(40, 100, 40)", color_dark: "rgb(140, 210, 140)" },
+  [MetricType.NATIVE_MEMORY_TRACKED]: { color_light: "rgb(60, 0, 160)", color_dark: "rgb(170, 120, 255)" },
 };
\ No newline at end of file
@@ -1,3 +1,5 @@
+import type { MetricUnit } from "./graph";
+
 /** Собственный enum для типов метрик (без UNRECOGNIZED) */
 export enum MetricType {
   RSS = 0,
@@ -9,6 +11,59 @@ export enum MetricType {
   HEAP_COMMITTED = 6,
   NMT_USED = 7,
   NMT_COMMITTED = 8,
+  UNEXPLAINED_RSS = 9,
+  UNEXPLAINED_PSS = 10,
+  CGROUP_CURRENT = 11,
+  CGROUP_MAX = 12,
+  CGROUP_ANON = 13,
+  CGROUP_FILE = 14,
+  CGROUP_KERNEL = 15,
+  CGROUP_SOCK = 16,
+  CGROUP_SHMEM = 17,
+  HOST_MEM_AVAILABLE = 18,
+  HOST_CACHED = 19,
+  HOST_DIRTY = 20,
+  HOST_ANON_HUGE_PAGES = 21,
+  HOST_PSI_SOME_AVG10 = 22,
+  HOST_PSI_FULL_AVG10 = 23,
+  HOST_PSI_SOME_TOTAL = 24,
+  HOST_PSI_FULL_TOTAL = 25,
+  RSS_ANON = 26,
+  RSS_FILE = 27,
+  RSS_SHMEM = 28,
+  RSS_PEAK = 29,
+  SWAP = 30,
+  MINOR_FAULT_RATE = 31,
+  MAJOR_FAULT_RATE = 32,
+  THREADS = 33,
+  JAVA_THREADS = 34,
+  DAEMON_THREADS = 35,
+  THREAD_STACKS = 36,
+  ALLOCATION_RATE = 37,
+  GC_TIME_SHARE = 38,
+  PHYSICAL_MEMORY_USED = 39,
+  NATIVE_MEMORY_TRACKED = 40,
+}
+
+/**
+ * Единицы измерения метрик не в байтах, как в MetricType.getUnit() бэкенда; остальные метрики в байтах
+ */
+export const metricUnits: Partial<Record<MetricType, MetricUnit>> = {
+  [MetricType.HOST_PSI_SOME_AVG10]: "hundredthsOfPercent",
+  [MetricType.HOST_PSI_FULL_AVG10]: "hundredthsOfPercent",
+  [MetricType.HOST_PSI_SOME_TOTAL]: "microseconds",
+  [MetricType.HOST_PSI_FULL_TOTAL]: "microseconds",
+  [MetricType.MINOR_FAULT_RATE]: "perSecond",
+  [MetricType.MAJOR_FAULT_RATE]: "perSecond",
+  [MetricType.THREADS]: "count",
+  [MetricType.JAVA_THREADS]: "count",
+  [MetricType.DAEMON_THREADS]: "count",
+  [MetricType.ALLOCATION_RATE]: "bytesPerSecond",
+  [MetricType.GC_TIME_SHARE]: "hundredthsOfPercent",
+};
+
+function unitOf(metricType: MetricType): MetricUnit {
+  return metricUnits[metricType] ?? "bytes";
 }
 
 /** Лимит точек на каждую метрику для каждого процесса */
@@ -21,7 +76,9 @@ export interface GraphKey {
 
 export interface GraphPoint {
   moment: number;
-  kb: number;
+  /** значение в единицах метрики; байты — в килобайтах */
+  value: number;
+  /** значение, как его прислал бэкенд */
   originalBytes: bigint;
 }
 
@@ -42,8 +99,8 @@ interface ProcessDatum {
 export interface ProcessMinMax {
   minMoment: number;
   maxMoment: number;
-  // до 2 терабайт
-  maxKb: number;
+  /** максимум значений по каждой единице измерения; байты до 2 терабайт */
+  maxValues: Map<MetricUnit, number>;
 }
 
 export class GraphStore {
@@ -89,7 +146,7 @@ export class GraphStore {
       const minMax = {
         minMoment: Number.MAX_SAFE_INTEGER,
         maxMoment: Number.MIN_SAFE_INTEGER,
-        maxKb: -1,
+        maxValues: new Map<MetricUnit, number>(),
       };
 
       processDatum = {
@@ -114,11 +171,13 @@ export class GraphStore {
       return;
     }
     timestamps!.add(moment);
-    const kbBigInt = bytes / 1024n;
-    // работает до 2 терабайт
-    const kb = Math.round(Number(kbBigInt));
+    const unit = unitOf(metricType);
+    // байты хранятся в килобайтах, работает до 2 терабайт
+    const value = unit === "bytes" || unit === "bytesPerSecond"
+      ? Math.round(Number(bytes / 1024n))
+      : Number(bytes);
 
-    points.push({ moment: moment, kb: kb, originalBytes: bytes });
+    points.push({ moment: moment, value: value, originalBytes: bytes });
 
     let minMax = processDatum.minMax;
     // Обновляем min/max по времени для процесса
@@ -129,28 +188,28 @@ export class GraphStore {
       minMax.maxMoment = moment;
     }
 
-    // Обновляем max bytes для процесса
-    if (minMax.maxKb < kb) {
-      minMax.maxKb = kb;
+    // Обновляем максимум единицы измерения для процесса
+    if ((minMax.maxValues.get(unit) ?? -1) < value) {
+      minMax.maxValues.set(unit, value);
     }
 
     // Trim если превышен лимит
-    this.trimIfNeeded(processDatum, points, timestamps!);
+    this.trimIfNeeded(processDatum, unit, points, timestamps!);
   }
 
-  private trimIfNeeded(processDatum: ProcessDatum, points: GraphPoint[], timestamps: Set<number>): void {
+  private trimIfNeeded(processDatum: ProcessDatum, unit: MetricUnit, points: GraphPoint[], timestamps: Set<number>): void {
     const toRemoveCount = points.length - SIZE_LIMIT;
     if (toRemoveCount <= 0) {
       return;
     }
 
     // Array хранит элементы в порядке вставки — первые элементы самые старые
-    let maxRemovedKb = -1;
+    let maxRemovedValue = -1;
     let removed = points.splice(0, toRemoveCount);
     removed.forEach(point => {
       timestamps.delete(point.moment);
-      if (maxRemovedKb < point.kb) {
-        maxRemovedKb = point.kb;
+      if (maxRemovedValue < point.value) {
+        maxRemovedValue = point.value;
       }
     });
 
@@ -159,9 +218,9 @@ export class GraphStore {
     // Пересчитываем minMoment для всего процесса
     this.recalculateMinMoment(processDatum, firstMomentOfTrimmedPoints);
 
-    // Пересчитываем maxBytes если удалённые точки содержали максимум
-    if (processDatum.minMax.maxKb <= maxRemovedKb) {
-      this.recalculateMaxBytes(processDatum);
+    // Пересчитываем максимум единицы измерения, если удалённые точки содержали его
+    if ((processDatum.minMax.maxValues.get(unit) ?? -1) <= maxRemovedValue) {
+      this.recalculateMaxValue(processDatum, unit);
     }
   }
 
@@ -177,16 +236,19 @@ export class GraphStore {
     }
   }
 
-  private recalculateMaxBytes(processData: ProcessDatum): void {
-    let maxKb = -1;
-    for (const points of processData.points.values()) {
+  private recalculateMaxValue(processData: ProcessDatum, unit: MetricUnit): void {
+    let maxValue = -1;
+    for (const [metricType, points] of processData.points.entries()) {
+      if (unitOf(metricType) !== unit) {
+        continue;
+      }
       for (const point of points) {
-        if (maxKb < point.kb) {
-          maxKb = point.kb;
+        if (maxValue < point.value) {
+          maxValue = point.value;
         }
       }
     }
-    processData.minMax.maxKb = maxKb;
+    processData.minMax.maxValues.set(unit, maxValue);
   }
 }
 
@@ -5,7 +5,8 @@ import {
     ApplicableMetricsResponse,
     type GraphQueues,
     type JvmProcessListResponse,
-    Pid
+    Pid,
+    Scope
 } from "$lib/generated/proto/protocol";
 import type { Timestamp } from "$lib/generated/google/protobuf/timestamp";
 import { invoke } from "@tauri-apps/api/core";
@@ -75,7 +76,11 @@ export async function getApplicableMetrics() {
         "get_applicable_metrics",
     );
     console.log("get applicable metrics response", response);
-    return response.types.map(fromProtoMetricType);
+    return {
+        types: response.types.map(fromProtoMetricType),
+        // метрики не в байтах бэкенд по умолчанию не опрашивает
+        visible: (response.visible_types ?? []).map(fromProtoMetricType),
+    };
 }
 
 function covertMoment(moment: Timestamp): number {
@@ -88,6 +93,10 @@ export async function listenGraphQueues(
 ) {
 
     const unlisten = await listen<GraphQueues>("graph-queues-updated", (event) => {
+        // Суммы по группам процессов и графики хоста пока не отображаются
+        if ((event.payload.scope ?? Scope.SCOPE_PROCESS) !== Scope.SCOPE_PROCESS) {
+            return;
+        }
         const pid = BigInt(event.payload.pid);
         event.payload.queues.forEach((queue) => {
             const metricType = fromProtoMetricType(queue.metric_type);
@@ -107,22 +116,25 @@ export async function listenGraphQueues(
 
 export async function listenJvmProcessList(listener: (procInfoMap: Map<bigint, ProcInfo>) => void) {
 
+    // Бэкенд присылает весь список только первым сообщением, дальше только изменения
+    const knownProcesses = new Map<bigint, ProcInfo>();
+
     const unlisten = await listen<JvmProcessListResponse>("available-jvm-processes-updated", (event) => {
-        const sortedProcesses = [...event.payload.infos].sort((a, b) => {
-            const pidA = typeof a.pid === "bigint" ? a.pid : BigInt(a.pid);
-            const pidB = typeof b.pid === "bigint" ? b.pid : BigInt(b.pid);
+        if (event.payload.snapshot) {
+            knownProcesses.clear();
+        }
+        (event.payload.removed_pids ?? []).forEach((pid) => knownProcesses.delete(BigInt(pid)));
+        event.payload.infos.forEach((proc) => knownProcesses.set(BigInt(proc.pid), proc));
+
+        const sortedProcesses = [...knownProcesses.entries()].sort(([pidA], [pidB]) => {
             if (pidA < pidB) return -1;
             if (pidA > pidB) return 1;
             return 0;
         });
-        const availableJvmProcesses = new Map(
-            sortedProcesses.map((proc) => {
-                const pid = BigInt(proc.pid);
-                return [pid, proc];
-            }),
-        );
-        listener(availableJvmProcesses)
+        listener(new Map(sortedProcesses))
     });
+    // Первое сообщение потока могло прийти до подписки: просим весь список ещё раз
+    await invoke("request_jvm_processes_snapshot");
 
     return unlisten;
 }
\ No newline at end of file
@@ -9,6 +9,8 @@ import type {
     GridLine,
     MetricColorMap,
     MetricNameMap,
+    MetricUnit,
+    MetricUnitMap,
     GraphData,
     ProcessMinMax,
 } from './types';
@@ -26,15 +28,19 @@ import {
     MAX_HORIZONTAL_GRID_LINES,
 } from './constants';
 
-import { formatTimeLabel, formatBytesLabel } from './formatters';
+import { formatTimeLabel, formatBytesLabel, formatValueLabel } from './formatters';
 
 /**
- * Рендерер графиков в SVG
+ * Рендерер графиков в SVG.
+ * Ось ординат подписана в байтах. Метрики в других единицах (потоки, отказы в секунду, проценты)
+ * рисуются пунктиром, каждая единица в своём масштабе: её максимум приходится на верх графика,
+ * а значения в этих единицах видны в рамке текущих значений.
  */
 export class GraphRenderer {
     private config: GraphConfigResolved;
     private metricColors: MetricColorMap;
     private metricNames: MetricNameMap;
+    private metricUnits: MetricUnitMap;
 
     // Кэш для вертикальных линий
     private cachedVerticalLines: GridLine[] = [];
@@ -51,6 +57,7 @@ export class GraphRenderer {
         config: GraphConfig,
         metricColors: MetricColorMap,
         metricNames: MetricNameMap,
+        metricUnits: MetricUnitMap,
     ) {
         this.config = {
             containerWidth: config.containerWidth,
@@ -65,6 +72,16 @@ export class GraphRenderer {
         };
         this.metricColors = metricColors;
         this.metricNames = metricNames;
+        this.metricUnits = metricUnits;
+    }
+
+    private unitOf(metricType: number): MetricUnit {
+        return this.metricUnits[metricType] ?? 'bytes';
+    }
+
+    /** Максимум килобайт: по нему подписана ось ординат */
+    private maxKb(minMax: ProcessMinMax): number {
+        return minMax.maxValues.get('bytes') ?? 0;
     }
 
     /**
@@ -121,7 +138,9 @@ export class GraphRenderer {
             minTimeRange
         );
         const dataWidth = timeRange;
-        const dataHeight = minMax.maxKb ?? 1;
+        // без байтовых метрик высота условная: остальные метрики масштабируются к ней
+        const maxKb = this.maxKb(minMax);
+        const dataHeight = maxKb > 0 ? maxKb : 1;
 
         return {
             translateX: paddingX + leftLabelSpace,
@@ -185,7 +204,7 @@ export class GraphRenderer {
      * Вычислить горизонтальные линии сетки (ось памяти)
      */
     getHorizontalGridLines(minMax: ProcessMinMax): GridLine[] {
-        const { maxKb } = minMax;
+        const maxKb = this.maxKb(minMax);
 
         // Выбираем интервал
         let selectedInterval = GRID_INTERVALS_KB[GRID_INTERVALS_KB.length - 1];
@@ -273,6 +292,9 @@ export class GraphRenderer {
         stroke-width: 0.7;
         vector-effect: non-scaling-stroke;
       }
+      .graph-path-own-scale {
+        stroke-dasharray: 4 3;
+      }
       .generic-frame {
         fill: none;
         stroke: ${frameColor};
@@ -333,8 +355,8 @@ export class GraphRenderer {
         for (const graph of graphs) {
             if (graph.points.length === 0) continue;
             const lastPoint = graph.points[graph.points.length - 1];
-            const y = lastPoint.kb;
-            const label = formatBytesLabel(y, 2);
+            const y = lastPoint.value;
+            const label = formatValueLabel(y, this.unitOf(graph.metricType), 2);
             const metricType = graph.metricType;
             const metricColorMeta = this.metricColors[metricType];
             const metricColor = metricColorMeta[this.config.prefersDark ? 'color_dark' : 'color_light'];
@@ -369,36 +391,42 @@ export class GraphRenderer {
 
     /**
      * Сгенерировать path для одного графика
+     * @param dataHeight - высота графика в единицах данных (килобайтах)
+     * @param maxValue - значение метрики, приходящееся на верх графика
      */
     renderGraphPath(
         metricType: number,
-        points: Array<{ moment: number; kb: number }>,
+        points: Array<{ moment: number; value: number }>,
         minMoment: number,
-        maxKb: number,
+        dataHeight: number,
+        maxValue: number,
     ): string {
         if (points.length === 0) return '';
 
         const metricTypeName = this.metricNames[metricType] || `Metric${metricType}`;
+        const scale = maxValue > 0 ? dataHeight / maxValue : 0;
         const d = points
             .map((point, i) => {
                 const x = point.moment - minMoment;
-                const y = maxKb - point.kb;
+                const y = dataHeight - point.value * scale;
                 return `${i === 0 ? 'M' : 'L'} ${x},${y}`;
             })
             .join(' ');
 
-        return /*svg*/`<path class="graph-path graph-path-${metricTypeName}" d="${d}"/>`;
+        const ownScale = this.unitOf(metricType) === 'bytes' ? '' : ' graph-path-own-scale';
+        return /*svg*/`<path class="graph-path graph-path-${metricTypeName}${ownScale}" d="${d}"/>`;
     }
 
     /**
      * Сгенерировать все пути графиков
      */
-    renderGraphPaths(minMax: ProcessMinMax, graphs: Iterable<GraphData>): string {
-        const { minMoment, maxKb } = minMax;
+    renderGraphPaths(minMax: ProcessMinMax, graphs: Iterable<GraphData>, dataHeight: number): string {
+        const { minMoment, maxValues } = minMax;
         const paths: string[] = [];
 
         for (const graph of graphs) {
-            const path = this.renderGraphPath(graph.metricType, graph.points, minMoment, maxKb);
+            const maxValue = maxValues.get(this.unitOf(graph.metricType)) ?? 0;
+            const path = this.renderGraphPath(graph.metricType, graph.points, minMoment, dataHeight, maxValue);
             if (path) paths.push(path);
         }
 
@@ -450,7 +478,7 @@ export class GraphRenderer {
         const graphFrame = this.renderGraphFrame(transform);
         const vGridLines = this.renderVerticalGridLines(verticalLines, transform.dataHeight);
         const hGridLines = this.renderHorizontalGridLines(horizontalLines, transform.dataWidth);
-        const graphPaths = this.renderGraphPaths(minMax, graphs);
+        const graphPaths = this.renderGraphPaths(minMax, graphs, transform.dataHeight);
         const xLabels = this.renderXLabels(verticalLines, transform);
         const yLabels = this.renderYLabels(horizontalLines, transform);
         const currentValueFrame = this.renderCurrentValueFrame(transform);
@@ -2,6 +2,8 @@
  * Функции форматирования для меток осей графика
  */
 
+import type { MetricUnit } from './types';
+
 /**
  * Форматирует время для меток абсциссы (относительно начала графика)
  * @param tick - абсолютное время в десятых долях секунды
@@ -64,3 +66,26 @@ export function formatBytesLabel(kb: number, precision: number = 1): string {
     return `${fixedPrecision(kb, precision)} KB`;
   }
 }
+
+/**
+ * Форматирует значение метрики по её единице измерения
+ * @param value - значение; для байт — в килобайтах
+ * @param unit - единица измерения метрики
+ * @returns отформатированная строка с единицами измерения
+ */
+export function formatValueLabel(value: number, unit: MetricUnit, precision: number = 1): string {
+  switch (unit) {
+    case 'bytes':
+      return formatBytesLabel(value, precision);
+    case 'bytesPerSecond':
+      return `${formatBytesLabel(value, precision)}/s`;
+    case 'count':
+      return `${Math.round(value)}`;
+    case 'perSecond':
+      return `${fixedPrecision(value, precision)}/s`;
+    case 'hundredthsOfPercent':
+      return `${fixedPrecision(value / 100, precision)}%`;
+    case 'microseconds':
+      return `${fixedPrecision(value / 1_000_000, precision)} s`;
+  }
+}
@@ -10,12 +10,13 @@
  *   { containerWidth: 800, containerHeight: 400, prefersDark: true },
  *   metricColors,
  *   metricNames,
+ *   metricUnits,
  * );
  * 
- * const svgString = renderer.renderToString({
- *   graphs: [...],
- *   processMinMax: { minMoment: 0, maxMoment: 1200, maxKb: 1024000 },
- * });
+ * const svgString = renderer.renderToString(
+ *   { minMoment: 0, maxMoment: 1200, maxValues: new Map([['bytes', 1024000]]) },
+ *   graphs,
+ * );
  * ```
  */
 
@@ -29,6 +30,8 @@ export type {
   GridLine,
   MetricColorMap,
   MetricNameMap,
+  MetricUnit,
+  MetricUnitMap,
   ProcessMinMax,
 } from './types';
 export {
@@ -41,4 +44,4 @@ export {
   MAX_VERTICAL_GRID_LINES,
   MAX_HORIZONTAL_GRID_LINES,
 } from './constants';
-export { formatTimeLabel, formatBytesLabel } from './formatters';
+export { formatTimeLabel, formatBytesLabel, formatValueLabel } from './formatters';
@@ -2,10 +2,23 @@
  * Типы для библиотеки рендеринга графиков SVG
  */
 
+/**
+ * Единица измерения значений метрики. Байты хранятся в килобайтах,
+ * остальные значения — как пришли от бэкенда (сотые доли процента, микросекунды и т.д.)
+ */
+export type MetricUnit =
+    | 'bytes'
+    | 'bytesPerSecond'
+    | 'count'
+    | 'perSecond'
+    | 'hundredthsOfPercent'
+    | 'microseconds';
+
 /** Точка на графике */
 export interface GraphPoint {
     moment: number;
-    kb: number;
+    /** значение в единицах метрики; для байт — в килобайтах */
+    value: number;
 }
 
 /** Данные одного графика (одной метрики) */
@@ -18,7 +31,8 @@ export interface GraphData {
 export interface ProcessMinMax {
     minMoment: number;
     maxMoment: number;
-    maxKb: number;
+    /** максимум значений по каждой единице измерения; ось ординат подписана в байтах */
+    maxValues: Map<MetricUnit, number>;
 }
 
 /** Конфигурация рендерера */
@@ -76,3 +90,6 @@ export type MetricColorMap = Record<number, MetricColorMeta>;
 
 /** Карта имён метрик */
 export type MetricNameMap = Record<number, string>;
+
+/** Карта единиц измерения метрик; метрики, которых в ней нет, измеряются в байтах */
+export type MetricUnitMap = Partial<Record<number, MetricUnit>>;